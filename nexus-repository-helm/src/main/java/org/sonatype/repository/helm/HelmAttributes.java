@@ -35,7 +35,7 @@ public class HelmAttributes
     attributesEnumMap = new EnumMap<>(HelmProperties.class);
     attributesMap.forEach((key, value) -> {
       Optional<HelmProperties> propertyOpt = HelmProperties.findByPropertyName(key);
-      if (value != null && propertyOpt.isPresent()) {
+      if (value != null && propertyOpt.isPresent() && propertyOpt.get().isChartField()) {
         attributesEnumMap.put(propertyOpt.get(), value);
       }
     });
@@ -74,6 +74,47 @@ public class HelmAttributes
     return getValue(HelmProperties.SOURCES, List.class);
   }
 
+  public String getHome() {
+    return getValue(HelmProperties.HOME, String.class);
+  }
+
+  public String getEngine() {
+    return getValue(HelmProperties.ENGINE, String.class);
+  }
+
+  public List<String> getKeywords() {
+    return getValue(HelmProperties.KEYWORDS, List.class);
+  }
+
+  public String getKubeVersion() {
+    return getValue(HelmProperties.KUBE_VERSION, String.class);
+  }
+
+  public String getType() {
+    return getValue(HelmProperties.TYPE, String.class);
+  }
+
+  public Boolean getDeprecated() {
+    Object deprecated = attributesEnumMap.get(HelmProperties.DEPRECATED);
+    return deprecated == null ? null : Boolean.valueOf(deprecated.toString());
+  }
+
+  public Map<String, String> getAnnotations() {
+    return getValue(HelmProperties.ANNOTATIONS, Map.class);
+  }
+
+  public List<Map<String, Object>> getDependencies() {
+    return getValue(HelmProperties.DEPENDENCIES, List.class);
+  }
+
+  public String getApiVersion() {
+    return getValue(HelmProperties.API_VERSION, String.class);
+  }
+
+  public void setDependencies(final List<Map<String, Object>> dependencies) {
+    attributesEnumMap.put(HelmProperties.DEPENDENCIES, dependencies);
+  }
+
   public void setName(final String name) {
     attributesEnumMap.put(HelmProperties.NAME, name);
   }
@@ -0,0 +1,90 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.api;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * Charts to copy from one Helm repository into a Helm hosted repository.
+ *
+ * @since 1.0.11
+ */
+public class HelmChartPromotionRequest
+{
+  @NotEmpty
+  private final String source;
+
+  @NotEmpty
+  private final String target;
+
+  @NotEmpty
+  @Valid
+  private final List<Chart> charts;
+
+  @JsonCreator
+  public HelmChartPromotionRequest(
+      @JsonProperty("source") final String source,
+      @JsonProperty("target") final String target,
+      @JsonProperty("charts") final List<Chart> charts)
+  {
+    this.source = source;
+    this.target = target;
+    this.charts = charts;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public List<Chart> getCharts() {
+    return charts;
+  }
+
+  public static class Chart
+  {
+    @NotEmpty
+    private final String name;
+
+    @NotEmpty
+    private final String version;
+
+    @JsonCreator
+    public Chart(@JsonProperty("name") final String name, @JsonProperty("version") final String version) {
+      this.name = name;
+      this.version = version;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    @Override
+    public String toString() {
+      return name + "-" + version;
+    }
+  }
+}
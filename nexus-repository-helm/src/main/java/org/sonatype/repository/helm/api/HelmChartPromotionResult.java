@@ -0,0 +1,42 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a chart promotion, listing charts as {@code name-version}.
+ *
+ * @since 1.0.11
+ */
+public class HelmChartPromotionResult
+{
+  private final List<String> promoted = new ArrayList<>();
+
+  private final List<String> missing = new ArrayList<>();
+
+  private final List<String> failed = new ArrayList<>();
+
+  public List<String> getPromoted() {
+    return promoted;
+  }
+
+  public List<String> getMissing() {
+    return missing;
+  }
+
+  public List<String> getFailed() {
+    return failed;
+  }
+}
@@ -40,9 +40,13 @@ import org.sonatype.nexus.repository.view.matchers.ActionMatcher
 import org.sonatype.nexus.repository.view.matchers.LiteralMatcher
 import org.sonatype.nexus.repository.view.matchers.logic.LogicMatchers
 import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher
+import org.sonatype.repository.helm.internal.inspect.ChartFileHandler
 import org.sonatype.repository.helm.internal.orient.HelmFacet
 import org.sonatype.repository.helm.HelmRestoreFacet
 import org.sonatype.repository.helm.internal.orient.HelmComponentMaintenanceFacet
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacetImpl
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexHandlers
+import org.sonatype.repository.helm.internal.orient.metadata.IndexDeltaHandler
 import org.sonatype.repository.helm.internal.security.HelmSecurityFacet
 
 import static org.sonatype.nexus.repository.http.HttpMethods.GET
@@ -110,6 +114,18 @@ abstract class HelmRecipeSupport
   @Inject
   protected Provider<HelmRestoreFacet> helmRestoreFacet
 
+  @Inject
+  protected Provider<ChartIndexFacetImpl> chartIndexFacet
+
+  @Inject
+  ChartIndexHandlers chartIndexHandlers
+
+  @Inject
+  IndexDeltaHandler indexDeltaHandler
+
+  @Inject
+  ChartFileHandler chartFileHandler
+
   @Inject
   FormatHighAvailabilitySupportHandler formatHighAvailabilitySupportHandler
 
@@ -142,6 +158,26 @@ abstract class HelmRecipeSupport
     )
   }
 
+  /**
+   * Matcher for the dependency closure of a chart version, see {@link ChartIndexHandlers#dependencies}.
+   */
+  static Matcher chartDependenciesMatcher() {
+    LogicMatchers.and(
+        new ActionMatcher(GET, HEAD),
+        new TokenMatcher('/-/charts/{name:[^/]+}/{version:[^/]+}/dependencies')
+    )
+  }
+
+  /**
+   * Matcher for resolving a chart version range, see {@link ChartIndexHandlers#resolve}.
+   */
+  static Matcher chartResolveMatcher() {
+    LogicMatchers.and(
+        new ActionMatcher(GET, HEAD),
+        new TokenMatcher('/-/charts/{name:[^/]+}/resolve')
+    )
+  }
+
   /**
    * Matcher for package mapping.
    */
@@ -0,0 +1,92 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cache;
+
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+
+/**
+ * Small files extracted from charts, such as values.yaml, README.md and Chart.yaml, so repeated inspections of a
+ * chart do not inflate its archive again. Files are keyed by the SHA256 of the chart and their path in it, which
+ * makes entries immutable. Files the chart does not contain are remembered as well.
+ *
+ * Only files of at most {@code nexus.helm.chartFileCache.maxFileSize} bytes are cached, and all files together are
+ * bounded by {@code nexus.helm.chartFileCache.maxSize} bytes. The cache is disabled when the size is 0.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartFileCache
+    extends ComponentSupport
+{
+  private final long maxSize;
+
+  private final long maxFileSize;
+
+  private final Cache<String, Optional<byte[]>> files;
+
+  @Inject
+  public ChartFileCache(@Named("${nexus.helm.chartFileCache.maxSize:-33554432}") final long maxSize,
+                        @Named("${nexus.helm.chartFileCache.maxFileSize:-262144}") final long maxFileSize)
+  {
+    this.maxSize = maxSize;
+    this.maxFileSize = Math.min(maxFileSize, Integer.MAX_VALUE);
+    this.files = CacheBuilder.newBuilder()
+        .maximumWeight(Math.max(1, maxSize))
+        .weigher((String key, Optional<byte[]> file) -> key.length() + file.map(content -> content.length).orElse(0))
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * @return true if a file of the given size is small enough to be cached
+   */
+  public boolean isCacheable(final long size) {
+    return isEnabled() && size <= maxFileSize;
+  }
+
+  /**
+   * @return the cached file, empty if the chart is known not to contain it, or null if nothing is cached
+   */
+  @Nullable
+  public Optional<byte[]> get(final HashCode sha256, final String path) { // NOSONAR
+    return isEnabled() ? files.getIfPresent(key(sha256, path)) : null;
+  }
+
+  /**
+   * @param content the file, or null if the chart does not contain it
+   */
+  public void put(final HashCode sha256, final String path, @Nullable final byte[] content) {
+    if (isEnabled() && (content == null || content.length <= maxFileSize)) {
+      files.put(key(sha256, path), Optional.ofNullable(content));
+    }
+  }
+
+  private static String key(final HashCode sha256, final String path) {
+    return sha256 + "/" + path;
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.app.ApplicationDirectories;
+import org.sonatype.nexus.repository.view.Payload;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.HashCode;
+import org.apache.commons.io.FileUtils;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Node-local tier for the most requested proxied charts. Chart bytes are copied once from the blob store to a file in
+ * the temporary directory and memory-mapped, so later requests are served from the page cache without touching the
+ * blob store. Charts are keyed by their SHA256, which makes entries immutable; a changed chart simply gets a new key.
+ *
+ * A chart is only admitted after {@code nexus.helm.hotCache.admitAfter} requests, so one-off downloads don't push out
+ * the hot set, and the total size is bounded by {@code nexus.helm.hotCache.maxSize} bytes. The cache is disabled when
+ * the size is 0, which is the default.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class HotChartCache
+    extends ComponentSupport
+{
+  private static final int MAX_TRACKED_CHARTS = 10_000;
+
+  private final Path directory;
+
+  private final long maxSize;
+
+  private final int admitAfter;
+
+  private final Cache<HashCode, AtomicInteger> requests;
+
+  private final Cache<HashCode, MappedChart> charts;
+
+  @Inject
+  public HotChartCache(final ApplicationDirectories applicationDirectories,
+                       @Named("${nexus.helm.hotCache.maxSize:-0}") final long maxSize,
+                       @Named("${nexus.helm.hotCache.admitAfter:-3}") final int admitAfter)
+  {
+    this(new File(applicationDirectories.getTemporaryDirectory(), "helm-hot-cache").toPath(), maxSize, admitAfter);
+  }
+
+  @VisibleForTesting
+  HotChartCache(final Path directory, final long maxSize, final int admitAfter) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.admitAfter = Math.max(1, admitAfter);
+    this.requests = CacheBuilder.newBuilder()
+        .maximumSize(MAX_TRACKED_CHARTS)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+    this.charts = CacheBuilder.newBuilder()
+        .maximumWeight(Math.max(1, maxSize / 1024))
+        .weigher((HashCode key, MappedChart chart) -> (int) Math.min(Integer.MAX_VALUE, chart.size / 1024 + 1))
+        .removalListener(this::evicted)
+        .build();
+    if (isEnabled()) {
+      // files left behind by a previous run are never referenced again
+      FileUtils.deleteQuietly(directory.toFile());
+    }
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Returns the chart from the local tier, admitting it first if it has now been requested often enough.
+   *
+   * @return a payload served from local disk, or null if the chart should be read from the blob store
+   */
+  @Nullable
+  public Payload get(final HashCode sha256,
+                     final long size,
+                     @Nullable final String contentType,
+                     final Supplier<InputStream> content)
+  {
+    if (!isEnabled()) {
+      return null;
+    }
+    MappedChart chart = charts.getIfPresent(sha256);
+    if (chart == null) {
+      // a single chart may take at most a quarter of the tier, so it cannot flush everything else
+      if (size > maxSize / 4 || countRequest(sha256) < admitAfter) {
+        return null;
+      }
+      try {
+        chart = charts.get(sha256, () -> load(sha256, size, content));
+        requests.invalidate(sha256);
+      }
+      catch (ExecutionException e) {
+        log.warn("Could not cache chart {} locally", sha256, e.getCause());
+        return null;
+      }
+    }
+    return new MappedPayload(chart.buffer, contentType);
+  }
+
+  private int countRequest(final HashCode sha256) {
+    return requests.asMap().computeIfAbsent(sha256, key -> new AtomicInteger()).incrementAndGet();
+  }
+
+  private MappedChart load(final HashCode sha256, final long size, final Supplier<InputStream> content)
+      throws IOException
+  {
+    Files.createDirectories(directory);
+    Path file = directory.resolve(sha256.toString());
+    try (InputStream in = content.get()) {
+      Files.copy(in, file, REPLACE_EXISTING);
+    }
+    try (FileChannel channel = FileChannel.open(file, READ)) {
+      if (channel.size() != size) {
+        Files.deleteIfExists(file);
+        throw new IOException("Expected " + size + " bytes but read " + channel.size());
+      }
+      return new MappedChart(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size);
+    }
+  }
+
+  private void evicted(final RemovalNotification<HashCode, MappedChart> notification) {
+    MappedChart chart = notification.getValue();
+    if (chart != null) {
+      // the mapping stays valid for readers still holding it, only the directory entry goes away
+      FileUtils.deleteQuietly(chart.file.toFile());
+    }
+  }
+
+  private static class MappedChart
+  {
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private final long size;
+
+    MappedChart(final Path file, final MappedByteBuffer buffer, final long size) {
+      this.file = file;
+      this.buffer = buffer;
+      this.size = size;
+    }
+  }
+
+  private static class MappedPayload
+      implements Payload
+  {
+    private final ByteBuffer buffer;
+
+    private final String contentType;
+
+    MappedPayload(final ByteBuffer buffer, @Nullable final String contentType) {
+      this.buffer = buffer;
+      this.contentType = contentType;
+    }
+
+    @Override
+    public InputStream openInputStream() {
+      return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public long getSize() {
+      return buffer.capacity();
+    }
+
+    @Nullable
+    @Override
+    public String getContentType() {
+      return contentType;
+    }
+  }
+
+  private static class ByteBufferInputStream
+      extends InputStream
+  {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public long skip(final long n) {
+      int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
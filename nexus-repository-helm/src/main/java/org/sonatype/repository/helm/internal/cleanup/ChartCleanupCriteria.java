@@ -0,0 +1,149 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cleanup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.internal.util.SemanticVersion;
+
+import org.joda.time.DateTime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Selects the versions of one chart to remove. Like the criteria of a cleanup policy, all configured criteria must
+ * match for a version to be removed:
+ * <ul>
+ * <li>keep versions: the version is not among the newest that many versions of the chart, in semantic version
+ * order</li>
+ * <li>prerelease age: the version is a prerelease created more than that many days ago</li>
+ * <li>keep dependencies: no other chart in the repository resolves a dependency to the version</li>
+ * </ul>
+ * Versions which are not valid semantic versions are never removed, nor counted among the versions kept.
+ *
+ * @since 1.0.11
+ */
+public class ChartCleanupCriteria
+{
+  private final int keepVersions;
+
+  private final int prereleaseAgeDays;
+
+  private final boolean keepDependencies;
+
+  /**
+   * @param keepVersions      number of newest versions to keep, or 0 to not select by count
+   * @param prereleaseAgeDays age in days after which prereleases are removed, or 0 to not select by prerelease
+   * @param keepDependencies  whether versions other charts depend on are kept
+   */
+  public ChartCleanupCriteria(final int keepVersions, final int prereleaseAgeDays, final boolean keepDependencies) {
+    checkArgument(keepVersions >= 0 && prereleaseAgeDays >= 0, "Criteria must not be negative");
+    checkArgument(keepVersions > 0 || prereleaseAgeDays > 0,
+        "Either a number of versions to keep or a prerelease age is required");
+    this.keepVersions = keepVersions;
+    this.prereleaseAgeDays = prereleaseAgeDays;
+    this.keepDependencies = keepDependencies;
+  }
+
+  /**
+   * @param versions all versions of one chart, in any order
+   * @return the versions to remove
+   */
+  public List<ChartVersion> select(final List<ChartVersion> versions, final DateTime now) {
+    List<ChartVersion> ordered = new ArrayList<>();
+    for (ChartVersion version : versions) {
+      if (version.semanticVersion != null) {
+        ordered.add(version);
+      }
+    }
+    ordered.sort(Comparator.comparing((ChartVersion version) -> version.semanticVersion).reversed());
+
+    DateTime prereleaseCutoff = now.minusDays(prereleaseAgeDays);
+    List<ChartVersion> selected = new ArrayList<>();
+    for (int i = keepVersions; i < ordered.size(); i++) {
+      ChartVersion version = ordered.get(i);
+      if (prereleaseAgeDays > 0 && !(version.semanticVersion.isPrerelease() && version.created != null
+          && version.created.isBefore(prereleaseCutoff))) {
+        continue;
+      }
+      if (keepDependencies && version.dependency) {
+        continue;
+      }
+      selected.add(version);
+    }
+    return selected;
+  }
+
+  public boolean isKeepDependencies() {
+    return keepDependencies;
+  }
+
+  @Override
+  public String toString() {
+    return "keepVersions=" + keepVersions + ", prereleaseAgeDays=" + prereleaseAgeDays + ", keepDependencies=" +
+        keepDependencies;
+  }
+
+  /**
+   * A stored version of a chart.
+   */
+  public static final class ChartVersion
+  {
+    private final Object id;
+
+    private final String version;
+
+    @Nullable
+    private final SemanticVersion semanticVersion;
+
+    @Nullable
+    private final DateTime created;
+
+    private final boolean dependency;
+
+    /**
+     * @param id         identifies the stored version to the caller
+     * @param created    when the chart was stored, if known
+     * @param dependency whether another chart depends on this version
+     */
+    public ChartVersion(final Object id,
+                        final String version,
+                        @Nullable final DateTime created,
+                        final boolean dependency)
+    {
+      this.id = checkNotNull(id);
+      this.version = checkNotNull(version);
+      this.semanticVersion = SemanticVersion.tryParse(version);
+      this.created = created;
+      this.dependency = dependency;
+    }
+
+    public Object getId() {
+      return id;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    @Override
+    public String toString() {
+      return version;
+    }
+  }
+}
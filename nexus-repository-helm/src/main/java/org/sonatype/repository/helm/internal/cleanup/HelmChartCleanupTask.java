@@ -0,0 +1,64 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cleanup;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.RepositoryTaskSupport;
+import org.sonatype.nexus.repository.types.HostedType;
+import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.orient.hosted.ChartCleanupService;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.repository.helm.internal.cleanup.HelmChartCleanupTaskDescriptor.DEFAULT_KEEP_VERSIONS;
+import static org.sonatype.repository.helm.internal.cleanup.HelmChartCleanupTaskDescriptor.KEEP_DEPENDENCIES_FIELD_ID;
+import static org.sonatype.repository.helm.internal.cleanup.HelmChartCleanupTaskDescriptor.KEEP_VERSIONS_FIELD_ID;
+import static org.sonatype.repository.helm.internal.cleanup.HelmChartCleanupTaskDescriptor.PRERELEASE_AGE_FIELD_ID;
+
+/**
+ * Removes old chart versions from Helm hosted repositories, see {@link ChartCleanupCriteria}.
+ *
+ * @since 1.0.11
+ */
+@Named
+public class HelmChartCleanupTask
+    extends RepositoryTaskSupport
+{
+  private final ChartCleanupService chartCleanupService;
+
+  @Inject
+  public HelmChartCleanupTask(final ChartCleanupService chartCleanupService) {
+    this.chartCleanupService = checkNotNull(chartCleanupService);
+  }
+
+  @Override
+  protected void execute(final Repository repository) {
+    chartCleanupService.cleanup(repository, new ChartCleanupCriteria(
+        getConfiguration().getInteger(KEEP_VERSIONS_FIELD_ID, DEFAULT_KEEP_VERSIONS),
+        getConfiguration().getInteger(PRERELEASE_AGE_FIELD_ID, 0),
+        getConfiguration().getBoolean(KEEP_DEPENDENCIES_FIELD_ID, true)));
+  }
+
+  @Override
+  protected boolean appliesTo(final Repository repository) {
+    return HelmFormat.NAME.equals(repository.getFormat().getValue())
+        && HostedType.NAME.equals(repository.getType().getValue());
+  }
+
+  @Override
+  public String getMessage() {
+    return "Removing old chart versions from " + getRepositoryField();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cleanup;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.nexus.formfields.CheckboxFormField;
+import org.sonatype.nexus.formfields.NumberTextFormField;
+import org.sonatype.nexus.formfields.RepositoryCombobox;
+import org.sonatype.nexus.repository.RepositoryTaskSupport;
+import org.sonatype.nexus.repository.types.HostedType;
+import org.sonatype.nexus.scheduling.TaskDescriptorSupport;
+import org.sonatype.repository.helm.internal.HelmFormat;
+
+/**
+ * Task descriptor for {@link HelmChartCleanupTask}.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class HelmChartCleanupTaskDescriptor
+    extends TaskDescriptorSupport
+{
+  public static final String TYPE_ID = "repository.helm.chart-cleanup";
+
+  public static final String KEEP_VERSIONS_FIELD_ID = "keepVersions";
+
+  public static final String PRERELEASE_AGE_FIELD_ID = "prereleaseAgeDays";
+
+  public static final String KEEP_DEPENDENCIES_FIELD_ID = "keepDependencies";
+
+  /**
+   * At least one of the versions to keep and the prerelease age must be set, so a task saved with the initial values
+   * keeps the newest versions of each chart.
+   */
+  public static final int DEFAULT_KEEP_VERSIONS = 10;
+
+  public HelmChartCleanupTaskDescriptor() {
+    super(TYPE_ID,
+        HelmChartCleanupTask.class,
+        "Helm - Remove old chart versions",
+        VISIBLE,
+        EXPOSED,
+        new RepositoryCombobox(
+            RepositoryTaskSupport.REPOSITORY_NAME_FIELD_ID,
+            "Repository",
+            "Select the Helm hosted repository to remove chart versions from",
+            true
+        ).includingAnyOfFormats(HelmFormat.NAME).includingAnyOfTypes(HostedType.NAME).includeAnEntryForAllRepositories(),
+        new NumberTextFormField(
+            KEEP_VERSIONS_FIELD_ID,
+            "Versions to keep",
+            "Keep this many of the newest versions of each chart, 0 to not limit the number of versions",
+            false
+        ).withMinimumValue(0).withInitialValue(DEFAULT_KEEP_VERSIONS),
+        new NumberTextFormField(
+            PRERELEASE_AGE_FIELD_ID,
+            "Prerelease age in days",
+            "Only remove prerelease versions stored more than this many days ago, 0 to remove releases as well",
+            false
+        ).withMinimumValue(0).withInitialValue(0),
+        new CheckboxFormField(
+            KEEP_DEPENDENCIES_FIELD_ID,
+            "Keep dependencies",
+            "Keep versions which other charts in the repository depend on",
+            false
+        ).withInitialValue(true)
+    );
+  }
+}
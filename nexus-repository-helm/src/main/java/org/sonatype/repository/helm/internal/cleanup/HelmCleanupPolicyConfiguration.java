@@ -41,7 +41,7 @@ public class HelmCleanupPolicyConfiguration
   public Map<String, Boolean> getConfiguration() {
     return ImmutableMap.of(LAST_BLOB_UPDATED_KEY, true,
         LAST_DOWNLOADED_KEY, true,
-        IS_PRERELEASE_KEY, false,
+        IS_PRERELEASE_KEY, true,
         REGEX_KEY, true);
   }
 }
@@ -16,33 +16,56 @@ import java.util.Arrays;
 import java.util.Optional;
 
 /**
- * Database property names for Helm asset attributes
+ * Database property names for Helm asset attributes. Properties recorded by the repository itself, rather than read
+ * from Chart.yaml, are never taken from a chart.
  *
  * @since 0.0.2
  */
 public enum HelmProperties
 {
+  ANNOTATIONS("annotations"),
+  API_VERSION("apiVersion"),
+  DEPENDENCIES("dependencies"),
+  DEPRECATED("deprecated"),
   DESCRIPTION("description"),
   ENGINE("engine"),
   HOME("home"),
   ICON("icon"),
   APP_VERSION("appVersion"),
   KEYWORDS("keywords"),
+  KUBE_VERSION("kubeVersion"),
   MAINTAINERS("maintainers"),
   NAME("name"),
+  PROVENANCE_VERIFICATION("provenanceVerification", false),
   SOURCES("sources"),
+  TYPE("type"),
+  VALIDATION("validation", false),
   VERSION("version");
 
   private String propertyName;
 
+  private boolean chartField;
+
   HelmProperties(final String type) {
+    this(type, true);
+  }
+
+  HelmProperties(final String type, final boolean chartField) {
     this.propertyName = type;
+    this.chartField = chartField;
   }
 
   public String getPropertyName() {
     return propertyName;
   }
 
+  /**
+   * @return true if the property is read from Chart.yaml, false if the repository records it
+   */
+  public boolean isChartField() {
+    return chartField;
+  }
+
   public static Optional<HelmProperties> findByPropertyName(String propertyName) {
     return Arrays.stream(HelmProperties.values())
         .filter(properties -> propertyName.equals(properties.getPropertyName()))
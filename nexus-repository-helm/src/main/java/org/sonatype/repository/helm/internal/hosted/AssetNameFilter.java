@@ -0,0 +1,147 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.hosted;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Approximate set of the asset names stored in a repository. A name that was never added is reported absent about
+ * ninety-nine times in a hundred; a name that was added is never reported absent. Until the first
+ * {@link #finishRebuild(Collection)} every name is reported as possibly present.
+ *
+ * Names cannot be taken out of the filter, so deletes are only counted and the filter asks to be rebuilt from storage
+ * once they, or more inserts than it was sized for, would raise its false positive rate. Names added shortly before
+ * or during a rebuild are carried over into the rebuilt filter, because the transaction that created them may not
+ * have been visible to the scan.
+ *
+ * @since 1.0.11
+ */
+public class AssetNameFilter
+{
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private static final int MIN_EXPECTED_INSERTIONS = 1024;
+
+  private static final long RECENT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+  private final Ticker ticker;
+
+  private final Map<String, Long> recentlyAdded = new LinkedHashMap<>();
+
+  private volatile BloomFilter<CharSequence> filter;
+
+  private int expectedInsertions;
+
+  private int insertions;
+
+  private int deletions;
+
+  private boolean rebuilding;
+
+  public AssetNameFilter() {
+    this(Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  AssetNameFilter(final Ticker ticker) {
+    this.ticker = checkNotNull(ticker);
+  }
+
+  public boolean mightContain(final String name) {
+    BloomFilter<CharSequence> current = filter;
+    return current == null || current.mightContain(name);
+  }
+
+  public boolean isBuilt() {
+    return filter != null;
+  }
+
+  public synchronized void add(final String name) {
+    long now = ticker.read();
+    recentlyAdded.remove(name);
+    recentlyAdded.put(name, now);
+    if (!rebuilding) {
+      pruneRecentlyAdded(now);
+    }
+    if (filter != null) {
+      filter.put(name);
+      insertions++;
+    }
+  }
+
+  public synchronized void deleted() {
+    deletions++;
+  }
+
+  /**
+   * @return true if the filter was never built, or has taken enough inserts or deletes to be rebuilt
+   */
+  public synchronized boolean needsRebuild() {
+    return filter == null || insertions > expectedInsertions || deletions > expectedInsertions / 4;
+  }
+
+  public synchronized void startRebuild() {
+    rebuilding = true;
+  }
+
+  /**
+   * Replaces the filter with one holding the given names, as read from storage after {@link #startRebuild()}, and
+   * the names added since shortly before.
+   */
+  public synchronized void finishRebuild(final Collection<String> names) {
+    int size = names.size() + recentlyAdded.size();
+    BloomFilter<CharSequence> rebuilt = BloomFilter.create(Funnels.stringFunnel(UTF_8),
+        Math.max(MIN_EXPECTED_INSERTIONS, size * 2), FALSE_POSITIVE_PROBABILITY);
+    names.forEach(rebuilt::put);
+    recentlyAdded.keySet().forEach(rebuilt::put);
+
+    expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, size * 2);
+    insertions = size;
+    deletions = 0;
+    rebuilding = false;
+    pruneRecentlyAdded(ticker.read());
+    filter = rebuilt;
+  }
+
+  public synchronized void abortRebuild() {
+    rebuilding = false;
+  }
+
+  /**
+   * Drops the filter, so that every name is reported as possibly present until it is rebuilt.
+   */
+  public synchronized void reset() {
+    filter = null;
+    insertions = 0;
+    deletions = 0;
+  }
+
+  private void pruneRecentlyAdded(final long now) {
+    Iterator<Long> addedAt = recentlyAdded.values().iterator();
+    while (addedAt.hasNext() && now - addedAt.next() > RECENT_NANOS) {
+      addedAt.remove();
+    }
+  }
+}
@@ -17,15 +17,20 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Response;
 import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
 import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher.State;
 import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.metadata.IndexGenerations;
 import org.sonatype.repository.helm.internal.orient.hosted.HelmHostedFacet;
 import org.sonatype.repository.helm.internal.util.HelmPathUtils;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.net.HttpHeaders.CACHE_CONTROL;
+import static com.google.common.net.HttpHeaders.CONTENT_LOCATION;
 import static org.sonatype.nexus.repository.http.HttpResponses.notFound;
 import static org.sonatype.nexus.repository.http.HttpResponses.ok;
 
@@ -39,6 +44,8 @@ import static org.sonatype.nexus.repository.http.HttpResponses.ok;
 public class HostedHandlers
     extends ComponentSupport
 {
+  private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
   private HelmPathUtils helmPathUtils;
 
   @Inject
@@ -57,8 +64,25 @@ public class HostedHandlers
       path = helmPathUtils.filename(state);
     }
     Content content = context.getRepository().facet(HelmHostedFacet.class).get(path);
+    if (content == null) {
+      return notFound();
+    }
 
-    return (content != null) ? ok(content) : notFound();
+    Response response = ok(content);
+    if (assetKind == AssetKind.HELM_INDEX) {
+      // points caches at the immutable generation holding the same content
+      Asset asset = content.getAttributes().get(Asset.class);
+      Number generation = asset != null
+          ? asset.formatAttributes().get(IndexGenerations.P_GENERATION, Number.class)
+          : null;
+      if (generation != null) {
+        response.getHeaders().set(CONTENT_LOCATION, IndexGenerations.fileName(generation.longValue()));
+      }
+    }
+    else if (IndexGenerations.isGenerationFile(path)) {
+      response.getHeaders().set(CACHE_CONTROL, IMMUTABLE);
+    }
+    return response;
   };
 
   final Handler upload = context -> {
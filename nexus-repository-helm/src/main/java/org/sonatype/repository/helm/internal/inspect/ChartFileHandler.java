@@ -0,0 +1,190 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.inspect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.hash.HashAlgorithm;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.ContentTypes;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Payload;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.payloads.BytesPayload;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.cache.ChartFileCache;
+import org.sonatype.repository.helm.internal.util.TgzParser;
+import org.sonatype.repository.helm.internal.util.TgzParser.ChartFile;
+
+import com.google.common.hash.HashCode;
+import com.google.common.net.HttpHeaders;
+import org.apache.commons.io.IOUtils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.nexus.repository.http.HttpResponses.badRequest;
+import static org.sonatype.nexus.repository.http.HttpResponses.notFound;
+import static org.sonatype.nexus.repository.http.HttpResponses.ok;
+
+/**
+ * Answers {@code <chart>.tgz?file=<path>} with a single file from inside the chart, such as {@code values.yaml} or
+ * {@code templates/deployment.yaml}, so tools reading a chart's contents need not download the whole archive. The
+ * path is relative to the chart directory.
+ *
+ * The chart is fetched as usual first, so proxies cache it, and its archive is read only up to the file. Small files
+ * are kept in the {@link ChartFileCache}; larger ones are streamed from the archive. Range requests are answered with
+ * the whole file, as the range would otherwise be applied to the archive.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartFileHandler
+    extends ComponentSupport
+    implements Handler
+{
+  private static final String FILE = "file";
+
+  private static final String YAML_CONTENT_TYPE = "text/x-yaml";
+
+  private final TgzParser tgzParser;
+
+  private final ChartFileCache chartFileCache;
+
+  @Inject
+  public ChartFileHandler(final TgzParser tgzParser, final ChartFileCache chartFileCache) {
+    this.tgzParser = checkNotNull(tgzParser);
+    this.chartFileCache = checkNotNull(chartFileCache);
+  }
+
+  @Nonnull
+  @Override
+  public Response handle(@Nonnull final Context context) throws Exception {
+    String path = context.getRequest().getParameters().get(FILE);
+    if (path == null || context.getAttributes().get(AssetKind.class) != AssetKind.HELM_PACKAGE) {
+      return context.proceed();
+    }
+    if (path.trim().isEmpty()) {
+      return badRequest("Missing file path");
+    }
+    // the handler sits before partial fetch, which would otherwise answer with a range of the archive itself
+    context.getRequest().getHeaders().remove(HttpHeaders.RANGE);
+    context.getRequest().getHeaders().remove(HttpHeaders.IF_RANGE);
+
+    Response response = context.proceed();
+    if (!response.getStatus().isSuccessful() || !(response.getPayload() instanceof Content)) {
+      return response;
+    }
+    Content chart = (Content) response.getPayload();
+    HashCode sha256 = sha256(chart);
+    if (sha256 != null) {
+      Optional<byte[]> cached = chartFileCache.get(sha256, path);
+      if (cached != null) {
+        return cached.isPresent() ? ok(new BytesPayload(cached.get(), contentType(path))) : fileNotFound(path);
+      }
+    }
+
+    ChartFile file = tgzParser.openChartFile(chart.openInputStream(), path);
+    if (file == null) {
+      if (sha256 != null) {
+        chartFileCache.put(sha256, path, null);
+      }
+      return fileNotFound(path);
+    }
+    try (ChartFile opened = file) {
+      if (sha256 != null && chartFileCache.isCacheable(opened.getSize())) {
+        byte[] content = IOUtils.toByteArray(opened.getInputStream(), opened.getSize());
+        chartFileCache.put(sha256, path, content);
+        return ok(new BytesPayload(content, contentType(path)));
+      }
+    }
+    // the archive is read again when the response is sent, rather than holding it open for a HEAD request
+    return ok(new ChartFilePayload(chart, path, file.getSize(), contentType(path)));
+  }
+
+  private static Response fileNotFound(final String path) {
+    return notFound(String.format("%s not found in chart", path));
+  }
+
+  @Nullable
+  private static HashCode sha256(final Content chart) {
+    @SuppressWarnings("unchecked")
+    Map<HashAlgorithm, HashCode> hashes = chart.getAttributes().get(Content.CONTENT_HASH_CODES_MAP, Map.class);
+    return hashes != null ? hashes.get(SHA256) : null;
+  }
+
+  private static String contentType(final String path) {
+    if (path.endsWith(".yaml") || path.endsWith(".yml")) {
+      return YAML_CONTENT_TYPE;
+    }
+    if (path.endsWith(".json")) {
+      return ContentTypes.APPLICATION_JSON;
+    }
+    if (path.endsWith(".md") || path.endsWith(".txt") || path.endsWith(".tpl")) {
+      return ContentTypes.TEXT_PLAIN;
+    }
+    return ContentTypes.APPLICATION_OCTET_STREAM;
+  }
+
+  /**
+   * Streams a file too large for the {@link ChartFileCache} from the chart archive.
+   */
+  private class ChartFilePayload
+      implements Payload
+  {
+    private final Payload chart;
+
+    private final String path;
+
+    private final long size;
+
+    private final String contentType;
+
+    ChartFilePayload(final Payload chart, final String path, final long size, final String contentType) {
+      this.chart = chart;
+      this.path = path;
+      this.size = size;
+      this.contentType = contentType;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+      ChartFile file = tgzParser.openChartFile(chart.openInputStream(), path);
+      if (file == null) {
+        throw new IOException(path + " no longer found in chart");
+      }
+      return file.getInputStream();
+    }
+
+    @Override
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public String getContentType() {
+      return contentType;
+    }
+  }
+}
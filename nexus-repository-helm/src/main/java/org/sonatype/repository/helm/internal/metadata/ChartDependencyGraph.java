@@ -0,0 +1,235 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.internal.util.VersionConstraint;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Dependency graph across all charts of a {@link ChartIndex}. Each declared dependency is resolved once, when the
+ * graph is built, to the newest version in the index that satisfies its version range, so that the transitive
+ * closure of a chart is a walk over precomputed edges.
+ *
+ * Dependencies are resolved by chart name within the index regardless of the repository they declare; dependencies
+ * which cannot be resolved this way are reported back so clients can fetch them from elsewhere.
+ *
+ * @since 1.0.11
+ */
+public final class ChartDependencyGraph
+{
+  private static final String NAME = "name";
+
+  private static final String VERSION = "version";
+
+  private static final String REPOSITORY = "repository";
+
+  private final ChartVersionIndex versionIndex;
+
+  private final Map<ChartEntry, Node> nodes = new IdentityHashMap<>();
+
+  private final Set<ChartEntry> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  public ChartDependencyGraph(final ChartIndex index) {
+    this(new ChartVersionIndex(index), index);
+  }
+
+  public ChartDependencyGraph(final ChartVersionIndex versionIndex, final ChartIndex index) {
+    this.versionIndex = checkNotNull(versionIndex);
+    index.getEntries().values().forEach(entries -> entries.forEach(entry -> nodes.put(entry, resolve(entry))));
+    nodes.values().forEach(node -> dependencies.addAll(node.resolved));
+  }
+
+  public ChartVersionIndex getVersionIndex() {
+    return versionIndex;
+  }
+
+  /**
+   * @return true if a dependency of some chart version in the index resolves to the given chart version
+   */
+  public boolean isDependency(final String name, final String version) {
+    ChartEntry entry = versionIndex.find(name, version);
+    return entry != null && dependencies.contains(entry);
+  }
+
+  /**
+   * @return the transitive dependencies of the chart version, or null if the chart version is not in the index
+   */
+  @Nullable
+  public DependencyClosure closure(final String name, final String version) {
+    ChartEntry root = versionIndex.find(name, version);
+    if (root == null) {
+      return null;
+    }
+    List<ChartEntry> installOrder = new ArrayList<>();
+    List<UnresolvedDependency> unresolved = new ArrayList<>();
+    visit(root, Collections.newSetFromMap(new IdentityHashMap<>()), installOrder, unresolved);
+    return new DependencyClosure(root, installOrder, unresolved);
+  }
+
+  /**
+   * Depth first walk adding each chart after its dependencies. Charts already visited, including those on a
+   * dependency cycle, are not visited again.
+   */
+  private void visit(final ChartEntry entry,
+                     final Set<ChartEntry> visited,
+                     final List<ChartEntry> installOrder,
+                     final List<UnresolvedDependency> unresolved)
+  {
+    if (!visited.add(entry)) {
+      return;
+    }
+    Node node = nodes.get(entry);
+    if (node != null) {
+      for (ChartEntry dependency : node.resolved) {
+        visit(dependency, visited, installOrder, unresolved);
+      }
+      unresolved.addAll(node.unresolved);
+    }
+    installOrder.add(entry);
+  }
+
+  private Node resolve(final ChartEntry entry) {
+    List<Map<String, Object>> dependencies = entry.getDependencies();
+    if (dependencies == null || dependencies.isEmpty()) {
+      return Node.EMPTY;
+    }
+    Node node = new Node();
+    for (Map<String, Object> dependency : dependencies) {
+      String name = stringValue(dependency.get(NAME));
+      String range = stringValue(dependency.get(VERSION));
+      ChartEntry resolved = name != null ? resolve(name, range) : null;
+      if (resolved != null) {
+        node.resolved.add(resolved);
+      }
+      else {
+        node.unresolved.add(new UnresolvedDependency(name, range, stringValue(dependency.get(REPOSITORY)),
+            entry.getName() + "-" + entry.getVersion()));
+      }
+    }
+    return node;
+  }
+
+  @Nullable
+  private ChartEntry resolve(final String name, @Nullable final String range) {
+    try {
+      return versionIndex.resolve(name, VersionConstraint.parse(range == null || range.trim().isEmpty() ? "*" : range));
+    }
+    catch (IllegalArgumentException e) { // NOSONAR
+      return null;
+    }
+  }
+
+  @Nullable
+  private static String stringValue(@Nullable final Object value) {
+    return value != null ? value.toString() : null;
+  }
+
+  private static final class Node
+  {
+    private static final Node EMPTY = new Node();
+
+    private final List<ChartEntry> resolved = new ArrayList<>();
+
+    private final List<UnresolvedDependency> unresolved = new ArrayList<>();
+  }
+
+  /**
+   * The transitive dependencies of a chart version.
+   */
+  public static final class DependencyClosure
+  {
+    private final ChartEntry chart;
+
+    private final List<ChartEntry> charts;
+
+    private final List<UnresolvedDependency> unresolved;
+
+    private DependencyClosure(final ChartEntry chart,
+                              final List<ChartEntry> charts,
+                              final List<UnresolvedDependency> unresolved)
+    {
+      this.chart = chart;
+      this.charts = Collections.unmodifiableList(charts);
+      this.unresolved = Collections.unmodifiableList(unresolved);
+    }
+
+    public ChartEntry getChart() {
+      return chart;
+    }
+
+    /**
+     * @return the chart and its resolved dependencies in install order, each chart after the charts it depends on
+     */
+    public List<ChartEntry> getCharts() {
+      return charts;
+    }
+
+    public List<UnresolvedDependency> getUnresolved() {
+      return unresolved;
+    }
+  }
+
+  /**
+   * A dependency with no matching chart version in the index.
+   */
+  public static final class UnresolvedDependency
+  {
+    private final String name;
+
+    private final String version;
+
+    private final String repository;
+
+    private final String requiredBy;
+
+    private UnresolvedDependency(@Nullable final String name,
+                                 @Nullable final String version,
+                                 @Nullable final String repository,
+                                 final String requiredBy)
+    {
+      this.name = name;
+      this.version = version;
+      this.repository = repository;
+      this.requiredBy = requiredBy;
+    }
+
+    @Nullable
+    public String getName() {
+      return name;
+    }
+
+    @Nullable
+    public String getVersion() {
+      return version;
+    }
+
+    @Nullable
+    public String getRepository() {
+      return repository;
+    }
+
+    public String getRequiredBy() {
+      return requiredBy;
+    }
+  }
+}
@@ -12,6 +12,7 @@ import org.joda.time.DateTime;
  */
 public class ChartEntry
 {
+  private String apiVersion;
   private String description;
   private String name;
   private String version;
@@ -22,6 +23,23 @@ public class ChartEntry
   private List<String> urls;
   private List<String> sources;
   private List<Map<String, String>> maintainers;
+  private String home;
+  private String engine;
+  private List<String> keywords;
+  private String kubeVersion;
+  private String type;
+  private Boolean deprecated;
+  private Map<String, String> annotations;
+  private List<Map<String, Object>> dependencies;
+  private String provenanceVerification;
+
+  public String getApiVersion() {
+    return apiVersion;
+  }
+
+  public void setApiVersion(final String apiVersion) {
+    this.apiVersion = apiVersion;
+  }
 
   public String getName() { return this.name; }
 
@@ -98,4 +116,76 @@ public class ChartEntry
   public void setMaintainers(final List<Map<String, String>> maintainers) {
     this.maintainers = maintainers;
   }
+
+  public String getHome() {
+    return home;
+  }
+
+  public void setHome(final String home) {
+    this.home = home;
+  }
+
+  public String getEngine() {
+    return engine;
+  }
+
+  public void setEngine(final String engine) {
+    this.engine = engine;
+  }
+
+  public List<String> getKeywords() {
+    return keywords;
+  }
+
+  public void setKeywords(final List<String> keywords) {
+    this.keywords = keywords;
+  }
+
+  public String getKubeVersion() {
+    return kubeVersion;
+  }
+
+  public void setKubeVersion(final String kubeVersion) {
+    this.kubeVersion = kubeVersion;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(final String type) {
+    this.type = type;
+  }
+
+  public Boolean getDeprecated() {
+    return deprecated;
+  }
+
+  public void setDeprecated(final Boolean deprecated) {
+    this.deprecated = deprecated;
+  }
+
+  public Map<String, String> getAnnotations() {
+    return annotations;
+  }
+
+  public void setAnnotations(final Map<String, String> annotations) {
+    this.annotations = annotations;
+  }
+
+  public List<Map<String, Object>> getDependencies() {
+    return dependencies;
+  }
+
+  public void setDependencies(final List<Map<String, Object>> dependencies) {
+    this.dependencies = dependencies;
+  }
+
+  public String getProvenanceVerification() {
+    return provenanceVerification;
+  }
+
+  public void setProvenanceVerification(final String provenanceVerification) {
+    this.provenanceVerification = provenanceVerification;
+  }
 }
@@ -0,0 +1,63 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact membership test for the file names a chart index refers to: every entry's urls as listed, their last path
+ * segment, and the matching provenance files. Never answers false for a listed file; about one in a hundred unlisted
+ * names passes as well.
+ *
+ * @since 1.0.11
+ */
+public class ChartFileFilter
+{
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private static final String PROVENANCE_SUFFIX = ".prov";
+
+  private final BloomFilter<CharSequence> filter;
+
+  public ChartFileFilter(final ChartIndex index) {
+    Set<String> fileNames = new LinkedHashSet<>();
+    for (List<ChartEntry> versions : index.getEntries().values()) {
+      for (ChartEntry entry : versions) {
+        if (entry.getUrls() != null) {
+          for (String url : entry.getUrls()) {
+            fileNames.add(url);
+            fileNames.add(url.substring(url.lastIndexOf('/') + 1));
+          }
+        }
+        fileNames.add(String.format("%s-%s.tgz", entry.getName(), entry.getVersion()));
+      }
+    }
+    filter = BloomFilter.create(Funnels.stringFunnel(UTF_8), Math.max(64, fileNames.size() * 2),
+        FALSE_POSITIVE_PROBABILITY);
+    for (String fileName : fileNames) {
+      filter.put(fileName);
+      filter.put(fileName + PROVENANCE_SUFFIX);
+    }
+  }
+
+  public boolean mightContain(final String fileName) {
+    return filter.mightContain(fileName);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.joda.time.DateTime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Changes to an index.yaml between two generations. Clients holding the index of generation {@link #getSince()}
+ * reach generation {@link #getGeneration()} by first dropping the {@link #getRemoved()} versions and then adding or
+ * replacing the {@link #getEntries()}; a chart version whose entry changed is listed in both.
+ *
+ * @since 1.0.11
+ */
+public final class ChartIndexDelta
+{
+  private String apiVersion;
+
+  private DateTime generated;
+
+  private long since;
+
+  private long generation;
+
+  private Map<String, List<ChartEntry>> entries = new TreeMap<>();
+
+  private Map<String, List<String>> removed = new TreeMap<>();
+
+  public ChartIndexDelta() {
+    // for reading stored deltas
+  }
+
+  public ChartIndexDelta(final long since) {
+    this.since = since;
+    this.generation = since;
+  }
+
+  /**
+   * Computes the changes from the previous to the next index.
+   */
+  public static ChartIndexDelta between(final long since,
+                                        final long generation,
+                                        final ChartIndex previous,
+                                        final ChartIndex next)
+  {
+    ChartIndexDelta delta = new ChartIndexDelta(since);
+    delta.generation = generation;
+    delta.apiVersion = next.getApiVersion();
+    delta.generated = next.getGenerated();
+
+    Map<String, Map<String, ChartEntry>> before = byVersion(previous);
+    Map<String, Map<String, ChartEntry>> after = byVersion(next);
+    before.forEach((name, versions) -> versions.forEach((version, entry) -> {
+      ChartEntry current = after.getOrDefault(name, new HashMap<>()).get(version);
+      if (current == null || !sameEntry(entry, current)) {
+        delta.removed.computeIfAbsent(name, k -> new ArrayList<>()).add(version);
+      }
+    }));
+    after.forEach((name, versions) -> versions.forEach((version, entry) -> {
+      ChartEntry earlier = before.getOrDefault(name, new HashMap<>()).get(version);
+      if (earlier == null || !sameEntry(earlier, entry)) {
+        delta.entries.computeIfAbsent(name, k -> new ArrayList<>()).add(entry);
+      }
+    }));
+    return delta;
+  }
+
+  /**
+   * Extends this delta with the changes of the following generation.
+   */
+  public void append(final ChartIndexDelta later) {
+    checkArgument(later.since == generation, "Delta since %s does not follow generation %s", later.since, generation);
+    later.removed.forEach((name, versions) -> versions.forEach(version -> {
+      removeEntry(name, version);
+      List<String> removedVersions = removed.computeIfAbsent(name, k -> new ArrayList<>());
+      if (!removedVersions.contains(version)) {
+        removedVersions.add(version);
+      }
+    }));
+    later.entries.forEach((name, added) -> added.forEach(entry -> {
+      removeEntry(name, entry.getVersion());
+      entries.computeIfAbsent(name, k -> new ArrayList<>()).add(entry);
+    }));
+    generation = later.generation;
+    apiVersion = later.apiVersion;
+    generated = later.generated;
+  }
+
+  public boolean isEmpty() {
+    return entries.isEmpty() && removed.isEmpty();
+  }
+
+  private void removeEntry(final String name, final String version) {
+    List<ChartEntry> versions = entries.get(name);
+    if (versions != null) {
+      versions.removeIf(entry -> Objects.equals(version, entry.getVersion()));
+      if (versions.isEmpty()) {
+        entries.remove(name);
+      }
+    }
+  }
+
+  private static Map<String, Map<String, ChartEntry>> byVersion(final ChartIndex index) {
+    Map<String, Map<String, ChartEntry>> byVersion = new HashMap<>();
+    index.getEntries().forEach((name, versions) -> versions.forEach(
+        entry -> byVersion.computeIfAbsent(name, k -> new HashMap<>()).put(entry.getVersion(), entry)));
+    return byVersion;
+  }
+
+  /**
+   * Entries are built from the chart assets, so any change to a chart shows in its digest; the provenance check and
+   * the location are kept on the asset and compared separately.
+   */
+  private static boolean sameEntry(final ChartEntry a, final ChartEntry b) {
+    return Objects.equals(a.getDigest(), b.getDigest())
+        && Objects.equals(a.getProvenanceVerification(), b.getProvenanceVerification())
+        && Objects.equals(a.getUrls(), b.getUrls());
+  }
+
+  public String getApiVersion() {
+    return apiVersion;
+  }
+
+  public void setApiVersion(final String apiVersion) {
+    this.apiVersion = apiVersion;
+  }
+
+  public DateTime getGenerated() {
+    return generated;
+  }
+
+  public void setGenerated(final DateTime generated) {
+    this.generated = generated;
+  }
+
+  public long getSince() {
+    return since;
+  }
+
+  public void setSince(final long since) {
+    this.since = since;
+  }
+
+  public long getGeneration() {
+    return generation;
+  }
+
+  public void setGeneration(final long generation) {
+    this.generation = generation;
+  }
+
+  public Map<String, List<ChartEntry>> getEntries() {
+    return entries;
+  }
+
+  public void setEntries(final Map<String, List<ChartEntry>> entries) {
+    this.entries = entries;
+  }
+
+  public Map<String, List<String>> getRemoved() {
+    return removed;
+  }
+
+  public void setRemoved(final Map<String, List<String>> removed) {
+    this.removed = removed;
+  }
+}
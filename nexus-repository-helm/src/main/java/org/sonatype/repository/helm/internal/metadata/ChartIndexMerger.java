@@ -0,0 +1,107 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.joda.time.DateTime;
+
+/**
+ * Merges the indexes of group members into one. Each member's charts are walked in name order and the walks are
+ * combined with a k-way merge, so the merged index is produced in name order in a single pass. Where several members
+ * have the same version of a chart, the entry of the earliest member wins.
+ *
+ * @since 1.0.11
+ */
+public final class ChartIndexMerger
+{
+  private static final String API_VERSION = "v1";
+
+  private ChartIndexMerger() {
+    // no instances
+  }
+
+  /**
+   * @param indexes member indexes in member order
+   */
+  public static ChartIndex merge(final List<ChartIndex> indexes) {
+    PriorityQueue<Cursor> queue = new PriorityQueue<>(
+        Comparator.comparing((Cursor cursor) -> cursor.name).thenComparingInt(cursor -> cursor.order));
+    for (int i = 0; i < indexes.size(); i++) {
+      Cursor cursor = new Cursor(i, indexes.get(i));
+      if (cursor.advance()) {
+        queue.add(cursor);
+      }
+    }
+
+    Map<String, List<ChartEntry>> entries = new LinkedHashMap<>();
+    while (!queue.isEmpty()) {
+      String name = queue.peek().name;
+      List<ChartEntry> versions = new ArrayList<>();
+      Set<String> seen = new HashSet<>();
+      while (!queue.isEmpty() && queue.peek().name.equals(name)) {
+        Cursor cursor = queue.poll();
+        for (ChartEntry entry : cursor.index.getEntries().get(name)) {
+          if (seen.add(entry.getVersion())) {
+            versions.add(entry);
+          }
+        }
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+      }
+      entries.put(name, versions);
+    }
+
+    ChartIndex merged = new ChartIndex();
+    merged.setApiVersion(API_VERSION);
+    merged.setGenerated(new DateTime());
+    merged.setEntries(entries);
+    return merged;
+  }
+
+  private static final class Cursor
+  {
+    private final int order;
+
+    private final ChartIndex index;
+
+    private final Iterator<String> names;
+
+    private String name;
+
+    private Cursor(final int order, final ChartIndex index) {
+      this.order = order;
+      this.index = index;
+      List<String> sorted = new ArrayList<>(index.getEntries().keySet());
+      sorted.sort(Comparator.naturalOrder());
+      this.names = sorted.iterator();
+    }
+
+    private boolean advance() {
+      if (names.hasNext()) {
+        name = names.next();
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.primitives.UnsignedBytes;
+import org.joda.time.DateTime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Binary summary of an index, stored next to index.yaml so that internal readers can look up charts without parsing
+ * YAML. Holds each chart's versions with their digest, urls and creation time; everything else is only in
+ * index.yaml.
+ *
+ * <p>The layout is read in place from a (typically memory-mapped) buffer, all numbers big-endian:
+ * <pre>
+ * header:   magic "HIDX", format version, chart count, version count, string pool offset
+ * charts:   name, first version, version count    - sorted by the UTF-8 bytes of the name
+ * versions: version, digest, urls, created millis - grouped by chart, in index order
+ * pool:     strings as length + UTF-8 bytes, url lists as count + strings
+ * </pre>
+ * Names, versions, digests and urls are offsets into the pool, -1 when absent; a missing creation time is
+ * {@link Long#MIN_VALUE}.
+ *
+ * @since 1.0.11
+ */
+public final class ChartIndexSidecar
+{
+  public static final String FILE_NAME = "index.bin";
+
+  private static final int MAGIC = 0x48494458;
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_SIZE = 20;
+
+  private static final int CHART_SIZE = 12;
+
+  private static final int VERSION_SIZE = 20;
+
+  private static final int ABSENT = -1;
+
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private final ByteBuffer buffer;
+
+  private final int chartCount;
+
+  private final int versionCount;
+
+  private final int versionsOffset;
+
+  private final int poolOffset;
+
+  private ChartIndexSidecar(final ByteBuffer buffer) {
+    this.buffer = buffer;
+    checkArgument(buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC, "Not a chart index sidecar");
+    checkArgument(buffer.getInt(4) == FORMAT_VERSION, "Unsupported chart index sidecar version %s", buffer.getInt(4));
+    this.chartCount = buffer.getInt(8);
+    this.versionCount = buffer.getInt(12);
+    this.versionsOffset = HEADER_SIZE + chartCount * CHART_SIZE;
+    this.poolOffset = buffer.getInt(16);
+    checkArgument(chartCount >= 0 && versionCount >= 0
+        && poolOffset == versionsOffset + versionCount * VERSION_SIZE && poolOffset <= buffer.limit(),
+        "Truncated chart index sidecar");
+  }
+
+  /**
+   * Reads a sidecar from the given buffer, which is not copied and must not change while in use.
+   */
+  public static ChartIndexSidecar wrap(final ByteBuffer buffer) {
+    return new ChartIndexSidecar(buffer.duplicate());
+  }
+
+  /**
+   * Maps a sidecar file into memory; the mapping stays valid after the file is replaced or deleted.
+   */
+  public static ChartIndexSidecar map(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return wrap(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  public static void write(final ChartIndex index, final OutputStream out) throws IOException {
+    Map<byte[], List<ChartEntry>> charts = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    for (Entry<String, List<ChartEntry>> chart : index.getEntries().entrySet()) {
+      charts.put(chart.getKey().getBytes(UTF_8), chart.getValue());
+    }
+    int versionCount = charts.values().stream().mapToInt(List::size).sum();
+
+    ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    DataOutputStream pool = new DataOutputStream(poolBytes);
+    ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+    DataOutputStream chartTable = new DataOutputStream(tableBytes);
+    ByteArrayOutputStream versionBytes = new ByteArrayOutputStream();
+    DataOutputStream versionTable = new DataOutputStream(versionBytes);
+
+    int firstVersion = 0;
+    for (Entry<byte[], List<ChartEntry>> chart : charts.entrySet()) {
+      chartTable.writeInt(pool.size());
+      writeBytes(pool, chart.getKey());
+      chartTable.writeInt(firstVersion);
+      chartTable.writeInt(chart.getValue().size());
+      firstVersion += chart.getValue().size();
+
+      for (ChartEntry entry : chart.getValue()) {
+        versionTable.writeInt(writeString(pool, entry.getVersion()));
+        versionTable.writeInt(writeString(pool, entry.getDigest()));
+        versionTable.writeInt(writeUrls(pool, entry.getUrls()));
+        versionTable.writeLong(entry.getCreated() != null ? entry.getCreated().getMillis() : NO_TIME);
+      }
+    }
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(FORMAT_VERSION);
+    data.writeInt(charts.size());
+    data.writeInt(versionCount);
+    data.writeInt(HEADER_SIZE + tableBytes.size() + versionBytes.size());
+    tableBytes.writeTo(data);
+    versionBytes.writeTo(data);
+    poolBytes.writeTo(data);
+    data.flush();
+  }
+
+  private static int writeString(final DataOutputStream pool, @Nullable final String value) throws IOException {
+    if (value == null) {
+      return ABSENT;
+    }
+    int offset = pool.size();
+    writeBytes(pool, value.getBytes(UTF_8));
+    return offset;
+  }
+
+  private static void writeBytes(final DataOutputStream pool, final byte[] bytes) throws IOException {
+    pool.writeInt(bytes.length);
+    pool.write(bytes);
+  }
+
+  private static int writeUrls(final DataOutputStream pool, @Nullable final List<String> urls) throws IOException {
+    if (urls == null) {
+      return ABSENT;
+    }
+    int offset = pool.size();
+    pool.writeInt(urls.size());
+    for (String url : urls) {
+      writeBytes(pool, url.getBytes(UTF_8));
+    }
+    return offset;
+  }
+
+  public int getChartCount() {
+    return chartCount;
+  }
+
+  public int getVersionCount() {
+    return versionCount;
+  }
+
+  /**
+   * @return the chart names, sorted
+   */
+  public List<String> getChartNames() {
+    return new AbstractList<String>()
+    {
+      @Override
+      public String get(final int chart) {
+        return readString(buffer.getInt(chartOffset(chart)));
+      }
+
+      @Override
+      public int size() {
+        return chartCount;
+      }
+    };
+  }
+
+  /**
+   * Finds a chart by binary search over the chart table, decoding only the matching chart's versions.
+   *
+   * @return the versions of the chart, holding name, version, digest, urls and created, or null if not listed
+   */
+  @Nullable
+  public List<ChartEntry> getVersions(final String name) {
+    byte[] key = name.getBytes(UTF_8);
+    int low = 0;
+    int high = chartCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int compared = compareName(middle, key);
+      if (compared < 0) {
+        low = middle + 1;
+      }
+      else if (compared > 0) {
+        high = middle - 1;
+      }
+      else {
+        return readVersions(middle, name);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return an index of all charts, with entries holding what {@link #getVersions(String)} returns
+   */
+  public ChartIndex toChartIndex() {
+    ChartIndex index = new ChartIndex();
+    List<String> names = getChartNames();
+    for (int chart = 0; chart < chartCount; chart++) {
+      String name = names.get(chart);
+      index.getEntries().put(name, readVersions(chart, name));
+    }
+    return index;
+  }
+
+  private List<ChartEntry> readVersions(final int chart, final String name) {
+    int first = buffer.getInt(chartOffset(chart) + 4);
+    int count = buffer.getInt(chartOffset(chart) + 8);
+    List<ChartEntry> versions = new ArrayList<>(count);
+    for (int version = first; version < first + count; version++) {
+      int offset = versionsOffset + version * VERSION_SIZE;
+      ChartEntry entry = new ChartEntry();
+      entry.setName(name);
+      entry.setVersion(readString(buffer.getInt(offset)));
+      entry.setDigest(readString(buffer.getInt(offset + 4)));
+      entry.setUrls(readUrls(buffer.getInt(offset + 8)));
+      long created = buffer.getLong(offset + 12);
+      entry.setCreated(created != NO_TIME ? new DateTime(created) : null);
+      versions.add(entry);
+    }
+    return versions;
+  }
+
+  private int chartOffset(final int chart) {
+    return HEADER_SIZE + chart * CHART_SIZE;
+  }
+
+  private int compareName(final int chart, final byte[] key) {
+    int position = poolOffset + buffer.getInt(chartOffset(chart));
+    int length = buffer.getInt(position);
+    position += 4;
+    for (int i = 0; i < Math.min(length, key.length); i++) {
+      int compared = UnsignedBytes.compare(buffer.get(position + i), key[i]);
+      if (compared != 0) {
+        return compared;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  @Nullable
+  private String readString(final int reference) {
+    if (reference == ABSENT) {
+      return null;
+    }
+    return readStringAt(poolOffset + reference);
+  }
+
+  private String readStringAt(final int position) {
+    byte[] bytes = new byte[buffer.getInt(position)];
+    ByteBuffer view = buffer.duplicate();
+    view.position(position + 4);
+    view.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  @Nullable
+  private List<String> readUrls(final int reference) {
+    if (reference == ABSENT) {
+      return null;
+    }
+    int position = poolOffset + reference;
+    int count = buffer.getInt(position);
+    position += 4;
+    List<String> urls = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      urls.add(readStringAt(position));
+      position += 4 + buffer.getInt(position);
+    }
+    return urls;
+  }
+}
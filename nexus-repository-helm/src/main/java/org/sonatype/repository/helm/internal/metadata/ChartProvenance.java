@@ -0,0 +1,91 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.HelmAttributes;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Contents of a clearsigned Helm provenance (.prov) file.
+ *
+ * @since 1.0.11
+ */
+public class ChartProvenance
+{
+  private final HelmAttributes attributes;
+
+  private final Map<String, String> files;
+
+  private final String signedText;
+
+  private final String hashAlgorithm;
+
+  private final String signature;
+
+  public ChartProvenance(final HelmAttributes attributes,
+                         final Map<String, String> files,
+                         final String signedText,
+                         @Nullable final String hashAlgorithm,
+                         @Nullable final String signature)
+  {
+    this.attributes = checkNotNull(attributes);
+    this.files = Collections.unmodifiableMap(checkNotNull(files));
+    this.signedText = checkNotNull(signedText);
+    this.hashAlgorithm = hashAlgorithm;
+    this.signature = signature;
+  }
+
+  /**
+   * Chart metadata from the first YAML document of the signed body.
+   */
+  public HelmAttributes getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * File digests from the second YAML document of the signed body, e.g. {@code mysql-1.4.0.tgz -> sha256:a213...}.
+   */
+  public Map<String, String> getFiles() {
+    return files;
+  }
+
+  /**
+   * The signed body with dash-escaping removed and lines joined by {@code \n}, without the line break that precedes
+   * the signature.
+   */
+  public String getSignedText() {
+    return signedText;
+  }
+
+  /**
+   * Value of the {@code Hash:} armor header, if present.
+   */
+  @Nullable
+  public String getHashAlgorithm() {
+    return hashAlgorithm;
+  }
+
+  /**
+   * The ASCII armored signature block including its BEGIN and END lines, or null if the file is not signed.
+   */
+  @Nullable
+  public String getSignature() {
+    return signature;
+  }
+}
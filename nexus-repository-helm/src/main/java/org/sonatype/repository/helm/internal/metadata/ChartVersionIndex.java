@@ -0,0 +1,113 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.internal.util.SemanticVersion;
+import org.sonatype.repository.helm.internal.util.VersionConstraint;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The versions of each chart in a {@link ChartIndex}, parsed once and sorted newest first, so that version lookups
+ * and range resolution do not need to scan or re-parse the index.
+ *
+ * @since 1.0.11
+ */
+public final class ChartVersionIndex
+{
+  private static final Comparator<VersionedEntry> NEWEST_FIRST =
+      Comparator.comparing((VersionedEntry entry) -> entry.version).reversed();
+
+  private final Map<String, List<VersionedEntry>> sortedVersions = new HashMap<>();
+
+  private final Map<String, Map<String, ChartEntry>> exactVersions = new HashMap<>();
+
+  public ChartVersionIndex(final ChartIndex index) {
+    checkNotNull(index);
+    index.getEntries().forEach((name, entries) -> {
+      List<VersionedEntry> versions = new ArrayList<>(entries.size());
+      Map<String, ChartEntry> exact = new HashMap<>();
+      for (ChartEntry entry : entries) {
+        if (entry.getVersion() != null) {
+          exact.put(entry.getVersion(), entry);
+          SemanticVersion version = SemanticVersion.tryParse(entry.getVersion());
+          if (version != null) {
+            versions.add(new VersionedEntry(version, entry));
+          }
+        }
+      }
+      versions.sort(NEWEST_FIRST);
+      sortedVersions.put(name, versions);
+      exactVersions.put(name, exact);
+    });
+  }
+
+  public Set<String> getChartNames() {
+    return Collections.unmodifiableSet(exactVersions.keySet());
+  }
+
+  /**
+   * @return the entry with exactly the given version or null if there is none
+   */
+  @Nullable
+  public ChartEntry find(final String name, final String version) {
+    Map<String, ChartEntry> versions = exactVersions.get(name);
+    return versions != null ? versions.get(version) : null;
+  }
+
+  /**
+   * @return the newest entry of the chart whose version satisfies the constraint, or null if there is none
+   */
+  @Nullable
+  public ChartEntry resolve(final String name, final VersionConstraint constraint) {
+    for (VersionedEntry entry : sortedVersions.getOrDefault(name, Collections.emptyList())) {
+      if (constraint.matches(entry.version)) {
+        return entry.entry;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the entries of the chart that have a valid semantic version, newest first
+   */
+  public List<ChartEntry> getVersions(final String name) {
+    List<ChartEntry> result = new ArrayList<>();
+    for (VersionedEntry entry : sortedVersions.getOrDefault(name, Collections.emptyList())) {
+      result.add(entry.entry);
+    }
+    return result;
+  }
+
+  private static final class VersionedEntry
+  {
+    private final SemanticVersion version;
+
+    private final ChartEntry entry;
+
+    private VersionedEntry(final SemanticVersion version, final ChartEntry entry) {
+      this.version = version;
+      this.entry = entry;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.regex.Pattern;
+
+/**
+ * Naming of the immutable generations of a repository's index.yaml. Every stored index gets the next generation,
+ * recorded on the index.yaml asset; hosted repositories also keep it as {@code index-<generation>.yaml}, and the
+ * changes leading to it are kept as {@code index-<generation>.delta.yaml}.
+ *
+ * @since 1.0.11
+ */
+public final class IndexGenerations
+{
+  /**
+   * Format attribute of the index.yaml asset holding the generation it currently has the content of.
+   */
+  public static final String P_GENERATION = "indexGeneration";
+
+  /**
+   * Attribute of the repository's bucket holding the last generation handed out, which outlives index.yaml.
+   */
+  public static final String P_LAST_GENERATION = "lastIndexGeneration";
+
+  private static final Pattern GENERATION_FILE = Pattern.compile("index-\\d+\\.yaml");
+
+  private IndexGenerations() {
+    // no instances
+  }
+
+  public static String fileName(final long generation) {
+    return "index-" + generation + ".yaml";
+  }
+
+  public static String deltaFileName(final long generation) {
+    return "index-" + generation + ".delta.yaml";
+  }
+
+  public static boolean isGenerationFile(final String fileName) {
+    return GENERATION_FILE.matcher(fileName).matches();
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.oci;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.Hashing;
+
+/**
+ * Describes a chart as an OCI artifact the way the Helm client pushes it: an image manifest with the chart metadata
+ * as config and the chart archive as its single layer. Documents are generated deterministically from the chart
+ * entry, with the entries of every map written in key order whatever order the chart metadata was read in, so their
+ * digests are stable without being stored.
+ *
+ * @since 1.0.11
+ */
+public final class HelmOciArtifacts
+{
+  public static final String MANIFEST_MEDIA_TYPE = "application/vnd.oci.image.manifest.v1+json";
+
+  public static final String CONFIG_MEDIA_TYPE = "application/vnd.cncf.helm.config.v1+json";
+
+  public static final String CHART_LAYER_MEDIA_TYPE = "application/vnd.cncf.helm.chart.content.v1.tar+gzip";
+
+  private static final String SHA256_PREFIX = "sha256:";
+
+  private static final ObjectMapper mapper = new ObjectMapper()
+      .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+  private HelmOciArtifacts() {
+    // no instances
+  }
+
+  /**
+   * OCI tags may not contain '+', so the Helm client replaces it with '_' in chart versions carrying build metadata.
+   */
+  public static String toTag(final String version) {
+    return version.replace('+', '_');
+  }
+
+  public static String fromTag(final String tag) {
+    return tag.replace('_', '+');
+  }
+
+  public static String digest(final byte[] content) {
+    return SHA256_PREFIX + Hashing.sha256().hashBytes(content).toString();
+  }
+
+  public static String chartDigest(final ChartEntry chart) {
+    return SHA256_PREFIX + chart.getDigest();
+  }
+
+  /**
+   * @return the chart metadata as JSON, as found in the config blob of charts pushed by the Helm client
+   */
+  public static byte[] config(final ChartEntry chart) throws JsonProcessingException {
+    Map<String, Object> config = new LinkedHashMap<>();
+    putIfNotNull(config, "name", chart.getName());
+    putIfNotNull(config, "home", chart.getHome());
+    putIfNotNull(config, "sources", chart.getSources());
+    putIfNotNull(config, "version", chart.getVersion());
+    putIfNotNull(config, "description", chart.getDescription());
+    putIfNotNull(config, "keywords", chart.getKeywords());
+    putIfNotNull(config, "maintainers", chart.getMaintainers());
+    putIfNotNull(config, "icon", chart.getIcon());
+    putIfNotNull(config, "apiVersion", chart.getApiVersion());
+    putIfNotNull(config, "appVersion", chart.getAppVersion());
+    putIfNotNull(config, "deprecated", chart.getDeprecated());
+    putIfNotNull(config, "annotations", chart.getAnnotations());
+    putIfNotNull(config, "kubeVersion", chart.getKubeVersion());
+    putIfNotNull(config, "dependencies", chart.getDependencies());
+    putIfNotNull(config, "type", chart.getType());
+    return mapper.writeValueAsBytes(config);
+  }
+
+  /**
+   * @return the image manifest referencing the given config and a chart archive of the given size
+   */
+  public static byte[] manifest(final ChartEntry chart, final byte[] config, final long chartSize)
+      throws JsonProcessingException
+  {
+    Map<String, Object> configDescriptor = new LinkedHashMap<>();
+    configDescriptor.put("mediaType", CONFIG_MEDIA_TYPE);
+    configDescriptor.put("digest", digest(config));
+    configDescriptor.put("size", config.length);
+
+    Map<String, Object> layerDescriptor = new LinkedHashMap<>();
+    layerDescriptor.put("mediaType", CHART_LAYER_MEDIA_TYPE);
+    layerDescriptor.put("digest", chartDigest(chart));
+    layerDescriptor.put("size", chartSize);
+
+    Map<String, Object> annotations = new LinkedHashMap<>();
+    putIfNotNull(annotations, "org.opencontainers.image.title", chart.getName());
+    putIfNotNull(annotations, "org.opencontainers.image.version", chart.getVersion());
+    putIfNotNull(annotations, "org.opencontainers.image.description", chart.getDescription());
+
+    Map<String, Object> manifest = new LinkedHashMap<>();
+    manifest.put("schemaVersion", 2);
+    manifest.put("mediaType", MANIFEST_MEDIA_TYPE);
+    manifest.put("config", configDescriptor);
+    manifest.put("layers", Collections.singletonList(layerDescriptor));
+    manifest.put("annotations", annotations);
+    return mapper.writeValueAsBytes(manifest);
+  }
+
+  private static void putIfNotNull(final Map<String, Object> map, final String key, @Nullable final Object value) {
+    if (value != null) {
+      map.put(key, value);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.oci;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.http.HttpStatus;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.ContentTypes;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.Status;
+import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
+import org.sonatype.nexus.repository.view.payloads.BytesPayload;
+import org.sonatype.nexus.repository.view.payloads.StringPayload;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+import org.sonatype.repository.helm.internal.metadata.ChartVersionIndex;
+import org.sonatype.repository.helm.internal.orient.hosted.HelmHostedFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import static org.sonatype.nexus.repository.http.HttpResponses.ok;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.CONFIG_MEDIA_TYPE;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.MANIFEST_MEDIA_TYPE;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.chartDigest;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.config;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.digest;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.fromTag;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.manifest;
+import static org.sonatype.repository.helm.internal.oci.HelmOciArtifacts.toTag;
+
+/**
+ * Read only OCI distribution API for the charts of a hosted repository: tag listing, manifests by tag or digest and
+ * blobs by digest. Manifests and configs are generated from the chart index, and the chart layer is the stored chart
+ * archive itself, so charts uploaded the classic way can be pulled with {@code helm pull oci://} without storing them
+ * twice.
+ *
+ * A manifest is only generated for the version it is requested for. Manifests requested by digest are resolved
+ * through the digests of manifests generated before, and only the versions of the chart are scanned when the digest
+ * was not seen yet; blobs are resolved from the chart digests in the index.
+ *
+ * The repository path replaces the registry root, so clients need the {@code /v2/} prefix routed to
+ * {@code /repository/<name>/v2/}, typically by a reverse proxy.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class OciHandlers
+    extends ComponentSupport
+{
+  private static final String API_VERSION_HEADER = "Docker-Distribution-API-Version";
+
+  private static final String API_VERSION = "registry/2.0";
+
+  private static final String CONTENT_DIGEST_HEADER = "Docker-Content-Digest";
+
+  private static final String DIGEST_PREFIX = "sha256:";
+
+  private static final long MANIFEST_DIGESTS_MAXIMUM_SIZE = 10_000;
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  /**
+   * Chart version of each manifest digest generated, by repository name and digest.
+   */
+  private final Cache<String, String> manifestVersions = CacheBuilder.newBuilder()
+      .maximumSize(MANIFEST_DIGESTS_MAXIMUM_SIZE)
+      .build();
+
+  /**
+   * Answers the API version check of clients.
+   */
+  public final Handler base = context -> withApiVersion(ok(new StringPayload("{}", ContentTypes.APPLICATION_JSON)));
+
+  public final Handler tags = context -> {
+    String name = chartName(context);
+    ChartVersionIndex versionIndex = versionIndex(context);
+    List<ChartEntry> versions = versionIndex != null ? versionIndex.getVersions(name) : new ArrayList<>();
+    if (versions.isEmpty()) {
+      return error(HttpStatus.NOT_FOUND, "NAME_UNKNOWN", "Repository name not known to registry: " + name);
+    }
+    List<String> tagList = new ArrayList<>();
+    for (ChartEntry version : versions) {
+      tagList.add(toTag(version.getVersion()));
+    }
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("name", name);
+    result.put("tags", tagList);
+    return withApiVersion(ok(new StringPayload(mapper.writeValueAsString(result), ContentTypes.APPLICATION_JSON)));
+  };
+
+  public final Handler manifests = context -> {
+    String name = chartName(context);
+    String reference = token(context, "reference");
+    ChartVersionIndex versionIndex = versionIndex(context);
+    if (versionIndex == null) {
+      return manifestUnknown(reference);
+    }
+    if (reference.startsWith(DIGEST_PREFIX)) {
+      byte[] manifest = manifestByDigest(context, versionIndex, name, reference);
+      return manifest != null ? manifestResponse(manifest) : manifestUnknown(reference);
+    }
+    ChartEntry chart = versionIndex.find(name, fromTag(reference));
+    byte[] manifest = chart != null ? manifest(context, chart) : null;
+    return manifest != null ? manifestResponse(manifest) : manifestUnknown(reference);
+  };
+
+  public final Handler blobs = context -> {
+    String name = chartName(context);
+    String digest = token(context, "digest");
+    ChartVersionIndex versionIndex = versionIndex(context);
+    List<ChartEntry> versions = versionIndex != null ? versionIndex.getVersions(name) : new ArrayList<>();
+    // only the chart matching the digest is read from storage, configs are generated from the index
+    for (ChartEntry chart : versions) {
+      if (digest.equals(chartDigest(chart))) {
+        Content content = chartContent(context, chart);
+        if (content != null) {
+          return withDigest(ok(content), digest);
+        }
+      }
+    }
+    for (ChartEntry chart : versions) {
+      byte[] config = config(chart);
+      if (digest.equals(digest(config))) {
+        return withDigest(ok(new BytesPayload(config, CONFIG_MEDIA_TYPE)), digest);
+      }
+    }
+    return error(HttpStatus.NOT_FOUND, "BLOB_UNKNOWN", "Blob unknown to registry: " + digest);
+  };
+
+  @Nullable
+  private byte[] manifestByDigest(final Context context,
+                                  final ChartVersionIndex versionIndex,
+                                  final String name,
+                                  final String digest) throws JsonProcessingException
+  {
+    String key = context.getRepository().getName() + "/" + name + "@" + digest;
+    String version = manifestVersions.getIfPresent(key);
+    if (version != null) {
+      ChartEntry chart = versionIndex.find(name, version);
+      byte[] manifest = chart != null ? manifest(context, chart) : null;
+      if (manifest != null && digest.equals(digest(manifest))) {
+        return manifest;
+      }
+      manifestVersions.invalidate(key);
+    }
+    for (ChartEntry chart : versionIndex.getVersions(name)) {
+      byte[] manifest = manifest(context, chart);
+      if (manifest != null && digest.equals(digest(manifest))) {
+        return manifest;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Generates the manifest of a chart version, remembering its digest for requests by digest.
+   */
+  @Nullable
+  private byte[] manifest(final Context context, final ChartEntry chart) throws JsonProcessingException {
+    Long size = context.getRepository().facet(HelmHostedFacet.class).size(chartPath(chart));
+    if (size == null) {
+      return null;
+    }
+    byte[] manifest = HelmOciArtifacts.manifest(chart, config(chart), size);
+    manifestVersions.put(context.getRepository().getName() + "/" + chart.getName() + "@" + digest(manifest),
+        chart.getVersion());
+    return manifest;
+  }
+
+  @Nullable
+  private Content chartContent(final Context context, final ChartEntry chart) {
+    return context.getRepository().facet(HelmHostedFacet.class).get(chartPath(chart));
+  }
+
+  private static String chartPath(final ChartEntry chart) {
+    return String.format("%s-%s.tgz", chart.getName(), chart.getVersion());
+  }
+
+  @Nullable
+  private ChartVersionIndex versionIndex(final Context context) {
+    ChartDependencyGraph graph = context.getRepository().facet(ChartIndexFacet.class).getDependencyGraph();
+    return graph != null ? graph.getVersionIndex() : null;
+  }
+
+  /**
+   * OCI repository names may be nested, the chart name is the last path segment.
+   */
+  private static String chartName(final Context context) {
+    String name = token(context, "name");
+    return name.substring(name.lastIndexOf('/') + 1);
+  }
+
+  private static String token(final Context context, final String token) {
+    return context.getAttributes().require(TokenMatcher.State.class).getTokens().get(token);
+  }
+
+  private static Response manifestResponse(final byte[] manifest) {
+    return withDigest(ok(new BytesPayload(manifest, MANIFEST_MEDIA_TYPE)), digest(manifest));
+  }
+
+  private static Response manifestUnknown(final String reference) throws JsonProcessingException {
+    return error(HttpStatus.NOT_FOUND, "MANIFEST_UNKNOWN", "Manifest unknown: " + reference);
+  }
+
+  private static Response error(final int status, final String code, final String message)
+      throws JsonProcessingException
+  {
+    Map<String, Object> error = new LinkedHashMap<>();
+    error.put("code", code);
+    error.put("message", message);
+    Map<String, Object> errors = new LinkedHashMap<>();
+    errors.put("errors", Collections.singletonList(error));
+    return withApiVersion(new Response.Builder()
+        .status(Status.failure(status, message))
+        .payload(new StringPayload(mapper.writeValueAsString(errors), ContentTypes.APPLICATION_JSON))
+        .build());
+  }
+
+  private static Response withDigest(final Response response, final String digest) {
+    response.getHeaders().set(CONTENT_DIGEST_HEADER, digest);
+    return withApiVersion(response);
+  }
+
+  private static Response withApiVersion(final Response response) {
+    response.getHeaders().set(API_VERSION_HEADER, API_VERSION);
+    return response;
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.DefaultBlobIdLocationResolver;
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobStore;
+import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration;
+import org.sonatype.nexus.blobstore.api.BlobStoreManager;
+import org.sonatype.nexus.common.app.ApplicationDirectories;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Locates the content file of blobs held in file blob stores, so they can be served as a {@link FileChannelPayload}.
+ * Other blob store types, and any blob whose file cannot be confirmed, are left to the regular blob payload.
+ *
+ * The content file is found by rebuilding the file blob store's on-disk layout, which is not a supported API and may
+ * change between Nexus versions, so this is off unless {@code nexus.helm.fileChannelPayload.enabled=true} is set
+ * after checking the layout of the running version.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class FileBlobPayloads
+    extends ComponentSupport
+{
+  private static final String FILE_TYPE = "File";
+
+  private static final String CONFIG_KEY = "file";
+
+  private static final String PATH_KEY = "path";
+
+  private static final String BASEDIR = "blobs";
+
+  private static final String CONTENT = "content";
+
+  private static final String BLOB_CONTENT_SUFFIX = ".bytes";
+
+  private final BlobStoreManager blobStoreManager;
+
+  private final ApplicationDirectories applicationDirectories;
+
+  private final DefaultBlobIdLocationResolver locationResolver = new DefaultBlobIdLocationResolver();
+
+  private final boolean enabled;
+
+  @Inject
+  public FileBlobPayloads(final BlobStoreManager blobStoreManager,
+                          final ApplicationDirectories applicationDirectories,
+                          @Named("${nexus.helm.fileChannelPayload.enabled:-false}") final boolean enabled)
+  {
+    this.blobStoreManager = checkNotNull(blobStoreManager);
+    this.applicationDirectories = checkNotNull(applicationDirectories);
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return a payload reading the blob's file directly, or null if the blob is not a plain file on this node
+   */
+  @Nullable
+  public FileChannelPayload create(final String blobStoreName, final Blob blob, @Nullable final String contentType) {
+    Path content = contentFile(blobStoreName, blob);
+    if (content == null) {
+      return null;
+    }
+    return new FileChannelPayload(content, blob.getMetrics().getContentSize(), contentType);
+  }
+
+  /**
+   * @return the file holding the blob's content, or null if the blob is not a plain file on this node
+   */
+  @Nullable
+  public Path contentFile(final String blobStoreName, final Blob blob) {
+    if (!enabled) {
+      return null;
+    }
+    Path content = contentPath(blobStoreName, blob);
+    if (content == null) {
+      return null;
+    }
+    try {
+      if (Files.size(content) != blob.getMetrics().getContentSize()) {
+        return null;
+      }
+    }
+    catch (IOException e) {
+      log.debug("Content file {} of blob {} not readable, using the blob store", content, blob.getId(), e);
+      return null;
+    }
+    return content;
+  }
+
+  @Nullable
+  private Path contentPath(final String blobStoreName, final Blob blob) {
+    BlobStore blobStore = blobStoreManager.get(blobStoreName);
+    if (blobStore == null) {
+      return null;
+    }
+    BlobStoreConfiguration configuration = blobStore.getBlobStoreConfiguration();
+    if (!FILE_TYPE.equals(configuration.getType())) {
+      return null;
+    }
+    String path = configuration.attributes(CONFIG_KEY).get(PATH_KEY, String.class);
+    if (path == null) {
+      return null;
+    }
+    Path root = Paths.get(path);
+    if (!root.isAbsolute()) {
+      root = applicationDirectories.getWorkDirectory(BASEDIR).toPath().resolve(root);
+    }
+    return root.resolve(CONTENT).resolve(locationResolver.getLocation(blob.getId()) + BLOB_CONTENT_SUFFIX);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.repository.view.Payload;
+
+import com.google.common.io.ByteStreams;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * {@link Payload} reading a blob straight from its file in a file blob store. A full response is written with
+ * {@link FileChannel#transferTo}, which hands the file to the kernel when the response stream is itself a channel,
+ * and ranged requests seek to their start instead of reading and discarding the leading bytes.
+ *
+ * @since 1.0.11
+ */
+public class FileChannelPayload
+    implements Payload
+{
+  private final Path path;
+
+  private final long size;
+
+  private final String contentType;
+
+  public FileChannelPayload(final Path path, final long size, @Nullable final String contentType) {
+    this.path = checkNotNull(path);
+    this.size = size;
+    this.contentType = contentType;
+  }
+
+  @Override
+  public InputStream openInputStream() throws IOException {
+    return new FileChannelInputStream(FileChannel.open(path, READ));
+  }
+
+  @Override
+  public long getSize() {
+    return size;
+  }
+
+  @Nullable
+  @Override
+  public String getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public void copy(final InputStream input, final OutputStream output) throws IOException {
+    if (input instanceof FileChannelInputStream) {
+      ((FileChannelInputStream) input).sendTo(output);
+    }
+    else {
+      ByteStreams.copy(input, output);
+    }
+  }
+
+  static class FileChannelInputStream
+      extends InputStream
+  {
+    private final FileChannel channel;
+
+    FileChannelInputStream(final FileChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Writes everything from the current position to the end of the file.
+     */
+    void sendTo(final OutputStream output) throws IOException {
+      // the adapter must not be closed, that would close the response stream
+      WritableByteChannel target = output instanceof WritableByteChannel
+          ? (WritableByteChannel) output
+          : Channels.newChannel(output);
+      long position = channel.position();
+      long end = channel.size();
+      while (position < end) {
+        position += channel.transferTo(position, end - position, target);
+      }
+      channel.position(position);
+      output.flush();
+    }
+
+    @Override
+    public int read() throws IOException {
+      ByteBuffer single = ByteBuffer.allocate(1);
+      return channel.read(single) == 1 ? single.get(0) & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      return channel.read(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      long position = channel.position();
+      long skipped = Math.max(0, Math.min(n, channel.size() - position));
+      channel.position(position + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(Integer.MAX_VALUE, channel.size() - channel.position());
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -13,25 +13,38 @@
 package org.sonatype.repository.helm.internal.orient;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import javax.inject.Named;
 
 import org.sonatype.nexus.common.entity.EntityId;
+import org.sonatype.nexus.repository.Facet.Exposed;
 import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.Bucket;
 import org.sonatype.nexus.repository.storage.Component;
 import org.sonatype.nexus.repository.storage.DefaultComponentMaintenanceImpl;
+import org.sonatype.nexus.repository.storage.StorageFacet;
 import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.scheduling.CancelableHelper;
 import org.sonatype.nexus.transaction.Transactional;
 import org.sonatype.nexus.transaction.UnitOfWork;
+import org.sonatype.repository.helm.internal.orient.createindex.CreateIndexFacet;
 
+import com.google.common.collect.Lists;
 import com.orientechnologies.common.concur.ONeedRetryException;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
+ * Exposed so that Helm callers can use its batched {@link #deleteComponents(List, int)}.
+ *
  * @since 1.0.0
  */
 @Named
+@Exposed
 public class HelmComponentMaintenanceFacet
     extends DefaultComponentMaintenanceImpl
 {
@@ -58,4 +71,58 @@ public class HelmComponentMaintenanceFacet
     }
     return Collections.singleton(asset.name());
   }
+
+  /**
+   * Deletes components with all their assets, {@code batchSize} components per transaction. Index invalidation is
+   * suspended meanwhile and the index rebuilt once at the end, instead of once for every component; the deletion
+   * events of the batch, which arrive asynchronously, are ignored.
+   *
+   * @return the names of the deleted assets
+   * @since 1.0.11
+   */
+  public Set<String> deleteComponents(final List<EntityId> componentIds, final int batchSize) {
+    checkArgument(batchSize > 0, "Batch size must be greater than zero");
+    Optional<CreateIndexFacet> createIndexFacet = getRepository().optionalFacet(CreateIndexFacet.class);
+    Set<String> deleted = new HashSet<>();
+    createIndexFacet.ifPresent(CreateIndexFacet::suspendInvalidation);
+    try {
+      for (List<EntityId> batch : Lists.partition(componentIds, batchSize)) {
+        CancelableHelper.checkCancellation();
+        createIndexFacet.ifPresent(facet -> facet.ignoreDeletions(batch));
+        UnitOfWork.begin(getRepository().facet(StorageFacet.class).txSupplier());
+        try {
+          deleted.addAll(deleteComponentsTx(batch));
+        }
+        finally {
+          UnitOfWork.end();
+        }
+      }
+    }
+    finally {
+      if (!deleted.isEmpty()) {
+        createIndexFacet.ifPresent(CreateIndexFacet::invalidateIndex);
+      }
+      createIndexFacet.ifPresent(CreateIndexFacet::resumeInvalidation);
+    }
+    log.debug("Deleted {} components with {} assets from {}", componentIds.size(), deleted.size(),
+        getRepository().getName());
+    return deleted;
+  }
+
+  @Transactional(retryOn = ONeedRetryException.class)
+  protected Set<String> deleteComponentsTx(final List<EntityId> componentIds) {
+    StorageTx tx = UnitOfWork.currentTx();
+    Bucket bucket = tx.findBucket(getRepository());
+    Set<String> deleted = new HashSet<>();
+    for (EntityId componentId : componentIds) {
+      Component component = tx.findComponentInBucket(componentId, bucket);
+      if (component != null) {
+        for (Asset asset : tx.browseAssets(component)) {
+          deleted.add(asset.name());
+        }
+        tx.deleteComponent(component);
+      }
+    }
+    return deleted;
+  }
 }
@@ -23,6 +23,7 @@ import org.sonatype.nexus.common.collect.AttributesMap;
 import org.sonatype.nexus.repository.Facet;
 import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Payload;
 import org.sonatype.repository.helm.HelmAttributes;
@@ -39,6 +40,11 @@ public interface HelmFacet
 {
   Iterable<Asset> browseComponentAssets(final StorageTx tx, @Nullable final AssetKind assetKind);
 
+  Iterable<Asset> browseComponentAssets(final StorageTx tx,
+                                        @Nullable final AssetKind assetKind,
+                                        @Nullable final String lastAssetName,
+                                        final int limit);
+
   Optional<Asset> findAsset(final StorageTx tx, final String assetName);
 
   Asset findOrCreateAsset(final StorageTx tx,
@@ -46,6 +52,8 @@ public interface HelmFacet
                           final AssetKind assetKind,
                           final HelmAttributes helmAttributes);
 
+  Optional<HelmAttributes> findChartAttributes(final StorageTx tx, final String assetName, final TempBlob tempBlob);
+
   Content saveAsset(final StorageTx tx,
                     final Asset asset,
                     final Supplier<InputStream> contentSupplier,
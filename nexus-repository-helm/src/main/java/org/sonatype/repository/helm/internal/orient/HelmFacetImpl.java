@@ -14,16 +14,23 @@ package org.sonatype.repository.helm.internal.orient;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.sonatype.nexus.blobstore.api.Blob;
 import org.sonatype.nexus.common.collect.AttributesMap;
 import org.sonatype.nexus.repository.FacetSupport;
+import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.cache.CacheControllerHolder;
+import org.sonatype.nexus.repository.config.Configuration;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
 import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.AssetBlob;
 import org.sonatype.nexus.repository.storage.Bucket;
@@ -31,23 +38,30 @@ import org.sonatype.nexus.repository.storage.Component;
 import org.sonatype.nexus.repository.storage.Query;
 import org.sonatype.nexus.repository.storage.Query.Builder;
 import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Payload;
 import org.sonatype.nexus.repository.view.payloads.BlobPayload;
 import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.AssetKind;
 import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.orient.hosted.HelmAssetFilterFacet;
 
 import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Collections.singletonList;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
 import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_ASSET_KIND;
 import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_COMPONENT;
 import static org.sonatype.nexus.repository.storage.ComponentEntityAdapter.P_VERSION;
 import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_ATTRIBUTES;
 import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_NAME;
+import static org.sonatype.nexus.repository.config.ConfigurationConstants.BLOB_STORE_NAME;
+import static org.sonatype.nexus.repository.config.ConfigurationConstants.STORAGE;
 import static org.sonatype.nexus.repository.storage.Query.builder;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
 import static org.sonatype.repository.helm.internal.HelmFormat.HASH_ALGORITHMS;
 
 /**
@@ -60,6 +74,26 @@ public class HelmFacetImpl
     extends FacetSupport
     implements HelmFacet
 {
+  private static final String P_SHA256 = P_ATTRIBUTES + ".checksum." + SHA256.name();
+
+  private static final String P_HELM_ASSET_KIND = P_ATTRIBUTES + "." + HelmFormat.NAME + "." + P_ASSET_KIND;
+
+  private final RepositoryManager repositoryManager;
+
+  private final FileBlobPayloads fileBlobPayloads;
+
+  @Inject
+  public HelmFacetImpl(final RepositoryManager repositoryManager, final FileBlobPayloads fileBlobPayloads) {
+    this.repositoryManager = checkNotNull(repositoryManager);
+    this.fileBlobPayloads = checkNotNull(fileBlobPayloads);
+  }
+
+  // HACK: Workaround for known CGLIB issue, forces an Import-Package for org.sonatype.nexus.repository.config
+  @Override
+  protected void doValidate(final Configuration configuration) throws Exception {
+    super.doValidate(configuration);
+  }
+
   @Override
   public Asset findOrCreateAsset(
       final StorageTx tx,
@@ -67,7 +101,8 @@ public class HelmFacetImpl
       final AssetKind assetKind,
       final HelmAttributes helmAttributes)
   {
-    Optional<Asset> assetOpt = findAsset(tx, assetPath);
+    // the name filter may not know about an asset another node has just created, so creation always asks storage
+    Optional<Asset> assetOpt = findAssetInStorage(tx, assetPath);
     return assetOpt.orElseGet(() ->
         createAsset(tx, assetPath, helmAttributes, assetKind));
   }
@@ -87,6 +122,7 @@ public class HelmFacetImpl
     asset.formatAttributes().set(P_ASSET_KIND, assetKind.name());
     helmAttributes.populate(asset.formatAttributes());
     asset.name(assetPath);
+    getRepository().optionalFacet(HelmAssetFilterFacet.class).ifPresent(filter -> filter.created(assetPath));
     tx.saveAsset(asset);
     return asset;
   }
@@ -133,7 +169,7 @@ public class HelmFacetImpl
     Builder builder = builder()
         .where(P_COMPONENT).isNotNull();
     if (assetKind != null) {
-      builder.and(P_ATTRIBUTES + "." + HelmFormat.NAME + "." + P_ASSET_KIND).eq(assetKind.name());
+      builder.and(P_HELM_ASSET_KIND).eq(assetKind.name());
     }
 
     Query query = builder
@@ -143,17 +179,98 @@ public class HelmFacetImpl
   }
 
   /**
-   * Find an asset by its name.
+   * Find one page of assets for Helm components by assetKind. Assets are ordered by name and the page starts after
+   * {@code lastAssetName}, so callers can walk a large repository using a separate short transaction for each page.
+   *
+   * @return found assets, at most {@code limit} of them
+   */
+  @Override
+  public Iterable<Asset> browseComponentAssets(final StorageTx tx,
+                                               @Nullable final AssetKind assetKind,
+                                               @Nullable final String lastAssetName,
+                                               final int limit)
+  {
+    Builder builder = builder()
+        .where(P_COMPONENT).isNotNull();
+    if (assetKind != null) {
+      builder.and(P_HELM_ASSET_KIND).eq(assetKind.name());
+    }
+    if (lastAssetName != null) {
+      builder.and(P_NAME + " > ").param(lastAssetName);
+    }
+
+    Query query = builder
+        .suffix(String.format("ORDER BY %s LIMIT %d", P_NAME, limit))
+        .build();
+    Bucket bucket = tx.findBucket(getRepository());
+    return tx.browseAssets(query, bucket);
+  }
+
+  /**
+   * Find an asset by its name. Hosted repositories answer names they are known not to hold without a query.
    *
    * @return found Optional<Asset> or Optional.empty if not found
    */
   @Override
   public Optional<Asset> findAsset(final StorageTx tx, final String assetName) {
+    Optional<HelmAssetFilterFacet> filter = getRepository().optionalFacet(HelmAssetFilterFacet.class);
+    if (filter.isPresent() && !filter.get().mightExist(assetName)) {
+      return Optional.empty();
+    }
+    return findAssetInStorage(tx, assetName);
+  }
+
+  private Optional<Asset> findAssetInStorage(final StorageTx tx, final String assetName) {
     Bucket bucket = tx.findBucket(getRepository());
     Asset asset = tx.findAssetWithProperty(P_NAME, assetName, bucket);
     return Optional.ofNullable(asset);
   }
 
+  /**
+   * Find the attributes already extracted from an identical chart. Charts are looked up by file name in every Helm
+   * repository that shares this repository's blob store, so a chart promoted between repositories is matched with a
+   * single indexed lookup; the SHA256 of the stored asset must equal the digest of the incoming content. Only the
+   * Chart.yaml fields are reused; what the other repository recorded about the chart is left behind.
+   *
+   * @return attributes of the matching chart or Optional.empty if no identical chart is stored
+   */
+  @Override
+  public Optional<HelmAttributes> findChartAttributes(final StorageTx tx,
+                                                      final String assetName,
+                                                      final TempBlob tempBlob)
+  {
+    HashCode sha256 = tempBlob.getHashes().get(SHA256);
+    if (sha256 == null) {
+      return Optional.empty();
+    }
+
+    Query query = builder()
+        .where(P_NAME).eq(assetName)
+        .and(P_HELM_ASSET_KIND).eq(HELM_PACKAGE.name())
+        .and(P_SHA256).eq(sha256.toString())
+        .suffix("LIMIT 1")
+        .build();
+    return StreamSupport.stream(tx.findAssets(query, sameBlobStoreRepositories()).spliterator(), false)
+        .findFirst()
+        .map(asset -> {
+          log.debug("Reusing attributes of {} from {} for identical chart", assetName, asset.bucketId());
+          return new HelmAttributes(asset.formatAttributes().backing());
+        });
+  }
+
+  private List<Repository> sameBlobStoreRepositories() {
+    String blobStoreName = blobStoreName(getRepository());
+    return StreamSupport.stream(repositoryManager.browse().spliterator(), false)
+        .filter(repository -> HelmFormat.NAME.equals(repository.getFormat().getValue()))
+        .filter(repository -> Objects.equals(blobStoreName, blobStoreName(repository)))
+        .collect(Collectors.toList());
+  }
+
+  @Nullable
+  private static String blobStoreName(final Repository repository) {
+    return repository.getConfiguration().attributes(STORAGE).get(BLOB_STORE_NAME, String.class);
+  }
+
   /**
    * Save an asset and create blob.
    *
@@ -193,21 +310,36 @@ public class HelmFacetImpl
                            @Nullable final AttributesMap contentAttributes) throws IOException
   {
     Content.applyToAsset(asset, Content.maintainLastModified(asset, contentAttributes));
-    AssetBlob assetBlob = tx.setBlob(
-        asset, asset.name(), contentSupplier, HASH_ALGORITHMS, null, contentType, false
-    );
+    if (hasSameContent(asset, contentSupplier)) {
+      // re-deploys and re-fetches of an unchanged chart keep the stored blob instead of writing a copy; only the
+      // last modified and cache info applied above are refreshed, it is not a download
+      tx.saveAsset(asset);
+      return toContent(asset, tx.requireBlob(asset.requireBlobRef()));
+    }
+    AssetBlob assetBlob = contentSupplier instanceof TempBlob
+        ? tx.setBlob(asset, asset.name(), (TempBlob) contentSupplier, null, contentType, false)
+        : tx.setBlob(asset, asset.name(), contentSupplier, HASH_ALGORITHMS, null, contentType, false);
     asset.markAsDownloaded();
     tx.saveAsset(asset);
     return toContent(asset, assetBlob.getBlob());
   }
 
+  private boolean hasSameContent(final Asset asset, final Supplier<InputStream> contentSupplier) {
+    if (asset.blobRef() == null || !(contentSupplier instanceof TempBlob)) {
+      return false;
+    }
+    HashCode sha256 = ((TempBlob) contentSupplier).getHashes().get(SHA256);
+    return sha256 != null && sha256.equals(asset.getChecksum(SHA256));
+  }
+
   /**
    * Convert an asset blob to {@link Content}.
    *
    * @return content of asset blob
    */
   public Content toContent(final Asset asset, final Blob blob) {
-    Content content = new Content(new BlobPayload(blob, asset.requireContentType()));
+    Payload payload = fileBlobPayloads.create(asset.requireBlobRef().getStore(), blob, asset.requireContentType());
+    Content content = new Content(payload != null ? payload : new BlobPayload(blob, asset.requireContentType()));
     Content.extractFromAsset(asset, HASH_ALGORITHMS, content.getAttributes());
     return content;
   }
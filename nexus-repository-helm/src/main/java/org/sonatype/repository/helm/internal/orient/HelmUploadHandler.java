@@ -20,6 +20,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.sonatype.nexus.repository.InvalidContentException;
 import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.rest.UploadDefinitionExtension;
 import org.sonatype.nexus.repository.security.ContentPermissionChecker;
@@ -111,6 +112,9 @@ public class HelmUploadHandler
         Asset asset = facet.upload(path, tempBlob, payload, assetKind);
         return new UploadResponse(asset);
       }
+      catch (InvalidContentException e) {
+        throw new ValidationErrorsException(e.getMessage());
+      }
       finally {
         UnitOfWork.end();
       }
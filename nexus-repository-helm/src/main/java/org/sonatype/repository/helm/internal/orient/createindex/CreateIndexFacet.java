@@ -12,6 +12,9 @@
  */
 package org.sonatype.repository.helm.internal.orient.createindex;
 
+import java.util.Collection;
+
+import org.sonatype.nexus.common.entity.EntityId;
 import org.sonatype.nexus.repository.Facet;
 import org.sonatype.nexus.repository.Facet.Exposed;
 
@@ -29,4 +32,22 @@ public interface CreateIndexFacet
    * to prevent unnecessary successive rebuilds of the metadata.
    */
   void invalidateIndex();
+
+  /**
+   * Hold back index rebuilds while a batch of charts is being written. Invalidations requested in the meantime are
+   * remembered and coalesced into a single rebuild once every suspension has been resumed.
+   */
+  void suspendInvalidation();
+
+  /**
+   * Release a suspension made by {@link #suspendInvalidation()}.
+   */
+  void resumeInvalidation();
+
+  /**
+   * Ignore the deletion events of the assets of the given components, whose deletion the caller accounts for with a
+   * single {@link #invalidateIndex()}. Deletion events are delivered asynchronously, so they can arrive after
+   * invalidation has been resumed; they are ignored on this node for a few minutes.
+   */
+  void ignoreDeletions(Collection<EntityId> componentIds);
 }
@@ -13,14 +13,19 @@
 package org.sonatype.repository.helm.internal.orient.createindex;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.sonatype.nexus.common.entity.EntityId;
 import org.sonatype.nexus.common.event.EventAware.Asynchronous;
-import org.sonatype.nexus.common.event.EventManager;
 import org.sonatype.nexus.common.stateguard.Guarded;
 import org.sonatype.nexus.repository.FacetSupport;
 import org.sonatype.nexus.repository.Repository;
@@ -39,8 +44,15 @@ import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.orient.HelmFacet;
 import org.sonatype.repository.helm.internal.AssetKind;
 import org.sonatype.repository.helm.internal.HelmFormat;
-import org.sonatype.repository.helm.internal.orient.hosted.HelmHostedFacet;
-
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexSidecar;
+import org.sonatype.repository.helm.internal.metadata.IndexGenerations;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexChangeLog;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexSidecars;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 
@@ -51,7 +63,8 @@ import static org.sonatype.repository.helm.internal.AssetKind.HELM_INDEX;
 import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
 
 /**
- * Facet for rebuilding Helm index.yaml files
+ * Facet for rebuilding Helm index.yaml files. In a cluster only the node chosen by {@link IndexRebuildLeadership}
+ * rebuilds a repository's index; the others reload it when they see index.yaml change.
  *
  * @since 0.0.2
  */
@@ -60,29 +73,52 @@ public class CreateIndexFacetImpl
     extends FacetSupport
     implements CreateIndexFacet, Asynchronous
 {
-  private final EventManager eventManager;
-
   private CreateIndexService createIndexService;
 
+  private final IndexRebuildLeadership leadership;
+
+  private final IndexRebuildExecutor rebuildExecutor;
+
+  private final IndexChangeLog indexChangeLog;
+
+  private final IndexSidecars indexSidecars;
+
   private final long interval;
 
+  private final int generations;
+
   private static final String INDEX_YAML = "index.yaml";
 
   private static final String TGZ_CONTENT_TYPE = "application/x-tgz";
 
-  private final AtomicBoolean acceptingEvents = new AtomicBoolean(true);
+  private static final long IGNORED_DELETIONS_MINUTES = 10;
 
-  //Prevents the same event from being fired multiple times
-  private final AtomicBoolean eventFired = new AtomicBoolean(false);
+  private volatile int charts;
+
+  private final AtomicInteger suspensions = new AtomicInteger();
+
+  private final AtomicBoolean invalidatedWhileSuspended = new AtomicBoolean(false);
+
+  private final Cache<String, Boolean> ignoredDeletions = CacheBuilder.newBuilder()
+      .expireAfterWrite(IGNORED_DELETIONS_MINUTES, TimeUnit.MINUTES)
+      .build();
 
   @Inject
-  public CreateIndexFacetImpl(final EventManager eventManager,
-                              final CreateIndexService createIndexService,
-                              @Named("${nexus.helm.createrepo.interval:-1000}") final long interval)
+  public CreateIndexFacetImpl(final CreateIndexService createIndexService,
+                              final IndexRebuildLeadership leadership,
+                              final IndexRebuildExecutor rebuildExecutor,
+                              final IndexChangeLog indexChangeLog,
+                              final IndexSidecars indexSidecars,
+                              @Named("${nexus.helm.createrepo.interval:-1000}") final long interval,
+                              @Named("${nexus.helm.index.generations:-3}") final int generations)
   {
-    this.eventManager = checkNotNull(eventManager);
     this.createIndexService = checkNotNull(createIndexService);
+    this.leadership = checkNotNull(leadership);
+    this.rebuildExecutor = checkNotNull(rebuildExecutor);
+    this.indexChangeLog = checkNotNull(indexChangeLog);
+    this.indexSidecars = checkNotNull(indexSidecars);
     this.interval = interval;
+    this.generations = generations;
   }
 
   @Subscribe
@@ -121,51 +157,71 @@ public class CreateIndexFacetImpl
     if (HelmFormat.NAME.equals(formatName)) {
       String assetKindString = (String) asset.formatAttributes().get(P_ASSET_KIND);
       AssetKind assetKind = AssetKind.valueOf(assetKindString);
-      if (assetKind == HELM_PACKAGE && matchesRepository(event) && isEventRelevant(event)) {
+      if (assetKind == HELM_PACKAGE && matchesRepository(event) && isEventRelevant(event)
+          && !isIgnoredDeletion(event)) {
         invalidateIndex();
       }
     }
   }
 
-  @Subscribe
-  public void on(final HelmIndexInvalidationEvent event) {
-    if(shouldProcess(event)) {
-      acceptingEvents.set(false);
-      maybeWait(event);
-
-      log.info("Rebuilding helm index for repository {}", getRepository().getName());
+  /**
+   * Rebuilds index.yaml; runs on the {@link IndexRebuildExecutor}.
+   */
+  @Guarded(by = STARTED)
+  protected void rebuildIndex() {
+    // leadership may have moved to another node while waiting, which then rebuilds in our place
+    if (!leadership.isLeader(getRepository().getName())) {
+      log.debug("Skipping rebuild of helm index for repository {}, led by another node", getRepository().getName());
+      return;
+    }
 
-      UnitOfWork.begin(getRepository().facet(StorageFacet.class).txSupplier());
-      try {
-        acceptingEvents.set(true);
-        eventFired.set(false);
+    log.info("Rebuilding helm index for repository {}", getRepository().getName());
 
-        updateIndexYaml(createIndexService.buildIndexYaml(getRepository()));
+    UnitOfWork.begin(getRepository().facet(StorageFacet.class).txSupplier());
+    try {
+      // the index is assembled page by page into a temp blob and only then swapped in with a single short write
+      ChartIndex index = createIndexService.buildChartIndex(getRepository());
+      try (TempBlob indexYaml = createIndexService.buildIndexYaml(index, getRepository())) {
+        updateIndexYaml(index, indexYaml);
       }
-      finally {
-        log.info("Finished rebuilding helm index for repository {}", getRepository().getName());
+      charts = index.getEntries().values().stream().mapToInt(List::size).sum();
+      getRepository().optionalFacet(ChartIndexFacet.class).ifPresent(facet -> facet.publish(index));
+    }
+    finally {
+      log.info("Finished rebuilding helm index for repository {}", getRepository().getName());
 
-        UnitOfWork.end();
-      }
+      UnitOfWork.end();
     }
   }
 
   @TransactionalStoreBlob
-  protected void updateIndexYaml(final TempBlob indexYaml) {
+  protected void updateIndexYaml(final ChartIndex index, final TempBlob indexYaml) {
     if (indexYaml == null) {
       deleteIndexYaml();
     } else {
-      createIndexYaml(indexYaml);
+      createIndexYaml(index, indexYaml);
     }
   }
 
-  private void createIndexYaml(final TempBlob indexYaml) {
+  /**
+   * Stores the index as the next immutable generation and as index.yaml within one transaction, so readers switch
+   * from one complete generation to the next, then drops generations beyond the configured number. The binary
+   * {@link ChartIndexSidecar} is written along with it.
+   */
+  private void createIndexYaml(final ChartIndex index, final TempBlob indexYaml) {
     Repository repository = getRepository();
     HelmFacet helmFacet = repository.facet(HelmFacet.class);
     StorageTx tx = UnitOfWork.currentTx();
     HelmAttributes attributes = new HelmAttributes(Collections.emptyMap());
     Asset asset = helmFacet.findOrCreateAsset(tx, INDEX_YAML, HELM_INDEX, attributes);
     try {
+      long generation = indexChangeLog.record(repository, tx, asset, indexYaml, index);
+      indexSidecars.write(repository, tx, indexYaml, index);
+      if (generations > 0) {
+        Asset snapshot = helmFacet.findOrCreateAsset(tx, IndexGenerations.fileName(generation), HELM_INDEX, attributes);
+        helmFacet.saveAsset(tx, snapshot, indexYaml, TGZ_CONTENT_TYPE, null);
+        deleteGenerationsBefore(tx, helmFacet, generation - generations + 1);
+      }
       helmFacet.saveAsset(tx, asset, indexYaml, TGZ_CONTENT_TYPE, null);
     }
     catch (IOException ex) {
@@ -173,39 +229,52 @@ public class CreateIndexFacetImpl
     }
   }
 
-  private void deleteIndexYaml() {
-    log.debug("Empty index.yaml returned, proceeding to delete asset");
-    HelmHostedFacet hosted = getRepository().facet(HelmHostedFacet.class);
-    boolean result = hosted.delete(INDEX_YAML);
-    if (result) {
-      log.info("Deleted index.yaml because of empty asset list");
-    } else {
-      log.warn("Unable to delete index.yaml asset");
+  private void deleteGenerationsBefore(final StorageTx tx, final HelmFacet helmFacet, final long oldestKept) {
+    for (long generation = oldestKept - 1; generation > 0; generation--) {
+      Optional<Asset> expired = helmFacet.findAsset(tx, IndexGenerations.fileName(generation));
+      if (!expired.isPresent()) {
+        break;
+      }
+      tx.deleteAsset(expired.get());
     }
   }
 
-  private boolean shouldProcess(final HelmIndexInvalidationEvent event) {
-    return getRepository().getName().equals(event.getRepositoryName());
+  /**
+   * Deletes index.yaml along with its binary sidecar, its kept generations and its deltas, so that no stale history is
+   * served once the repository holds charts again.
+   */
+  private void deleteIndexYaml() {
+    log.debug("Empty index.yaml returned, proceeding to delete asset");
+    Repository repository = getRepository();
+    HelmFacet helmFacet = repository.facet(HelmFacet.class);
+    StorageTx tx = UnitOfWork.currentTx();
+    Optional<Asset> asset = helmFacet.findAsset(tx, INDEX_YAML);
+    if (!asset.isPresent()) {
+      log.debug("No index.yaml to delete in {}", repository.getName());
+      return;
+    }
+    long generation = IndexChangeLog.generation(asset.get());
+    for (long expired = generation; expired > 0 && expired > generation - generations; expired--) {
+      helmFacet.findAsset(tx, IndexGenerations.fileName(expired)).ifPresent(tx::deleteAsset);
+    }
+    indexChangeLog.deleteDeltas(repository, tx, generation);
+    helmFacet.findAsset(tx, ChartIndexSidecar.FILE_NAME).ifPresent(tx::deleteAsset);
+    tx.deleteAsset(asset.get());
+    log.info("Deleted index.yaml because of empty asset list");
   }
 
-  private void maybeWait(final HelmIndexInvalidationEvent event) {
-    if (event.isWaitBeforeRebuild()) {
-      try {
-        Thread.sleep(interval);
-      }
-      catch (InterruptedException e) { // NOSONAR
-        log.warn("Helm invalidation thread interrupted, proceeding with invalidation");
-      }
+  private void scheduleRebuild(final long delay) {
+    if (rebuildExecutor.schedule(getRepository().getName(), charts, delay, this::rebuildIndex)) {
+      log.info("Scheduling rebuild of helm metadata to start in {} seconds", delay / 1000);
     }
   }
 
   /**
-   * This prevents us firing the invalidation event multiple time unnecessarily. If we don't do this check then then
-   * created/updated/deleted events will be handled by every instance of this class and each will fire an invalidation
-   * event
+   * Changes made on any node of a cluster are considered, so that the node leading the rebuilds of this repository
+   * sees all of them; {@link #invalidateIndex()} drops them on the other nodes.
    */
   private boolean matchesRepository(final AssetEvent assetEvent) {
-    return assetEvent.isLocal() && getRepository().getName().equals(assetEvent.getRepositoryName());
+    return getRepository().getName().equals(assetEvent.getRepositoryName());
   }
 
   /**
@@ -216,18 +285,45 @@ public class CreateIndexFacetImpl
   }
 
   /**
-   * We are accepting that the boolean values can change in the middle of this if statement. For example if
-   * acceptingEvents is true and eventFired is false but before we check eventFired acceptingEvents is toggled, we will
-   * add one additional process request which will be handled synchronously and not cause any issues.
+   * Deletions of the assets of components deleted in a batch are accounted for by the invalidation ending the batch.
+   */
+  private boolean isIgnoredDeletion(final AssetEvent event) {
+    return event instanceof AssetDeletedEvent
+        && ignoredDeletions.getIfPresent(event.getComponentId().getValue()) != null;
+  }
+
+  /**
+   * Invalidations arriving while a rebuild is already waiting join it, see {@link IndexRebuildExecutor}.
    */
   @Override
   public synchronized void invalidateIndex() {
-    if (acceptingEvents.get() && !eventFired.get()) {
-      log.info("Scheduling rebuild of helm metadata to start in {} seconds", interval / 1000);
+    if (!leadership.isLeader(getRepository().getName())) {
+      log.debug("Helm metadata of {} is rebuilt by another node", getRepository().getName());
+      return;
+    }
+    if (suspensions.get() > 0) {
+      invalidatedWhileSuspended.set(true);
+      return;
+    }
+    scheduleRebuild(interval);
+  }
 
-      // Prevent another event being fired if one is already queued up
-      eventFired.set(true);
-      eventManager.post(new HelmIndexInvalidationEvent(getRepository().getName(), true));
+  @Override
+  public void suspendInvalidation() {
+    suspensions.incrementAndGet();
+  }
+
+  @Override
+  public synchronized void resumeInvalidation() {
+    if (suspensions.decrementAndGet() == 0 && invalidatedWhileSuspended.getAndSet(false)) {
+      invalidateIndex();
+    }
+  }
+
+  @Override
+  public void ignoreDeletions(final Collection<EntityId> componentIds) {
+    for (EntityId componentId : componentIds) {
+      ignoredDeletions.put(componentId.getValue(), Boolean.TRUE);
     }
   }
 }
@@ -14,6 +14,7 @@ package org.sonatype.repository.helm.internal.orient.createindex;
 
 import org.sonatype.nexus.repository.Repository;
 import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
 
 /**
  * Build index.yaml file for Helm Hosted
@@ -23,4 +24,14 @@ import org.sonatype.nexus.repository.storage.TempBlob;
 public interface CreateIndexService
 {
   TempBlob buildIndexYaml(final Repository repository);
+
+  /**
+   * @since 1.0.11
+   */
+  ChartIndex buildChartIndex(final Repository repository);
+
+  /**
+   * @since 1.0.11
+   */
+  TempBlob buildIndexYaml(final ChartIndex index, final Repository repository);
 }
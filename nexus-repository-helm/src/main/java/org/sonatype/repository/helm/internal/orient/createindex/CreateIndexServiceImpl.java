@@ -15,6 +15,7 @@ package org.sonatype.repository.helm.internal.orient.createindex;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -28,7 +29,7 @@ import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.StorageFacet;
 import org.sonatype.nexus.repository.storage.StorageTx;
 import org.sonatype.nexus.repository.storage.TempBlob;
-import org.sonatype.nexus.repository.transaction.TransactionalStoreBlob;
+import org.sonatype.nexus.repository.transaction.TransactionalTouchMetadata;
 import org.sonatype.nexus.transaction.UnitOfWork;
 import org.sonatype.repository.helm.internal.orient.HelmFacet;
 import org.sonatype.repository.helm.internal.AssetKind;
@@ -38,13 +39,24 @@ import org.sonatype.repository.helm.internal.orient.metadata.IndexYamlBuilder;
 
 import org.joda.time.DateTime;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.ANNOTATIONS;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.API_VERSION;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.APP_VERSION;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.DEPENDENCIES;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.DEPRECATED;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.DESCRIPTION;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.ENGINE;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.HOME;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.ICON;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.KEYWORDS;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.KUBE_VERSION;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.MAINTAINERS;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.NAME;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.PROVENANCE_VERIFICATION;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.SOURCES;
+import static org.sonatype.repository.helm.internal.database.HelmProperties.TYPE;
 import static org.sonatype.repository.helm.internal.database.HelmProperties.VERSION;
 
 /**
@@ -58,31 +70,77 @@ public class CreateIndexServiceImpl
     extends ComponentSupport
     implements CreateIndexService
 {
-  private final static String API_VERSION = "v1";
+  // version of the index.yaml format itself, which is still v1 for Helm 3; each chart's own apiVersion is per entry
+  private final static String INDEX_API_VERSION = "v1";
 
   private IndexYamlBuilder indexYamlBuilder;
 
+  private final int pageSize;
+
   @Inject
-  public CreateIndexServiceImpl(final IndexYamlBuilder indexYamlBuilder) {
+  public CreateIndexServiceImpl(final IndexYamlBuilder indexYamlBuilder,
+                                @Named("${nexus.helm.createindex.pageSize:-1000}") final int pageSize)
+  {
     this.indexYamlBuilder = checkNotNull(indexYamlBuilder);
+    checkArgument(pageSize > 0, "Page size must be greater than zero");
+    this.pageSize = pageSize;
   }
 
-  @TransactionalStoreBlob
+  /**
+   * Builds the index.yaml for the repository. Chart assets are read in pages ordered by asset name, each page in its
+   * own short transaction, so that a rebuild of a large repository does not hold a single transaction open for its
+   * whole duration. Callers must have begun a {@link UnitOfWork} but must not have an active transaction.
+   */
   @Nullable
+  @Override
   public TempBlob buildIndexYaml(final Repository repository) {
-    StorageFacet storageFacet = repository.facet(StorageFacet.class);
+    return buildIndexYaml(buildChartIndex(repository), repository);
+  }
+
+  /**
+   * Reads the chart assets of the repository into an index, see {@link #buildIndexYaml(Repository)}.
+   */
+  @Override
+  public ChartIndex buildChartIndex(final Repository repository) {
     HelmFacet helmFacet = repository.facet(HelmFacet.class);
-    StorageTx tx = UnitOfWork.currentTx();
 
     ChartIndex index = new ChartIndex();
 
-    for (Asset asset : helmFacet.browseComponentAssets(tx, AssetKind.HELM_PACKAGE)) {
-      parseAssetIntoChartEntry(index, asset);
+    String lastAssetName = null;
+    do {
+      lastAssetName = readPage(helmFacet, index, lastAssetName);
     }
+    while (lastAssetName != null);
 
-    index.setApiVersion(API_VERSION);
+    index.setApiVersion(INDEX_API_VERSION);
     index.setGenerated(new DateTime());
-    return indexYamlBuilder.build(index, storageFacet);
+    return index;
+  }
+
+  @Nullable
+  @Override
+  public TempBlob buildIndexYaml(final ChartIndex index, final Repository repository) {
+    return indexYamlBuilder.build(index, repository.facet(StorageFacet.class));
+  }
+
+  /**
+   * Reads the page of chart assets following {@code lastAssetName} into the index.
+   *
+   * @return the name of the last asset read, or null if there are no further pages
+   */
+  @Nullable
+  @TransactionalTouchMetadata
+  protected String readPage(final HelmFacet helmFacet, final ChartIndex index, @Nullable final String lastAssetName) {
+    StorageTx tx = UnitOfWork.currentTx();
+
+    String lastReadName = null;
+    int count = 0;
+    for (Asset asset : helmFacet.browseComponentAssets(tx, AssetKind.HELM_PACKAGE, lastAssetName, pageSize)) {
+      parseAssetIntoChartEntry(index, asset);
+      lastReadName = asset.name();
+      count++;
+    }
+    return count < pageSize ? null : lastReadName;
   }
 
   private void parseAssetIntoChartEntry(final ChartIndex index, final Asset asset) {
@@ -103,9 +161,32 @@ public class CreateIndexServiceImpl
         .get("sha256").toString());
     createListOfRelativeUrls(formatAttributes, chartEntry);
     chartEntry.setSources(formatAttributes.get(SOURCES.getPropertyName(), List.class));
+    populateChartMetadata(formatAttributes, chartEntry);
     index.addEntry(chartEntry);
   }
 
+  /**
+   * Copies the remaining Chart.yaml fields captured at upload time, so clients can resolve dependencies and filter
+   * charts from index.yaml without fetching the chart archives.
+   */
+  @SuppressWarnings("unchecked")
+  private void populateChartMetadata(final NestedAttributesMap formatAttributes, final ChartEntry chartEntry) {
+    chartEntry.setApiVersion(Objects.toString(formatAttributes.get(API_VERSION.getPropertyName()), null));
+    chartEntry.setHome(Objects.toString(formatAttributes.get(HOME.getPropertyName()), null));
+    chartEntry.setEngine(Objects.toString(formatAttributes.get(ENGINE.getPropertyName()), null));
+    chartEntry.setKeywords(formatAttributes.get(KEYWORDS.getPropertyName(), List.class));
+    chartEntry.setKubeVersion(Objects.toString(formatAttributes.get(KUBE_VERSION.getPropertyName()), null));
+    chartEntry.setType(Objects.toString(formatAttributes.get(TYPE.getPropertyName()), null));
+    chartEntry.setAnnotations(formatAttributes.get(ANNOTATIONS.getPropertyName(), Map.class));
+    chartEntry.setDependencies(formatAttributes.get(DEPENDENCIES.getPropertyName(), List.class));
+    chartEntry.setProvenanceVerification(
+        formatAttributes.get(PROVENANCE_VERIFICATION.getPropertyName(), String.class));
+    Object deprecated = formatAttributes.get(DEPRECATED.getPropertyName());
+    if (deprecated != null) {
+      chartEntry.setDeprecated(Boolean.valueOf(deprecated.toString()));
+    }
+  }
+
   private void createListOfRelativeUrls(final NestedAttributesMap formatAttributes, final ChartEntry chartEntry) {
     List<String> urls = new ArrayList<>();
     urls.add(String.format("%s-%s.tgz",
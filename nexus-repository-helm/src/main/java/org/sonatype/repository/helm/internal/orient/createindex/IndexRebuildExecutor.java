@@ -0,0 +1,217 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.createindex;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.lifecycle.LifecycleSupport;
+import org.sonatype.nexus.common.app.ManagedLifecycle;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.SERVICES;
+
+/**
+ * Runs Helm index rebuilds of all repositories on a dedicated pool of {@code nexus.helm.indexRebuild.threads}
+ * threads, so a wave of uploads to many repositories neither occupies the shared event threads nor rebuilds more
+ * indexes at once than configured.
+ *
+ * Each repository has at most one rebuild waiting, which later invalidations join, and never runs two at once; an
+ * invalidation arriving while its rebuild runs queues one more. Waiting rebuilds of repositories with at most
+ * {@code nexus.helm.indexRebuild.smallRepositoryCharts} charts at their last rebuild go first, as they finish quickly;
+ * otherwise rebuilds run in the order they were scheduled.
+ *
+ * The number of waiting and running rebuilds is reported as the gauges {@code IndexRebuildExecutor.waiting} and
+ * {@code IndexRebuildExecutor.running}.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+@ManagedLifecycle(phase = SERVICES)
+public class IndexRebuildExecutor
+    extends LifecycleSupport
+{
+  private static final String WAITING_GAUGE = MetricRegistry.name(IndexRebuildExecutor.class, "waiting");
+
+  private static final String RUNNING_GAUGE = MetricRegistry.name(IndexRebuildExecutor.class, "running");
+
+  private final MetricRegistry metricRegistry;
+
+  private final int threads;
+
+  private final int smallRepositoryCharts;
+
+  private ThreadPoolExecutor rebuilds;
+
+  private ScheduledExecutorService delays;
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private final Map<String, Rebuild> waiting = new HashMap<>();
+
+  private final Set<String> running = new HashSet<>();
+
+  private final Map<String, Rebuild> parked = new HashMap<>();
+
+  @Inject
+  public IndexRebuildExecutor(final MetricRegistry metricRegistry,
+                              @Named("${nexus.helm.indexRebuild.threads:-2}") final int threads,
+                              @Named("${nexus.helm.indexRebuild.smallRepositoryCharts:-500}") final int smallRepositoryCharts)
+  {
+    this.metricRegistry = checkNotNull(metricRegistry);
+    this.threads = Math.max(1, threads);
+    this.smallRepositoryCharts = smallRepositoryCharts;
+  }
+
+  @Override
+  protected synchronized void doStart() throws Exception {
+    rebuilds = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("helm-index-rebuild-%d").setDaemon(true).build());
+    rebuilds.allowCoreThreadTimeOut(true);
+    delays = new ScheduledThreadPoolExecutor(1,
+        new ThreadFactoryBuilder().setNameFormat("helm-index-rebuild-delay").setDaemon(true).build());
+    metricRegistry.register(WAITING_GAUGE, (Gauge<Integer>) this::getWaiting);
+    metricRegistry.register(RUNNING_GAUGE, (Gauge<Integer>) this::getRunning);
+  }
+
+  @Override
+  protected synchronized void doStop() throws Exception {
+    metricRegistry.remove(WAITING_GAUGE);
+    metricRegistry.remove(RUNNING_GAUGE);
+    delays.shutdownNow();
+    rebuilds.shutdownNow();
+    waiting.clear();
+    parked.clear();
+  }
+
+  /**
+   * Schedules a rebuild of the given repository's index to run after the delay, unless one is already waiting.
+   *
+   * @param charts number of charts in the repository at its last rebuild, which decides its priority
+   * @return true if a rebuild was scheduled, false if the invalidation joined a waiting rebuild
+   */
+  public synchronized boolean schedule(final String repositoryName,
+                                       final int charts,
+                                       final long delayMillis,
+                                       final Runnable rebuild)
+  {
+    checkNotNull(rebuild);
+    ensureStarted();
+    if (waiting.containsKey(repositoryName)) {
+      return false;
+    }
+    Rebuild task = new Rebuild(repositoryName, charts <= smallRepositoryCharts, sequence.incrementAndGet(), rebuild);
+    waiting.put(repositoryName, task);
+    if (delayMillis > 0) {
+      delays.schedule(() -> rebuilds.execute(task), delayMillis, TimeUnit.MILLISECONDS);
+    }
+    else {
+      rebuilds.execute(task);
+    }
+    log.debug("Scheduled helm index rebuild of {}, {} waiting and {} running", repositoryName, waiting.size(),
+        running.size());
+    return true;
+  }
+
+  /**
+   * @return number of repositories with a rebuild waiting to run
+   */
+  public synchronized int getWaiting() {
+    return waiting.size();
+  }
+
+  /**
+   * @return number of rebuilds running
+   */
+  public synchronized int getRunning() {
+    return running.size();
+  }
+
+  private synchronized boolean start(final Rebuild task) {
+    if (!running.add(task.repositoryName)) {
+      // picked up again once the running rebuild of the same repository finishes
+      parked.put(task.repositoryName, task);
+      return false;
+    }
+    waiting.remove(task.repositoryName, task);
+    return true;
+  }
+
+  private synchronized void finish(final Rebuild task) {
+    running.remove(task.repositoryName);
+    Rebuild next = parked.remove(task.repositoryName);
+    if (next != null && !rebuilds.isShutdown()) {
+      rebuilds.execute(next);
+    }
+  }
+
+  private class Rebuild
+      implements Runnable, Comparable<Rebuild>
+  {
+    private final String repositoryName;
+
+    private final boolean small;
+
+    private final long sequence;
+
+    private final Runnable rebuild;
+
+    Rebuild(final String repositoryName, final boolean small, final long sequence, final Runnable rebuild) {
+      this.repositoryName = repositoryName;
+      this.small = small;
+      this.sequence = sequence;
+      this.rebuild = rebuild;
+    }
+
+    @Override
+    public void run() {
+      if (!start(this)) {
+        return;
+      }
+      try {
+        rebuild.run();
+      }
+      catch (Exception e) {
+        log.warn("Helm index rebuild of {} failed", repositoryName, e);
+      }
+      finally {
+        finish(this);
+      }
+    }
+
+    @Override
+    public int compareTo(final Rebuild other) {
+      if (small != other.small) {
+        return small ? -1 : 1;
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+}
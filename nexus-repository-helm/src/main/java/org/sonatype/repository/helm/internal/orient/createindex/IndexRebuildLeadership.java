@@ -0,0 +1,84 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.createindex;
+
+import java.util.Collection;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.node.NodeAccess;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Decides which node of a cluster rebuilds the index.yaml of a repository. Every node ranks the cluster members by a
+ * hash of member id and repository name and the highest ranked member leads, so all nodes agree on one leader per
+ * repository without coordinating, leadership of different repositories is spread over the cluster, and only the
+ * repositories led by a node that leaves change hands. Outside a cluster this node leads every repository.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class IndexRebuildLeadership
+    extends ComponentSupport
+{
+  private static final HashFunction RANKING = Hashing.murmur3_128();
+
+  private final NodeAccess nodeAccess;
+
+  @Inject
+  public IndexRebuildLeadership(final NodeAccess nodeAccess) {
+    this.nodeAccess = checkNotNull(nodeAccess);
+  }
+
+  public boolean isLeader(final String repositoryName) {
+    if (!nodeAccess.isClustered()) {
+      return true;
+    }
+    Set<String> members = nodeAccess.getMemberIds();
+    String leader = leader(members, repositoryName);
+    log.trace("Index rebuild leader of {} among {} is {}", repositoryName, members, leader);
+    return leader == null || leader.equals(nodeAccess.getId());
+  }
+
+  @Nullable
+  @VisibleForTesting
+  static String leader(final Collection<String> memberIds, final String repositoryName) {
+    String leader = null;
+    long leaderRank = Long.MIN_VALUE;
+    for (String memberId : memberIds) {
+      long rank = RANKING.newHasher()
+          .putString(memberId, UTF_8)
+          .putByte((byte) 0)
+          .putString(repositoryName, UTF_8)
+          .hash()
+          .asLong();
+      if (leader == null || rank > leaderRank || (rank == leaderRank && memberId.compareTo(leader) < 0)) {
+        leader = memberId;
+        leaderRank = rank;
+      }
+    }
+    return leader;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.repository.Facet.Exposed;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.group.GroupFacet;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+
+/**
+ * Helm group facet, merging the index.yaml of the group members.
+ *
+ * @since 1.0.11
+ */
+@Exposed
+public interface HelmGroupFacet
+    extends GroupFacet
+{
+  /**
+   * Returns the merged index.yaml of the members, merging again only if the index of a member has changed since the
+   * stored merged index was built.
+   *
+   * @return the merged index, or null if no member has an index
+   */
+  @Nullable
+  Content getIndex(Context context) throws Exception;
+
+  /**
+   * @return true if the member recently did not have the given path
+   */
+  boolean isMissing(Repository member, String path);
+
+  /**
+   * Remembers that the member does not have the given path, until it gets an asset with that path or the entry
+   * expires.
+   */
+  void markMissing(Repository member, String path);
+}
@@ -0,0 +1,448 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.sonatype.nexus.common.stateguard.Guarded;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.Type;
+import org.sonatype.nexus.repository.group.GroupFacetImpl;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.AssetCreatedEvent;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.nexus.repository.transaction.TransactionalStoreBlob;
+import org.sonatype.nexus.repository.transaction.TransactionalTouchBlob;
+import org.sonatype.nexus.repository.types.GroupType;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Request;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.ViewFacet;
+import org.sonatype.nexus.transaction.UnitOfWork;
+import org.sonatype.nexus.validation.ConstraintViolationFactory;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexMerger;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexSidecars;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexYamlBuilder;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+import org.joda.time.DateTime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.STARTED;
+import static org.sonatype.nexus.repository.http.HttpMethods.GET;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_INDEX;
+
+/**
+ * {@link HelmGroupFacet} implementation. The merged index.yaml is stored in the group, tagged with the versions of
+ * the member indexes it was merged from; the parsed member indexes are kept in memory so that only members whose
+ * index changed are parsed again, and so that a member which is slow or failing can be represented by its last index.
+ * Member indexes are fetched on the {@link MemberIndexExecutor} shared by all groups. Member fetch latency and timeouts
+ * are reported as metrics per member, which are removed when the member leaves the group or the group stops.
+ *
+ * @since 1.0.11
+ */
+@Named
+public class HelmGroupFacetImpl
+    extends GroupFacetImpl
+    implements HelmGroupFacet
+{
+  private static final String INDEX_YAML = "index.yaml";
+
+  static final String MEMBER_INDEXES = "memberIndexes";
+
+  private static final long MISSING_MAXIMUM_SIZE = 10_000;
+
+  private final YamlParser yamlParser;
+
+  private final IndexYamlBuilder indexYamlBuilder;
+
+  private final IndexSidecars indexSidecars;
+
+  private final ConcurrentMap<String, MemberIndex> memberIndexes = new ConcurrentHashMap<>();
+
+  private final Cache<String, Boolean> missing;
+
+  private final MetricRegistry metricRegistry;
+
+  private final MemberIndexExecutor memberIndexExecutor;
+
+  private final long memberTimeout;
+
+  private final ConcurrentMap<String, Set<String>> memberMetrics = new ConcurrentHashMap<>();
+
+  @Inject
+  public HelmGroupFacetImpl(final RepositoryManager repositoryManager,
+                            final ConstraintViolationFactory constraintViolationFactory,
+                            @Named(GroupType.NAME) final Type groupType,
+                            final YamlParser yamlParser,
+                            final IndexYamlBuilder indexYamlBuilder,
+                            final IndexSidecars indexSidecars,
+                            final MetricRegistry metricRegistry,
+                            final MemberIndexExecutor memberIndexExecutor,
+                            @Named("${nexus.helm.group.negativeCache.timeToLive:-60000}") final long missingTimeToLive,
+                            @Named("${nexus.helm.group.memberTimeout:-20000}") final long memberTimeout)
+  {
+    super(repositoryManager, constraintViolationFactory, groupType);
+    this.yamlParser = checkNotNull(yamlParser);
+    this.indexYamlBuilder = checkNotNull(indexYamlBuilder);
+    this.indexSidecars = checkNotNull(indexSidecars);
+    this.metricRegistry = checkNotNull(metricRegistry);
+    this.memberIndexExecutor = checkNotNull(memberIndexExecutor);
+    checkArgument(memberTimeout > 0, "Member timeout must be greater than zero");
+    this.memberTimeout = memberTimeout;
+    this.missing = CacheBuilder.newBuilder()
+        .expireAfterWrite(missingTimeToLive, TimeUnit.MILLISECONDS)
+        .maximumSize(MISSING_MAXIMUM_SIZE)
+        .build();
+  }
+
+  @Nullable
+  @Override
+  public Content getIndex(final Context context) throws Exception {
+    List<MemberSource> sources = fetchMemberIndexes(context);
+    if (sources.isEmpty()) {
+      return null;
+    }
+    String key = mergeKey(sources);
+
+    Content cached = key != null ? readCachedIndex(key) : null;
+    if (cached != null) {
+      return cached;
+    }
+
+    synchronized (this) {
+      cached = key != null ? readCachedIndex(key) : null;
+      if (cached != null) {
+        return cached;
+      }
+      List<ChartIndex> indexes = new ArrayList<>();
+      for (MemberSource source : sources) {
+        indexes.add(source.index());
+      }
+      ChartIndex merged = ChartIndexMerger.merge(indexes);
+
+      log.debug("Merged index.yaml of group {} from {}", getRepository().getName(), key);
+      Content content;
+      try (TempBlob indexYaml = indexYamlBuilder.build(merged, facet(StorageFacet.class))) {
+        UnitOfWork.begin(facet(StorageFacet.class).txSupplier());
+        try {
+          content = saveIndex(indexYaml, merged, key);
+        }
+        finally {
+          UnitOfWork.end();
+        }
+      }
+      getRepository().optionalFacet(ChartIndexFacet.class).ifPresent(facet -> facet.publish(merged));
+      return content;
+    }
+  }
+
+  /**
+   * Fetches the index.yaml of all members concurrently through their views, so that proxy members refresh their
+   * index as usual, and parses each on the fetching thread. A member that fails, does not answer before the deadline
+   * or cannot be asked because too many fetches are pending is represented by the index it last returned, if any; a
+   * fetch that misses the deadline carries on in the background and its parsed index is kept for later requests.
+   *
+   * @return the index of each member that has one, in member order
+   */
+  private List<MemberSource> fetchMemberIndexes(final Context context) throws InterruptedException {
+    Request request = new Request.Builder().copy(context.getRequest()).action(GET).path("/" + INDEX_YAML).build();
+    List<Repository> members = members();
+
+    Map<Repository, Future<Response>> responses = new LinkedHashMap<>();
+    for (Repository member : members) {
+      try {
+        responses.put(member, memberIndexExecutor.submit(() -> fetchMemberIndex(member, request, context)));
+      }
+      catch (RejectedExecutionException e) { // NOSONAR
+        log.warn("Too many pending index.yaml fetches, not asking member {} of group {}", member.getName(),
+            getRepository().getName());
+        responses.put(member, null);
+      }
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(memberTimeout);
+    List<MemberSource> sources = new ArrayList<>();
+    for (Entry<Repository, Future<Response>> memberResponse : responses.entrySet()) {
+      Repository member = memberResponse.getKey();
+      Response response = awaitResponse(member, memberResponse.getValue(), deadline);
+      if (response == null) {
+        MemberIndex stale = memberIndexes.get(member.getName());
+        if (stale != null) {
+          log.info("Using last known index.yaml of member {} in group {}", member.getName(), getRepository().getName());
+          sources.add(new MemberSource(member, null, stale));
+        }
+      }
+      else if (response.getStatus().isSuccessful() && response.getPayload() instanceof Content) {
+        sources.add(new MemberSource(member, (Content) response.getPayload(), null));
+      }
+    }
+
+    Set<String> memberNames = members.stream().map(Repository::getName).collect(Collectors.toSet());
+    memberIndexes.keySet().retainAll(memberNames);
+    memberMetrics.keySet().stream()
+        .filter(memberName -> !memberNames.contains(memberName))
+        .forEach(this::removeMemberMetrics);
+    return sources;
+  }
+
+  private Response fetchMemberIndex(final Repository member, final Request request, final Context context)
+      throws Exception
+  {
+    Timer.Context timer = metricRegistry.timer(metricName(member, "index")).time();
+    Response response;
+    try {
+      response = member.facet(ViewFacet.class).dispatch(request, context);
+    }
+    finally {
+      timer.stop();
+    }
+    if (response.getStatus().isSuccessful() && response.getPayload() instanceof Content) {
+      // parsed here so that a response arriving after the deadline still updates the last known index
+      memberIndex(member, (Content) response.getPayload());
+    }
+    return response;
+  }
+
+  /**
+   * @return the response of the member, or null if it failed or did not answer before the deadline
+   */
+  @Nullable
+  private Response awaitResponse(final Repository member,
+                                 @Nullable final Future<Response> response,
+                                 final long deadline) throws InterruptedException
+  {
+    if (response == null) {
+      return null;
+    }
+    try {
+      return response.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+    catch (TimeoutException e) { // NOSONAR
+      metricRegistry.meter(metricName(member, "timeouts")).mark();
+      log.warn("Member {} of group {} did not return index.yaml within {} ms", member.getName(),
+          getRepository().getName(), memberTimeout);
+      return null;
+    }
+    catch (ExecutionException e) {
+      log.warn("Member {} of group {} failed to return index.yaml", member.getName(), getRepository().getName(),
+          e.getCause());
+      return null;
+    }
+  }
+
+  private String metricName(final Repository member, final String name) {
+    String metricName = MetricRegistry.name(HelmGroupFacet.class, getRepository().getName(), member.getName(), name);
+    memberMetrics.computeIfAbsent(member.getName(), memberName -> ConcurrentHashMap.newKeySet()).add(metricName);
+    return metricName;
+  }
+
+  private void removeMemberMetrics(final String memberName) {
+    Set<String> metricNames = memberMetrics.remove(memberName);
+    if (metricNames != null) {
+      metricNames.forEach(metricRegistry::remove);
+    }
+  }
+
+  private ChartIndex memberIndex(final Repository member, final Content content) throws IOException {
+    String version = contentVersion(content);
+    MemberIndex cached = memberIndexes.get(member.getName());
+    if (cached != null && version != null && version.equals(cached.version)) {
+      return cached.index;
+    }
+    ChartIndex index;
+    try (InputStream is = content.openInputStream()) {
+      index = yamlParser.loadIndex(is);
+    }
+    memberIndexes.put(member.getName(), new MemberIndex(version, index));
+    return index;
+  }
+
+  /**
+   * @return a key identifying the member index versions, or null if the version of an index is unknown
+   */
+  @Nullable
+  private static String mergeKey(final List<MemberSource> sources) {
+    List<String> versions = new ArrayList<>();
+    for (MemberSource source : sources) {
+      String version = source.version();
+      if (version == null) {
+        return null;
+      }
+      versions.add(source.member.getName() + "@" + version);
+    }
+    return String.join(",", versions);
+  }
+
+  @Nullable
+  private static String contentVersion(final Content content) {
+    String etag = content.getAttributes().get(Content.CONTENT_ETAG, String.class);
+    if (etag != null) {
+      return etag;
+    }
+    DateTime lastModified = content.getAttributes().get(Content.CONTENT_LAST_MODIFIED, DateTime.class);
+    return lastModified != null ? String.valueOf(lastModified.getMillis()) : null;
+  }
+
+  @Nullable
+  private Content readCachedIndex(final String key) {
+    UnitOfWork.begin(facet(StorageFacet.class).txSupplier());
+    try {
+      return getCachedIndex(key);
+    }
+    finally {
+      UnitOfWork.end();
+    }
+  }
+
+  @Nullable
+  @TransactionalTouchBlob
+  protected Content getCachedIndex(final String key) {
+    StorageTx tx = UnitOfWork.currentTx();
+    HelmFacet helmFacet = facet(HelmFacet.class);
+    Optional<Asset> asset = helmFacet.findAsset(tx, INDEX_YAML);
+    if (!asset.isPresent() || !key.equals(asset.get().formatAttributes().get(MEMBER_INDEXES, String.class))) {
+      return null;
+    }
+    return helmFacet.toContent(asset.get(), tx.requireBlob(asset.get().requireBlobRef()));
+  }
+
+  @TransactionalStoreBlob
+  protected Content saveIndex(final TempBlob indexYaml, final ChartIndex merged, @Nullable final String key)
+      throws IOException
+  {
+    StorageTx tx = UnitOfWork.currentTx();
+    HelmFacet helmFacet = facet(HelmFacet.class);
+    Asset asset = helmFacet.findOrCreateAsset(tx, INDEX_YAML, HELM_INDEX, new HelmAttributes(Collections.emptyMap()));
+    asset.formatAttributes().set(MEMBER_INDEXES, key);
+    indexSidecars.write(getRepository(), tx, indexYaml, merged);
+    return helmFacet.saveAsset(tx, asset, indexYaml, null, null);
+  }
+
+  @Override
+  public boolean isMissing(final Repository member, final String path) {
+    return missing.getIfPresent(missingKey(member.getName(), path)) != null;
+  }
+
+  @Override
+  public void markMissing(final Repository member, final String path) {
+    missing.put(missingKey(member.getName(), path), Boolean.TRUE);
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  @AllowConcurrentEvents
+  public void on(final AssetCreatedEvent created) {
+    missing.invalidate(missingKey(created.getRepositoryName(), created.getAsset().name()));
+  }
+
+  private static String missingKey(final String repositoryName, final String path) {
+    return repositoryName + ":" + (path.startsWith("/") ? path.substring(1) : path);
+  }
+
+  @Override
+  protected void doStop() throws Exception {
+    memberIndexes.clear();
+    missing.invalidateAll();
+    removeMetrics();
+    super.doStop();
+  }
+
+  @Override
+  protected void doDestroy() throws Exception {
+    // fetches that outlived their deadline may have recorded metrics after the group stopped
+    removeMetrics();
+    super.doDestroy();
+  }
+
+  private void removeMetrics() {
+    new ArrayList<>(memberMetrics.keySet()).forEach(this::removeMemberMetrics);
+  }
+
+  /**
+   * The index of a member, either as just returned by the member or as last parsed.
+   */
+  private final class MemberSource
+  {
+    private final Repository member;
+
+    @Nullable
+    private final Content content;
+
+    @Nullable
+    private final MemberIndex stale;
+
+    private MemberSource(final Repository member, @Nullable final Content content, @Nullable final MemberIndex stale) {
+      this.member = member;
+      this.content = content;
+      this.stale = stale;
+    }
+
+    @Nullable
+    private String version() {
+      return content != null ? contentVersion(content) : stale.version;
+    }
+
+    private ChartIndex index() throws IOException {
+      return content != null ? memberIndex(member, content) : stale.index;
+    }
+  }
+
+  private static final class MemberIndex
+  {
+    private final String version;
+
+    private final ChartIndex index;
+
+    private MemberIndex(@Nullable final String version, final ChartIndex index) {
+      this.version = version;
+      this.index = index;
+    }
+  }
+}
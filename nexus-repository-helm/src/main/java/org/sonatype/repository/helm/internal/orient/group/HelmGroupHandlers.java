@@ -0,0 +1,50 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Handler;
+
+import static org.sonatype.nexus.repository.http.HttpResponses.notFound;
+import static org.sonatype.nexus.repository.http.HttpResponses.ok;
+
+/**
+ * Helm Group Handlers
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class HelmGroupHandlers
+    extends ComponentSupport
+{
+  /**
+   * Serves the merged index.yaml of the group.
+   */
+  public final Handler index = context -> {
+    Content content = context.getRepository().facet(HelmGroupFacet.class).getIndex(context);
+    return content != null ? ok(content) : notFound();
+  };
+
+  /**
+   * Brings the merged index.yaml up to date before a query against the in-memory chart index of the group.
+   */
+  public final Handler refreshIndex = context -> {
+    context.getRepository().facet(HelmGroupFacet.class).getIndex(context);
+    return context.proceed();
+  };
+}
@@ -0,0 +1,65 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.group.GroupHandler;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.ViewFacet;
+
+import static org.sonatype.nexus.repository.http.HttpResponses.notFound;
+import static org.sonatype.nexus.repository.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Serves a chart package from the first member that has it, skipping members that recently did not have it.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class HelmGroupPackageHandler
+    extends GroupHandler
+{
+  @Override
+  protected Response doGet(@Nonnull final Context context,
+                           @Nonnull final DispatchedRepositories dispatched) throws Exception
+  {
+    HelmGroupFacet groupFacet = context.getRepository().facet(HelmGroupFacet.class);
+    String path = context.getRequest().getPath();
+
+    for (Repository member : groupFacet.members()) {
+      if (dispatched.contains(member)) {
+        log.trace("Skipping already dispatched member: {}", member);
+        continue;
+      }
+      if (groupFacet.isMissing(member, path)) {
+        log.trace("Skipping member {} recently missing {}", member, path);
+        continue;
+      }
+      dispatched.add(member);
+      Response response = member.facet(ViewFacet.class).dispatch(context.getRequest(), context);
+      if (response.getStatus().isSuccessful()) {
+        return response;
+      }
+      if (response.getStatus().getCode() == NOT_FOUND) {
+        groupFacet.markMissing(member, path);
+      }
+    }
+    return notFound();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group
+
+import javax.annotation.Nonnull
+import javax.inject.Inject
+import javax.inject.Named
+import javax.inject.Provider
+import javax.inject.Singleton
+
+import org.sonatype.nexus.repository.Format
+import org.sonatype.nexus.repository.Repository
+import org.sonatype.nexus.repository.Type
+import org.sonatype.nexus.repository.http.HttpHandlers
+import org.sonatype.nexus.repository.types.GroupType
+import org.sonatype.nexus.repository.view.ConfigurableViewFacet
+import org.sonatype.nexus.repository.view.Route
+import org.sonatype.nexus.repository.view.Router
+import org.sonatype.nexus.repository.view.ViewFacet
+import org.sonatype.repository.helm.internal.HelmFormat
+import org.sonatype.repository.helm.internal.HelmRecipeSupport
+
+/**
+ * Helm group repository recipe.
+ *
+ * @since 1.0.11
+ */
+@Named(HelmGroupRecipe.NAME)
+@Singleton
+class HelmGroupRecipe
+  extends HelmRecipeSupport
+{
+  public static final String NAME = 'helm-group'
+
+  @Inject
+  Provider<HelmGroupFacetImpl> groupFacet
+
+  @Inject
+  HelmGroupHandlers groupHandlers
+
+  @Inject
+  HelmGroupPackageHandler groupPackageHandler
+
+  @Inject
+  HelmGroupRecipe(@Named(GroupType.NAME) final Type type, @Named(HelmFormat.NAME) final Format format) {
+    super(type, format)
+  }
+
+  @Override
+  void apply(@Nonnull final Repository repository) throws Exception {
+    repository.attach(groupFacet.get())
+    repository.attach(storageFacet.get())
+    repository.attach(securityFacet.get())
+    repository.attach(configure(viewFacet.get()))
+    repository.attach(componentMaintenanceFacet.get())
+    repository.attach(helmFacet.get())
+    repository.attach(chartIndexFacet.get())
+    repository.attach(attributesFacet.get())
+  }
+
+  /**
+   * Configure {@link ViewFacet}.
+   */
+  private ViewFacet configure(final ConfigurableViewFacet facet) {
+    Router.Builder builder = new Router.Builder()
+
+    addBrowseUnsupportedRoute(builder)
+
+    // chart queries must be routed ahead of the package matcher, which matches any path
+    [(chartDependenciesMatcher()): chartIndexHandlers.dependencies,
+     (chartResolveMatcher()): chartIndexHandlers.resolve].each { matcher, handler ->
+      builder.route(new Route.Builder().matcher(matcher)
+          .handler(timingHandler)
+          .handler(securityHandler)
+          .handler(formatHighAvailabilitySupportHandler)
+          .handler(exceptionHandler)
+          .handler(handlerContributor)
+          .handler(groupHandlers.refreshIndex)
+          .handler(unitOfWorkHandler)
+          .handler(handler)
+          .create())
+    }
+
+    builder.route(new Route.Builder().matcher(indexMatcher())
+        .handler(timingHandler)
+        .handler(securityHandler)
+        .handler(formatHighAvailabilitySupportHandler)
+        .handler(exceptionHandler)
+        .handler(handlerContributor)
+        .handler(conditionalRequestHandler)
+        .handler(contentHeadersHandler)
+        .handler(groupHandlers.index)
+        .create())
+
+    builder.route(new Route.Builder().matcher(packageMatcher())
+        .handler(timingHandler)
+        .handler(securityHandler)
+        .handler(formatHighAvailabilitySupportHandler)
+        .handler(exceptionHandler)
+        .handler(handlerContributor)
+        .handler(groupPackageHandler)
+        .create())
+
+    builder.defaultHandlers(HttpHandlers.notFound())
+
+    facet.configure(builder.create())
+
+    return facet
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.lifecycle.LifecycleSupport;
+import org.sonatype.nexus.common.app.ManagedLifecycle;
+import org.sonatype.nexus.thread.NexusExecutorService;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.SERVICES;
+
+/**
+ * Fetches the index.yaml of Helm group members on a pool of {@code nexus.helm.group.memberThreads} threads shared by
+ * all groups, with at most {@code nexus.helm.group.memberQueueSize} fetches waiting, so the number of groups does not
+ * decide how many threads are fetching. Fetches run as the subject that asked for the group index.
+ *
+ * The number of waiting and running fetches is reported as the gauges {@code MemberIndexExecutor.waiting} and
+ * {@code MemberIndexExecutor.running}.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+@ManagedLifecycle(phase = SERVICES)
+public class MemberIndexExecutor
+    extends LifecycleSupport
+{
+  private static final String WAITING_GAUGE = MetricRegistry.name(MemberIndexExecutor.class, "waiting");
+
+  private static final String RUNNING_GAUGE = MetricRegistry.name(MemberIndexExecutor.class, "running");
+
+  private final MetricRegistry metricRegistry;
+
+  private final int threads;
+
+  private final int queueSize;
+
+  private volatile ThreadPoolExecutor fetches;
+
+  @Inject
+  public MemberIndexExecutor(final MetricRegistry metricRegistry,
+                             @Named("${nexus.helm.group.memberThreads:-20}") final int threads,
+                             @Named("${nexus.helm.group.memberQueueSize:-200}") final int queueSize)
+  {
+    this.metricRegistry = checkNotNull(metricRegistry);
+    this.threads = Math.max(1, threads);
+    this.queueSize = Math.max(1, queueSize);
+  }
+
+  @Override
+  protected synchronized void doStart() throws Exception {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(queueSize),
+        new ThreadFactoryBuilder().setNameFormat("helm-group-member-%d").setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
+    fetches = executor;
+    metricRegistry.register(WAITING_GAUGE, (Gauge<Integer>) () -> executor.getQueue().size());
+    metricRegistry.register(RUNNING_GAUGE, (Gauge<Integer>) executor::getActiveCount);
+  }
+
+  @Override
+  protected synchronized void doStop() throws Exception {
+    metricRegistry.remove(WAITING_GAUGE);
+    metricRegistry.remove(RUNNING_GAUGE);
+    fetches.shutdownNow();
+  }
+
+  /**
+   * @throws RejectedExecutionException if too many fetches are waiting
+   */
+  public <T> Future<T> submit(final Callable<T> fetch) {
+    checkNotNull(fetch);
+    ensureStarted();
+    return NexusExecutorService.forCurrentSubject(fetches).submit(fetch);
+  }
+}
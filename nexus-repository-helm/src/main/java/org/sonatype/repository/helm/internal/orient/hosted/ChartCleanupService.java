@@ -0,0 +1,145 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.hosted;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.entity.EntityHelper;
+import org.sonatype.nexus.common.entity.EntityId;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.storage.Component;
+import org.sonatype.nexus.repository.storage.Query;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.scheduling.CancelableHelper;
+import org.sonatype.nexus.transaction.UnitOfWork;
+import org.sonatype.repository.helm.internal.cleanup.ChartCleanupCriteria;
+import org.sonatype.repository.helm.internal.cleanup.ChartCleanupCriteria.ChartVersion;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.orient.HelmComponentMaintenanceFacet;
+import org.sonatype.repository.helm.internal.orient.createindex.CreateIndexService;
+
+import org.joda.time.DateTime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Collections.singletonList;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_NAME;
+
+/**
+ * Removes old chart versions from a Helm hosted repository according to {@link ChartCleanupCriteria}. The stored
+ * charts are read page by page, as for an index rebuild, and grouped per chart; dependencies are resolved across the
+ * charts read, not the published index.yaml. The selected versions are then deleted in batches by
+ * {@link HelmComponentMaintenanceFacet#deleteComponents(List, int)}, which rebuilds the index once.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartCleanupService
+    extends ComponentSupport
+{
+  private final CreateIndexService createIndexService;
+
+  private final int batchSize;
+
+  @Inject
+  public ChartCleanupService(final CreateIndexService createIndexService,
+                             @Named("${nexus.helm.cleanup.batchSize:-100}") final int batchSize)
+  {
+    this.createIndexService = checkNotNull(createIndexService);
+    checkArgument(batchSize > 0, "Batch size must be greater than zero");
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * @return the chart versions removed, as name-version
+   */
+  public List<String> cleanup(final Repository repository, final ChartCleanupCriteria criteria) {
+    ChartIndex index = readCharts(repository);
+    ChartDependencyGraph graph = criteria.isKeepDependencies() ? new ChartDependencyGraph(index) : null;
+    DateTime now = DateTime.now();
+
+    List<String> removed = new ArrayList<>();
+    List<EntityId> componentIds = new ArrayList<>();
+    for (Entry<String, List<ChartEntry>> chart : new TreeMap<>(index.getEntries()).entrySet()) {
+      CancelableHelper.checkCancellation();
+      List<ChartVersion> selected = criteria.select(versions(chart.getValue(), graph), now);
+      if (!selected.isEmpty()) {
+        Map<String, EntityId> components = findComponents(repository, chart.getKey());
+        for (ChartVersion version : selected) {
+          EntityId componentId = components.get(version.getVersion());
+          if (componentId != null) {
+            componentIds.add(componentId);
+            removed.add(chart.getKey() + "-" + version.getVersion());
+          }
+        }
+      }
+    }
+
+    if (!componentIds.isEmpty()) {
+      repository.facet(HelmComponentMaintenanceFacet.class).deleteComponents(componentIds, batchSize);
+    }
+    log.info("Removed {} chart versions from {} ({})", removed.size(), repository.getName(), criteria);
+    return removed;
+  }
+
+  private ChartIndex readCharts(final Repository repository) {
+    UnitOfWork.begin(repository.facet(StorageFacet.class).txSupplier());
+    try {
+      return createIndexService.buildChartIndex(repository);
+    }
+    finally {
+      UnitOfWork.end();
+    }
+  }
+
+  private static List<ChartVersion> versions(final List<ChartEntry> entries,
+                                             @Nullable final ChartDependencyGraph graph)
+  {
+    List<ChartVersion> versions = new ArrayList<>();
+    for (ChartEntry entry : entries) {
+      boolean dependency = graph != null && graph.isDependency(entry.getName(), entry.getVersion());
+      versions.add(new ChartVersion(entry, entry.getVersion(), entry.getCreated(), dependency));
+    }
+    return versions;
+  }
+
+  /**
+   * @return the ids of the chart's components by version
+   */
+  private static Map<String, EntityId> findComponents(final Repository repository, final String name) {
+    Map<String, EntityId> components = new HashMap<>();
+    try (StorageTx tx = repository.facet(StorageFacet.class).txSupplier().get()) {
+      tx.begin();
+      Query query = Query.builder().where(P_NAME).eq(name).build();
+      for (Component component : tx.findComponents(query, singletonList(repository))) {
+        components.put(component.version(), EntityHelper.id(component));
+      }
+    }
+    return components;
+  }
+}
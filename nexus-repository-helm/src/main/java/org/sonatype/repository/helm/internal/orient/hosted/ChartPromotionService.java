@@ -0,0 +1,239 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.hosted;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobStore;
+import org.sonatype.nexus.common.hash.HashAlgorithm;
+import org.sonatype.nexus.repository.InvalidContentException;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.security.SecurityFacet;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.nexus.repository.view.Request;
+import org.sonatype.nexus.transaction.UnitOfWork;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.api.HelmChartPromotionRequest.Chart;
+import org.sonatype.repository.helm.api.HelmChartPromotionResult;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.orient.createindex.CreateIndexFacet;
+import org.sonatype.repository.helm.internal.validation.ChartValidationResult;
+import org.sonatype.repository.helm.internal.validation.ChartValidationService;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.nexus.repository.http.HttpMethods.GET;
+import static org.sonatype.nexus.repository.http.HttpMethods.PUT;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PROVENANCE;
+import static org.sonatype.repository.helm.internal.HelmFormat.HASH_ALGORITHMS;
+
+/**
+ * Copies charts, together with their provenance files, from one Helm repository into a Helm hosted repository without
+ * the content passing through a client. Chart.yaml attributes are taken from the source asset instead of being parsed
+ * again, while the checks the target records on its charts, validation and provenance verification, run again in the
+ * target. The target index.yaml is rebuilt once for the whole batch.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartPromotionService
+    extends ComponentSupport
+{
+  private final ChartValidationService chartValidationService;
+
+  @Inject
+  public ChartPromotionService(final ChartValidationService chartValidationService) {
+    this.chartValidationService = checkNotNull(chartValidationService);
+  }
+
+  public HelmChartPromotionResult promote(final Repository source, final Repository target, final List<Chart> charts) {
+    HelmHostedFacet hostedFacet = target.facet(HelmHostedFacet.class);
+    Optional<CreateIndexFacet> createIndexFacet = target.optionalFacet(CreateIndexFacet.class);
+    HelmChartPromotionResult result = new HelmChartPromotionResult();
+
+    createIndexFacet.ifPresent(CreateIndexFacet::suspendInvalidation);
+    try {
+      for (Chart chart : charts) {
+        promote(source, target, hostedFacet, chart, result);
+      }
+      if (!result.getPromoted().isEmpty()) {
+        createIndexFacet.ifPresent(CreateIndexFacet::invalidateIndex);
+      }
+    }
+    finally {
+      createIndexFacet.ifPresent(CreateIndexFacet::resumeInvalidation);
+    }
+    log.info("Promoted {} of {} charts from {} to {}", result.getPromoted().size(), charts.size(), source.getName(),
+        target.getName());
+    return result;
+  }
+
+  private void promote(final Repository source,
+                       final Repository target,
+                       final HelmHostedFacet hostedFacet,
+                       final Chart chart,
+                       final HelmChartPromotionResult result)
+  {
+    try {
+      String packagePath = path(chart, HELM_PACKAGE);
+      Optional<SourceAsset> chartAsset = read(source, packagePath);
+      if (!chartAsset.isPresent()) {
+        result.getMissing().add(chart.toString());
+        return;
+      }
+      ensurePermitted(target, PUT, packagePath);
+      copy(target, hostedFacet, packagePath, HELM_PACKAGE, chartAsset.get());
+
+      String provenancePath = path(chart, HELM_PROVENANCE);
+      Optional<SourceAsset> provenanceAsset = read(source, provenancePath);
+      if (provenanceAsset.isPresent()) {
+        ensurePermitted(target, PUT, provenancePath);
+        copy(target, hostedFacet, provenancePath, HELM_PROVENANCE, provenanceAsset.get());
+      }
+      result.getPromoted().add(chart.toString());
+    }
+    catch (IOException | RuntimeException e) { // NOSONAR
+      log.warn("Could not promote chart {} from {} to {}", chart, source.getName(), target.getName(), e);
+      result.getFailed().add(chart.toString());
+    }
+  }
+
+  private Optional<SourceAsset> read(final Repository source, final String path) {
+    ensurePermitted(source, GET, path);
+    try (StorageTx tx = source.facet(StorageFacet.class).txSupplier().get()) {
+      tx.begin();
+      return source.facet(HelmFacet.class).findAsset(tx, path)
+          .filter(asset -> asset.blobRef() != null)
+          .map(asset -> new SourceAsset(asset, tx.requireBlob(asset.requireBlobRef())));
+    }
+  }
+
+  private void copy(final Repository target,
+                    final HelmHostedFacet hostedFacet,
+                    final String path,
+                    final AssetKind assetKind,
+                    final SourceAsset source) throws IOException
+  {
+    ChartValidationResult validation = validate(path, assetKind, source);
+    UnitOfWork.begin(target.facet(StorageFacet.class).txSupplier());
+    try (TempBlob copied = copyBlob(target, path, source)) {
+      Supplier<InputStream> content = copied != null ? copied : source.blob::getInputStream;
+      hostedFacet.copy(path, assetKind, source.attributes, content, source.contentType, validation);
+    }
+    finally {
+      UnitOfWork.end();
+    }
+  }
+
+  /**
+   * Validates a chart before it is copied, as it would be if it were uploaded to the target.
+   *
+   * @return the result, or null if validation is disabled or the file is not a chart
+   */
+  @Nullable
+  private ChartValidationResult validate(final String path, final AssetKind assetKind, final SourceAsset source)
+      throws IOException
+  {
+    if (assetKind != HELM_PACKAGE || !chartValidationService.isEnabled()) {
+      return null;
+    }
+    HashCode sha256 = source.hashes.get(SHA256);
+    checkState(sha256 != null, "Chart %s has no SHA256", path);
+    ChartValidationResult validation = chartValidationService.validate(path, sha256, source.blob::getInputStream);
+    if (!validation.isValid()) {
+      throw new InvalidContentException("Chart " + path + " is invalid: " + validation.getErrors());
+    }
+    return validation;
+  }
+
+  /**
+   * When both repositories share a blob store the source blob is copied within the store (a hard link for file blob
+   * stores) into an already hashed temporary blob, instead of streaming and rehashing it. Only the copy is deleted
+   * once the chart is stored; the source blob is left untouched.
+   *
+   * @return the copy, or null if the content has to be streamed
+   */
+  @Nullable
+  private TempBlob copyBlob(final Repository target, final String path, final SourceAsset source) {
+    BlobStore blobStore = target.facet(StorageFacet.class).blobStore();
+    String targetStore = blobStore.getBlobStoreConfiguration().getName();
+    if (!targetStore.equals(source.asset.requireBlobRef().getStore())
+        || source.hashes.size() != HASH_ALGORITHMS.size()) {
+      return null;
+    }
+    Blob copy = blobStore.copy(source.blob.getId(), ImmutableMap.of(
+        BlobStore.BLOB_NAME_HEADER, path,
+        BlobStore.CREATED_BY_HEADER, "system",
+        BlobStore.TEMPORARY_BLOB_HEADER, ""));
+    return new TempBlob(copy, source.hashes, true, blobStore);
+  }
+
+  private static void ensurePermitted(final Repository repository, final String action, final String path) {
+    repository.facet(SecurityFacet.class)
+        .ensurePermitted(new Request.Builder().action(action).path("/" + path).build());
+  }
+
+  private static String path(final Chart chart, final AssetKind assetKind) {
+    return String.format("%s-%s%s", chart.getName(), chart.getVersion(), assetKind.getExtension());
+  }
+
+  private static class SourceAsset
+  {
+    private final Asset asset;
+
+    private final Blob blob;
+
+    private final HelmAttributes attributes;
+
+    private final String contentType;
+
+    private final Map<HashAlgorithm, HashCode> hashes = new HashMap<>();
+
+    SourceAsset(final Asset asset, final Blob blob) {
+      this.asset = asset;
+      this.blob = blob;
+      // only the Chart.yaml fields, the results of checks run in the source are not carried over
+      this.attributes = new HelmAttributes(asset.formatAttributes().backing());
+      this.contentType = asset.contentType();
+      for (HashAlgorithm algorithm : HASH_ALGORITHMS) {
+        HashCode hash = asset.getChecksum(algorithm);
+        if (hash != null) {
+          hashes.put(algorithm, hash);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.hosted;
+
+import org.sonatype.nexus.repository.Facet;
+
+/**
+ * Facet keeping an in-memory approximate set of the asset names of a hosted repository, so that lookups of assets
+ * which do not exist can skip the database.
+ *
+ * @since 1.0.11
+ */
+@Facet.Exposed
+public interface HelmAssetFilterFacet
+    extends Facet
+{
+  /**
+   * @return false only if no asset with the given name exists in the repository
+   */
+  boolean mightExist(String assetName);
+
+  /**
+   * Records an asset created by this node. Must be called before the creating transaction commits.
+   */
+  void created(String assetName);
+}
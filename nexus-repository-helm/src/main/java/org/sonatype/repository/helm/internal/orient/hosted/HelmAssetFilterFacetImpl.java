@@ -0,0 +1,174 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.hosted;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.sonatype.nexus.common.event.EventAware.Asynchronous;
+import org.sonatype.nexus.common.event.EventManager;
+import org.sonatype.nexus.common.node.NodeAccess;
+import org.sonatype.nexus.common.stateguard.Guarded;
+import org.sonatype.nexus.repository.FacetSupport;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.AssetCreatedEvent;
+import org.sonatype.nexus.repository.storage.AssetDeletedEvent;
+import org.sonatype.nexus.repository.storage.AssetEvent;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.hosted.AssetNameFilter;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.STARTED;
+
+/**
+ * {@link HelmAssetFilterFacet} implementation. The filter is built from storage in the background when the
+ * repository starts and whenever enough assets were deleted to make it less selective; until it is built every name
+ * might exist. Assets created on this node are added synchronously, assets created on other nodes when their event
+ * arrives. Because those events lag behind the commit on the other node, the filter is off on clustered nodes, and it
+ * can be turned off with {@code nexus.helm.assetFilter.enabled=false}.
+ *
+ * @since 1.0.11
+ */
+@Named
+public class HelmAssetFilterFacetImpl
+    extends FacetSupport
+    implements HelmAssetFilterFacet, Asynchronous
+{
+  private final EventManager eventManager;
+
+  private final NodeAccess nodeAccess;
+
+  private final boolean configured;
+
+  private volatile boolean enabled;
+
+  private final AssetNameFilter filter = new AssetNameFilter();
+
+  private final AtomicBoolean rebuildScheduled = new AtomicBoolean(false);
+
+  @Inject
+  public HelmAssetFilterFacetImpl(final EventManager eventManager,
+                                  final NodeAccess nodeAccess,
+                                  @Named("${nexus.helm.assetFilter.enabled:-true}") final boolean enabled)
+  {
+    this.eventManager = checkNotNull(eventManager);
+    this.nodeAccess = checkNotNull(nodeAccess);
+    this.configured = enabled;
+  }
+
+  @Override
+  protected void doStart() throws Exception {
+    super.doStart();
+    enabled = configured && !nodeAccess.isClustered();
+    rebuildScheduled.set(false);
+    maybeScheduleRebuild();
+  }
+
+  @Override
+  protected void doStop() throws Exception {
+    filter.reset();
+    super.doStop();
+  }
+
+  @Override
+  public boolean mightExist(final String assetName) {
+    if (!enabled) {
+      return true;
+    }
+    if (!filter.isBuilt()) {
+      maybeScheduleRebuild();
+      return true;
+    }
+    return filter.mightContain(assetName);
+  }
+
+  @Override
+  public void created(final String assetName) {
+    if (enabled) {
+      filter.add(assetName);
+      maybeScheduleRebuild();
+    }
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  @AllowConcurrentEvents
+  public void on(final AssetCreatedEvent created) {
+    // local creates went through created() before their transaction committed
+    if (enabled && !created.isLocal() && matchesRepository(created)) {
+      filter.add(created.getAsset().name());
+    }
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  @AllowConcurrentEvents
+  public void on(final AssetDeletedEvent deleted) {
+    if (enabled && matchesRepository(deleted)) {
+      filter.deleted();
+      maybeScheduleRebuild();
+    }
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  public void on(final HelmAssetFilterRebuildEvent event) {
+    if (!getRepository().getName().equals(event.getRepositoryName())) {
+      return;
+    }
+    filter.startRebuild();
+    try {
+      List<String> names = browseAssetNames();
+      filter.finishRebuild(names);
+      log.debug("Rebuilt asset filter of {} with {} assets", getRepository().getName(), names.size());
+    }
+    catch (RuntimeException e) {
+      filter.abortRebuild();
+      log.warn("Could not rebuild asset filter of {}", getRepository().getName(), e);
+    }
+    finally {
+      rebuildScheduled.set(false);
+    }
+  }
+
+  private List<String> browseAssetNames() {
+    List<String> names = new ArrayList<>();
+    try (StorageTx tx = facet(StorageFacet.class).txSupplier().get()) {
+      tx.begin();
+      for (Asset asset : tx.browseAssets(tx.findBucket(getRepository()))) {
+        names.add(asset.name());
+      }
+    }
+    return names;
+  }
+
+  private void maybeScheduleRebuild() {
+    if (enabled && filter.needsRebuild() && rebuildScheduled.compareAndSet(false, true)) {
+      eventManager.post(new HelmAssetFilterRebuildEvent(getRepository().getName()));
+    }
+  }
+
+  private boolean matchesRepository(final AssetEvent event) {
+    return HelmFormat.NAME.equals(event.getAsset().format())
+        && getRepository().getName().equals(event.getRepositoryName());
+  }
+}
@@ -10,39 +10,27 @@
  * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
  * Eclipse Foundation. All other trademarks are the property of their respective owners.
  */
-package org.sonatype.repository.helm.internal.orient.createindex;
+package org.sonatype.repository.helm.internal.orient.hosted;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Event class for use when invalidating Helm index.yaml file
+ * Event class for use when rebuilding the asset name filter of a Helm hosted repository
  *
- * @since 0.0.2
+ * @since 1.0.11
  */
-public class HelmIndexInvalidationEvent
+public class HelmAssetFilterRebuildEvent
 {
   private final String repositoryName;
 
-  private final boolean waitBeforeRebuild;
-
-  public HelmIndexInvalidationEvent(final String repositoryName,
-                                    final boolean waitBeforeRebuild) {
+  public HelmAssetFilterRebuildEvent(final String repositoryName) {
     this.repositoryName = checkNotNull(repositoryName);
-    this.waitBeforeRebuild = waitBeforeRebuild;
   }
 
   /**
-   * The helm repository that requires its index invalidated and rebuilt.
+   * The helm repository whose asset name filter is rebuilt.
    */
   public String getRepositoryName() {
     return repositoryName;
   }
-
-  /**
-   * If set then force createIndex to wait before generating to prevent multiple re-writes being scheduled one after
-   * another
-   */
-  public boolean isWaitBeforeRebuild() {
-    return waitBeforeRebuild;
-  }
 }
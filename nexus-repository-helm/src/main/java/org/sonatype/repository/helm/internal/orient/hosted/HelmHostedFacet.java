@@ -13,6 +13,9 @@
 package org.sonatype.repository.helm.internal.orient.hosted;
 
 import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nullable;
 
 import org.sonatype.nexus.repository.Facet;
 import org.sonatype.nexus.repository.Facet.Exposed;
@@ -20,7 +23,11 @@ import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.TempBlob;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Payload;
+import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.validation.ChartValidationResult;
+
+import com.google.common.base.Supplier;
 
 /**
  * Helm Hosted Facet
@@ -33,9 +40,29 @@ public interface HelmHostedFacet
 {
   Content get(String path);
 
+  /**
+   * @return the size of a stored file, or null if it is not stored; unlike {@link #get} the file is not marked as
+   * downloaded
+   */
+  @Nullable
+  Long size(String path);
+
   void upload(String path, Payload payload, final AssetKind assetKind) throws IOException;
 
   Asset upload(String path, TempBlob tempBlob, Payload payload, AssetKind assetKind) throws IOException;
 
+  /**
+   * Store content already held by another Helm repository, using the Chart.yaml attributes parsed when it was first
+   * stored. The provenance of the chart is verified again in this repository.
+   *
+   * @param validation the result of validating the chart for this repository, or null if validation is disabled
+   */
+  Asset copy(String path,
+             AssetKind assetKind,
+             HelmAttributes attributes,
+             Supplier<InputStream> content,
+             @Nullable String contentType,
+             @Nullable ChartValidationResult validation) throws IOException;
+
   boolean delete(String path);
 }
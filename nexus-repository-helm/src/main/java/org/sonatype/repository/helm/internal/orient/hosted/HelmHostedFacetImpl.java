@@ -14,6 +14,7 @@ package org.sonatype.repository.helm.internal.orient.hosted;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
@@ -21,6 +22,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.sonatype.nexus.repository.FacetSupport;
+import org.sonatype.nexus.repository.InvalidContentException;
 import org.sonatype.nexus.repository.config.Configuration;
 import org.sonatype.nexus.repository.storage.Asset;
 import org.sonatype.nexus.repository.storage.StorageFacet;
@@ -29,15 +31,26 @@ import org.sonatype.nexus.repository.storage.TempBlob;
 import org.sonatype.nexus.repository.transaction.TransactionalDeleteBlob;
 import org.sonatype.nexus.repository.transaction.TransactionalStoreBlob;
 import org.sonatype.nexus.repository.transaction.TransactionalTouchBlob;
+import org.sonatype.nexus.repository.transaction.TransactionalTouchMetadata;
 import org.sonatype.nexus.repository.view.Content;
 import org.sonatype.nexus.repository.view.Payload;
 import org.sonatype.nexus.transaction.UnitOfWork;
 import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.orient.HelmFacet;
 import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.database.HelmProperties;
+import org.sonatype.repository.helm.internal.metadata.ChartProvenance;
+import org.sonatype.repository.helm.internal.provenance.ProvenanceStatus;
+import org.sonatype.repository.helm.internal.provenance.ProvenanceVerifier;
 import org.sonatype.repository.helm.internal.util.HelmAttributeParser;
+import org.sonatype.repository.helm.internal.util.ProvenanceParser;
+import org.sonatype.repository.helm.internal.validation.ChartValidationResult;
+import org.sonatype.repository.helm.internal.validation.ChartValidationService;
+
+import com.google.common.base.Supplier;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
 import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
 import static org.sonatype.repository.helm.internal.AssetKind.HELM_PROVENANCE;
 import static org.sonatype.repository.helm.internal.HelmFormat.HASH_ALGORITHMS;
@@ -52,15 +65,29 @@ public class HelmHostedFacetImpl
     extends FacetSupport
     implements HelmHostedFacet
 {
+  private static final String PROVENANCE_SUFFIX = ".prov";
+
   private final HelmAttributeParser helmAttributeParser;
 
+  private final ProvenanceParser provenanceParser;
+
+  private final ProvenanceVerifier provenanceVerifier;
+
+  private final ChartValidationService chartValidationService;
+
   private HelmFacet helmFacet;
 
   @Inject
   public HelmHostedFacetImpl(
-      final HelmAttributeParser helmAttributeParser)
+      final HelmAttributeParser helmAttributeParser,
+      final ProvenanceParser provenanceParser,
+      final ProvenanceVerifier provenanceVerifier,
+      final ChartValidationService chartValidationService)
   {
     this.helmAttributeParser = helmAttributeParser;
+    this.provenanceParser = checkNotNull(provenanceParser);
+    this.provenanceVerifier = checkNotNull(provenanceVerifier);
+    this.chartValidationService = checkNotNull(chartValidationService);
   }
 
   @Override
@@ -89,6 +116,15 @@ public class HelmHostedFacetImpl
     return helmFacet.toContent(asset, tx.requireBlob(asset.requireBlobRef()));
   }
 
+  @Nullable
+  @Override
+  @TransactionalTouchMetadata
+  public Long size(final String path) {
+    checkNotNull(path);
+    StorageTx tx = UnitOfWork.currentTx();
+    return helmFacet.findAsset(tx, path).map(Asset::size).orElse(null);
+  }
+
   @Override
   public void upload(final String path,
                      final Payload payload,
@@ -99,8 +135,11 @@ public class HelmHostedFacetImpl
     }
   }
 
+  /**
+   * Charts are validated before the transaction storing them begins, so extracting and checking the archive neither
+   * holds the transaction open nor runs again when the transaction is retried.
+   */
   @Override
-  @TransactionalStoreBlob
   public Asset upload(String path, TempBlob tempBlob, Payload payload, AssetKind assetKind) throws IOException {
     if (assetKind != HELM_PACKAGE && assetKind != HELM_PROVENANCE) {
       throw new IllegalArgumentException("Unsupported assetKind: " + assetKind);
@@ -108,15 +147,169 @@ public class HelmHostedFacetImpl
     checkNotNull(path);
     checkNotNull(tempBlob);
 
+    ChartValidationResult validation = null;
+    if (assetKind == HELM_PACKAGE && chartValidationService.isEnabled()) {
+      validation = chartValidationService.validate(path, tempBlob);
+      if (!validation.isValid()) {
+        throw new InvalidContentException("Chart " + path + " is invalid: " + validation.getErrors());
+      }
+    }
+    return store(path, tempBlob, payload, assetKind, validation);
+  }
+
+  @TransactionalStoreBlob
+  protected Asset store(final String path,
+                        final TempBlob tempBlob,
+                        final Payload payload,
+                        final AssetKind assetKind,
+                        @Nullable final ChartValidationResult validation) throws IOException
+  {
     StorageTx tx = UnitOfWork.currentTx();
-    InputStream inputStream = tempBlob.get();
-    HelmAttributes attributes = helmAttributeParser.getAttributes(assetKind, inputStream);
+    ChartProvenance provenance = null;
+    boolean malformedProvenance = false;
+    HelmAttributes attributes;
+    if (assetKind == HELM_PROVENANCE && provenanceVerifier.isEnabled()) {
+      try (InputStream inputStream = tempBlob.get()) {
+        provenance = readProvenance(inputStream, path);
+      }
+      malformedProvenance = provenance == null;
+    }
+    if (provenance != null) {
+      attributes = provenance.getAttributes();
+    }
+    else if (validation != null && validation.getAttributes() != null) {
+      // read from the archive extracted for validation
+      attributes = validation.getAttributes();
+    }
+    else {
+      attributes = getAttributes(tx, path, tempBlob, assetKind);
+    }
     final Asset asset =
         helmFacet.findOrCreateAsset(tx, path, assetKind, attributes);
+    if (validation != null) {
+      asset.formatAttributes().set(HelmProperties.VALIDATION.getPropertyName(), validation.toAttributes());
+    }
     helmFacet.saveAsset(tx, asset, tempBlob, payload);
+
+    if (provenanceVerifier.isEnabled()) {
+      verifyProvenance(tx, assetKind == HELM_PROVENANCE ? chartPath(path) : path, provenance, malformedProvenance);
+    }
     return asset;
   }
 
+  /**
+   * Checks a chart against its provenance file once both have been uploaded, in whichever order, and records the
+   * outcome on the chart asset so it is published in index.yaml. A malformed provenance file is stored all the same
+   * and recorded as {@link ProvenanceStatus#MALFORMED}, whether it is uploaded before or after the chart.
+   *
+   * @param uploaded          the provenance file being uploaded, or null if the chart is being uploaded
+   * @param uploadedMalformed true if the provenance file being uploaded could not be read
+   */
+  private void verifyProvenance(final StorageTx tx,
+                                final String chartPath,
+                                @Nullable final ChartProvenance uploaded,
+                                final boolean uploadedMalformed) throws IOException
+  {
+    Optional<Asset> chart = helmFacet.findAsset(tx, chartPath);
+    if (!chart.isPresent()) {
+      return;
+    }
+    ChartProvenance provenance = uploaded;
+    if (provenance == null && !uploadedMalformed) {
+      Optional<Asset> stored = helmFacet.findAsset(tx, chartPath + PROVENANCE_SUFFIX);
+      if (!stored.isPresent()) {
+        setProvenanceVerification(tx, chart.get(), null);
+        return;
+      }
+      try (InputStream inputStream = tx.requireBlob(stored.get().requireBlobRef()).getInputStream()) {
+        provenance = readProvenance(inputStream, stored.get().name());
+      }
+    }
+    if (provenance == null) {
+      setProvenanceVerification(tx, chart.get(), ProvenanceStatus.MALFORMED);
+      return;
+    }
+    ProvenanceStatus status = provenanceVerifier.verify(provenance, chartPath, chart.get().getChecksum(SHA256));
+    log.debug("Provenance of {} in {}: {}", chartPath, getRepository().getName(), status);
+    setProvenanceVerification(tx, chart.get(), status);
+  }
+
+  /**
+   * @return the provenance file, or null if it is malformed
+   */
+  @Nullable
+  private ChartProvenance readProvenance(final InputStream inputStream, final String path) throws IOException {
+    try {
+      return provenanceParser.read(inputStream);
+    }
+    catch (IllegalArgumentException e) {
+      log.debug("Could not read provenance file {}", path, e);
+      return null;
+    }
+  }
+
+  private void setProvenanceVerification(final StorageTx tx,
+                                         final Asset chart,
+                                         @Nullable final ProvenanceStatus status)
+  {
+    String key = HelmProperties.PROVENANCE_VERIFICATION.getPropertyName();
+    String value = status == null ? null : status.getValue();
+    if (!Objects.equals(value, chart.formatAttributes().get(key))) {
+      if (value == null) {
+        chart.formatAttributes().remove(key);
+      }
+      else {
+        chart.formatAttributes().set(key, value);
+      }
+      tx.saveAsset(chart);
+    }
+  }
+
+  private static String chartPath(final String provenancePath) {
+    return provenancePath.substring(0, provenancePath.length() - PROVENANCE_SUFFIX.length());
+  }
+
+  @Override
+  @TransactionalStoreBlob
+  public Asset copy(final String path,
+                    final AssetKind assetKind,
+                    final HelmAttributes attributes,
+                    final Supplier<InputStream> content,
+                    @Nullable final String contentType,
+                    @Nullable final ChartValidationResult validation) throws IOException
+  {
+    checkNotNull(path);
+    checkNotNull(content);
+
+    StorageTx tx = UnitOfWork.currentTx();
+    Asset asset = helmFacet.findOrCreateAsset(tx, path, assetKind, attributes);
+    if (validation != null) {
+      asset.formatAttributes().set(HelmProperties.VALIDATION.getPropertyName(), validation.toAttributes());
+    }
+    helmFacet.saveAsset(tx, asset, content, contentType, null);
+
+    if (provenanceVerifier.isEnabled()) {
+      verifyProvenance(tx, assetKind == HELM_PROVENANCE ? chartPath(path) : path, null, false);
+    }
+    return asset;
+  }
+
+  private HelmAttributes getAttributes(final StorageTx tx,
+                                       final String path,
+                                       final TempBlob tempBlob,
+                                       final AssetKind assetKind) throws IOException
+  {
+    if (assetKind == HELM_PACKAGE) {
+      Optional<HelmAttributes> attributes = helmFacet.findChartAttributes(tx, path, tempBlob);
+      if (attributes.isPresent()) {
+        return attributes.get();
+      }
+    }
+    try (InputStream inputStream = tempBlob.get()) {
+      return helmAttributeParser.getAttributes(assetKind, inputStream);
+    }
+  }
+
   @Override
   @TransactionalDeleteBlob
   public boolean delete(final String path) {
@@ -128,6 +321,9 @@ public class HelmHostedFacetImpl
       return false;
     } else {
       tx.deleteAsset(asset.get());
+      if (provenanceVerifier.isEnabled() && path.endsWith(HELM_PROVENANCE.getExtension())) {
+        helmFacet.findAsset(tx, chartPath(path)).ifPresent(chart -> setProvenanceVerification(tx, chart, null));
+      }
       return true;
     }
   }
@@ -30,15 +30,19 @@ import org.sonatype.nexus.repository.view.Route
 import org.sonatype.nexus.repository.view.Router
 import org.sonatype.nexus.repository.view.ViewFacet
 import org.sonatype.nexus.repository.view.matchers.ActionMatcher
+import org.sonatype.nexus.repository.view.matchers.LiteralMatcher
 import org.sonatype.nexus.repository.view.matchers.logic.LogicMatchers
 import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher
 import org.sonatype.repository.helm.internal.AssetKind
 import org.sonatype.repository.helm.internal.HelmFormat
 import org.sonatype.repository.helm.internal.HelmRecipeSupport
 import org.sonatype.repository.helm.internal.hosted.HostedHandlers
+import org.sonatype.repository.helm.internal.oci.OciHandlers
 import org.sonatype.repository.helm.internal.orient.createindex.CreateIndexFacetImpl
 
 import static org.sonatype.nexus.repository.http.HttpMethods.DELETE
+import static org.sonatype.nexus.repository.http.HttpMethods.GET
+import static org.sonatype.nexus.repository.http.HttpMethods.HEAD
 import static org.sonatype.nexus.repository.http.HttpMethods.PUT
 import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE
 import static org.sonatype.repository.helm.internal.AssetKind.HELM_PROVENANCE
@@ -58,12 +62,18 @@ class HelmHostedRecipe
   @Inject
   HostedHandlers hostedHandlers
 
+  @Inject
+  OciHandlers ociHandlers
+
   @Inject
   Provider<CreateIndexFacetImpl> createIndexFacet
 
   @Inject
   Provider<HelmHostedFacetImpl> hostedFacet
 
+  @Inject
+  Provider<HelmAssetFilterFacetImpl> assetFilterFacet
+
   @Inject
   HelmHostedRecipe(@Named(HostedType.NAME) final Type type, @Named(HelmFormat.NAME) final Format format) {
     super(type, format)
@@ -79,7 +89,9 @@ class HelmHostedRecipe
     repository.attach(helmRestoreFacet.get())
     repository.attach(storageFacet.get())
     repository.attach(hostedFacet.get())
+    repository.attach(assetFilterFacet.get())
     repository.attach(createIndexFacet.get())
+    repository.attach(chartIndexFacet.get())
     repository.attach(searchFacet.get())
     repository.attach(attributesFacet.get())
   }
@@ -92,6 +104,36 @@ class HelmHostedRecipe
 
     addBrowseUnsupportedRoute(builder)
 
+    // chart queries and the OCI API must be routed ahead of the package matcher, which matches any path
+    [(ociBaseMatcher()): ociHandlers.base,
+     (ociTagsMatcher()): ociHandlers.tags,
+     (ociManifestMatcher()): ociHandlers.manifests,
+     (ociBlobMatcher()): ociHandlers.blobs].each { matcher, handler ->
+      builder.route(new Route.Builder().matcher(matcher)
+          .handler(timingHandler)
+          .handler(securityHandler)
+          .handler(formatHighAvailabilitySupportHandler)
+          .handler(exceptionHandler)
+          .handler(handlerContributor)
+          .handler(partialFetchHandler)
+          .handler(unitOfWorkHandler)
+          .handler(handler)
+          .create())
+    }
+
+    [(chartDependenciesMatcher()): chartIndexHandlers.dependencies,
+     (chartResolveMatcher()): chartIndexHandlers.resolve].each { matcher, handler ->
+      builder.route(new Route.Builder().matcher(matcher)
+          .handler(timingHandler)
+          .handler(securityHandler)
+          .handler(formatHighAvailabilitySupportHandler)
+          .handler(exceptionHandler)
+          .handler(handlerContributor)
+          .handler(unitOfWorkHandler)
+          .handler(handler)
+          .create())
+    }
+
     [indexMatcher(), packageMatcher()].each { matcher ->
       builder.route(new Route.Builder().matcher(matcher)
           .handler(timingHandler)
@@ -99,9 +141,11 @@ class HelmHostedRecipe
           .handler(formatHighAvailabilitySupportHandler)
           .handler(exceptionHandler)
           .handler(handlerContributor)
+          .handler(chartFileHandler)
           .handler(partialFetchHandler)
           .handler(contentHeadersHandler)
           .handler(unitOfWorkHandler)
+          .handler(indexDeltaHandler)
           .handler(hostedHandlers.get)
           .create())
     }
@@ -181,6 +225,34 @@ class HelmHostedRecipe
     )
   }
 
+  static Matcher ociBaseMatcher() {
+    LogicMatchers.and(
+        new ActionMatcher(GET, HEAD),
+        LogicMatchers.or(new LiteralMatcher('/v2'), new LiteralMatcher('/v2/'))
+    )
+  }
+
+  static Matcher ociTagsMatcher() {
+    LogicMatchers.and(
+        new ActionMatcher(GET, HEAD),
+        new TokenMatcher('/v2/{name:.+}/tags/list')
+    )
+  }
+
+  static Matcher ociManifestMatcher() {
+    LogicMatchers.and(
+        new ActionMatcher(GET, HEAD),
+        new TokenMatcher('/v2/{name:.+}/manifests/{reference:[^/]+}')
+    )
+  }
+
+  static Matcher ociBlobMatcher() {
+    LogicMatchers.and(
+        new ActionMatcher(GET, HEAD),
+        new TokenMatcher('/v2/{name:.+}/blobs/{digest:sha256:[a-f0-9]+}')
+    )
+  }
+
   static TokenMatcher tokenMatcherForExtensionAndName(final String extension, final String filename = '.+') {
     new TokenMatcher("/{filename:${filename}}.{extension:${extension}}")
   }
@@ -0,0 +1,70 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.nexus.repository.Facet;
+import org.sonatype.nexus.repository.Facet.Exposed;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph;
+import org.sonatype.repository.helm.internal.metadata.ChartFileFilter;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexDelta;
+
+/**
+ * Facet holding an in-memory view of the repository's index.yaml, with chart versions and dependencies resolved
+ * ahead of time for queries.
+ *
+ * @since 1.0.11
+ */
+@Exposed
+public interface ChartIndexFacet
+    extends Facet
+{
+  /**
+   * Returns the dependency graph of the current index, loading it from the stored index.yaml when it is not yet in
+   * memory. Requires an active {@link org.sonatype.nexus.transaction.UnitOfWork} in that case.
+   *
+   * @return the graph, or null if the repository has no index.yaml
+   */
+  @Nullable
+  ChartDependencyGraph getDependencyGraph();
+
+  /**
+   * Returns a filter of the chart files the current index refers to, loading the index like
+   * {@link #getDependencyGraph()} does, or from its binary sidecar when there is one.
+   *
+   * @return the filter, or null if the repository has no index.yaml
+   */
+  @Nullable
+  ChartFileFilter getFileFilter();
+
+  /**
+   * Returns the changes of the stored index.yaml since the given generation, see {@link IndexChangeLog}. Requires an
+   * active {@link org.sonatype.nexus.transaction.UnitOfWork}.
+   *
+   * @return the changes, or null if they are not known and the whole index has to be read
+   */
+  @Nullable
+  ChartIndexDelta getDelta(long since);
+
+  /**
+   * Replaces the in-memory view with a freshly built index.
+   */
+  void publish(ChartIndex index);
+
+  /**
+   * Drops the in-memory view so that it is reloaded from the stored index.yaml on next use.
+   */
+  void invalidate();
+}
@@ -0,0 +1,259 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.sonatype.nexus.common.event.EventAware.Asynchronous;
+import org.sonatype.nexus.common.stateguard.Guarded;
+import org.sonatype.nexus.repository.FacetSupport;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.AssetCreatedEvent;
+import org.sonatype.nexus.repository.storage.AssetDeletedEvent;
+import org.sonatype.nexus.repository.storage.AssetEvent;
+import org.sonatype.nexus.repository.storage.AssetUpdatedEvent;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.transaction.TransactionalTouchBlob;
+import org.sonatype.nexus.transaction.UnitOfWork;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph;
+import org.sonatype.repository.helm.internal.metadata.ChartFileFilter;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexDelta;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexSidecar;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.stateguard.StateGuardLifecycleSupport.State.STARTED;
+
+/**
+ * {@link ChartIndexFacet} implementation. Writers of index.yaml on this node publish the new index directly; changes
+ * to index.yaml made by other nodes drop the in-memory view so it is reloaded from storage. Queries that only need
+ * chart files are answered from the {@link ChartIndexSidecar} when there is one, without parsing index.yaml.
+ *
+ * @since 1.0.11
+ */
+@Named
+public class ChartIndexFacetImpl
+    extends FacetSupport
+    implements ChartIndexFacet, Asynchronous
+{
+  private static final String INDEX_YAML = "index.yaml";
+
+  private final YamlParser yamlParser;
+
+  private final IndexChangeLog indexChangeLog;
+
+  private final IndexSidecars indexSidecars;
+
+  /**
+   * The current view, or a placeholder without an index until one is loaded. Every publish and invalidation installs a
+   * new object, so a load can only install its view if nothing replaced the one it started from.
+   */
+  private final AtomicReference<IndexView> view = new AtomicReference<>(IndexView.unloaded());
+
+  @Inject
+  public ChartIndexFacetImpl(final YamlParser yamlParser,
+                             final IndexChangeLog indexChangeLog,
+                             final IndexSidecars indexSidecars)
+  {
+    this.yamlParser = checkNotNull(yamlParser);
+    this.indexChangeLog = checkNotNull(indexChangeLog);
+    this.indexSidecars = checkNotNull(indexSidecars);
+  }
+
+  @Nullable
+  @Override
+  public ChartDependencyGraph getDependencyGraph() {
+    IndexView current = currentView(true);
+    return current != null ? current.dependencyGraph() : null;
+  }
+
+  @Nullable
+  @Override
+  public ChartFileFilter getFileFilter() {
+    IndexView current = currentView(false);
+    return current != null ? current.fileFilter() : null;
+  }
+
+  /**
+   * @param complete whether the view must hold all of index.yaml rather than its sidecar summary
+   */
+  @Nullable
+  private IndexView currentView(final boolean complete) {
+    IndexView current = view.get();
+    if (!current.isLoaded() || (complete && !current.complete)) {
+      ChartIndex summary = complete ? null : loadSummary();
+      ChartIndex index = summary != null ? summary : loadIndex();
+      if (index != null) {
+        IndexView loaded = new IndexView(index, summary == null);
+        // a view published or invalidated while loading is newer than storage was when it was read, so it stays
+        view.compareAndSet(current, loaded);
+        return loaded;
+      }
+    }
+    return current.isLoaded() ? current : null;
+  }
+
+  @Nullable
+  @Override
+  @TransactionalTouchBlob
+  public ChartIndexDelta getDelta(final long since) {
+    StorageTx tx = UnitOfWork.currentTx();
+    Optional<Asset> asset = facet(HelmFacet.class).findAsset(tx, INDEX_YAML);
+    if (!asset.isPresent()) {
+      return null;
+    }
+    try {
+      return indexChangeLog.since(getRepository(), tx, asset.get(), since);
+    }
+    catch (IOException e) {
+      log.warn("Unable to read index.yaml changes of repository {}", getRepository().getName(), e);
+      return null;
+    }
+  }
+
+  @Override
+  public void publish(final ChartIndex index) {
+    view.set(new IndexView(checkNotNull(index), true));
+  }
+
+  @Override
+  public void invalidate() {
+    view.set(IndexView.unloaded());
+  }
+
+  @Override
+  protected void doStop() throws Exception {
+    invalidate();
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  @AllowConcurrentEvents
+  public void on(final AssetCreatedEvent created) {
+    maybeInvalidate(created);
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  @AllowConcurrentEvents
+  public void on(final AssetUpdatedEvent updated) {
+    maybeInvalidate(updated);
+  }
+
+  @Subscribe
+  @Guarded(by = STARTED)
+  @AllowConcurrentEvents
+  public void on(final AssetDeletedEvent deleted) {
+    maybeInvalidate(deleted);
+  }
+
+  private void maybeInvalidate(final AssetEvent event) {
+    if (!event.isLocal() && INDEX_YAML.equals(event.getAsset().name())
+        && getRepository().getName().equals(event.getRepositoryName())) {
+      invalidate();
+    }
+  }
+
+  @Nullable
+  @TransactionalTouchBlob
+  protected ChartIndex loadIndex() {
+    StorageTx tx = UnitOfWork.currentTx();
+    Optional<Asset> asset = facet(HelmFacet.class).findAsset(tx, INDEX_YAML);
+    if (!asset.isPresent()) {
+      return null;
+    }
+    try (InputStream is = tx.requireBlob(asset.get().requireBlobRef()).getInputStream()) {
+      return yamlParser.loadIndex(is);
+    }
+    catch (IOException e) {
+      log.warn("Unable to read index.yaml of repository {}", getRepository().getName(), e);
+      return null;
+    }
+  }
+
+  @Nullable
+  @TransactionalTouchBlob
+  protected ChartIndex loadSummary() {
+    StorageTx tx = UnitOfWork.currentTx();
+    Optional<Asset> asset = facet(HelmFacet.class).findAsset(tx, INDEX_YAML);
+    if (!asset.isPresent()) {
+      return null;
+    }
+    try {
+      ChartIndexSidecar sidecar = indexSidecars.read(getRepository(), tx, asset.get());
+      return sidecar != null ? sidecar.toChartIndex() : null;
+    }
+    catch (IOException e) {
+      log.debug("Unable to read index sidecar of repository {}, using index.yaml", getRepository().getName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Views of one index, each built on first use so that repositories only pay for the queries they serve.
+   */
+  private static class IndexView
+  {
+    @Nullable
+    private final ChartIndex index;
+
+    private final boolean complete;
+
+    private volatile ChartDependencyGraph dependencyGraph;
+
+    private volatile ChartFileFilter fileFilter;
+
+    IndexView(@Nullable final ChartIndex index, final boolean complete) {
+      this.index = index;
+      this.complete = complete;
+    }
+
+    static IndexView unloaded() {
+      return new IndexView(null, false);
+    }
+
+    boolean isLoaded() {
+      return index != null;
+    }
+
+    ChartDependencyGraph dependencyGraph() {
+      ChartDependencyGraph graph = dependencyGraph;
+      if (graph == null) {
+        graph = new ChartDependencyGraph(index);
+        dependencyGraph = graph;
+      }
+      return graph;
+    }
+
+    ChartFileFilter fileFilter() {
+      ChartFileFilter filter = fileFilter;
+      if (filter == null) {
+        filter = new ChartFileFilter(index);
+        fileFilter = filter;
+      }
+      return filter;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.view.ContentTypes;
+import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
+import org.sonatype.nexus.repository.view.payloads.StringPayload;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph.DependencyClosure;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph.UnresolvedDependency;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+import org.sonatype.repository.helm.internal.util.VersionConstraint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.sonatype.nexus.repository.http.HttpResponses.badRequest;
+import static org.sonatype.nexus.repository.http.HttpResponses.notFound;
+import static org.sonatype.nexus.repository.http.HttpResponses.ok;
+
+/**
+ * Handlers answering queries against the in-memory chart index of a repository.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartIndexHandlers
+    extends ComponentSupport
+{
+  private static final String RANGE = "range";
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  /**
+   * Returns the transitive dependencies of a chart version in install order, along with the dependencies that could
+   * not be resolved within the repository.
+   */
+  public final Handler dependencies = context -> {
+    TokenMatcher.State state = context.getAttributes().require(TokenMatcher.State.class);
+    String name = state.getTokens().get("name");
+    String version = state.getTokens().get("version");
+
+    ChartDependencyGraph graph = context.getRepository().facet(ChartIndexFacet.class).getDependencyGraph();
+    DependencyClosure closure = graph != null ? graph.closure(name, version) : null;
+    if (closure == null) {
+      return notFound(String.format("Chart %s-%s not found", name, version));
+    }
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("name", name);
+    result.put("version", version);
+    List<Map<String, Object>> charts = new ArrayList<>();
+    for (ChartEntry chart : closure.getCharts()) {
+      charts.add(toMap(chart));
+    }
+    result.put("charts", charts);
+    List<Map<String, Object>> unresolved = new ArrayList<>();
+    for (UnresolvedDependency dependency : closure.getUnresolved()) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      putIfNotNull(map, "name", dependency.getName());
+      putIfNotNull(map, "version", dependency.getVersion());
+      putIfNotNull(map, "repository", dependency.getRepository());
+      map.put("requiredBy", dependency.getRequiredBy());
+      unresolved.add(map);
+    }
+    result.put("unresolved", unresolved);
+    return json(result);
+  };
+
+  /**
+   * Returns the newest version of a chart satisfying the semantic version range given by the {@code range} parameter,
+   * or the newest stable version if no range is given.
+   */
+  public final Handler resolve = context -> {
+    TokenMatcher.State state = context.getAttributes().require(TokenMatcher.State.class);
+    String name = state.getTokens().get("name");
+    String range = context.getRequest().getParameters().get(RANGE);
+
+    VersionConstraint constraint;
+    try {
+      constraint = VersionConstraint.parse(range == null || range.trim().isEmpty() ? "*" : range);
+    }
+    catch (IllegalArgumentException e) {
+      return badRequest(e.getMessage());
+    }
+
+    ChartDependencyGraph graph = context.getRepository().facet(ChartIndexFacet.class).getDependencyGraph();
+    ChartEntry chart = graph != null ? graph.getVersionIndex().resolve(name, constraint) : null;
+    if (chart == null) {
+      return notFound(String.format("No version of chart %s matches %s", name, constraint));
+    }
+    return json(toMap(chart));
+  };
+
+  protected Response json(final Object value) throws JsonProcessingException {
+    return ok(new StringPayload(mapper.writeValueAsString(value), ContentTypes.APPLICATION_JSON));
+  }
+
+  protected Map<String, Object> toMap(final ChartEntry chart) {
+    Map<String, Object> map = new LinkedHashMap<>();
+    putIfNotNull(map, "name", chart.getName());
+    putIfNotNull(map, "version", chart.getVersion());
+    putIfNotNull(map, "apiVersion", chart.getApiVersion());
+    putIfNotNull(map, "appVersion", chart.getAppVersion());
+    putIfNotNull(map, "type", chart.getType());
+    putIfNotNull(map, "description", chart.getDescription());
+    putIfNotNull(map, "home", chart.getHome());
+    putIfNotNull(map, "icon", chart.getIcon());
+    putIfNotNull(map, "kubeVersion", chart.getKubeVersion());
+    putIfNotNull(map, "deprecated", chart.getDeprecated());
+    putIfNotNull(map, "keywords", chart.getKeywords());
+    putIfNotNull(map, "sources", chart.getSources());
+    putIfNotNull(map, "maintainers", chart.getMaintainers());
+    putIfNotNull(map, "annotations", chart.getAnnotations());
+    putIfNotNull(map, "dependencies", chart.getDependencies());
+    putIfNotNull(map, "created", chart.getCreated() != null ? chart.getCreated().toString() : null);
+    putIfNotNull(map, "digest", chart.getDigest());
+    putIfNotNull(map, "provenanceVerification", chart.getProvenanceVerification());
+    putIfNotNull(map, "urls", chart.getUrls());
+    return map;
+  }
+
+  private static void putIfNotNull(final Map<String, Object> map, final String key, @Nullable final Object value) {
+    if (value != null) {
+      map.put(key, value);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.Bucket;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.nexus.thread.io.StreamCopier;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexDelta;
+import org.sonatype.repository.helm.internal.metadata.IndexGenerations;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.google.common.hash.HashCode;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_INDEX;
+import static org.sonatype.repository.helm.internal.HelmFormat.HASH_ALGORITHMS;
+
+/**
+ * Change log of a repository's index.yaml. Every stored index gets the next generation number, recorded on the
+ * index.yaml asset, and the changes from the index it replaces are stored as {@code index-<generation>.delta.yaml}.
+ * The last {@code nexus.helm.index.deltas} deltas are kept, so clients that know their generation can catch up with
+ * a small document instead of downloading the whole index.
+ *
+ * The last generation handed out is also kept on the repository's bucket, so that generations keep counting up when
+ * index.yaml is deleted and created again; no generation number ever names two different indexes.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class IndexChangeLog
+    extends ComponentSupport
+{
+  private static final String YAML_CONTENT_TYPE = "text/x-yaml";
+
+  private final YamlParser yamlParser;
+
+  private final int retained;
+
+  @Inject
+  public IndexChangeLog(final YamlParser yamlParser,
+                        @Named("${nexus.helm.index.deltas:-50}") final int retained)
+  {
+    this.yamlParser = checkNotNull(yamlParser);
+    this.retained = retained;
+  }
+
+  /**
+   * Moves the index asset to its next generation and stores the changes from its current content to the new index.
+   * Must be called in the transaction saving the new content, before the blob of the index asset is replaced. Content
+   * identical to the stored one keeps its generation.
+   *
+   * @return the generation of the new content
+   */
+  public long record(final Repository repository,
+                     final StorageTx tx,
+                     final Asset indexAsset,
+                     final TempBlob content,
+                     final ChartIndex next) throws IOException
+  {
+    long previousGeneration = generation(indexAsset);
+    HashCode sha256 = content.getHashes().get(SHA256);
+    if (indexAsset.blobRef() != null && sha256 != null && sha256.equals(indexAsset.getChecksum(SHA256))) {
+      return previousGeneration;
+    }
+
+    Bucket bucket = tx.findBucket(repository);
+    NestedAttributesMap bucketAttributes = bucket.attributes().child(HelmFormat.NAME);
+    Number lastGeneration = bucketAttributes.get(IndexGenerations.P_LAST_GENERATION, Number.class);
+    long generation = Math.max(previousGeneration, lastGeneration != null ? lastGeneration.longValue() : 0) + 1;
+    bucketAttributes.set(IndexGenerations.P_LAST_GENERATION, generation);
+    tx.saveBucket(bucket);
+    indexAsset.formatAttributes().set(IndexGenerations.P_GENERATION, generation);
+    // a delta is only written for an unbroken history, so the chain of deltas never spans a deleted index
+    if (retained <= 0 || previousGeneration == 0 || previousGeneration != generation - 1
+        || indexAsset.blobRef() == null) {
+      return generation;
+    }
+
+    ChartIndex previous;
+    try (InputStream in = tx.requireBlob(indexAsset.requireBlobRef()).getInputStream()) {
+      previous = yamlParser.loadIndex(in);
+    }
+    ChartIndexDelta delta = ChartIndexDelta.between(previousGeneration, generation, previous, next);
+    HelmFacet helmFacet = repository.facet(HelmFacet.class);
+    try (TempBlob deltaYaml = writeDelta(repository, delta)) {
+      Asset asset = helmFacet.findOrCreateAsset(tx, IndexGenerations.deltaFileName(generation), HELM_INDEX,
+          new HelmAttributes(Collections.emptyMap()));
+      helmFacet.saveAsset(tx, asset, deltaYaml, YAML_CONTENT_TYPE, null);
+    }
+    for (long expired = generation - retained; expired > 0; expired--) {
+      Optional<Asset> asset = helmFacet.findAsset(tx, IndexGenerations.deltaFileName(expired));
+      if (!asset.isPresent()) {
+        break;
+      }
+      tx.deleteAsset(asset.get());
+    }
+    log.debug("Recorded generation {} of index.yaml in {}", generation, repository.getName());
+    return generation;
+  }
+
+  /**
+   * Combines the stored deltas leading from the given generation to the current content of the index asset.
+   *
+   * @return the changes, or null if the generation is unknown or its deltas are no longer kept
+   */
+  @Nullable
+  public ChartIndexDelta since(final Repository repository,
+                               final StorageTx tx,
+                               final Asset indexAsset,
+                               final long since) throws IOException
+  {
+    long current = generation(indexAsset);
+    if (since <= 0 || since > current || current - since > retained) {
+      return null;
+    }
+    HelmFacet helmFacet = repository.facet(HelmFacet.class);
+    ChartIndexDelta delta = new ChartIndexDelta(since);
+    for (long generation = since + 1; generation <= current; generation++) {
+      Optional<Asset> asset = helmFacet.findAsset(tx, IndexGenerations.deltaFileName(generation));
+      if (!asset.isPresent()) {
+        return null;
+      }
+      try (InputStream in = tx.requireBlob(asset.get().requireBlobRef()).getInputStream()) {
+        delta.append(yamlParser.loadDelta(in));
+      }
+      catch (IllegalArgumentException e) {
+        log.debug("Delta of generation {} of index.yaml in {} does not connect", generation, repository.getName(), e);
+        return null;
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * Deletes the deltas leading to the given generation, when its index.yaml is deleted.
+   */
+  public void deleteDeltas(final Repository repository, final StorageTx tx, final long generation) {
+    HelmFacet helmFacet = repository.facet(HelmFacet.class);
+    for (long expired = generation; expired > 0 && expired > generation - retained; expired--) {
+      helmFacet.findAsset(tx, IndexGenerations.deltaFileName(expired)).ifPresent(tx::deleteAsset);
+    }
+  }
+
+  public static long generation(final Asset indexAsset) {
+    Number generation = indexAsset.formatAttributes().get(IndexGenerations.P_GENERATION, Number.class);
+    return generation != null ? generation.longValue() : 0;
+  }
+
+  private TempBlob writeDelta(final Repository repository, final ChartIndexDelta delta) {
+    return new StreamCopier<>(os -> yamlParser.writeDelta(os, delta),
+        is -> repository.facet(StorageFacet.class).createTempBlob(is, HASH_ALGORITHMS)).read();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.payloads.BytesPayload;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexDelta;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.repository.http.HttpResponses.badRequest;
+import static org.sonatype.nexus.repository.http.HttpResponses.ok;
+
+/**
+ * Answers {@code index.yaml?since=<generation>} with the changes since that generation when the repository still
+ * knows them, see {@link IndexChangeLog}, and with the whole index otherwise. Every index.yaml response names the
+ * generation it brings the client to in the {@value #GENERATION_HEADER} header; delta responses also carry
+ * {@value #SINCE_HEADER}, so clients can tell them from a whole index.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class IndexDeltaHandler
+    extends ComponentSupport
+    implements Handler
+{
+  public static final String GENERATION_HEADER = "X-Helm-Index-Generation";
+
+  public static final String SINCE_HEADER = "X-Helm-Index-Since";
+
+  private static final String SINCE = "since";
+
+  private static final String YAML_CONTENT_TYPE = "text/x-yaml";
+
+  private final YamlParser yamlParser;
+
+  @Inject
+  public IndexDeltaHandler(final YamlParser yamlParser) {
+    this.yamlParser = checkNotNull(yamlParser);
+  }
+
+  @Nonnull
+  @Override
+  public Response handle(@Nonnull final Context context) throws Exception {
+    if (context.getAttributes().get(AssetKind.class) != AssetKind.HELM_INDEX) {
+      return context.proceed();
+    }
+    String sinceParameter = context.getRequest().getParameters().get(SINCE);
+    long since = 0;
+    if (sinceParameter != null) {
+      try {
+        since = Long.parseLong(sinceParameter);
+      }
+      catch (NumberFormatException e) { // NOSONAR
+        return badRequest("Invalid index generation: " + sinceParameter);
+      }
+    }
+
+    // the index is fetched as usual first, so that proxies bring it up to date
+    Response response = context.proceed();
+    if (!response.getStatus().isSuccessful() || !(response.getPayload() instanceof Content)) {
+      return response;
+    }
+    Asset asset = ((Content) response.getPayload()).getAttributes().get(Asset.class);
+    long generation = asset != null ? IndexChangeLog.generation(asset) : 0;
+    if (generation == 0) {
+      return response;
+    }
+
+    ChartIndexDelta delta = sinceParameter != null
+        ? context.getRepository().facet(ChartIndexFacet.class).getDelta(since)
+        : null;
+    if (delta == null || delta.getGeneration() != generation) {
+      response.getHeaders().set(GENERATION_HEADER, Long.toString(generation));
+      return response;
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    yamlParser.writeDelta(out, delta);
+    Response deltaResponse = ok(new BytesPayload(out.toByteArray(), YAML_CONTENT_TYPE));
+    deltaResponse.getHeaders().set(GENERATION_HEADER, Long.toString(generation));
+    deltaResponse.getHeaders().set(SINCE_HEADER, Long.toString(since));
+    return deltaResponse;
+  }
+}
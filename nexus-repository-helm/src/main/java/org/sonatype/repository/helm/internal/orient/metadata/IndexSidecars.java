@@ -0,0 +1,134 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.nexus.thread.io.StreamCopier;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexSidecar;
+import org.sonatype.repository.helm.internal.orient.FileBlobPayloads;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_INDEX;
+import static org.sonatype.repository.helm.internal.HelmFormat.HASH_ALGORITHMS;
+
+/**
+ * Stores the {@link ChartIndexSidecar} of a repository's index.yaml as {@value ChartIndexSidecar#FILE_NAME}, tagged
+ * with the SHA-256 of the index.yaml it was written for, and reads it back memory-mapped from file blob stores. A
+ * sidecar whose tag does not match the current index.yaml is ignored. Can be turned off with
+ * {@code nexus.helm.index.sidecar.enabled=false}.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class IndexSidecars
+    extends ComponentSupport
+{
+  static final String P_INDEX_SHA256 = "indexSha256";
+
+  private static final String CONTENT_TYPE = "application/octet-stream";
+
+  private final FileBlobPayloads fileBlobPayloads;
+
+  private final boolean enabled;
+
+  @Inject
+  public IndexSidecars(final FileBlobPayloads fileBlobPayloads,
+                       @Named("${nexus.helm.index.sidecar.enabled:-true}") final boolean enabled)
+  {
+    this.fileBlobPayloads = checkNotNull(fileBlobPayloads);
+    this.enabled = enabled;
+  }
+
+  /**
+   * Writes the sidecar of a new index.yaml. Must be called in the transaction saving the index.yaml content.
+   */
+  public void write(final Repository repository,
+                    final StorageTx tx,
+                    final TempBlob indexYaml,
+                    final ChartIndex index) throws IOException
+  {
+    HashCode sha256 = indexYaml.getHashes().get(SHA256);
+    if (!enabled || sha256 == null) {
+      return;
+    }
+    HelmFacet helmFacet = repository.facet(HelmFacet.class);
+    Asset asset = helmFacet.findOrCreateAsset(tx, ChartIndexSidecar.FILE_NAME, HELM_INDEX,
+        new HelmAttributes(Collections.emptyMap()));
+    if (asset.blobRef() != null && sha256.toString().equals(asset.formatAttributes().get(P_INDEX_SHA256))) {
+      return;
+    }
+    asset.formatAttributes().set(P_INDEX_SHA256, sha256.toString());
+    try (TempBlob sidecar = new StreamCopier<>(os -> ChartIndexSidecar.write(index, os),
+        is -> repository.facet(StorageFacet.class).createTempBlob(is, HASH_ALGORITHMS)).read())
+    {
+      helmFacet.saveAsset(tx, asset, sidecar, CONTENT_TYPE, null);
+    }
+  }
+
+  /**
+   * @return the sidecar of the given index.yaml asset, or null if there is none written for its current content
+   */
+  @Nullable
+  public ChartIndexSidecar read(final Repository repository, final StorageTx tx, final Asset indexAsset)
+      throws IOException
+  {
+    HashCode sha256 = indexAsset.getChecksum(SHA256);
+    if (!enabled || sha256 == null) {
+      return null;
+    }
+    Optional<Asset> asset = repository.facet(HelmFacet.class).findAsset(tx, ChartIndexSidecar.FILE_NAME);
+    if (!asset.isPresent() || !sha256.toString().equals(asset.get().formatAttributes().get(P_INDEX_SHA256))) {
+      return null;
+    }
+    Blob blob = tx.requireBlob(asset.get().requireBlobRef());
+    try {
+      Path file = fileBlobPayloads.contentFile(asset.get().requireBlobRef().getStore(), blob);
+      if (file != null) {
+        return ChartIndexSidecar.map(file);
+      }
+      try (InputStream in = blob.getInputStream()) {
+        return ChartIndexSidecar.wrap(ByteBuffer.wrap(ByteStreams.toByteArray(in)));
+      }
+    }
+    catch (IllegalArgumentException e) {
+      log.debug("Ignoring unreadable index sidecar of repository {}", repository.getName(), e);
+      return null;
+    }
+  }
+}
@@ -13,6 +13,7 @@
 package org.sonatype.repository.helm.internal.orient.proxy;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -41,11 +42,22 @@ import org.sonatype.nexus.transaction.UnitOfWork;
 import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.orient.HelmFacet;
 import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.cache.HotChartCache;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexChangeLog;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexSidecars;
 import org.sonatype.repository.helm.internal.orient.metadata.IndexYamlAbsoluteUrlRewriter;
 import org.sonatype.repository.helm.internal.util.HelmAttributeParser;
 import org.sonatype.repository.helm.internal.util.HelmPathUtils;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.google.common.hash.HashCode;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_ASSET_KIND;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
 import static org.sonatype.repository.helm.internal.HelmFormat.HASH_ALGORITHMS;
 
 /**
@@ -63,6 +75,14 @@ public class HelmProxyFacetImpl
 
   private final IndexYamlAbsoluteUrlRewriter indexYamlAbsoluteUrlRewriter;
 
+  private final HotChartCache hotChartCache;
+
+  private final YamlParser yamlParser;
+
+  private final IndexChangeLog indexChangeLog;
+
+  private final IndexSidecars indexSidecars;
+
   private HelmFacet helmFacet;
 
   private static final String INDEX_YAML = "index.yaml";
@@ -70,11 +90,19 @@ public class HelmProxyFacetImpl
   @Inject
   public HelmProxyFacetImpl(final HelmPathUtils helmPathUtils,
                             final HelmAttributeParser helmAttributeParser,
-                            final IndexYamlAbsoluteUrlRewriter indexYamlAbsoluteUrlRewriter)
+                            final IndexYamlAbsoluteUrlRewriter indexYamlAbsoluteUrlRewriter,
+                            final HotChartCache hotChartCache,
+                            final YamlParser yamlParser,
+                            final IndexChangeLog indexChangeLog,
+                            final IndexSidecars indexSidecars)
   {
     this.helmPathUtils = checkNotNull(helmPathUtils);
     this.helmAttributeParser = checkNotNull(helmAttributeParser);
     this.indexYamlAbsoluteUrlRewriter = checkNotNull(indexYamlAbsoluteUrlRewriter);
+    this.hotChartCache = checkNotNull(hotChartCache);
+    this.yamlParser = checkNotNull(yamlParser);
+    this.indexChangeLog = checkNotNull(indexChangeLog);
+    this.indexSidecars = checkNotNull(indexSidecars);
   }
 
   @Override
@@ -122,7 +150,13 @@ public class HelmProxyFacetImpl
     StorageFacet storageFacet = facet(StorageFacet.class);
     try (TempBlob tempBlob = storageFacet.createTempBlob(content.openInputStream(), HASH_ALGORITHMS)) {
       try (TempBlob newTempBlob = indexYamlAbsoluteUrlRewriter.removeUrlsFromIndexYamlAndWriteToTempBlob(tempBlob, getRepository()) ) {
-        return saveMetadataAsAsset(path, newTempBlob, content, assetKind);
+        ChartIndex index;
+        try (InputStream in = newTempBlob.get()) {
+          index = yamlParser.loadIndex(in);
+        }
+        Content saved = saveMetadataAsAsset(path, newTempBlob, index, content, assetKind);
+        getRepository().optionalFacet(ChartIndexFacet.class).ifPresent(facet -> facet.publish(index));
+        return saved;
       }
     }
   }
@@ -130,12 +164,15 @@ public class HelmProxyFacetImpl
   @TransactionalStoreBlob
   protected Content saveMetadataAsAsset(final String assetPath,
                                         final TempBlob metadataContent,
+                                        final ChartIndex index,
                                         final Payload payload,
-                                        final AssetKind assetKind)
+                                        final AssetKind assetKind) throws IOException
   {
     StorageTx tx = UnitOfWork.currentTx();
     HelmAttributes chart = new HelmAttributes(Collections.emptyMap());
     Asset asset = helmFacet.findOrCreateAsset(tx, assetPath, assetKind, chart);
+    indexChangeLog.record(getRepository(), tx, asset, metadataContent, index);
+    indexSidecars.write(getRepository(), tx, metadataContent, index);
     return helmFacet.saveAsset(tx, asset, metadataContent, payload);
   }
 
@@ -144,14 +181,12 @@ public class HelmProxyFacetImpl
                                final AssetKind assetKind) throws IOException {
     StorageFacet storageFacet = facet(StorageFacet.class);
     try (TempBlob tempBlob = storageFacet.createTempBlob(content.openInputStream(), HASH_ALGORITHMS)) {
-      HelmAttributes helmAttributes = helmAttributeParser.getAttributes(assetKind, tempBlob.get());
-      return doCreateOrSaveComponent(helmAttributes, fileName, assetKind, tempBlob, content.getContentType(), content.getAttributes());
+      return doCreateOrSaveComponent(fileName, assetKind, tempBlob, content.getContentType(), content.getAttributes());
     }
   }
 
   @TransactionalStoreBlob
   protected Content doCreateOrSaveComponent(
-      final HelmAttributes helmAttributes,
       final String fileName,
       final AssetKind assetKind,
       final TempBlob componentContent,
@@ -159,6 +194,10 @@ public class HelmProxyFacetImpl
       final AttributesMap contentAttributes) throws IOException
   {
     StorageTx tx = UnitOfWork.currentTx();
+    Optional<HelmAttributes> existing = helmFacet.findChartAttributes(tx, fileName, componentContent);
+    HelmAttributes helmAttributes = existing.isPresent()
+        ? existing.get()
+        : helmAttributeParser.getAttributes(assetKind, componentContent.get());
     Asset asset = helmFacet.findOrCreateAsset(tx, fileName, assetKind, helmAttributes);
     return helmFacet.saveAsset(tx, asset, componentContent, contentType, contentAttributes);
   }
@@ -176,9 +215,32 @@ public class HelmProxyFacetImpl
     if (asset.markAsDownloaded()) {
       tx.saveAsset(asset);
     }
+    if (HELM_PACKAGE.name().equals(asset.formatAttributes().get(P_ASSET_KIND))) {
+      Content hot = getHotContent(tx, asset);
+      if (hot != null) {
+        return hot;
+      }
+    }
     return helmFacet.toContent(asset, tx.requireBlob(asset.requireBlobRef()));
   }
 
+  @Nullable
+  private Content getHotContent(final StorageTx tx, final Asset asset) {
+    HashCode sha256 = asset.getChecksum(SHA256);
+    Long size = asset.size();
+    if (sha256 == null || size == null) {
+      return null;
+    }
+    Payload payload = hotChartCache.get(sha256, size, asset.contentType(),
+        () -> tx.requireBlob(asset.requireBlobRef()).getInputStream());
+    if (payload == null) {
+      return null;
+    }
+    Content content = new Content(payload);
+    Content.extractFromAsset(asset, HASH_ALGORITHMS, content.getAttributes());
+    return content;
+  }
+
   @Override
   protected void indicateVerified(final Context context, final Content content, final CacheInfo cacheInfo)
   {
@@ -200,8 +262,14 @@ public class HelmProxyFacetImpl
     tx.saveAsset(asset);
   }
 
+  /**
+   * Chart queries refresh index.yaml on their own request paths, so the upstream path of the index is fixed.
+   */
   @Override
   protected String getUrl(@Nonnull final Context context) {
+    if (context.getAttributes().get(AssetKind.class) == AssetKind.HELM_INDEX) {
+      return INDEX_YAML;
+    }
     return context.getRequest().getPath().substring(1);
   }
 }
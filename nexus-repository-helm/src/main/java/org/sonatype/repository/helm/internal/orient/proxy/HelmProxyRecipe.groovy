@@ -61,6 +61,12 @@ class HelmProxyRecipe
   @Inject
   Provider<NegativeCacheFacet> negativeCacheFacet
 
+  @Inject
+  ProxyIndexRefreshHandler proxyIndexRefreshHandler
+
+  @Inject
+  ProxyChartFilterHandler proxyChartFilterHandler
+
   @Inject
   HelmProxyRecipe(@Named(ProxyType.NAME) final Type type,
                   @Named(HelmFormat.NAME) final Format format) {
@@ -76,6 +82,7 @@ class HelmProxyRecipe
     repository.attach(componentMaintenanceFacet.get())
     repository.attach(helmFacet.get())
     repository.attach(proxyFacet.get())
+    repository.attach(chartIndexFacet.get())
     repository.attach(helmRestoreFacet.get())
     repository.attach(storageFacet.get())
     repository.attach(searchFacet.get())
@@ -91,6 +98,21 @@ class HelmProxyRecipe
 
     addBrowseUnsupportedRoute(builder)
 
+    // chart queries must be routed ahead of the package matcher, which matches any path
+    [(chartDependenciesMatcher()): chartIndexHandlers.dependencies,
+     (chartResolveMatcher()): chartIndexHandlers.resolve].each { matcher, handler ->
+      builder.route(new Route.Builder().matcher(matcher)
+          .handler(timingHandler)
+          .handler(securityHandler)
+          .handler(formatHighAvailabilitySupportHandler)
+          .handler(exceptionHandler)
+          .handler(handlerContributor)
+          .handler(unitOfWorkHandler)
+          .handler(proxyIndexRefreshHandler)
+          .handler(handler)
+          .create())
+    }
+
     [indexMatcher(), packageMatcher()].each { matcher ->
       builder.route(new Route.Builder().matcher(matcher)
           .handler(timingHandler)
@@ -99,10 +121,13 @@ class HelmProxyRecipe
           .handler(routingRuleHandler)
           .handler(exceptionHandler)
           .handler(handlerContributor)
+          .handler(chartFileHandler)
           .handler(negativeCacheHandler)
           .handler(partialFetchHandler)
           .handler(contentHeadersHandler)
           .handler(unitOfWorkHandler)
+          .handler(indexDeltaHandler)
+          .handler(proxyChartFilterHandler)
           .handler(proxyHandler)
           .create())
     }
@@ -0,0 +1,87 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.proxy;
+
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpResponses;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.metadata.ChartFileFilter;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+import org.sonatype.repository.helm.internal.util.HelmPathUtils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
+
+/**
+ * Answers requests for chart files that the cached upstream index.yaml does not list, and that are not cached either,
+ * with 404 before the upstream repository is consulted. Clients learn about charts from index.yaml, so such requests
+ * come from misconfigured clients; charts published upstream become available once the proxy next refreshes
+ * index.yaml, and charts removed upstream stay available from the cache. Can be turned off with
+ * {@code nexus.helm.proxy.chartFilter.enabled=false}.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ProxyChartFilterHandler
+    extends ComponentSupport
+    implements Handler
+{
+  private final HelmPathUtils helmPathUtils;
+
+  private final boolean enabled;
+
+  @Inject
+  public ProxyChartFilterHandler(final HelmPathUtils helmPathUtils,
+                                 @Named("${nexus.helm.proxy.chartFilter.enabled:-true}") final boolean enabled)
+  {
+    this.helmPathUtils = checkNotNull(helmPathUtils);
+    this.enabled = enabled;
+  }
+
+  @Nonnull
+  @Override
+  public Response handle(@Nonnull final Context context) throws Exception {
+    if (enabled && context.getAttributes().get(AssetKind.class) == HELM_PACKAGE) {
+      String fileName = helmPathUtils.filename(helmPathUtils.matcherState(context));
+      Optional<ChartFileFilter> filter = context.getRepository().optionalFacet(ChartIndexFacet.class)
+          .map(ChartIndexFacet::getFileFilter);
+      if (filter.isPresent() && !filter.get().mightContain(fileName) && !isCached(context.getRepository(), fileName)) {
+        log.debug("Chart {} is not listed in index.yaml of {}", fileName, context.getRepository().getName());
+        return HttpResponses.notFound();
+      }
+    }
+    return context.proceed();
+  }
+
+  private boolean isCached(final Repository repository, final String fileName) {
+    try (StorageTx tx = repository.facet(StorageFacet.class).txSupplier().get()) {
+      tx.begin();
+      return repository.facet(HelmFacet.class).findAsset(tx, fileName).isPresent();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.proxy;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.proxy.ProxyFacet;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Handler;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.repository.helm.internal.AssetKind;
+
+/**
+ * Brings the cached index.yaml of a proxy repository up to date, as a request for index.yaml itself would, before
+ * a query against the in-memory chart index is answered. Storing a newer index.yaml replaces the in-memory index.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ProxyIndexRefreshHandler
+    extends ComponentSupport
+    implements Handler
+{
+  @Nonnull
+  @Override
+  public Response handle(@Nonnull final Context context) throws Exception {
+    context.getAttributes().set(AssetKind.class, AssetKind.HELM_INDEX);
+    try {
+      context.getRepository().facet(ProxyFacet.class).get(context);
+    }
+    catch (Exception e) {
+      // any failure of the refresh leaves the cached index in place, as for the other refresh paths
+      log.warn("Unable to refresh index.yaml of repository {}, answering from the cached index",
+          context.getRepository().getName(), e);
+    }
+    return context.proceed();
+  }
+}
@@ -77,7 +77,7 @@ public class HelmRestoreFacetImpl
   @TransactionalTouchBlob
   public boolean assetExists(final String path) {
     final StorageTx tx = UnitOfWork.currentTx();
-    return tx.findAssetWithProperty(P_NAME, path, tx.findBucket(getRepository())) != null;
+    return helmFacet.findAsset(tx, path).isPresent();
   }
 
   @Override
@@ -0,0 +1,124 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.provenance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPPublicKeyRingCollection;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.bc.BcKeyFingerprintCalculator;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Public keys trusted for chart provenance, read from the keyring file named by {@code nexus.helm.provenance.keyring}
+ * (binary or ASCII armored, as exported by {@code gpg --export}). The keyring is loaded once at startup and only read
+ * again when the file's modification time changes, so a lookup is normally just a map access.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ProvenanceKeyring
+    extends ComponentSupport
+{
+  @Nullable
+  private final Path path;
+
+  private volatile Keys keys;
+
+  @Inject
+  public ProvenanceKeyring(@Named("${nexus.helm.provenance.keyring:-}") @Nullable final String path) {
+    this.path = isBlank(path) ? null : Paths.get(path);
+    if (this.path != null) {
+      current();
+    }
+  }
+
+  /**
+   * @return whether a keyring has been configured, i.e. whether provenance files should be verified at all
+   */
+  public boolean isConfigured() {
+    return path != null;
+  }
+
+  @Nullable
+  public PGPPublicKey getKey(final long keyId) {
+    Keys current = current();
+    if (current == null) {
+      return null;
+    }
+    try {
+      return current.keyRings.getPublicKey(keyId);
+    }
+    catch (PGPException e) {
+      log.warn("Could not look up key {} in {}", Long.toHexString(keyId), path, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private Keys current() {
+    if (path == null) {
+      return null;
+    }
+    Keys current = keys;
+    try {
+      long lastModified = Files.getLastModifiedTime(path).toMillis();
+      if (current == null || current.lastModified != lastModified) {
+        current = load(lastModified);
+      }
+    }
+    catch (IOException | PGPException e) {
+      log.warn("Could not read Helm provenance keyring {}, keeping the keys loaded before", path, e);
+    }
+    return current;
+  }
+
+  private synchronized Keys load(final long lastModified) throws IOException, PGPException {
+    Keys current = keys;
+    if (current != null && current.lastModified == lastModified) {
+      return current;
+    }
+    try (InputStream in = PGPUtil.getDecoderStream(Files.newInputStream(path))) {
+      keys = new Keys(new PGPPublicKeyRingCollection(in, new BcKeyFingerprintCalculator()), lastModified);
+    }
+    log.info("Loaded {} key rings for Helm provenance verification from {}", keys.keyRings.size(), path);
+    return keys;
+  }
+
+  private static class Keys
+  {
+    private final PGPPublicKeyRingCollection keyRings;
+
+    private final long lastModified;
+
+    Keys(final PGPPublicKeyRingCollection keyRings, final long lastModified) {
+      this.keyRings = keyRings;
+      this.lastModified = lastModified;
+    }
+  }
+}
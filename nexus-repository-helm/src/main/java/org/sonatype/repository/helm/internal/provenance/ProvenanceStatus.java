@@ -0,0 +1,38 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.provenance;
+
+/**
+ * Outcome of verifying a chart against its provenance file, stored on the chart asset and published in index.yaml.
+ *
+ * @since 1.0.11
+ */
+public enum ProvenanceStatus
+{
+  VERIFIED("verified"),
+  DIGEST_MISMATCH("digest-mismatch"),
+  SIGNATURE_INVALID("signature-invalid"),
+  KEY_UNKNOWN("key-unknown"),
+  UNSIGNED("unsigned"),
+  MALFORMED("malformed");
+
+  private final String value;
+
+  ProvenanceStatus(final String value) {
+    this.value = value;
+  }
+
+  public String getValue() {
+    return value;
+  }
+}
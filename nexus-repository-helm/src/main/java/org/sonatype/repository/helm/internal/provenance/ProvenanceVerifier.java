@@ -0,0 +1,128 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.provenance;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.repository.helm.internal.metadata.ChartProvenance;
+
+import com.google.common.hash.HashCode;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.bc.BcPGPObjectFactory;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Verifies a chart against its provenance file the way {@code helm verify} does: the clearsigned body must carry a
+ * valid signature by a key in the {@link ProvenanceKeyring} and must list the chart's SHA256 digest.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ProvenanceVerifier
+    extends ComponentSupport
+{
+  private static final String SHA256_PREFIX = "sha256:";
+
+  private final ProvenanceKeyring keyring;
+
+  @Inject
+  public ProvenanceVerifier(final ProvenanceKeyring keyring) {
+    this.keyring = checkNotNull(keyring);
+  }
+
+  public boolean isEnabled() {
+    return keyring.isConfigured();
+  }
+
+  /**
+   * @param chartFileName file name of the chart as listed in the provenance file, e.g. {@code mysql-1.4.0.tgz}
+   * @param chartSha256   digest of the stored chart
+   */
+  public ProvenanceStatus verify(final ChartProvenance provenance,
+                                 final String chartFileName,
+                                 final HashCode chartSha256)
+  {
+    String digest = provenance.getFiles().get(chartFileName);
+    if (digest == null || !digest.equalsIgnoreCase(SHA256_PREFIX + chartSha256)) {
+      return ProvenanceStatus.DIGEST_MISMATCH;
+    }
+    if (provenance.getSignature() == null) {
+      return ProvenanceStatus.UNSIGNED;
+    }
+    try {
+      PGPSignature signature = readSignature(provenance.getSignature());
+      if (signature == null) {
+        return ProvenanceStatus.MALFORMED;
+      }
+      PGPPublicKey key = keyring.getKey(signature.getKeyID());
+      if (key == null) {
+        return ProvenanceStatus.KEY_UNKNOWN;
+      }
+      signature.init(new BcPGPContentVerifierBuilderProvider(), key);
+      signature.update(canonicalize(provenance.getSignedText()));
+      return signature.verify() ? ProvenanceStatus.VERIFIED : ProvenanceStatus.SIGNATURE_INVALID;
+    }
+    catch (IOException | PGPException e) {
+      log.debug("Could not check provenance signature for {}", chartFileName, e);
+      return ProvenanceStatus.MALFORMED;
+    }
+  }
+
+  @Nullable
+  private static PGPSignature readSignature(final String armored) throws IOException {
+    try (InputStream in = PGPUtil.getDecoderStream(new ByteArrayInputStream(armored.getBytes(UTF_8)))) {
+      Object object = new BcPGPObjectFactory(in).nextObject();
+      if (object instanceof PGPSignatureList && !((PGPSignatureList) object).isEmpty()) {
+        return ((PGPSignatureList) object).get(0);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Cleartext signatures are computed over the text with trailing whitespace removed from every line and with
+   * {@code CRLF} line endings (RFC 4880, section 7.1).
+   */
+  static byte[] canonicalize(final String signedText) {
+    StringBuilder canonical = new StringBuilder(signedText.length() + 64);
+    String[] lines = signedText.split("\n", -1);
+    for (int i = 0; i < lines.length; i++) {
+      if (i > 0) {
+        canonical.append("\r\n");
+      }
+      String line = lines[i];
+      int end = line.length();
+      while (end > 0 && (line.charAt(end - 1) == ' ' || line.charAt(end - 1) == '\t' || line.charAt(end - 1) == '\r')) {
+        end--;
+      }
+      canonical.append(line, 0, end);
+    }
+    return canonical.toString().getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.nexus.repository.search.ComponentMetadataProducerExtension;
+import org.sonatype.nexus.repository.search.DefaultComponentMetadataProducer;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.Component;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.util.SemanticVersion;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_ASSET_KIND;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
+
+/**
+ * Adds the chart metadata of Helm components to their search documents under {@value #HELM}, in the fields mapped by
+ * {@code elasticsearch-mapping-helm.json}: the chart name for prefix queries, appVersion, keywords and maintainers
+ * for exact terms, and a version key that sorts in semantic version order.
+ *
+ * @since 1.0.11
+ */
+@Named(HelmFormat.NAME)
+@Singleton
+public class HelmComponentMetadataProducer
+    extends DefaultComponentMetadataProducer
+{
+  static final String HELM = "helm";
+
+  static final String CHART_NAME = "chartName";
+
+  static final String APP_VERSION = "appVersion";
+
+  static final String KEYWORDS = "keywords";
+
+  static final String MAINTAINERS = "maintainers";
+
+  static final String VERSION_SORT = "versionSort";
+
+  static final String DEPRECATED = "deprecated";
+
+  @Inject
+  public HelmComponentMetadataProducer(final Set<ComponentMetadataProducerExtension> extensions) {
+    super(extensions);
+  }
+
+  @Override
+  public String getMetadata(final Component component,
+                            final Iterable<Asset> assets,
+                            final Map<String, Object> additional)
+  {
+    for (Asset asset : assets) {
+      if (HELM_PACKAGE.name().equals(asset.formatAttributes().get(P_ASSET_KIND))) {
+        Map<String, Object> metadata = new HashMap<>(additional);
+        metadata.put(HELM, chartMetadata(new HelmAttributes(asset.formatAttributes().backing())));
+        return super.getMetadata(component, assets, metadata);
+      }
+    }
+    return super.getMetadata(component, assets, additional);
+  }
+
+  /**
+   * Charts are prereleases when their version is a semantic version with a prerelease part, as Helm treats them.
+   */
+  @Override
+  protected boolean isPrerelease(final Component component, final Iterable<Asset> assets) {
+    SemanticVersion version = SemanticVersion.tryParse(component.version());
+    return version != null && version.isPrerelease();
+  }
+
+  @VisibleForTesting
+  static Map<String, Object> chartMetadata(final HelmAttributes chart) {
+    Map<String, Object> metadata = new HashMap<>();
+    putIfPresent(metadata, CHART_NAME, chart.getName());
+    putIfPresent(metadata, APP_VERSION, chart.getAppVersion());
+    putIfPresent(metadata, KEYWORDS, chart.getKeywords());
+    putIfPresent(metadata, MAINTAINERS, maintainers(chart.getMaintainers()));
+    putIfPresent(metadata, DEPRECATED, chart.getDeprecated());
+    SemanticVersion version = SemanticVersion.tryParse(chart.getVersion());
+    if (version != null) {
+      metadata.put(VERSION_SORT, version.sortKey());
+    }
+    return metadata;
+  }
+
+  /**
+   * @return the names and emails of the maintainers, each as one term
+   */
+  @Nullable
+  private static List<String> maintainers(@Nullable final List<Map<String, String>> maintainers) {
+    if (maintainers == null) {
+      return null;
+    }
+    List<String> terms = new ArrayList<>();
+    for (Map<String, String> maintainer : maintainers) {
+      addIfPresent(terms, maintainer.get("name"));
+      addIfPresent(terms, maintainer.get("email"));
+    }
+    return terms.isEmpty() ? null : terms;
+  }
+
+  private static void putIfPresent(final Map<String, Object> metadata, final String key, final Object value) {
+    if (value != null) {
+      metadata.put(key, value);
+    }
+  }
+
+  private static void addIfPresent(final List<String> terms, final String value) {
+    if (value != null) {
+      terms.add(value);
+    }
+  }
+}
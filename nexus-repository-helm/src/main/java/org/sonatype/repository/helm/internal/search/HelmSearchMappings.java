@@ -0,0 +1,47 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.search;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.common.ComponentSupport;
+import org.sonatype.nexus.repository.search.SearchMapping;
+import org.sonatype.nexus.repository.search.SearchMappings;
+import org.sonatype.repository.helm.internal.HelmFormat;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Search parameters for the chart metadata indexed by {@link HelmComponentMetadataProducer}.
+ *
+ * @since 1.0.11
+ */
+@Named(HelmFormat.NAME)
+@Singleton
+public class HelmSearchMappings
+    extends ComponentSupport
+    implements SearchMappings
+{
+  private static final ImmutableList<SearchMapping> MAPPINGS = ImmutableList.of(
+      new SearchMapping("helm.chartName", "helm.chartName", "Helm chart name or its beginning"),
+      new SearchMapping("helm.appVersion", "helm.appVersion", "Helm chart appVersion"),
+      new SearchMapping("helm.keyword", "helm.keywords", "Helm chart keyword"),
+      new SearchMapping("helm.maintainer", "helm.maintainers", "Helm chart maintainer name or email")
+  );
+
+  @Override
+  public Iterable<SearchMapping> get() {
+    return MAPPINGS;
+  }
+}
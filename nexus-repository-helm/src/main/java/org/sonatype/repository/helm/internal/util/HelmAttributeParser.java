@@ -12,9 +12,14 @@
  */
 package org.sonatype.repository.helm.internal.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -23,6 +28,7 @@ import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.AssetKind;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * @since 0.0.2
@@ -31,6 +37,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Singleton
 public class HelmAttributeParser
 {
+  private static final String CHART_YAML = "Chart.yaml";
+
+  public static final String REQUIREMENTS_YAML = "requirements.yaml";
+
+  private static final Pattern API_VERSION_V2 = Pattern.compile("^apiVersion:\\s*[\"']?v2[\"']?\\s*$",
+      Pattern.MULTILINE);
+
   private TgzParser tgzParser;
   private YamlParser yamlParser;
   private ProvenanceParser provenanceParser;
@@ -60,8 +73,36 @@ public class HelmAttributeParser
   }
 
   private HelmAttributes getAttributesFromInputStream(final InputStream inputStream) throws IOException {
-    try (InputStream is = tgzParser.getChartFromInputStream(inputStream)) {
-      return new HelmAttributes(yamlParser.load(is));
+    // v2 charts ignore requirements.yaml, so there is no need to look for it through the rest of the archive
+    Map<String, byte[]> files = tgzParser.getChartFilesFromInputStream(inputStream,
+        read -> read.containsKey(CHART_YAML) && isApiVersionV2(read.get(CHART_YAML)), CHART_YAML, REQUIREMENTS_YAML);
+    byte[] chart = files.get(CHART_YAML);
+    if (chart == null) {
+      throw new IllegalArgumentException(String.format("%s not found", CHART_YAML));
+    }
+    return getAttributes(yamlParser.load(new ByteArrayInputStream(chart)), files.get(REQUIREMENTS_YAML));
+  }
+
+  private static boolean isApiVersionV2(final byte[] chartYaml) {
+    return API_VERSION_V2.matcher(new String(chartYaml, UTF_8)).find();
+  }
+
+  /**
+   * Builds the attributes of a chart from its parsed Chart.yaml and the content of its requirements.yaml, if any.
+   * Charts with apiVersion v2 declare their dependencies in Chart.yaml, while v1 charts declare them in a separate
+   * requirements.yaml; both are captured into the same dependencies attribute.
+   */
+  @SuppressWarnings("unchecked")
+  public HelmAttributes getAttributes(final Map<String, Object> chartYaml, @Nullable final byte[] requirements)
+      throws IOException
+  {
+    HelmAttributes attributes = new HelmAttributes(chartYaml);
+    if (attributes.getDependencies() == null && requirements != null) {
+      Map<String, Object> requirementsMap = yamlParser.load(new ByteArrayInputStream(requirements));
+      if (requirementsMap != null && requirementsMap.get("dependencies") instanceof List) {
+        attributes.setDependencies((List<Map<String, Object>>) requirementsMap.get("dependencies"));
+      }
     }
+    return attributes;
   }
 }
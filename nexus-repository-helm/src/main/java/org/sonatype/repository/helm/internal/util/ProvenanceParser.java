@@ -13,49 +13,160 @@
 package org.sonatype.repository.helm.internal.util;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import javax.annotation.Nullable;
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.sonatype.repository.helm.HelmAttributes;
-import org.sonatype.repository.helm.internal.database.HelmProperties;
+import org.sonatype.repository.helm.internal.metadata.ChartProvenance;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
+ * Reads Helm provenance files, which are OpenPGP clearsigned messages (RFC 4880, section 7) whose body holds the chart
+ * metadata and, after a {@code ...} document separator, the digests of the signed files.
+ *
  * @since 1.0.0
  */
 @Named
 @Singleton
 public class ProvenanceParser
 {
+  static final String BEGIN_SIGNED_MESSAGE = "-----BEGIN PGP SIGNED MESSAGE-----";
+
+  static final String BEGIN_SIGNATURE = "-----BEGIN PGP SIGNATURE-----";
+
+  static final String END_SIGNATURE = "-----END PGP SIGNATURE-----";
+
+  private static final String HASH_HEADER = "Hash:";
+
+  private static final String DOCUMENT_END = "...";
+
+  private static final String FILES = "files";
+
+  private static final long DEFAULT_MAX_SIZE = 1024 * 1024;
+
+  private final YamlParser yamlParser;
+
+  private final long maxSize;
+
+  @Inject
+  public ProvenanceParser(final YamlParser yamlParser,
+                          @Named("${nexus.helm.provenance.maxSize:-1048576}") final long maxSize)
+  {
+    this.yamlParser = checkNotNull(yamlParser);
+    this.maxSize = maxSize;
+  }
+
+  public ProvenanceParser() {
+    this(new YamlParser(), DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Chart attributes of a provenance file; reading stops at the signature.
+   */
   public HelmAttributes parse(final InputStream inputStream) throws IOException {
-    HelmAttributes attributes = new HelmAttributes();
-    try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream))) {
-      String line;
-      while ((line = bufferedReader.readLine()) != null) {
-        if (line.startsWith(HelmProperties.NAME.getPropertyName())) {
-          attributes.setName(getValue(line));
-        }
-        if (line.startsWith(HelmProperties.DESCRIPTION.getPropertyName())) {
-          attributes.setDescription(getValue(line));
-        }
-        if (line.startsWith(HelmProperties.VERSION.getPropertyName())) {
-          attributes.setVersion(getValue(line));
-        }
-        if (line.startsWith(HelmProperties.ICON.getPropertyName())) {
-          attributes.setIcon(getValue(line));
+    return read(inputStream, false).getAttributes();
+  }
+
+  /**
+   * Everything in a provenance file, including the signature block for verification.
+   */
+  public ChartProvenance read(final InputStream inputStream) throws IOException {
+    return read(inputStream, true);
+  }
+
+  private ChartProvenance read(final InputStream inputStream, final boolean includeSignature) throws IOException {
+    CountingInputStream counting = new CountingInputStream(ByteStreams.limit(inputStream, maxSize + 1));
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(counting, UTF_8))) {
+      String hashAlgorithm = null;
+      List<String> body = new ArrayList<>();
+      StringBuilder signature = null;
+
+      String line = readLine(reader, counting);
+      if (line != null && line.equals(BEGIN_SIGNED_MESSAGE)) {
+        // armor headers run up to the first empty line
+        while ((line = readLine(reader, counting)) != null && !line.isEmpty()) {
+          if (line.startsWith(HASH_HEADER)) {
+            hashAlgorithm = line.substring(HASH_HEADER.length()).trim();
+          }
         }
-        if (line.startsWith(HelmProperties.APP_VERSION.getPropertyName())) {
-          attributes.setAppVersion(getValue(line));
+        line = readLine(reader, counting);
+      }
+      for (; line != null; line = readLine(reader, counting)) {
+        if (line.equals(BEGIN_SIGNATURE)) {
+          signature = includeSignature ? readSignature(reader, counting) : null;
+          break;
         }
+        body.add(line.startsWith("- ") ? line.substring(2) : line);
+      }
+
+      return toProvenance(body, hashAlgorithm, signature == null ? null : signature.toString());
+    }
+  }
+
+  private StringBuilder readSignature(final BufferedReader reader, final CountingInputStream counting)
+      throws IOException
+  {
+    StringBuilder signature = new StringBuilder(BEGIN_SIGNATURE).append('\n');
+    String line;
+    while ((line = readLine(reader, counting)) != null) {
+      signature.append(line).append('\n');
+      if (line.equals(END_SIGNATURE)) {
+        return signature;
       }
     }
-    return attributes;
+    throw new IllegalArgumentException("Provenance signature is not terminated by " + END_SIGNATURE);
   }
 
-  private String getValue(String string) {
-    return string.substring(string.indexOf(":") + 1).trim();
+  @Nullable
+  private String readLine(final BufferedReader reader, final CountingInputStream counting) throws IOException {
+    String line = reader.readLine();
+    if (counting.getCount() > maxSize) {
+      throw new IllegalArgumentException("Provenance file exceeds the maximum size of " + maxSize + " bytes");
+    }
+    return line;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ChartProvenance toProvenance(final List<String> body,
+                                       @Nullable final String hashAlgorithm,
+                                       @Nullable final String signature) throws IOException
+  {
+    int separator = body.indexOf(DOCUMENT_END);
+    List<String> chart = separator < 0 ? body : body.subList(0, separator);
+    List<String> rest = separator < 0 ? Collections.emptyList() : body.subList(separator + 1, body.size());
+
+    Map<String, Object> chartMap = load(chart);
+    Map<String, String> files = new LinkedHashMap<>();
+    Object filesValue = load(rest).get(FILES);
+    if (filesValue instanceof Map) {
+      ((Map<Object, Object>) filesValue).forEach((file, digest) -> files.put(String.valueOf(file), String.valueOf(digest)));
+    }
+
+    return new ChartProvenance(new HelmAttributes(chartMap), files, String.join("\n", body), hashAlgorithm, signature);
+  }
+
+  private Map<String, Object> load(final List<String> lines) throws IOException {
+    if (lines.stream().allMatch(String::isEmpty)) {
+      return Collections.emptyMap();
+    }
+    Map<String, Object> map = yamlParser.load(new ByteArrayInputStream(String.join("\n", lines).getBytes(UTF_8)));
+    return map == null ? Collections.emptyMap() : map;
   }
 }
@@ -0,0 +1,233 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.util;
+
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A parsed semantic version as used by Helm for chart versions. Parsing is lenient in the same way as the Helm
+ * client: a leading "v" is allowed and missing minor and patch numbers default to zero.
+ *
+ * @since 1.0.11
+ */
+public final class SemanticVersion
+    implements Comparable<SemanticVersion>
+{
+  private static final Pattern VERSION_PATTERN = Pattern.compile(
+      "v?(\\d+)(?:\\.(\\d+))?(?:\\.(\\d+))?(?:-([0-9A-Za-z\\-]+(?:\\.[0-9A-Za-z\\-]+)*))?(?:\\+([0-9A-Za-z\\-.]+))?");
+
+  private final long major;
+
+  private final long minor;
+
+  private final long patch;
+
+  @Nullable
+  private final String prerelease;
+
+  private final String original;
+
+  public SemanticVersion(final long major, final long minor, final long patch, @Nullable final String prerelease) {
+    this(major, minor, patch, prerelease, null);
+  }
+
+  private SemanticVersion(final long major,
+                          final long minor,
+                          final long patch,
+                          @Nullable final String prerelease,
+                          @Nullable final String original)
+  {
+    this.major = major;
+    this.minor = minor;
+    this.patch = patch;
+    this.prerelease = prerelease;
+    this.original = original != null ? original : major + "." + minor + "." + patch +
+        (prerelease != null ? "-" + prerelease : "");
+  }
+
+  /**
+   * @throws IllegalArgumentException if the version is not a valid semantic version
+   */
+  public static SemanticVersion parse(final String version) {
+    SemanticVersion result = tryParse(version);
+    if (result == null) {
+      throw new IllegalArgumentException("Invalid semantic version: " + version);
+    }
+    return result;
+  }
+
+  /**
+   * @return the parsed version or null if the version is not a valid semantic version
+   */
+  @Nullable
+  public static SemanticVersion tryParse(@Nullable final String version) {
+    if (version == null) {
+      return null;
+    }
+    Matcher matcher = VERSION_PATTERN.matcher(version.trim());
+    if (!matcher.matches()) {
+      return null;
+    }
+    try {
+      return new SemanticVersion(
+          Long.parseLong(matcher.group(1)),
+          matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : 0,
+          matcher.group(3) != null ? Long.parseLong(matcher.group(3)) : 0,
+          matcher.group(4),
+          version.trim());
+    }
+    catch (NumberFormatException e) { // NOSONAR
+      return null;
+    }
+  }
+
+  public long getMajor() {
+    return major;
+  }
+
+  public long getMinor() {
+    return minor;
+  }
+
+  public long getPatch() {
+    return patch;
+  }
+
+  @Nullable
+  public String getPrerelease() {
+    return prerelease;
+  }
+
+  public boolean isPrerelease() {
+    return prerelease != null;
+  }
+
+  /**
+   * @return true if both versions have the same major, minor and patch numbers
+   */
+  public boolean sameCore(final SemanticVersion other) {
+    return major == other.major && minor == other.minor && patch == other.patch;
+  }
+
+  /**
+   * Orders versions by semantic version precedence. Build metadata is ignored.
+   */
+  @Override
+  public int compareTo(final SemanticVersion other) {
+    checkNotNull(other);
+    int result = Long.compare(major, other.major);
+    if (result == 0) {
+      result = Long.compare(minor, other.minor);
+    }
+    if (result == 0) {
+      result = Long.compare(patch, other.patch);
+    }
+    if (result == 0) {
+      result = comparePrerelease(prerelease, other.prerelease);
+    }
+    return result;
+  }
+
+  /**
+   * Encodes the version so that plain string order matches {@link #compareTo(SemanticVersion)}, for stores that can
+   * only sort strings. Numbers are zero-padded, prerelease identifiers follow a separator that sorts below every
+   * identifier character, and releases end with a character that sorts above them.
+   */
+  public String sortKey() {
+    StringBuilder key = new StringBuilder(String.format("%019d.%019d.%019d", major, minor, patch));
+    if (prerelease == null) {
+      return key.append('~').toString();
+    }
+    for (String identifier : prerelease.split("\\.")) {
+      key.append('!');
+      if (isNumeric(identifier)) {
+        key.append('0').append(String.format("%03d", identifier.length())).append(identifier);
+      }
+      else {
+        key.append('1').append(identifier);
+      }
+    }
+    return key.toString();
+  }
+
+  private static int comparePrerelease(@Nullable final String left, @Nullable final String right) {
+    if (left == null || right == null) {
+      // a version without a prerelease has higher precedence than one with a prerelease
+      return left == null ? (right == null ? 0 : 1) : -1;
+    }
+    String[] leftParts = left.split("\\.");
+    String[] rightParts = right.split("\\.");
+    for (int i = 0; i < Math.min(leftParts.length, rightParts.length); i++) {
+      int result = compareIdentifier(leftParts[i], rightParts[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(leftParts.length, rightParts.length);
+  }
+
+  private static int compareIdentifier(final String left, final String right) {
+    boolean leftNumeric = isNumeric(left);
+    boolean rightNumeric = isNumeric(right);
+    if (leftNumeric && rightNumeric) {
+      int result = Integer.compare(left.length(), right.length());
+      return result != 0 ? result : left.compareTo(right);
+    }
+    if (leftNumeric || rightNumeric) {
+      // numeric identifiers have lower precedence than alphanumeric ones
+      return leftNumeric ? -1 : 1;
+    }
+    return left.compareTo(right);
+  }
+
+  private static boolean isNumeric(final String identifier) {
+    for (int i = 0; i < identifier.length(); i++) {
+      if (!Character.isDigit(identifier.charAt(i))) {
+        return false;
+      }
+    }
+    return !identifier.isEmpty();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SemanticVersion that = (SemanticVersion) o;
+    return major == that.major && minor == that.minor && patch == that.patch &&
+        Objects.equals(prerelease, that.prerelease);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(major, minor, patch, prerelease);
+  }
+
+  /**
+   * @return the version as originally written
+   */
+  @Override
+  public String toString() {
+    return original;
+  }
+}
@@ -13,15 +13,24 @@
 package org.sonatype.repository.helm.internal.util;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
+import javax.annotation.Nullable;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
 
 /**
  * Utility methods for working with tgz files
@@ -40,13 +49,128 @@ public class TgzParser
         ArchiveEntry currentEntry;
         while ((currentEntry = tais.getNextEntry()) != null) {
           if (currentEntry.getName().endsWith(CHART_NAME)) {
-            byte[] buf = new byte[(int) currentEntry.getSize()];
-            tais.read(buf, 0, buf.length);
-            return new ByteArrayInputStream(buf);
+            return new ByteArrayInputStream(IOUtils.toByteArray(tais, currentEntry.getSize()));
           }
         }
       }
     }
     throw new IllegalArgumentException(String.format("%s not found", CHART_NAME));
   }
+
+  /**
+   * Reads the named files from the top level directory of a chart archive in a single pass, skipping the files of
+   * bundled subcharts. Files which are not present in the archive are absent from the returned map.
+   *
+   * @since 1.0.11
+   */
+  public Map<String, byte[]> getChartFilesFromInputStream(final InputStream is, final String... fileNames)
+      throws IOException
+  {
+    return getChartFilesFromInputStream(is, files -> false, fileNames);
+  }
+
+  /**
+   * As {@link #getChartFilesFromInputStream(InputStream, String...)}, but stops reading the archive as soon as the
+   * files read so far satisfy {@code complete}, for callers which only need the other files in some cases.
+   *
+   * @since 1.0.11
+   */
+  public Map<String, byte[]> getChartFilesFromInputStream(final InputStream is,
+                                                          final Predicate<Map<String, byte[]>> complete,
+                                                          final String... fileNames)
+      throws IOException
+  {
+    Set<String> remaining = new HashSet<>(Arrays.asList(fileNames));
+    Map<String, byte[]> files = new HashMap<>();
+    try (GzipCompressorInputStream gzis = new GzipCompressorInputStream(is)) {
+      try (TarArchiveInputStream tais = new TarArchiveInputStream(gzis)) {
+        ArchiveEntry currentEntry;
+        while (!remaining.isEmpty() && (currentEntry = tais.getNextEntry()) != null) {
+          String fileName = topLevelFileName(currentEntry.getName());
+          if (fileName != null && remaining.remove(fileName)) {
+            files.put(fileName, IOUtils.toByteArray(tais, currentEntry.getSize()));
+            if (complete.test(files)) {
+              break;
+            }
+          }
+        }
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Opens a single file of a chart archive, reading the archive only up to that file. The given stream is closed
+   * unless the file is found, in which case it is closed with the returned file.
+   *
+   * @param path path of the file within the chart directory, such as {@code values.yaml} or
+   *             {@code templates/deployment.yaml}
+   * @return the file, or null if the archive does not contain it
+   * @since 1.0.11
+   */
+  @Nullable
+  public ChartFile openChartFile(final InputStream is, final String path) throws IOException {
+    InputStream opened = is;
+    boolean found = false;
+    try {
+      TarArchiveInputStream tais = new TarArchiveInputStream(new GzipCompressorInputStream(is));
+      opened = tais;
+      ArchiveEntry currentEntry;
+      while ((currentEntry = tais.getNextEntry()) != null) {
+        if (!currentEntry.isDirectory() && path.equals(chartPath(currentEntry.getName()))) {
+          found = true;
+          return new ChartFile(currentEntry.getSize(), tais);
+        }
+      }
+      return null;
+    }
+    finally {
+      if (!found) {
+        opened.close();
+      }
+    }
+  }
+
+  private static String chartPath(final String entryName) {
+    return entryName.substring(entryName.indexOf('/') + 1);
+  }
+
+  private static String topLevelFileName(final String entryName) {
+    int separator = entryName.indexOf('/');
+    if (separator < 0) {
+      return entryName;
+    }
+    return entryName.indexOf('/', separator + 1) < 0 ? entryName.substring(separator + 1) : null;
+  }
+
+  /**
+   * A file of a chart archive, open at its start. Reading stops at the end of the file; closing closes the archive.
+   *
+   * @since 1.0.11
+   */
+  public static final class ChartFile
+      implements Closeable
+  {
+    private final long size;
+
+    private final InputStream inputStream;
+
+    ChartFile(final long size, final InputStream inputStream) {
+      this.size = size;
+      this.inputStream = inputStream;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public InputStream getInputStream() {
+      return inputStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+      inputStream.close();
+    }
+  }
 }
@@ -0,0 +1,307 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A semantic version range as written in Helm chart dependencies, e.g. {@code ~1.2.0}, {@code ^2}, {@code 1.x},
+ * {@code >= 1.2, < 1.5} or {@code 1.0 - 2.0 || 3.x}. Comparators within a group must all match and groups are
+ * separated by {@code ||}. As in the Helm client, prerelease versions only match a group that itself mentions a
+ * prerelease.
+ *
+ * @since 1.0.11
+ */
+public final class VersionConstraint
+{
+  private static final Pattern HYPHEN_RANGE = Pattern.compile("\\s*(\\S+)\\s+-\\s+(\\S+)\\s*");
+
+  private static final Pattern COMPARATOR = Pattern.compile(
+      "(=|!=|>=|=>|<=|=<|>|<|~>|~|\\^)?\\s*v?(\\*|[xX]|\\d+)(?:\\.(\\*|[xX]|\\d+))?(?:\\.(\\*|[xX]|\\d+))?" +
+          "(?:-([0-9A-Za-z\\-]+(?:\\.[0-9A-Za-z\\-]+)*))?(?:\\+[0-9A-Za-z\\-.]+)?");
+
+  private final String constraint;
+
+  private final List<List<Range>> groups;
+
+  private VersionConstraint(final String constraint, final List<List<Range>> groups) {
+    this.constraint = constraint;
+    this.groups = groups;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the constraint cannot be parsed
+   */
+  public static VersionConstraint parse(final String constraint) {
+    checkNotNull(constraint);
+    List<List<Range>> groups = new ArrayList<>();
+    for (String group : constraint.split("\\|\\|")) {
+      groups.add(parseGroup(group.trim(), constraint));
+    }
+    return new VersionConstraint(constraint, groups);
+  }
+
+  public boolean matches(final SemanticVersion version) {
+    for (List<Range> group : groups) {
+      if (matchesGroup(group, version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matchesGroup(final List<Range> group, final SemanticVersion version) {
+    if (version.isPrerelease() && group.stream().noneMatch(range -> range.allowsPrereleaseOf(version))) {
+      return false;
+    }
+    return group.stream().allMatch(range -> range.contains(version));
+  }
+
+  private static List<Range> parseGroup(final String group, final String constraint) {
+    List<Range> ranges = new ArrayList<>();
+    if (group.isEmpty()) {
+      ranges.add(new Range(null, false, null, false, false));
+      return ranges;
+    }
+    Matcher hyphen = HYPHEN_RANGE.matcher(group);
+    if (hyphen.matches()) {
+      Partial lower = parsePartial(hyphen.group(1), constraint);
+      Partial upper = parsePartial(hyphen.group(2), constraint);
+      ranges.add(new Range(lower.floor(), true, null, false, false));
+      ranges.add(upper.specified == 3
+          ? new Range(null, false, upper.floor(), true, false)
+          : new Range(null, false, upper.next(upper.specified), false, false));
+      return ranges;
+    }
+    for (String comparator : normalize(group).split("[\\s,]+")) {
+      if (!comparator.isEmpty()) {
+        ranges.add(toRange(comparator, constraint));
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * Joins operators to their versions, so that {@code ">= 1.2"} can be split on whitespace.
+   */
+  private static String normalize(final String group) {
+    return group.replaceAll("(=|!=|>=|=>|<=|=<|>|<|~>|~|\\^)\\s+", "$1");
+  }
+
+  private static Range toRange(final String comparator, final String constraint) {
+    Matcher matcher = COMPARATOR.matcher(comparator);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Invalid version constraint: " + constraint);
+    }
+    String operator = matcher.group(1) == null ? "=" : matcher.group(1);
+    Partial partial = toPartial(matcher, constraint);
+    SemanticVersion floor = partial.floor();
+    switch (operator) {
+      case "=":
+        return exact(partial, false);
+      case "!=":
+        return exact(partial, true);
+      case ">":
+        return partial.specified == 3
+            ? new Range(floor, false, null, false, false)
+            : new Range(partial.next(partial.specified), true, null, false, false);
+      case ">=":
+      case "=>":
+        return new Range(floor, true, null, false, false);
+      case "<":
+        return new Range(null, false, floor, false, false);
+      case "<=":
+      case "=<":
+        return partial.specified == 3
+            ? new Range(null, false, floor, true, false)
+            : new Range(null, false, partial.next(partial.specified), false, false);
+      case "~":
+      case "~>":
+        return new Range(floor, true, tildeUpperBound(partial), false, false);
+      case "^":
+        return new Range(floor, true, caretUpperBound(partial), false, false);
+      default:
+        throw new IllegalArgumentException("Invalid version constraint: " + constraint);
+    }
+  }
+
+  private static Range exact(final Partial partial, final boolean negated) {
+    if (partial.specified == 3) {
+      return new Range(partial.floor(), true, partial.floor(), true, negated);
+    }
+    return new Range(partial.floor(), true, partial.next(partial.specified), false, negated);
+  }
+
+  /**
+   * {@code ~1} allows minor updates while {@code ~1.2} and {@code ~1.2.3} only allow patch updates.
+   */
+  @Nullable
+  private static SemanticVersion tildeUpperBound(final Partial partial) {
+    return partial.next(partial.specified > 2 ? 2 : partial.specified);
+  }
+
+  @Nullable
+  private static SemanticVersion caretUpperBound(final Partial partial) {
+    if (partial.specified == 0) {
+      return null;
+    }
+    if (partial.major > 0 || partial.specified == 1) {
+      return partial.next(1);
+    }
+    if (partial.minor > 0 || partial.specified == 2) {
+      return partial.next(2);
+    }
+    return new SemanticVersion(0, 0, partial.patch + 1, null);
+  }
+
+  private static Partial parsePartial(final String version, final String constraint) {
+    Matcher matcher = COMPARATOR.matcher(version);
+    if (!matcher.matches() || matcher.group(1) != null) {
+      throw new IllegalArgumentException("Invalid version constraint: " + constraint);
+    }
+    return toPartial(matcher, constraint);
+  }
+
+  private static Partial toPartial(final Matcher matcher, final String constraint) {
+    long[] parts = new long[3];
+    int specified = 0;
+    for (int i = 0; i < 3; i++) {
+      String part = matcher.group(i + 2);
+      if (part == null || isWildcard(part)) {
+        break;
+      }
+      parts[i] = Long.parseLong(part);
+      specified++;
+    }
+    for (int i = specified; i < 3; i++) {
+      String part = matcher.group(i + 2);
+      if (part != null && !isWildcard(part)) {
+        throw new IllegalArgumentException("Invalid version constraint: " + constraint);
+      }
+    }
+    return new Partial(parts[0], parts[1], parts[2], specified, matcher.group(5));
+  }
+
+  private static boolean isWildcard(final String part) {
+    return "*".equals(part) || "x".equals(part) || "X".equals(part);
+  }
+
+  @Override
+  public String toString() {
+    return constraint;
+  }
+
+  /**
+   * A version where trailing parts may be wildcards or omitted.
+   */
+  private static class Partial
+  {
+    private final long major;
+
+    private final long minor;
+
+    private final long patch;
+
+    private final int specified;
+
+    @Nullable
+    private final String prerelease;
+
+    Partial(final long major, final long minor, final long patch, final int specified,
+            @Nullable final String prerelease)
+    {
+      this.major = major;
+      this.minor = minor;
+      this.patch = patch;
+      this.specified = specified;
+      this.prerelease = specified == 3 ? prerelease : null;
+    }
+
+    SemanticVersion floor() {
+      return new SemanticVersion(major, minor, patch, prerelease);
+    }
+
+    /**
+     * @return the lowest version above every version that shares the first {@code parts} numbers with this one
+     */
+    @Nullable
+    SemanticVersion next(final int parts) {
+      switch (parts) {
+        case 0:
+          return null;
+        case 1:
+          return new SemanticVersion(major + 1, 0, 0, null);
+        case 2:
+          return new SemanticVersion(major, minor + 1, 0, null);
+        default:
+          return new SemanticVersion(major, minor, patch + 1, null);
+      }
+    }
+  }
+
+  /**
+   * An interval of versions, either bound of which may be open. A null bound is unbounded.
+   */
+  private static class Range
+  {
+    @Nullable
+    private final SemanticVersion lower;
+
+    private final boolean lowerInclusive;
+
+    @Nullable
+    private final SemanticVersion upper;
+
+    private final boolean upperInclusive;
+
+    private final boolean negated;
+
+    Range(@Nullable final SemanticVersion lower,
+          final boolean lowerInclusive,
+          @Nullable final SemanticVersion upper,
+          final boolean upperInclusive,
+          final boolean negated)
+    {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+      this.negated = negated;
+    }
+
+    boolean contains(final SemanticVersion version) {
+      boolean inRange = true;
+      if (lower != null) {
+        int result = version.compareTo(lower);
+        inRange = lowerInclusive ? result >= 0 : result > 0;
+      }
+      if (inRange && upper != null) {
+        int result = version.compareTo(upper);
+        inRange = upperInclusive ? result <= 0 : result < 0;
+      }
+      return inRange != negated;
+    }
+
+    boolean allowsPrereleaseOf(final SemanticVersion version) {
+      return (lower != null && lower.isPrerelease() && lower.sameCore(version)) ||
+          (upper != null && upper.isPrerelease() && upper.sameCore(version));
+    }
+  }
+}
@@ -16,8 +16,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -26,6 +32,7 @@ import javax.inject.Singleton;
 import org.sonatype.goodies.common.ComponentSupport;
 import org.sonatype.repository.helm.internal.metadata.ChartEntry;
 import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexDelta;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -77,13 +84,147 @@ public class YamlParser
     return map;
   }
 
+  /**
+   * Reads an index.yaml into a {@link ChartIndex}.
+   *
+   * @since 1.0.11
+   */
+  @SuppressWarnings("unchecked")
+  public ChartIndex loadIndex(final InputStream is) throws IOException {
+    Map<String, Object> map = load(is);
+    ChartIndex index = new ChartIndex();
+    if (map == null) {
+      return index;
+    }
+    index.setApiVersion(asString(map.get("apiVersion")));
+    index.setGenerated(asDateTime(map.get("generated")));
+    readEntries(map.get("entries"), index::addEntry);
+    return index;
+  }
+
+  /**
+   * Reads a delta written by {@link #writeDelta(OutputStream, ChartIndexDelta)}.
+   *
+   * @since 1.0.11
+   */
+  @SuppressWarnings("unchecked")
+  public ChartIndexDelta loadDelta(final InputStream is) throws IOException {
+    Map<String, Object> map = load(is);
+    ChartIndexDelta delta = new ChartIndexDelta();
+    if (map == null) {
+      return delta;
+    }
+    delta.setApiVersion(asString(map.get("apiVersion")));
+    delta.setGenerated(asDateTime(map.get("generated")));
+    delta.setSince(asLong(map.get("since")));
+    delta.setGeneration(asLong(map.get("generation")));
+    readEntries(map.get("entries"),
+        entry -> delta.getEntries().computeIfAbsent(entry.getName(), k -> new ArrayList<>()).add(entry));
+    Object removed = map.get("removed");
+    if (removed instanceof Map) {
+      for (Entry<String, Object> chart : ((Map<String, Object>) removed).entrySet()) {
+        if (chart.getValue() instanceof List) {
+          List<String> versions = delta.getRemoved().computeIfAbsent(chart.getKey(), k -> new ArrayList<>());
+          ((List<Object>) chart.getValue()).forEach(version -> versions.add(asString(version)));
+        }
+      }
+    }
+    return delta;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readEntries(@Nullable final Object entries, final Consumer<ChartEntry> consumer) {
+    if (entries instanceof Map) {
+      for (Entry<String, Object> chart : ((Map<String, Object>) entries).entrySet()) {
+        if (chart.getValue() instanceof List) {
+          for (Object version : (List<Object>) chart.getValue()) {
+            if (version instanceof Map) {
+              consumer.accept(toChartEntry(chart.getKey(), (Map<String, Object>) version));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private ChartEntry toChartEntry(final String chartName, final Map<String, Object> map) {
+    ChartEntry entry = new ChartEntry();
+    String name = asString(map.get("name"));
+    entry.setName(name != null ? name : chartName);
+    entry.setVersion(asString(map.get("version")));
+    entry.setApiVersion(asString(map.get("apiVersion")));
+    entry.setAppVersion(asString(map.get("appVersion")));
+    entry.setDescription(asString(map.get("description")));
+    entry.setIcon(asString(map.get("icon")));
+    entry.setHome(asString(map.get("home")));
+    entry.setEngine(asString(map.get("engine")));
+    entry.setKubeVersion(asString(map.get("kubeVersion")));
+    entry.setType(asString(map.get("type")));
+    entry.setDigest(asString(map.get("digest")));
+    entry.setProvenanceVerification(asString(map.get("provenanceVerification")));
+    entry.setCreated(asDateTime(map.get("created")));
+    entry.setUrls((List<String>) asInstance(map.get("urls"), List.class));
+    entry.setSources((List<String>) asInstance(map.get("sources"), List.class));
+    entry.setKeywords((List<String>) asInstance(map.get("keywords"), List.class));
+    entry.setMaintainers((List<Map<String, String>>) asInstance(map.get("maintainers"), List.class));
+    entry.setAnnotations((Map<String, String>) asInstance(map.get("annotations"), Map.class));
+    entry.setDependencies((List<Map<String, Object>>) asInstance(map.get("dependencies"), List.class));
+    Object deprecated = map.get("deprecated");
+    if (deprecated != null) {
+      entry.setDeprecated(Boolean.valueOf(deprecated.toString()));
+    }
+    return entry;
+  }
+
+  @Nullable
+  private static String asString(@Nullable final Object value) {
+    return value != null ? value.toString() : null;
+  }
+
+  private static long asLong(@Nullable final Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : 0;
+  }
+
+  @Nullable
+  private static <T> T asInstance(@Nullable final Object value, final Class<T> type) {
+    return type.isInstance(value) ? type.cast(value) : null;
+  }
+
+  @Nullable
+  private static DateTime asDateTime(@Nullable final Object value) {
+    if (value instanceof Date) {
+      return new DateTime(value, DateTimeZone.UTC);
+    }
+    if (value instanceof String) {
+      try {
+        return DateTime.parse((String) value);
+      }
+      catch (IllegalArgumentException e) { // NOSONAR
+        return null;
+      }
+    }
+    return null;
+  }
+
   public void write(final OutputStream os, final ChartIndex index) {
+    dump(os, index);
+  }
+
+  /**
+   * @since 1.0.11
+   */
+  public void writeDelta(final OutputStream os, final ChartIndexDelta delta) {
+    dump(os, delta);
+  }
+
+  private void dump(final OutputStream os, final Object document) {
     try (OutputStreamWriter writer = new OutputStreamWriter(os)) {
       Yaml yaml = new Yaml(new JodaPropertyConstructor(),
           setupRepresenter(),
           new DumperOptions(),
           new Resolver());
-      String result = yaml.dumpAsMap(index);
+      String result = yaml.dumpAsMap(document);
       writer.write(result);
     }
     catch (IOException ex) {
@@ -0,0 +1,209 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.google.common.io.CountingInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The files of a chart archive, extracted once so that every {@link ChartValidator} works on the same copy. Only the
+ * files of the chart itself are kept; bundled subcharts under {@code charts/} are counted but not held in memory.
+ * Extraction stops at the configured size limits, which {@link ChartValidationService} reports.
+ *
+ * @since 1.0.11
+ */
+public final class ChartArchive
+{
+  public static final String CHART_YAML = "Chart.yaml";
+
+  private static final String SUBCHARTS = "charts/";
+
+  private final Set<String> directories;
+
+  private final Map<String, byte[]> files;
+
+  private final List<String> oversizedFiles;
+
+  private final long compressedSize;
+
+  private final long uncompressedSize;
+
+  private final boolean truncated;
+
+  @Nullable
+  private final Map<String, Object> chartYaml;
+
+  @Nullable
+  private final String chartYamlError;
+
+  private ChartArchive(final Set<String> directories,
+                       final Map<String, byte[]> files,
+                       final List<String> oversizedFiles,
+                       final long compressedSize,
+                       final long uncompressedSize,
+                       final boolean truncated,
+                       @Nullable final Map<String, Object> chartYaml,
+                       @Nullable final String chartYamlError)
+  {
+    this.directories = Collections.unmodifiableSet(directories);
+    this.files = Collections.unmodifiableMap(files);
+    this.oversizedFiles = Collections.unmodifiableList(oversizedFiles);
+    this.compressedSize = compressedSize;
+    this.uncompressedSize = uncompressedSize;
+    this.truncated = truncated;
+    this.chartYaml = chartYaml;
+    this.chartYamlError = chartYamlError;
+  }
+
+  /**
+   * Extracts a chart archive, skipping files larger than {@code maxFileSize} and stopping once the files add up to
+   * more than {@code maxUncompressedSize}, and parses its Chart.yaml.
+   *
+   * @throws IOException if the content is not a gzipped tar archive
+   */
+  public static ChartArchive read(final InputStream in,
+                                  final long maxUncompressedSize,
+                                  final long maxFileSize,
+                                  final YamlParser yamlParser) throws IOException
+  {
+    CountingInputStream compressed = new CountingInputStream(in);
+    Set<String> directories = new LinkedHashSet<>();
+    Map<String, byte[]> files = new LinkedHashMap<>();
+    List<String> oversizedFiles = new ArrayList<>();
+    long uncompressedSize = 0;
+    boolean truncated = false;
+    try (TarArchiveInputStream tar = new TarArchiveInputStream(new GzipCompressorInputStream(compressed))) {
+      TarArchiveEntry entry;
+      while ((entry = tar.getNextTarEntry()) != null) {
+        if (!entry.isFile()) {
+          continue;
+        }
+        uncompressedSize += entry.getSize();
+        if (uncompressedSize > maxUncompressedSize) {
+          truncated = true;
+          break;
+        }
+        if (entry.getSize() > maxFileSize) {
+          oversizedFiles.add(entry.getName());
+          continue;
+        }
+        String name = entry.getName();
+        int separator = name.indexOf('/');
+        directories.add(separator < 0 ? "" : name.substring(0, separator));
+        String path = name.substring(separator + 1);
+        if (!path.startsWith(SUBCHARTS)) {
+          files.put(path, IOUtils.toByteArray(tar, entry.getSize()));
+        }
+      }
+    }
+
+    Map<String, Object> chartYaml = null;
+    String chartYamlError = null;
+    byte[] chartYamlContent = files.get(CHART_YAML);
+    if (chartYamlContent == null) {
+      chartYamlError = CHART_YAML + " not found";
+    }
+    else {
+      try {
+        chartYaml = yamlParser.load(new ByteArrayInputStream(chartYamlContent));
+        if (chartYaml == null) {
+          chartYamlError = CHART_YAML + " is empty";
+        }
+      }
+      catch (ClassCastException e) { // NOSONAR
+        chartYamlError = CHART_YAML + " is not a map of fields";
+      }
+      catch (IOException | RuntimeException e) {
+        chartYamlError = CHART_YAML + " could not be parsed: " + e.getMessage();
+      }
+    }
+    return new ChartArchive(directories, files, oversizedFiles, compressed.getCount(), uncompressedSize, truncated,
+        chartYaml, chartYamlError);
+  }
+
+  /**
+   * @return the top level directories of the archive, normally just the chart name
+   */
+  public Set<String> getDirectories() {
+    return directories;
+  }
+
+  /**
+   * @return the files of the chart by their path within its directory, without those of subcharts
+   */
+  public Map<String, byte[]> getFiles() {
+    return files;
+  }
+
+  /**
+   * @return files skipped for exceeding the size limit of a single file, by their path within the archive
+   */
+  public List<String> getOversizedFiles() {
+    return oversizedFiles;
+  }
+
+  /**
+   * @return bytes of the archive read, all of it unless extraction stopped early
+   */
+  public long getCompressedSize() {
+    return compressedSize;
+  }
+
+  /**
+   * @return total size of the files read, including those of subcharts and skipped ones
+   */
+  public long getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  /**
+   * @return true if extraction stopped early as the files exceeded the total size limit
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * @return the parsed Chart.yaml, or null if it is missing or could not be parsed
+   */
+  @Nullable
+  public Map<String, Object> getChartYaml() {
+    return chartYaml;
+  }
+
+  /**
+   * @return why {@link #getChartYaml()} is null
+   */
+  @Nullable
+  public String getChartYamlError() {
+    return chartYamlError;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import static org.sonatype.repository.helm.internal.validation.ChartYamlValidator.isBlank;
+
+/**
+ * Checks that a chart is stored under the file name {@code helm package} gives it, built from the name and version
+ * in Chart.yaml, and that the archive holds a single directory named after the chart.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartFileNameValidator
+    implements ChartValidator
+{
+  public static final String NAME = "file-name";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<ChartProblem> validate(final String fileName, final ChartArchive chart) {
+    Map<String, Object> chartYaml = chart.getChartYaml();
+    List<ChartProblem> problems = new ArrayList<>();
+    if (chartYaml == null || isBlank(chartYaml.get("name")) || isBlank(chartYaml.get("version"))) {
+      // reported by ChartYamlValidator
+      return problems;
+    }
+    String name = chartYaml.get("name").toString();
+    String expected = name + "-" + chartYaml.get("version") + ".tgz";
+    String actual = fileName.substring(fileName.lastIndexOf('/') + 1);
+    if (!expected.equals(actual)) {
+      problems.add(ChartProblem.error(NAME, "file name " + actual + " does not match " + expected + " from Chart.yaml"));
+    }
+
+    Set<String> directories = chart.getDirectories();
+    if (directories.size() > 1) {
+      problems.add(ChartProblem.error(NAME, "archive has more than one top level directory " + directories));
+    }
+    else if (!directories.isEmpty() && !directories.contains(name)) {
+      problems.add(ChartProblem.warning(NAME,
+          "directory " + directories.iterator().next() + " does not match chart name " + name));
+    }
+    return problems;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A problem a {@link ChartValidator} found in a chart. Errors reject the chart, warnings are recorded with it.
+ *
+ * @since 1.0.11
+ */
+public final class ChartProblem
+{
+  public enum Severity
+  {
+    ERROR,
+    WARNING
+  }
+
+  private final Severity severity;
+
+  private final String check;
+
+  private final String message;
+
+  private ChartProblem(final Severity severity, final String check, final String message) {
+    this.severity = checkNotNull(severity);
+    this.check = checkNotNull(check);
+    this.message = checkNotNull(message);
+  }
+
+  public static ChartProblem error(final String check, final String message) {
+    return new ChartProblem(Severity.ERROR, check, message);
+  }
+
+  public static ChartProblem warning(final String check, final String message) {
+    return new ChartProblem(Severity.WARNING, check, message);
+  }
+
+  public Severity getSeverity() {
+    return severity;
+  }
+
+  public boolean isError() {
+    return severity == Severity.ERROR;
+  }
+
+  /**
+   * @return the name of the check which found the problem
+   */
+  public String getCheck() {
+    return check;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return check + ": " + message;
+  }
+}
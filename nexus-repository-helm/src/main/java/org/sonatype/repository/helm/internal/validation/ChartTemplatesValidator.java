@@ -0,0 +1,200 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Checks that the templates of a chart parse: every action is closed and every {@code if}, {@code range},
+ * {@code with}, {@code define} and {@code block} has its {@code end}. This is the structure of the Go template
+ * language only, functions and values are left to Helm.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartTemplatesValidator
+    implements ChartValidator
+{
+  public static final String NAME = "templates";
+
+  private static final String TEMPLATES = "templates/";
+
+  private static final List<String> BLOCKS = Arrays.asList("if", "range", "with", "define", "block");
+
+  private static final List<String> ELSE_BLOCKS = Arrays.asList("if", "range", "with");
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<ChartProblem> validate(final String fileName, final ChartArchive chart) {
+    List<ChartProblem> problems = new ArrayList<>();
+    for (Entry<String, byte[]> file : chart.getFiles().entrySet()) {
+      if (file.getKey().startsWith(TEMPLATES)) {
+        String problem = parse(new String(file.getValue(), UTF_8));
+        if (problem != null) {
+          problems.add(ChartProblem.error(NAME, file.getKey() + " " + problem));
+        }
+      }
+    }
+    return problems;
+  }
+
+  /**
+   * @return the first problem found in the template, or null if it parses
+   */
+  static String parse(final String template) {
+    Deque<Block> blocks = new ArrayDeque<>();
+    int start;
+    int from = 0;
+    while ((start = template.indexOf("{{", from)) >= 0) {
+      int body = skipTrimMarker(template, start + 2);
+      int close;
+      if (template.startsWith("/*", skipWhitespace(template, body))) {
+        int commentEnd = template.indexOf("*/", body + 2);
+        close = commentEnd < 0 ? -1 : template.indexOf("}}", commentEnd + 2);
+      }
+      else {
+        close = findClose(template, body);
+      }
+      if (close < 0) {
+        return "has an action opened at line " + lineOf(template, start) + " which is never closed";
+      }
+      String keyword = keyword(template, body, close);
+      if (BLOCKS.contains(keyword)) {
+        blocks.push(new Block(keyword, lineOf(template, start)));
+      }
+      else if ("else".equals(keyword)) {
+        if (blocks.isEmpty() || !ELSE_BLOCKS.contains(blocks.peek().keyword)) {
+          return "has {{ else }} at line " + lineOf(template, start) + " outside of if, range or with";
+        }
+      }
+      else if ("end".equals(keyword)) {
+        if (blocks.isEmpty()) {
+          return "has {{ end }} at line " + lineOf(template, start) + " without a block to close";
+        }
+        blocks.pop();
+      }
+      from = close + 2;
+    }
+    if (!blocks.isEmpty()) {
+      Block block = blocks.peek();
+      return "has {{ " + block.keyword + " }} at line " + block.line + " which is never ended";
+    }
+    return null;
+  }
+
+  private static int skipTrimMarker(final String template, final int index) {
+    if (index + 1 < template.length() && template.charAt(index) == '-'
+        && Character.isWhitespace(template.charAt(index + 1))) {
+      return index + 1;
+    }
+    return index;
+  }
+
+  private static int skipWhitespace(final String template, final int index) {
+    int i = index;
+    while (i < template.length() && Character.isWhitespace(template.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Finds the {@code }}} closing an action, skipping string, raw string and character literals.
+   */
+  private static int findClose(final String template, final int from) {
+    int i = from;
+    while (i < template.length()) {
+      char c = template.charAt(i);
+      if (c == '"' || c == '\'') {
+        i = skipQuoted(template, i, c);
+      }
+      else if (c == '`') {
+        int end = template.indexOf('`', i + 1);
+        i = end < 0 ? template.length() : end + 1;
+      }
+      else if (template.startsWith("}}", i)) {
+        return i;
+      }
+      else {
+        i++;
+      }
+    }
+    return -1;
+  }
+
+  private static int skipQuoted(final String template, final int start, final char quote) {
+    int i = start + 1;
+    while (i < template.length()) {
+      char c = template.charAt(i);
+      if (c == '\\') {
+        i += 2;
+      }
+      else if (c == quote || c == '\n') {
+        return i + 1;
+      }
+      else {
+        i++;
+      }
+    }
+    return i;
+  }
+
+  private static String keyword(final String template, final int body, final int close) {
+    int i = body;
+    while (i < close && Character.isWhitespace(template.charAt(i))) {
+      i++;
+    }
+    int start = i;
+    while (i < close && Character.isLetter(template.charAt(i))) {
+      i++;
+    }
+    return template.substring(start, i);
+  }
+
+  private static int lineOf(final String template, final int index) {
+    int line = 1;
+    for (int i = 0; i < index; i++) {
+      if (template.charAt(i) == '\n') {
+        line++;
+      }
+    }
+    return line;
+  }
+
+  private static class Block
+  {
+    private final String keyword;
+
+    private final int line;
+
+    Block(final String keyword, final int line) {
+      this.keyword = keyword;
+      this.line = line;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.repository.helm.HelmAttributes;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The outcome of validating a chart, cached by {@link ChartValidationService} and recorded on the chart asset.
+ *
+ * @since 1.0.11
+ */
+public final class ChartValidationResult
+{
+  public static final String PASSED = "passed";
+
+  public static final String WARNINGS = "warnings";
+
+  public static final String FAILED = "failed";
+
+  private final List<ChartProblem> errors;
+
+  private final List<ChartProblem> warnings;
+
+  @Nullable
+  private final HelmAttributes attributes;
+
+  public ChartValidationResult(final List<ChartProblem> problems) {
+    this(problems, null);
+  }
+
+  public ChartValidationResult(final List<ChartProblem> problems, @Nullable final HelmAttributes attributes) {
+    checkNotNull(problems);
+    List<ChartProblem> errorList = new ArrayList<>();
+    List<ChartProblem> warningList = new ArrayList<>();
+    for (ChartProblem problem : problems) {
+      (problem.isError() ? errorList : warningList).add(problem);
+    }
+    this.errors = Collections.unmodifiableList(errorList);
+    this.warnings = Collections.unmodifiableList(warningList);
+    this.attributes = attributes;
+  }
+
+  public boolean isValid() {
+    return errors.isEmpty();
+  }
+
+  public List<ChartProblem> getErrors() {
+    return errors;
+  }
+
+  public List<ChartProblem> getWarnings() {
+    return warnings;
+  }
+
+  /**
+   * @return the attributes of the chart read from the archive that was validated, or null if they could not be read
+   */
+  @Nullable
+  public HelmAttributes getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * @return one of {@link #PASSED}, {@link #WARNINGS} or {@link #FAILED}
+   */
+  public String getStatus() {
+    if (!errors.isEmpty()) {
+      return FAILED;
+    }
+    return warnings.isEmpty() ? PASSED : WARNINGS;
+  }
+
+  /**
+   * @return the result as stored in the format attributes of the chart asset
+   */
+  public Map<String, Object> toAttributes() {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("status", getStatus());
+    if (!errors.isEmpty()) {
+      attributes.put("errors", messages(errors));
+    }
+    if (!warnings.isEmpty()) {
+      attributes.put("warnings", messages(warnings));
+    }
+    return attributes;
+  }
+
+  private static List<String> messages(final List<ChartProblem> problems) {
+    return problems.stream().map(ChartProblem::toString).collect(Collectors.toList());
+  }
+
+  @Override
+  public String toString() {
+    List<ChartProblem> problems = new ArrayList<>(errors);
+    problems.addAll(warnings);
+    return problems.isEmpty() ? getStatus() : getStatus() + " " + messages(problems);
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.goodies.lifecycle.LifecycleSupport;
+import org.sonatype.nexus.common.app.ManagedLifecycle;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.util.HelmAttributeParser;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sonatype.nexus.common.app.ManagedLifecycle.Phase.SERVICES;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+
+/**
+ * Validates charts uploaded to hosted repositories. The archive is extracted once, checked against the size limits,
+ * and then every {@link ChartValidator} runs on it in parallel on a pool of {@code nexus.helm.validation.threads}
+ * threads.
+ *
+ * Results are cached by the SHA256 of the chart and the file name it is stored under, so a chart uploaded again, to
+ * another repository or through both the upload handler and the hosted facet is only validated once. The attributes
+ * of a valid chart are read from the same extracted archive and kept with its result, so storing it does not extract
+ * the chart again.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+@ManagedLifecycle(phase = SERVICES)
+public class ChartValidationService
+    extends LifecycleSupport
+{
+  public static final String ARCHIVE = "archive";
+
+  public static final String SIZE = "size";
+
+  private final YamlParser yamlParser;
+
+  private final HelmAttributeParser helmAttributeParser;
+
+  private final List<ChartValidator> validators;
+
+  private final boolean enabled;
+
+  private final long maxChartSize;
+
+  private final long maxUncompressedSize;
+
+  private final long maxFileSize;
+
+  private final int threads;
+
+  private volatile ThreadPoolExecutor executor;
+
+  private final Cache<String, ChartValidationResult> results;
+
+  @Inject
+  public ChartValidationService(final YamlParser yamlParser,
+                                final HelmAttributeParser helmAttributeParser,
+                                final List<ChartValidator> validators,
+                                @Named("${nexus.helm.validation.enabled:-true}") final boolean enabled,
+                                @Named("${nexus.helm.validation.threads:-4}") final int threads,
+                                @Named("${nexus.helm.validation.cacheSize:-10000}") final int cacheSize,
+                                @Named("${nexus.helm.validation.maxChartSize:-10485760}") final long maxChartSize,
+                                @Named("${nexus.helm.validation.maxUncompressedSize:-104857600}") final long maxUncompressedSize,
+                                @Named("${nexus.helm.validation.maxFileSize:-5242880}") final long maxFileSize)
+  {
+    this.yamlParser = checkNotNull(yamlParser);
+    this.helmAttributeParser = checkNotNull(helmAttributeParser);
+    this.validators = new ArrayList<>(checkNotNull(validators));
+    this.enabled = enabled;
+    this.maxChartSize = maxChartSize;
+    this.maxUncompressedSize = maxUncompressedSize;
+    this.maxFileSize = maxFileSize;
+    this.threads = Math.max(1, threads);
+    this.results = CacheBuilder.newBuilder()
+        .maximumSize(Math.max(0, cacheSize))
+        .build();
+  }
+
+  @Override
+  protected synchronized void doStart() throws Exception {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("helm-chart-validation-%d").setDaemon(true).build());
+    pool.allowCoreThreadTimeOut(true);
+    executor = pool;
+  }
+
+  @Override
+  protected synchronized void doStop() throws Exception {
+    executor.shutdownNow();
+    results.invalidateAll();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param fileName the file name the chart is stored under
+   */
+  public ChartValidationResult validate(final String fileName, final TempBlob chart) throws IOException {
+    return validate(fileName, chart.getHashes().get(SHA256), chart);
+  }
+
+  /**
+   * @param fileName the file name the chart is stored under
+   * @param sha256   the SHA256 of the chart content
+   */
+  public ChartValidationResult validate(final String fileName,
+                                        final HashCode sha256,
+                                        final Supplier<InputStream> content) throws IOException
+  {
+    checkNotNull(fileName);
+    checkNotNull(content);
+    ensureStarted();
+    try {
+      return results.get(sha256 + "/" + fileName, () -> doValidate(fileName, content));
+    }
+    catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Could not validate chart " + fileName, e.getCause());
+    }
+  }
+
+  private ChartValidationResult doValidate(final String fileName, final Supplier<InputStream> content)
+      throws IOException
+  {
+    ChartArchive archive;
+    try (InputStream in = content.get()) {
+      archive = ChartArchive.read(in, maxUncompressedSize, maxFileSize, yamlParser);
+    }
+    catch (IOException | IllegalArgumentException e) {
+      log.debug("Could not read chart {}", fileName, e);
+      return new ChartValidationResult(Collections.singletonList(ChartProblem.error(ARCHIVE,
+          "is not a gzipped tar archive: " + e.getMessage())));
+    }
+
+    List<ChartProblem> problems = checkSize(archive);
+    if (!problems.isEmpty()) {
+      // the archive was not extracted completely, so the other checks would report misleading problems
+      return new ChartValidationResult(problems);
+    }
+    List<Future<List<ChartProblem>>> futures = new ArrayList<>(validators.size());
+    for (ChartValidator validator : validators) {
+      futures.add(executor.submit(() -> validator.validate(fileName, archive)));
+    }
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          problems.addAll(futures.get(i).get());
+        }
+        catch (ExecutionException e) {
+          log.warn("Check {} failed on chart {}", validators.get(i).getName(), fileName, e.getCause());
+          problems.add(ChartProblem.warning(validators.get(i).getName(), "could not be run"));
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted validating chart " + fileName);
+    }
+    ChartValidationResult result = new ChartValidationResult(problems, attributes(fileName, archive));
+    log.debug("Validated chart {}: {}", fileName, result);
+    return result;
+  }
+
+  @Nullable
+  private HelmAttributes attributes(final String fileName, final ChartArchive archive) {
+    Map<String, Object> chartYaml = archive.getChartYaml();
+    if (chartYaml == null) {
+      return null;
+    }
+    try {
+      return helmAttributeParser.getAttributes(chartYaml,
+          archive.getFiles().get(HelmAttributeParser.REQUIREMENTS_YAML));
+    }
+    catch (IOException | RuntimeException e) {
+      log.debug("Could not read attributes of chart {}", fileName, e);
+      return null;
+    }
+  }
+
+  private List<ChartProblem> checkSize(final ChartArchive archive) {
+    List<ChartProblem> problems = new ArrayList<>();
+    if (archive.getCompressedSize() > maxChartSize) {
+      problems.add(ChartProblem.error(SIZE, "archive is larger than " + maxChartSize + " bytes"));
+    }
+    if (archive.isTruncated()) {
+      problems.add(ChartProblem.error(SIZE, "files add up to more than " + maxUncompressedSize + " bytes"));
+    }
+    for (String file : archive.getOversizedFiles()) {
+      problems.add(ChartProblem.error(SIZE, file + " is larger than " + maxFileSize + " bytes"));
+    }
+    return problems;
+  }
+}
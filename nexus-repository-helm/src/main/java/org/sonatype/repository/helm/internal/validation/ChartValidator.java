@@ -0,0 +1,36 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.util.List;
+
+/**
+ * A check run on every chart uploaded to a hosted repository. Implementations are {@code @Named} components, picked up
+ * by {@link ChartValidationService}, which runs them in parallel on the same extracted archive, so they must not
+ * modify it.
+ *
+ * @since 1.0.11
+ */
+public interface ChartValidator
+{
+  /**
+   * @return the name the problems of this check are reported under
+   */
+  String getName();
+
+  /**
+   * @param fileName the file name the chart is stored under, such as {@code mychart-1.0.0.tgz}
+   * @return the problems found, empty if there are none
+   */
+  List<ChartProblem> validate(String fileName, ChartArchive chart);
+}
@@ -0,0 +1,81 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.sonatype.repository.helm.internal.util.SemanticVersion;
+import org.sonatype.repository.helm.internal.util.VersionConstraint;
+
+import static org.sonatype.repository.helm.internal.validation.ChartYamlValidator.isBlank;
+
+/**
+ * Checks that the chart version is a semantic version, as Helm requires to resolve and order charts, and warns about
+ * dependency versions which are not valid version constraints. Whether a constraint matches any chart is not checked.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartVersionValidator
+    implements ChartValidator
+{
+  public static final String NAME = "semver";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<ChartProblem> validate(final String fileName, final ChartArchive chart) {
+    Map<String, Object> chartYaml = chart.getChartYaml();
+    List<ChartProblem> problems = new ArrayList<>();
+    if (chartYaml == null) {
+      return problems;
+    }
+    Object version = chartYaml.get("version");
+    if (!isBlank(version) && SemanticVersion.tryParse(version.toString()) == null) {
+      problems.add(ChartProblem.error(NAME, "version " + version + " is not a semantic version"));
+    }
+
+    Object dependencies = chartYaml.get("dependencies");
+    if (dependencies instanceof List) {
+      for (Object dependency : (List<?>) dependencies) {
+        if (dependency instanceof Map) {
+          checkConstraint((Map<?, ?>) dependency, problems);
+        }
+      }
+    }
+    return problems;
+  }
+
+  private static void checkConstraint(final Map<?, ?> dependency, final List<ChartProblem> problems) {
+    Object constraint = dependency.get("version");
+    if (isBlank(constraint)) {
+      return;
+    }
+    try {
+      VersionConstraint.parse(constraint.toString());
+    }
+    catch (IllegalArgumentException e) {
+      problems.add(ChartProblem.warning(NAME,
+          "version " + constraint + " of dependency " + dependency.get("name") + " is not a version constraint"));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Checks Chart.yaml against the chart schema of Helm: required fields are present, {@code apiVersion} and
+ * {@code type} have known values, and lists have the shape Helm expects.
+ *
+ * @since 1.0.11
+ */
+@Named
+@Singleton
+public class ChartYamlValidator
+    implements ChartValidator
+{
+  public static final String NAME = "chart-yaml";
+
+  private static final List<String> API_VERSIONS = Arrays.asList("v1", "v2");
+
+  private static final List<String> TYPES = Arrays.asList("application", "library");
+
+  private static final List<String> SCALAR_FIELDS =
+      Arrays.asList("description", "appVersion", "home", "icon", "kubeVersion", "engine");
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<ChartProblem> validate(final String fileName, final ChartArchive chart) {
+    Map<String, Object> chartYaml = chart.getChartYaml();
+    List<ChartProblem> problems = new ArrayList<>();
+    if (chartYaml == null) {
+      problems.add(ChartProblem.error(NAME, String.valueOf(chart.getChartYamlError())));
+      return problems;
+    }
+
+    Object apiVersion = chartYaml.get("apiVersion");
+    if (apiVersion == null) {
+      // Helm reads charts without an apiVersion as v1
+      problems.add(ChartProblem.warning(NAME, "apiVersion is missing"));
+    }
+    else if (!API_VERSIONS.contains(apiVersion.toString())) {
+      problems.add(ChartProblem.error(NAME, "apiVersion " + apiVersion + " is not one of " + API_VERSIONS));
+    }
+
+    Object name = chartYaml.get("name");
+    if (isBlank(name)) {
+      problems.add(ChartProblem.error(NAME, "name is missing"));
+    }
+    else if (name.toString().contains("/") || StringUtils.containsWhitespace(name.toString())) {
+      problems.add(ChartProblem.error(NAME, "name " + name + " contains a slash or whitespace"));
+    }
+    if (isBlank(chartYaml.get("version"))) {
+      problems.add(ChartProblem.error(NAME, "version is missing"));
+    }
+
+    Object type = chartYaml.get("type");
+    if (type != null && !TYPES.contains(type.toString())) {
+      problems.add(ChartProblem.error(NAME, "type " + type + " is not one of " + TYPES));
+    }
+    for (String field : SCALAR_FIELDS) {
+      Object value = chartYaml.get(field);
+      if (value instanceof Map || value instanceof List) {
+        problems.add(ChartProblem.error(NAME, field + " must be a single value"));
+      }
+    }
+    checkNamedList(chartYaml, "maintainers", problems);
+    checkNamedList(chartYaml, "dependencies", problems);
+    Object keywords = chartYaml.get("keywords");
+    if (keywords != null && !(keywords instanceof List)) {
+      problems.add(ChartProblem.error(NAME, "keywords must be a list"));
+    }
+    return problems;
+  }
+
+  private static void checkNamedList(final Map<String, Object> chartYaml,
+                                     final String field,
+                                     final List<ChartProblem> problems)
+  {
+    Object value = chartYaml.get(field);
+    if (value == null) {
+      return;
+    }
+    if (!(value instanceof List)) {
+      problems.add(ChartProblem.error(NAME, field + " must be a list"));
+      return;
+    }
+    for (Object item : (List<?>) value) {
+      if (!(item instanceof Map) || isBlank(((Map<?, ?>) item).get("name"))) {
+        problems.add(ChartProblem.error(NAME, "every entry of " + field + " must have a name"));
+        return;
+      }
+    }
+  }
+
+  static boolean isBlank(final Object value) {
+    return value == null || StringUtils.isBlank(value.toString());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.rest;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.rest.Resource;
+import org.sonatype.nexus.rest.WebApplicationMessageException;
+import org.sonatype.nexus.validation.Validate;
+import org.sonatype.repository.helm.api.HelmChartPromotionRequest;
+import org.sonatype.repository.helm.api.HelmChartPromotionResult;
+import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.orient.hosted.ChartPromotionService;
+import org.sonatype.repository.helm.internal.orient.hosted.HelmHostedFacet;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.apache.shiro.authz.annotation.RequiresAuthentication;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static org.sonatype.nexus.rest.APIConstants.V1_API_PREFIX;
+import static org.sonatype.nexus.rest.ApiDocConstants.AUTHENTICATION_REQUIRED;
+import static org.sonatype.nexus.rest.ApiDocConstants.INSUFFICIENT_PERMISSIONS;
+
+/**
+ * Promotes charts between Helm repositories on the server.
+ *
+ * @since 1.0.11
+ */
+@Api(value = "Helm")
+@Named
+@Singleton
+@Path(HelmChartPromotionResource.RESOURCE_URI)
+@Consumes(APPLICATION_JSON)
+@Produces(APPLICATION_JSON)
+public class HelmChartPromotionResource
+    implements Resource
+{
+  public static final String RESOURCE_URI = V1_API_PREFIX + "/helm/charts/promote";
+
+  private final RepositoryManager repositoryManager;
+
+  private final ChartPromotionService chartPromotionService;
+
+  @Inject
+  public HelmChartPromotionResource(
+      final RepositoryManager repositoryManager,
+      final ChartPromotionService chartPromotionService)
+  {
+    this.repositoryManager = checkNotNull(repositoryManager);
+    this.chartPromotionService = checkNotNull(chartPromotionService);
+  }
+
+  @ApiOperation("Copy charts and their provenance files from a Helm repository into a Helm hosted repository")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "Promotion finished, see the result for charts that were missing or failed"),
+      @ApiResponse(code = 400, message = "Target is not a Helm hosted repository"),
+      @ApiResponse(code = 401, message = AUTHENTICATION_REQUIRED),
+      @ApiResponse(code = 403, message = INSUFFICIENT_PERMISSIONS),
+      @ApiResponse(code = 404, message = "Repository not found")
+  })
+  @POST
+  @RequiresAuthentication
+  @Validate
+  public HelmChartPromotionResult promote(@NotNull @Valid final HelmChartPromotionRequest request) {
+    Repository source = helmRepository(request.getSource());
+    Repository target = helmRepository(request.getTarget());
+    if (!target.optionalFacet(HelmHostedFacet.class).isPresent()) {
+      throw new WebApplicationMessageException(BAD_REQUEST, "Target must be a Helm hosted repository");
+    }
+    return chartPromotionService.promote(source, target, request.getCharts());
+  }
+
+  private Repository helmRepository(final String name) {
+    Repository repository = repositoryManager.get(name);
+    if (repository == null || !HelmFormat.NAME.equals(repository.getFormat().getValue())) {
+      throw new WebApplicationMessageException(NOT_FOUND, "Helm repository " + name + " not found");
+    }
+    return repository;
+  }
+}
@@ -28,6 +28,10 @@ Ext.define('NX.helm.app.PluginStrings', {
     Repository_Facet_HelmFacet_Title: 'Helm Settings',
     SearchHelm_Group: 'Helm Repositories',
     SearchHelm_License_FieldLabel: 'License',
+    SearchHelm_ChartName_FieldLabel: 'Chart name starts with',
+    SearchHelm_AppVersion_FieldLabel: 'App version',
+    SearchHelm_Keywords_FieldLabel: 'Keyword',
+    SearchHelm_Maintainers_FieldLabel: 'Maintainer',
     SearchHelm_Text: 'Helm',
     SearchHelm_Description: 'Search for components in Helm repositories'
   }
@@ -27,6 +27,45 @@ Ext.define('NX.helm.controller.SearchHelm', {
     var me = this,
         search = me.getController('NX.coreui.controller.Search');
 
+    search.registerCriteria([
+      {
+        id: 'helm.chartName',
+        group: NX.I18n.get('SearchHelm_Group'),
+        config: {
+          format: 'helm',
+          fieldLabel: NX.I18n.get('SearchHelm_ChartName_FieldLabel'),
+          width: 250
+        }
+      },
+      {
+        id: 'helm.appVersion',
+        group: NX.I18n.get('SearchHelm_Group'),
+        config: {
+          format: 'helm',
+          fieldLabel: NX.I18n.get('SearchHelm_AppVersion_FieldLabel'),
+          width: 250
+        }
+      },
+      {
+        id: 'helm.keywords',
+        group: NX.I18n.get('SearchHelm_Group'),
+        config: {
+          format: 'helm',
+          fieldLabel: NX.I18n.get('SearchHelm_Keywords_FieldLabel'),
+          width: 250
+        }
+      },
+      {
+        id: 'helm.maintainers',
+        group: NX.I18n.get('SearchHelm_Group'),
+        config: {
+          format: 'helm',
+          fieldLabel: NX.I18n.get('SearchHelm_Maintainers_FieldLabel'),
+          width: 250
+        }
+      }
+    ], me);
+
     search.registerFilter({
       id: 'helm',
       name: 'helm',
@@ -36,7 +75,8 @@ Ext.define('NX.helm.controller.SearchHelm', {
       criterias: [
         {id: 'format', value: 'helm', hidden: true},
         {id: 'name.raw'},
-        {id: 'version'}
+        {id: 'version'},
+        {id: 'helm.keywords'}
       ]
     }, me);
   }
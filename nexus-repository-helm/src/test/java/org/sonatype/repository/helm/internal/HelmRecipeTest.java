@@ -13,9 +13,11 @@
 package org.sonatype.repository.helm.internal;
 
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.types.GroupType;
 import org.sonatype.nexus.repository.types.HostedType;
 import org.sonatype.nexus.repository.types.ProxyType;
 import org.sonatype.nexus.repository.view.handlers.HighAvailabilitySupportChecker;
+import org.sonatype.repository.helm.internal.orient.group.HelmGroupRecipe;
 import org.sonatype.repository.helm.internal.orient.hosted.HelmHostedRecipe;
 import org.sonatype.repository.helm.internal.orient.proxy.HelmProxyRecipe;
 
@@ -43,6 +45,8 @@ public class HelmRecipeTest
 
   private HelmHostedRecipe helmHostedRecipe;
 
+  private HelmGroupRecipe helmGroupRecipe;
+
   @Before
   public void setUp() {
     when(helmFormat.getValue()).thenReturn(HelmFormat.NAME);
@@ -50,6 +54,8 @@ public class HelmRecipeTest
     helmHostedRecipe = new HelmHostedRecipe(new HostedType(), helmFormat);
     helmProxyRecipe.setHighAvailabilitySupportChecker(highAvailabilitySupportChecker);
     helmHostedRecipe.setHighAvailabilitySupportChecker(highAvailabilitySupportChecker);
+    helmGroupRecipe = new HelmGroupRecipe(new GroupType(), helmFormat);
+    helmGroupRecipe.setHighAvailabilitySupportChecker(highAvailabilitySupportChecker);
   }
 
   @Test
@@ -79,4 +85,18 @@ public class HelmRecipeTest
     assertThat(helmProxyRecipe.isFeatureEnabled(), is(equalTo(false)));
     verify(highAvailabilitySupportChecker).isSupported(HelmFormat.NAME);
   }
+
+  @Test
+  public void haEnabledGroupRepository() {
+    when(highAvailabilitySupportChecker.isSupported(HelmFormat.NAME)).thenReturn(true);
+    assertThat(helmGroupRecipe.isFeatureEnabled(), is(equalTo(true)));
+    verify(highAvailabilitySupportChecker).isSupported(HelmFormat.NAME);
+  }
+
+  @Test
+  public void haDisabledGroupRepository() {
+    when(highAvailabilitySupportChecker.isSupported(HelmFormat.NAME)).thenReturn(false);
+    assertThat(helmGroupRecipe.isFeatureEnabled(), is(equalTo(false)));
+    verify(highAvailabilitySupportChecker).isSupported(HelmFormat.NAME);
+  }
 }
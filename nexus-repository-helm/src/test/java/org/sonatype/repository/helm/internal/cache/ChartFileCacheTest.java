@@ -0,0 +1,80 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cache;
+
+import java.util.Optional;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ChartFileCacheTest
+    extends TestSupport
+{
+  private static final HashCode CHART = Hashing.sha256().hashString("chart", UTF_8);
+
+  private static final HashCode OTHER_CHART = Hashing.sha256().hashString("other chart", UTF_8);
+
+  private static final byte[] VALUES = "replicas: 1\n".getBytes(UTF_8);
+
+  private ChartFileCache underTest;
+
+  @Before
+  public void setUp() {
+    underTest = new ChartFileCache(1024 * 1024, 64);
+  }
+
+  @Test
+  public void cachesFilesByChartAndPath() {
+    underTest.put(CHART, "values.yaml", VALUES);
+
+    assertThat(underTest.get(CHART, "values.yaml").get(), is(VALUES));
+    assertThat(underTest.get(CHART, "README.md"), is(nullValue()));
+    assertThat(underTest.get(OTHER_CHART, "values.yaml"), is(nullValue()));
+  }
+
+  @Test
+  public void remembersMissingFiles() {
+    underTest.put(CHART, "values.yaml", null);
+
+    assertThat(underTest.get(CHART, "values.yaml"), is(Optional.empty()));
+  }
+
+  @Test
+  public void largeFilesAreNotCached() {
+    byte[] large = new byte[65];
+
+    assertThat(underTest.isCacheable(64), is(true));
+    assertThat(underTest.isCacheable(large.length), is(false));
+    underTest.put(CHART, "README.md", large);
+    assertThat(underTest.get(CHART, "README.md"), is(nullValue()));
+  }
+
+  @Test
+  public void disabledWithoutSize() {
+    underTest = new ChartFileCache(0, 64);
+    underTest.put(CHART, "values.yaml", VALUES);
+
+    assertThat(underTest.isEnabled(), is(false));
+    assertThat(underTest.isCacheable(1), is(false));
+    assertThat(underTest.get(CHART, "values.yaml"), is(nullValue()));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.view.Payload;
+
+import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class HotChartCacheTest
+    extends TestSupport
+{
+  private static final byte[] CHART = "not really a chart, but bytes all the same".getBytes(UTF_8);
+
+  private static final HashCode SHA256 = Hashing.sha256().hashBytes(CHART);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicInteger blobReads = new AtomicInteger();
+
+  private final Supplier<InputStream> blob = () -> {
+    blobReads.incrementAndGet();
+    return new ByteArrayInputStream(CHART);
+  };
+
+  private HotChartCache underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = new HotChartCache(temporaryFolder.newFolder().toPath(), 1024 * 1024, 3);
+  }
+
+  @Test
+  public void testChartIsAdmittedAfterRepeatedRequests() throws Exception {
+    assertThat(underTest.get(SHA256, CHART.length, "application/x-tgz", blob), is(nullValue()));
+    assertThat(underTest.get(SHA256, CHART.length, "application/x-tgz", blob), is(nullValue()));
+
+    Payload payload = underTest.get(SHA256, CHART.length, "application/x-tgz", blob);
+    assertThat(payload, is(notNullValue()));
+    assertThat(payload.getSize(), is((long) CHART.length));
+    assertThat(payload.getContentType(), is("application/x-tgz"));
+    try (InputStream in = payload.openInputStream()) {
+      assertThat(ByteStreams.toByteArray(in), is(CHART));
+    }
+
+    underTest.get(SHA256, CHART.length, "application/x-tgz", blob);
+    assertThat(blobReads.get(), is(1));
+  }
+
+  @Test
+  public void testDisabledByDefault() throws Exception {
+    underTest = new HotChartCache(temporaryFolder.newFolder().toPath(), 0, 1);
+
+    assertThat(underTest.isEnabled(), is(false));
+    assertThat(underTest.get(SHA256, CHART.length, null, blob), is(nullValue()));
+    assertThat(blobReads.get(), is(0));
+  }
+
+  @Test
+  public void testOversizedChartIsNotCached() throws Exception {
+    underTest = new HotChartCache(temporaryFolder.newFolder().toPath(), CHART.length * 2, 1);
+
+    assertThat(underTest.get(SHA256, CHART.length, null, blob), is(nullValue()));
+    assertThat(blobReads.get(), is(0));
+  }
+
+  @Test
+  public void testSizeMismatchIsNotCached() throws Exception {
+    underTest = new HotChartCache(temporaryFolder.newFolder().toPath(), 1024 * 1024, 1);
+
+    assertThat(underTest.get(SHA256, CHART.length + 1, null, blob), is(nullValue()));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.cleanup;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.cleanup.ChartCleanupCriteria.ChartVersion;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+public class ChartCleanupCriteriaTest
+    extends TestSupport
+{
+  private static final DateTime NOW = DateTime.parse("2020-06-01T00:00:00Z");
+
+  @Test
+  public void keepsNewestVersions() {
+    List<ChartVersion> versions = asList(version("1.10.0", 1), version("1.2.0", 1), version("1.9.0", 1),
+        version("2.0.0-rc.1", 1), version("latest", 1));
+
+    assertThat(select(new ChartCleanupCriteria(2, 0, false), versions), containsInAnyOrder("1.2.0", "1.9.0"));
+  }
+
+  @Test
+  public void removesOnlyOldPrereleases() {
+    List<ChartVersion> versions = asList(version("1.0.0", 100), version("1.1.0-beta.1", 100),
+        version("1.1.0-beta.2", 5), version("1.1.0", 100));
+
+    assertThat(select(new ChartCleanupCriteria(0, 30, false), versions), containsInAnyOrder("1.1.0-beta.1"));
+    assertThat(select(new ChartCleanupCriteria(3, 30, false), versions), empty());
+  }
+
+  @Test
+  public void keepsDependencies() {
+    List<ChartVersion> versions = asList(version("1.0.0", 1), dependency("1.1.0"), version("1.2.0", 1));
+
+    assertThat(select(new ChartCleanupCriteria(1, 0, true), versions), containsInAnyOrder("1.0.0"));
+    assertThat(select(new ChartCleanupCriteria(1, 0, false), versions), containsInAnyOrder("1.0.0", "1.1.0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void requiresCriteria() {
+    new ChartCleanupCriteria(0, 0, true);
+  }
+
+  private static List<String> select(final ChartCleanupCriteria criteria, final List<ChartVersion> versions) {
+    return criteria.select(versions, NOW).stream().map(ChartVersion::getVersion).collect(Collectors.toList());
+  }
+
+  private static ChartVersion version(final String version, final int ageDays) {
+    return new ChartVersion(version, version, NOW.minusDays(ageDays), false);
+  }
+
+  private static ChartVersion dependency(final String version) {
+    return new ChartVersion(version, version, NOW.minusDays(1), true);
+  }
+}
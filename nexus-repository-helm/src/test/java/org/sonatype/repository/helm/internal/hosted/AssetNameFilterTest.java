@@ -0,0 +1,116 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.hosted;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class AssetNameFilterTest
+    extends TestSupport
+{
+  private long now;
+
+  private AssetNameFilter underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = new AssetNameFilter(new Ticker()
+    {
+      @Override
+      public long read() {
+        return now;
+      }
+    });
+  }
+
+  @Test
+  public void everythingMightExistUntilBuilt() {
+    assertThat(underTest.isBuilt(), is(false));
+    assertThat(underTest.needsRebuild(), is(true));
+    assertThat(underTest.mightContain("mongodb-0.4.9.tgz"), is(true));
+  }
+
+  @Test
+  public void rejectsMostUnknownNames() {
+    underTest.startRebuild();
+    underTest.finishRebuild(Arrays.asList("index.yaml", "mongodb-0.4.9.tgz", "mongodb-0.4.9.tgz.prov"));
+
+    assertThat(underTest.mightContain("index.yaml"), is(true));
+    assertThat(underTest.mightContain("mongodb-0.4.9.tgz"), is(true));
+    assertThat(underTest.mightContain("mongodb-0.4.9.tgz.prov"), is(true));
+    int passed = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (underTest.mightContain("unknown-" + i + ".tgz")) {
+        passed++;
+      }
+    }
+    assertThat(passed, lessThan(50));
+    assertThat(underTest.needsRebuild(), is(false));
+  }
+
+  @Test
+  public void keepsNamesAddedAfterBuild() {
+    underTest.startRebuild();
+    underTest.finishRebuild(Collections.emptyList());
+    underTest.add("mongodb-0.4.9.tgz");
+
+    assertThat(underTest.mightContain("mongodb-0.4.9.tgz"), is(true));
+  }
+
+  @Test
+  public void carriesRecentNamesIntoRebuild() {
+    underTest.add("before-scan-1.0.0.tgz");
+    underTest.startRebuild();
+    now += TimeUnit.HOURS.toNanos(1);
+    underTest.add("during-scan-1.0.0.tgz");
+    underTest.finishRebuild(Collections.emptyList());
+
+    assertThat(underTest.mightContain("before-scan-1.0.0.tgz"), is(true));
+    assertThat(underTest.mightContain("during-scan-1.0.0.tgz"), is(true));
+  }
+
+  @Test
+  public void asksForRebuildAfterManyDeletes() {
+    underTest.startRebuild();
+    underTest.finishRebuild(Collections.emptyList());
+    for (int i = 0; i < 256; i++) {
+      underTest.deleted();
+    }
+    assertThat(underTest.needsRebuild(), is(false));
+
+    underTest.deleted();
+    assertThat(underTest.needsRebuild(), is(true));
+  }
+
+  @Test
+  public void asksForRebuildWhenOverfilled() {
+    underTest.startRebuild();
+    underTest.finishRebuild(Collections.emptyList());
+    for (int i = 0; i <= 1024; i++) {
+      underTest.add("chart-" + i + ".tgz");
+    }
+
+    assertThat(underTest.needsRebuild(), is(true));
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.inspect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.collect.AttributesMap;
+import org.sonatype.nexus.common.hash.HashAlgorithm;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Payload;
+import org.sonatype.nexus.repository.view.Request;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.payloads.BytesPayload;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.cache.ChartFileCache;
+import org.sonatype.repository.helm.internal.util.TgzParser;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.net.HttpHeaders;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.http.HttpMethods.GET;
+import static org.sonatype.nexus.repository.http.HttpResponses.ok;
+
+public class ChartFileHandlerTest
+    extends TestSupport
+{
+  private static final String CHART = "/org/sonatype/repository/helm/internal/util/mongodb-0.4.9.tgz";
+
+  private static final long VALUES_SIZE = 1218;
+
+  @Mock
+  private Context context;
+
+  private byte[] chart;
+
+  private HashCode sha256;
+
+  private ChartFileCache chartFileCache;
+
+  private ChartFileHandler underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    try (InputStream in = getClass().getResourceAsStream(CHART)) {
+      chart = IOUtils.toByteArray(in);
+    }
+    sha256 = Hashing.sha256().hashBytes(chart);
+    AttributesMap attributes = new AttributesMap();
+    attributes.set(AssetKind.class, AssetKind.HELM_PACKAGE);
+    when(context.getAttributes()).thenReturn(attributes);
+    chartFileCache = new ChartFileCache(1024 * 1024, 4096);
+    underTest = new ChartFileHandler(new TgzParser(), chartFileCache);
+  }
+
+  @Test
+  public void smallFileIsServedFromCache() throws Exception {
+    request("values.yaml", chartPayload());
+    Response response = underTest.handle(context);
+
+    assertThat(response.getStatus().getCode(), is(200));
+    assertThat(read(response.getPayload()), startsWith("## Bitnami MongoDB image version\n"));
+    assertThat(chartFileCache.get(sha256, "values.yaml").get().length, is((int) VALUES_SIZE));
+
+    // the chart is not read again once its file is cached
+    request("values.yaml", unreadablePayload());
+    response = underTest.handle(context);
+
+    assertThat(response.getStatus().getCode(), is(200));
+    assertThat(read(response.getPayload()), startsWith("## Bitnami MongoDB image version\n"));
+  }
+
+  @Test
+  public void missingFileIsCached() throws Exception {
+    request("templates/missing.yaml", chartPayload());
+    assertThat(underTest.handle(context).getStatus().getCode(), is(404));
+
+    request("templates/missing.yaml", unreadablePayload());
+    assertThat(underTest.handle(context).getStatus().getCode(), is(404));
+  }
+
+  @Test
+  public void largeFileIsStreamed() throws Exception {
+    chartFileCache = new ChartFileCache(1024 * 1024, VALUES_SIZE - 1);
+    underTest = new ChartFileHandler(new TgzParser(), chartFileCache);
+    request("values.yaml", chartPayload());
+
+    Response response = underTest.handle(context);
+
+    assertThat(response.getStatus().getCode(), is(200));
+    assertThat(response.getPayload(), not(instanceOf(BytesPayload.class)));
+    assertThat(response.getPayload().getSize(), is(VALUES_SIZE));
+    assertThat(read(response.getPayload()), startsWith("## Bitnami MongoDB image version\n"));
+    assertThat(chartFileCache.get(sha256, "values.yaml"), is(nullValue()));
+  }
+
+  @Test
+  public void rangeIsNotAppliedToTheChart() throws Exception {
+    Request request = new Request.Builder().action(GET).path("/mongodb-0.4.9.tgz")
+        .parameter("file", "values.yaml")
+        .header(HttpHeaders.RANGE, "bytes=0-99")
+        .build();
+    when(context.getRequest()).thenReturn(request);
+    when(context.proceed()).thenAnswer(invocation -> {
+      assertThat(request.getHeaders().get(HttpHeaders.RANGE), is(nullValue()));
+      return ok(chartPayload());
+    });
+
+    Response response = underTest.handle(context);
+
+    assertThat(read(response.getPayload()).length(), is((int) VALUES_SIZE));
+  }
+
+  private void request(final String file, final Content chartContent) throws Exception {
+    Request request = new Request.Builder().action(GET).path("/mongodb-0.4.9.tgz").parameter("file", file).build();
+    when(context.getRequest()).thenReturn(request);
+    when(context.proceed()).thenReturn(ok(chartContent));
+  }
+
+  private Content chartPayload() {
+    return withHash(new Content(new BytesPayload(chart, "application/x-tgz")));
+  }
+
+  private Content unreadablePayload() throws IOException {
+    Payload payload = mock(Payload.class);
+    when(payload.openInputStream()).thenThrow(new IOException("chart must not be read"));
+    return withHash(new Content(payload));
+  }
+
+  private Content withHash(final Content content) {
+    content.getAttributes().set(Content.CONTENT_HASH_CODES_MAP, Collections.singletonMap(HashAlgorithm.SHA256, sha256));
+    return content;
+  }
+
+  private static String read(final Payload payload) throws IOException {
+    try (InputStream in = payload.openInputStream()) {
+      return IOUtils.toString(in, UTF_8);
+    }
+  }
+}
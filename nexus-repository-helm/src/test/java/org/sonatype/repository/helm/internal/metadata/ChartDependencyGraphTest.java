@@ -0,0 +1,124 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph.DependencyClosure;
+import org.sonatype.repository.helm.internal.metadata.ChartDependencyGraph.UnresolvedDependency;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ChartDependencyGraphTest
+    extends TestSupport
+{
+  private ChartDependencyGraph underTest;
+
+  @Before
+  public void setUp() {
+    ChartIndex index = new ChartIndex();
+    index.addEntry(chart("umbrella", "1.0.0", "web", "~1.2.0", "db", "^2.0.0", "cache", "1.x"));
+    index.addEntry(chart("web", "1.2.0", "common", "1.x"));
+    index.addEntry(chart("web", "1.2.5", "common", "1.x"));
+    index.addEntry(chart("web", "1.3.0"));
+    index.addEntry(chart("db", "2.1.0", "common", "1.x"));
+    index.addEntry(chart("db", "3.0.0"));
+    index.addEntry(chart("common", "1.0.0"));
+    index.addEntry(chart("common", "1.1.0"));
+    index.addEntry(chart("cycle-a", "1.0.0", "cycle-b", "1.0.0"));
+    index.addEntry(chart("cycle-b", "1.0.0", "cycle-a", "1.0.0"));
+    underTest = new ChartDependencyGraph(index);
+  }
+
+  @Test
+  public void testClosureResolvesNewestMatchingVersionsInInstallOrder() {
+    DependencyClosure closure = underTest.closure("umbrella", "1.0.0");
+
+    assertThat(names(closure.getCharts()), contains("common-1.1.0", "web-1.2.5", "db-2.1.0", "umbrella-1.0.0"));
+    assertThat(closure.getUnresolved(), hasSize(1));
+    UnresolvedDependency unresolved = closure.getUnresolved().get(0);
+    assertThat(unresolved.getName(), is("cache"));
+    assertThat(unresolved.getVersion(), is("1.x"));
+    assertThat(unresolved.getRepository(), is("https://charts.example.com"));
+    assertThat(unresolved.getRequiredBy(), is("umbrella-1.0.0"));
+  }
+
+  @Test
+  public void testClosureOfChartWithoutDependencies() {
+    DependencyClosure closure = underTest.closure("web", "1.3.0");
+
+    assertThat(names(closure.getCharts()), contains("web-1.3.0"));
+    assertThat(closure.getUnresolved(), hasSize(0));
+  }
+
+  @Test
+  public void testClosureToleratesCycles() {
+    DependencyClosure closure = underTest.closure("cycle-a", "1.0.0");
+
+    assertThat(names(closure.getCharts()), contains("cycle-b-1.0.0", "cycle-a-1.0.0"));
+  }
+
+  @Test
+  public void testClosureOfUnknownChartVersion() {
+    assertThat(underTest.closure("umbrella", "2.0.0"), is(nullValue()));
+    assertThat(underTest.closure("unknown", "1.0.0"), is(nullValue()));
+  }
+
+  @Test
+  public void testIsDependencyOnlyForResolvedVersions() {
+    assertThat(underTest.isDependency("web", "1.2.5"), is(true));
+    assertThat(underTest.isDependency("common", "1.1.0"), is(true));
+    assertThat(underTest.isDependency("web", "1.2.0"), is(false));
+    assertThat(underTest.isDependency("umbrella", "1.0.0"), is(false));
+    assertThat(underTest.isDependency("unknown", "1.0.0"), is(false));
+  }
+
+  @Test
+  public void testVersionsAreSortedNewestFirst() {
+    assertThat(names(underTest.getVersionIndex().getVersions("web")), contains("web-1.3.0", "web-1.2.5", "web-1.2.0"));
+  }
+
+  private static ChartEntry chart(final String name, final String version, final String... dependencies) {
+    ChartEntry entry = new ChartEntry();
+    entry.setName(name);
+    entry.setVersion(version);
+    if (dependencies.length > 0) {
+      List<Map<String, Object>> list = new ArrayList<>();
+      for (int i = 0; i < dependencies.length; i += 2) {
+        Map<String, Object> dependency = new LinkedHashMap<>();
+        dependency.put("name", dependencies[i]);
+        dependency.put("version", dependencies[i + 1]);
+        dependency.put("repository", "https://charts.example.com");
+        list.add(dependency);
+      }
+      entry.setDependencies(list);
+    }
+    return entry;
+  }
+
+  private static List<String> names(final List<ChartEntry> entries) {
+    return entries.stream().map(entry -> entry.getName() + "-" + entry.getVersion()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.Collections;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class ChartFileFilterTest
+    extends TestSupport
+{
+  private ChartFileFilter underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    ChartIndex index = new ChartIndex();
+    for (int i = 0; i < 100; i++) {
+      ChartEntry entry = new ChartEntry();
+      entry.setName("chart" + i);
+      entry.setVersion("1.0." + i);
+      entry.setUrls(Collections.singletonList("charts/chart" + i + "-1.0." + i + ".tgz"));
+      index.addEntry(entry);
+    }
+    underTest = new ChartFileFilter(index);
+  }
+
+  @Test
+  public void listedFilesMatch() {
+    assertThat(underTest.mightContain("charts/chart7-1.0.7.tgz"), is(true));
+    assertThat(underTest.mightContain("chart7-1.0.7.tgz"), is(true));
+    assertThat(underTest.mightContain("chart7-1.0.7.tgz.prov"), is(true));
+    assertThat(underTest.mightContain("charts/chart7-1.0.7.tgz.prov"), is(true));
+  }
+
+  @Test
+  public void unlistedFilesMostlyRejected() {
+    int passed = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (underTest.mightContain("unknown" + i + "-2.0.0.tgz")) {
+        passed++;
+      }
+    }
+    assertThat(passed, lessThan(50));
+  }
+}
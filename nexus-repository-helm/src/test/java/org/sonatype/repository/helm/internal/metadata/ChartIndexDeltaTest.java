@@ -0,0 +1,89 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.Collections;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+public class ChartIndexDeltaTest
+    extends TestSupport
+{
+  @Test
+  public void listsAddedRemovedAndChangedVersions() {
+    ChartIndex previous = index(entry("mongodb", "0.4.9", "a"), entry("nginx", "1.0.0", "b"));
+    ChartIndex next = index(entry("mongodb", "0.4.9", "a"), entry("mongodb", "0.5.0", "c"), entry("nginx", "1.0.0", "d"));
+
+    ChartIndexDelta delta = ChartIndexDelta.between(1, 2, previous, next);
+
+    assertThat(delta.getSince(), is(1L));
+    assertThat(delta.getGeneration(), is(2L));
+    assertThat(delta.getRemoved().get("nginx"), contains("1.0.0"));
+    assertThat(delta.getRemoved(), not(hasKey("mongodb")));
+    assertThat(delta.getEntries().get("mongodb").size(), is(1));
+    assertThat(delta.getEntries().get("mongodb").get(0).getVersion(), is("0.5.0"));
+    assertThat(delta.getEntries().get("nginx").get(0).getDigest(), is("d"));
+  }
+
+  @Test
+  public void unchangedIndexHasEmptyDelta() {
+    ChartIndexDelta delta = ChartIndexDelta.between(1, 2, index(entry("mongodb", "0.4.9", "a")),
+        index(entry("mongodb", "0.4.9", "a")));
+
+    assertThat(delta.isEmpty(), is(true));
+  }
+
+  @Test
+  public void appendCombinesGenerations() {
+    ChartIndex first = index(entry("mongodb", "0.4.9", "a"));
+    ChartIndex second = index(entry("mongodb", "0.4.9", "a"), entry("mongodb", "0.5.0", "b"));
+    ChartIndex third = index(entry("mongodb", "0.4.9", "a"));
+
+    ChartIndexDelta delta = new ChartIndexDelta(1);
+    delta.append(ChartIndexDelta.between(1, 2, first, second));
+    delta.append(ChartIndexDelta.between(2, 3, second, third));
+
+    assertThat(delta.getGeneration(), is(3L));
+    assertThat(delta.getEntries().isEmpty(), is(true));
+    assertThat(delta.getRemoved().get("mongodb"), contains("0.5.0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void appendRejectsGap() {
+    new ChartIndexDelta(1).append(ChartIndexDelta.between(2, 3, new ChartIndex(), new ChartIndex()));
+  }
+
+  private static ChartIndex index(final ChartEntry... entries) {
+    ChartIndex index = new ChartIndex();
+    asList(entries).forEach(index::addEntry);
+    return index;
+  }
+
+  private static ChartEntry entry(final String name, final String version, final String digest) {
+    ChartEntry entry = new ChartEntry();
+    entry.setName(name);
+    entry.setVersion(version);
+    entry.setDigest(digest);
+    entry.setUrls(Collections.singletonList(name + "-" + version + ".tgz"));
+    return entry;
+  }
+}
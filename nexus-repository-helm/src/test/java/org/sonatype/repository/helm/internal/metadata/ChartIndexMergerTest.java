@@ -0,0 +1,73 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class ChartIndexMergerTest
+    extends TestSupport
+{
+  @Test
+  public void testMergeOrdersChartsByNameAndEarliestMemberWins() {
+    ChartIndex first = index(chart("mysql", "1.0.0", "first"), chart("redis", "2.0.0", "first"));
+    ChartIndex second = index(chart("mysql", "1.0.0", "second"), chart("mysql", "1.1.0", "second"),
+        chart("apache", "3.0.0", "second"));
+    ChartIndex third = index(chart("redis", "2.1.0", "third"), chart("zookeeper", "1.0.0", "third"));
+
+    ChartIndex merged = ChartIndexMerger.merge(Arrays.asList(first, second, third));
+
+    assertThat(merged.getApiVersion(), is("v1"));
+    assertThat(merged.getEntries().keySet(), contains("apache", "mysql", "redis", "zookeeper"));
+    assertThat(describe(merged.getEntries().get("mysql")), contains("1.0.0@first", "1.1.0@second"));
+    assertThat(describe(merged.getEntries().get("redis")), contains("2.0.0@first", "2.1.0@third"));
+  }
+
+  @Test
+  public void testMergeOfNoMembers() {
+    ChartIndex merged = ChartIndexMerger.merge(Collections.emptyList());
+
+    assertThat(merged.getEntries().isEmpty(), is(true));
+  }
+
+  private static ChartIndex index(final ChartEntry... entries) {
+    ChartIndex index = new ChartIndex();
+    for (ChartEntry entry : entries) {
+      index.addEntry(entry);
+    }
+    return index;
+  }
+
+  private static ChartEntry chart(final String name, final String version, final String member) {
+    ChartEntry entry = new ChartEntry();
+    entry.setName(name);
+    entry.setVersion(version);
+    entry.setDescription(member);
+    return entry;
+  }
+
+  private static List<String> describe(final List<ChartEntry> entries) {
+    return entries.stream().map(entry -> entry.getVersion() + "@" + entry.getDescription())
+        .collect(Collectors.toList());
+  }
+}
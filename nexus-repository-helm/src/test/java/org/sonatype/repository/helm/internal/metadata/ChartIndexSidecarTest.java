@@ -0,0 +1,122 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.joda.time.DateTime;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+public class ChartIndexSidecarTest
+    extends TestSupport
+{
+  private static final DateTime CREATED = DateTime.parse("2018-08-13T22:05:33.023Z");
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void looksUpChartVersions() throws Exception {
+    ChartIndexSidecar sidecar = ChartIndexSidecar.wrap(ByteBuffer.wrap(write(index())));
+
+    assertThat(sidecar.getChartCount(), is(3));
+    assertThat(sidecar.getVersionCount(), is(4));
+    List<ChartEntry> versions = sidecar.getVersions("mongodb");
+    assertThat(versions.size(), is(2));
+    assertThat(versions.get(0).getName(), is("mongodb"));
+    assertThat(versions.get(0).getVersion(), is("0.4.9"));
+    assertThat(versions.get(0).getDigest(), is("a"));
+    assertThat(versions.get(0).getUrls(), contains("mongodb-0.4.9.tgz", "https://mirror/mongodb-0.4.9.tgz"));
+    assertThat(versions.get(0).getCreated().getMillis(), is(CREATED.getMillis()));
+    assertThat(versions.get(1).getVersion(), is("0.5.0"));
+    assertThat(versions.get(1).getUrls(), nullValue());
+    assertThat(versions.get(1).getCreated(), nullValue());
+    assertThat(sidecar.getVersions("nginx").get(0).getDigest(), nullValue());
+    assertThat(sidecar.getVersions("redis"), nullValue());
+  }
+
+  @Test
+  public void sortsChartNamesByBytes() throws Exception {
+    ChartIndexSidecar sidecar = ChartIndexSidecar.wrap(ByteBuffer.wrap(write(index())));
+
+    assertThat(sidecar.getChartNames(), contains("mongodb", "nginx", "étcd"));
+    assertThat(sidecar.getVersions("étcd").get(0).getVersion(), is("3.4.0"));
+  }
+
+  @Test
+  public void readsMappedFile() throws Exception {
+    File file = temporaryFolder.newFile();
+    try (OutputStream out = new FileOutputStream(file)) {
+      ChartIndexSidecar.write(index(), out);
+    }
+
+    ChartIndex index = ChartIndexSidecar.map(file.toPath()).toChartIndex();
+
+    assertThat(index.getEntries().size(), is(3));
+    assertThat(index.getEntries().get("nginx").get(0).getVersion(), is("1.0.0"));
+  }
+
+  @Test
+  public void writesEmptyIndex() throws Exception {
+    ChartIndexSidecar sidecar = ChartIndexSidecar.wrap(ByteBuffer.wrap(write(new ChartIndex())));
+
+    assertThat(sidecar.getChartCount(), is(0));
+    assertThat(sidecar.getVersions("mongodb"), nullValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsOtherContent() {
+    ChartIndexSidecar.wrap(ByteBuffer.wrap("apiVersion: v1\nentries: {}\n".getBytes()));
+  }
+
+  private static byte[] write(final ChartIndex index) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ChartIndexSidecar.write(index, out);
+    return out.toByteArray();
+  }
+
+  private static ChartIndex index() {
+    ChartIndex index = new ChartIndex();
+    index.addEntry(entry("nginx", "1.0.0", null));
+    index.addEntry(entry("étcd", "3.4.0", "e"));
+    ChartEntry mongodb = entry("mongodb", "0.4.9", "a");
+    mongodb.setUrls(asList("mongodb-0.4.9.tgz", "https://mirror/mongodb-0.4.9.tgz"));
+    mongodb.setCreated(CREATED);
+    index.addEntry(mongodb);
+    index.addEntry(entry("mongodb", "0.5.0", "b"));
+    return index;
+  }
+
+  private static ChartEntry entry(final String name, final String version, final String digest) {
+    ChartEntry entry = new ChartEntry();
+    entry.setName(name);
+    entry.setVersion(version);
+    entry.setDigest(digest);
+    return entry;
+  }
+}
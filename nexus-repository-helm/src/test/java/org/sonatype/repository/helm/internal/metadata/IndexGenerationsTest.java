@@ -0,0 +1,37 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.metadata;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class IndexGenerationsTest
+    extends TestSupport
+{
+  @Test
+  public void namesGenerationFiles() {
+    assertThat(IndexGenerations.fileName(42), is("index-42.yaml"));
+    assertThat(IndexGenerations.isGenerationFile("index-42.yaml"), is(true));
+  }
+
+  @Test
+  public void otherFilesAreNotGenerations() {
+    assertThat(IndexGenerations.isGenerationFile("index.yaml"), is(false));
+    assertThat(IndexGenerations.isGenerationFile("index-chart-1.0.0.yaml"), is(false));
+    assertThat(IndexGenerations.isGenerationFile("index-42.yaml.prov"), is(false));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.oci;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class HelmOciArtifactsTest
+    extends TestSupport
+{
+  private static final String CHART_SHA256 = "4d1e2c62a0c0f8e0b9a7e3f5c2d1b0a9f8e7d6c5b4a3928170f6e5d4c3b2a190";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private ChartEntry chart;
+
+  @Before
+  public void setUp() {
+    chart = new ChartEntry();
+    chart.setName("mysql");
+    chart.setVersion("1.4.0+build.7");
+    chart.setApiVersion("v2");
+    chart.setDescription("Fast, reliable, scalable, and easy to use open-source relational database system.");
+    chart.setDigest(CHART_SHA256);
+  }
+
+  @Test
+  public void testTagsReplaceBuildMetadataSeparator() {
+    assertThat(HelmOciArtifacts.toTag("1.4.0+build.7"), is("1.4.0_build.7"));
+    assertThat(HelmOciArtifacts.fromTag("1.4.0_build.7"), is("1.4.0+build.7"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testManifestReferencesConfigAndChartLayer() throws Exception {
+    byte[] config = HelmOciArtifacts.config(chart);
+    Map<String, Object> manifest = mapper.readValue(HelmOciArtifacts.manifest(chart, config, 1234L), Map.class);
+
+    assertThat(manifest.get("schemaVersion"), is(2));
+    Map<String, Object> configDescriptor = (Map<String, Object>) manifest.get("config");
+    assertThat(configDescriptor.get("mediaType"), is(HelmOciArtifacts.CONFIG_MEDIA_TYPE));
+    assertThat(configDescriptor.get("digest"), is(HelmOciArtifacts.digest(config)));
+    assertThat(configDescriptor.get("size"), is(config.length));
+    Map<String, Object> layer = ((List<Map<String, Object>>) manifest.get("layers")).get(0);
+    assertThat(layer.get("mediaType"), is(HelmOciArtifacts.CHART_LAYER_MEDIA_TYPE));
+    assertThat(layer.get("digest"), is("sha256:" + CHART_SHA256));
+    assertThat(layer.get("size"), is(1234));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testConfigCarriesChartMetadata() throws Exception {
+    Map<String, Object> config = mapper.readValue(HelmOciArtifacts.config(chart), Map.class);
+
+    assertThat(config.get("name"), is("mysql"));
+    assertThat(config.get("version"), is("1.4.0+build.7"));
+    assertThat(config.get("apiVersion"), is("v2"));
+    assertThat(config.containsKey("icon"), is(false));
+  }
+
+  @Test
+  public void testDigestsAreStable() throws Exception {
+    byte[] config = HelmOciArtifacts.config(chart);
+    String manifestDigest = HelmOciArtifacts.digest(HelmOciArtifacts.manifest(chart, config, 1234L));
+
+    assertThat(HelmOciArtifacts.digest(HelmOciArtifacts.manifest(chart, HelmOciArtifacts.config(chart), 1234L)),
+        is(manifestDigest));
+    assertThat(HelmOciArtifacts.digest(HelmOciArtifacts.manifest(chart, config, 1235L)), not(manifestDigest));
+  }
+
+  @Test
+  public void testDigestsDoNotDependOnMapOrder() throws Exception {
+    ChartEntry ordered = loadChart("    annotations:\n      category: Database\n      licenses: Apache-2.0\n"
+        + "    maintainers:\n    - email: containers@bitnami.com\n      name: Bitnami\n");
+    ChartEntry reordered = loadChart("    maintainers:\n    - name: Bitnami\n      email: containers@bitnami.com\n"
+        + "    annotations:\n      licenses: Apache-2.0\n      category: Database\n");
+
+    assertThat(HelmOciArtifacts.digest(HelmOciArtifacts.config(reordered)),
+        is(HelmOciArtifacts.digest(HelmOciArtifacts.config(ordered))));
+  }
+
+  @Test
+  public void testDigestsSurviveYamlRoundTrip() throws Exception {
+    ChartEntry loaded = loadChart("    annotations:\n      licenses: Apache-2.0\n      category: Database\n");
+    ChartIndex index = new ChartIndex();
+    index.addEntry(loaded);
+    YamlParser yamlParser = new YamlParser();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    yamlParser.write(out, index);
+    ChartEntry reloaded = yamlParser.loadIndex(new ByteArrayInputStream(out.toByteArray()))
+        .getEntries().get("mysql").get(0);
+
+    byte[] config = HelmOciArtifacts.config(loaded);
+    byte[] reloadedConfig = HelmOciArtifacts.config(reloaded);
+    assertThat(HelmOciArtifacts.digest(reloadedConfig), is(HelmOciArtifacts.digest(config)));
+    assertThat(HelmOciArtifacts.digest(HelmOciArtifacts.manifest(reloaded, reloadedConfig, 1234L)),
+        is(HelmOciArtifacts.digest(HelmOciArtifacts.manifest(loaded, config, 1234L))));
+  }
+
+  private static ChartEntry loadChart(final String metadata) throws Exception {
+    String indexYaml = "apiVersion: v1\nentries:\n  mysql:\n  - name: mysql\n    version: 1.4.0\n"
+        + "    digest: " + CHART_SHA256 + "\n" + metadata;
+    return new YamlParser().loadIndex(new ByteArrayInputStream(indexYaml.getBytes(UTF_8)))
+        .getEntries().get("mysql").get(0);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FileChannelPayloadTest
+    extends TestSupport
+{
+  private static final byte[] CONTENT = "apiVersion: v1\nentries: {}\ngenerated: 2020-01-01T00:00:00Z\n".getBytes(UTF_8);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FileChannelPayload underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    Path file = temporaryFolder.newFile("index.yaml.bytes").toPath();
+    Files.write(file, CONTENT);
+    underTest = new FileChannelPayload(file, CONTENT.length, "text/x-yaml");
+  }
+
+  @Test
+  public void testCopyTransfersWholeFile() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream input = underTest.openInputStream()) {
+      underTest.copy(input, output);
+    }
+    assertThat(output.toByteArray(), is(CONTENT));
+  }
+
+  @Test
+  public void testCopyStartsFromSkippedPosition() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream input = underTest.openInputStream()) {
+      assertThat(input.skip(15), is(15L));
+      underTest.copy(input, output);
+    }
+    assertThat(output.toByteArray(), is(Arrays.copyOfRange(CONTENT, 15, CONTENT.length)));
+  }
+
+  @Test
+  public void testCopyHonoursLimitedStream() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream input = underTest.openInputStream()) {
+      ByteStreams.skipFully(input, 4);
+      underTest.copy(ByteStreams.limit(input, 10), output);
+    }
+    assertThat(output.toByteArray(), is(Arrays.copyOfRange(CONTENT, 4, 14)));
+  }
+
+  @Test
+  public void testReadAndSkipPastEnd() throws Exception {
+    try (InputStream input = underTest.openInputStream()) {
+      assertThat(input.read(), is((int) 'a'));
+      assertThat(input.skip(CONTENT.length * 2), is((long) CONTENT.length - 1));
+      assertThat(input.read(), is(-1));
+      assertThat(input.available(), is(0));
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.entity.DetachedEntityId;
+import org.sonatype.nexus.common.entity.EntityId;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.scheduling.CancelableHelper;
+import org.sonatype.nexus.scheduling.TaskInterruptedException;
+import org.sonatype.repository.helm.internal.orient.createindex.CreateIndexFacet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HelmComponentMaintenanceFacetTest
+    extends TestSupport
+{
+  private static final EntityId CHART_A = new DetachedEntityId("a");
+
+  private static final EntityId CHART_B = new DetachedEntityId("b");
+
+  private static final EntityId CHART_C = new DetachedEntityId("c");
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private StorageFacet storageFacet;
+
+  @Mock
+  private StorageTx storageTx;
+
+  @Mock
+  private CreateIndexFacet createIndexFacet;
+
+  private final AtomicBoolean cancelled = new AtomicBoolean();
+
+  private final List<List<EntityId>> batches = new ArrayList<>();
+
+  private int cancelAfterBatches;
+
+  private HelmComponentMaintenanceFacet underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    when(repository.facet(StorageFacet.class)).thenReturn(storageFacet);
+    when(repository.optionalFacet(CreateIndexFacet.class)).thenReturn(Optional.of(createIndexFacet));
+    when(storageFacet.txSupplier()).thenReturn(() -> storageTx);
+    underTest = new HelmComponentMaintenanceFacet()
+    {
+      @Override
+      protected Set<String> deleteComponentsTx(final List<EntityId> componentIds) {
+        batches.add(componentIds);
+        if (batches.size() == cancelAfterBatches) {
+          cancelled.set(true);
+        }
+        return componentIds.stream().map(id -> id.getValue() + "-1.0.0.tgz").collect(Collectors.toSet());
+      }
+    };
+    underTest.attach(repository);
+    CancelableHelper.set(cancelled);
+  }
+
+  @After
+  public void tearDown() {
+    CancelableHelper.remove();
+  }
+
+  @Test
+  public void deletesInBatchesAndInvalidatesOnce() {
+    Set<String> deleted = underTest.deleteComponents(Arrays.asList(CHART_A, CHART_B, CHART_C), 2);
+
+    assertThat(deleted, hasSize(3));
+    assertThat(batches, is(Arrays.asList(Arrays.asList(CHART_A, CHART_B), singletonList(CHART_C))));
+    InOrder order = inOrder(createIndexFacet);
+    order.verify(createIndexFacet).suspendInvalidation();
+    order.verify(createIndexFacet).ignoreDeletions(Arrays.asList(CHART_A, CHART_B));
+    order.verify(createIndexFacet).ignoreDeletions(singletonList(CHART_C));
+    order.verify(createIndexFacet).invalidateIndex();
+    order.verify(createIndexFacet).resumeInvalidation();
+    order.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void cancellationStopsBetweenBatches() {
+    cancelAfterBatches = 1;
+    try {
+      underTest.deleteComponents(Arrays.asList(CHART_A, CHART_B, CHART_C), 2);
+      fail("expected the deletion to be cancelled");
+    }
+    catch (TaskInterruptedException e) {
+      // expected
+    }
+
+    assertThat(batches, hasSize(1));
+    verify(createIndexFacet).invalidateIndex();
+    verify(createIndexFacet).resumeInvalidation();
+  }
+
+  @Test
+  public void cancellationBeforeAnyBatchDoesNotInvalidate() {
+    cancelled.set(true);
+    try {
+      underTest.deleteComponents(Arrays.asList(CHART_A, CHART_B), 2);
+      fail("expected the deletion to be cancelled");
+    }
+    catch (TaskInterruptedException e) {
+      // expected
+    }
+
+    assertThat(batches, hasSize(0));
+    verify(createIndexFacet, never()).invalidateIndex();
+    verify(createIndexFacet).resumeInvalidation();
+  }
+}
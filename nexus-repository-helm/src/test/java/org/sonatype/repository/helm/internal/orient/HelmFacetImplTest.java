@@ -0,0 +1,161 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Optional;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobRef;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.config.Configuration;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.Query;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.HelmFormat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA1;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.nexus.repository.config.ConfigurationConstants.BLOB_STORE_NAME;
+import static org.sonatype.nexus.repository.config.ConfigurationConstants.STORAGE;
+import static org.sonatype.nexus.repository.storage.MetadataNodeEntityAdapter.P_ATTRIBUTES;
+
+public class HelmFacetImplTest
+    extends TestSupport
+{
+  private static final String CHART_PATH = "mongodb-0.4.9.tgz";
+
+  private static final byte[] CONTENT = "chart".getBytes(UTF_8);
+
+  private static final HashCode SHA256_HASH = Hashing.sha256().hashBytes(CONTENT);
+
+  @Mock
+  private RepositoryManager repositoryManager;
+
+  @Mock
+  private FileBlobPayloads fileBlobPayloads;
+
+  @Mock
+  private StorageTx tx;
+
+  @Mock
+  private TempBlob tempBlob;
+
+  private Repository repository;
+
+  private HelmFacetImpl underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    repository = repository("helm-release", "default");
+    when(tempBlob.getHashes()).thenReturn(ImmutableMap.of(SHA256, SHA256_HASH));
+    underTest = new HelmFacetImpl(repositoryManager, fileBlobPayloads);
+    underTest.attach(repository);
+  }
+
+  @Test
+  public void reusesOnlyChartYamlAttributesOfIdenticalChartInAnotherRepository() {
+    Repository staging = repository("helm-staging", "default");
+    Repository elsewhere = repository("helm-elsewhere", "s3");
+    when(repositoryManager.browse()).thenReturn(Arrays.asList(repository, staging, elsewhere));
+
+    NestedAttributesMap stagedAttributes = new NestedAttributesMap(HelmFormat.NAME, new HashMap<>());
+    stagedAttributes.set("name", "mongodb");
+    stagedAttributes.set("version", "0.4.9");
+    stagedAttributes.set("provenanceVerification", "verified");
+    stagedAttributes.set("validation", Collections.singletonMap("status", "passed"));
+    Asset staged = mock(Asset.class);
+    when(staged.formatAttributes()).thenReturn(stagedAttributes);
+    when(tx.findAssets(any(Query.class), any(Iterable.class))).thenReturn(Collections.singletonList(staged));
+
+    Optional<HelmAttributes> attributes = underTest.findChartAttributes(tx, CHART_PATH, tempBlob);
+
+    assertThat(attributes.isPresent(), is(true));
+    assertThat(attributes.get().getName(), is("mongodb"));
+    assertThat(attributes.get().getVersion(), is("0.4.9"));
+    NestedAttributesMap reused = new NestedAttributesMap(HelmFormat.NAME, new HashMap<>());
+    attributes.get().populate(reused);
+    assertThat(reused.backing(), not(hasKey("provenanceVerification")));
+    assertThat(reused.backing(), not(hasKey("validation")));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Iterable<Repository>> searched = ArgumentCaptor.forClass((Class) Iterable.class);
+    verify(tx).findAssets(any(Query.class), searched.capture());
+    assertThat(searched.getValue(), contains(repository, staging));
+  }
+
+  @Test
+  public void unchangedChartKeepsStoredBlob() throws Exception {
+    BlobRef blobRef = new BlobRef("node", "default", "stored");
+    Asset asset = new Asset();
+    asset.attributes(new NestedAttributesMap(P_ATTRIBUTES, new HashMap<>()));
+    asset.format(HelmFormat.NAME);
+    asset.name(CHART_PATH);
+    asset.contentType("application/x-tgz");
+    asset.blobRef(blobRef);
+    NestedAttributesMap checksums = asset.attributes().child("checksum");
+    checksums.set(SHA1.name(), Hashing.sha1().hashBytes(CONTENT).toString());
+    checksums.set(SHA256.name(), SHA256_HASH.toString());
+    when(tx.requireBlob(blobRef)).thenReturn(mock(Blob.class));
+
+    assertThat(underTest.saveAsset(tx, asset, tempBlob, null, null), is(notNullValue()));
+
+    verify(tx, never()).setBlob(any(Asset.class), anyString(), any(TempBlob.class),
+        anyMapOf(String.class, String.class), anyString(), anyBoolean());
+    verify(tx).saveAsset(asset);
+    assertThat(asset.lastDownloaded(), is(nullValue()));
+  }
+
+  private static Repository repository(final String name, final String blobStoreName) {
+    NestedAttributesMap storage = new NestedAttributesMap(STORAGE, new HashMap<>());
+    storage.set(BLOB_STORE_NAME, blobStoreName);
+    Configuration configuration = mock(Configuration.class);
+    when(configuration.attributes(STORAGE)).thenReturn(storage);
+    Repository repository = mock(Repository.class);
+    when(repository.getName()).thenReturn(name);
+    when(repository.getFormat()).thenReturn(new HelmFormat());
+    when(repository.getConfiguration()).thenReturn(configuration);
+    return repository;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.createindex;
+
+import java.util.Collections;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.common.entity.DetachedEntityId;
+import org.sonatype.nexus.common.entity.EntityId;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.AssetCreatedEvent;
+import org.sonatype.nexus.repository.storage.AssetDeletedEvent;
+import org.sonatype.nexus.repository.storage.AssetEvent;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.HelmFormat;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexChangeLog;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexSidecars;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.storage.AssetEntityAdapter.P_ASSET_KIND;
+
+public class CreateIndexFacetImplTest
+    extends TestSupport
+{
+  private static final String REPOSITORY_NAME = "helm-hosted";
+
+  private static final EntityId DELETED_CHART = new DetachedEntityId("deleted");
+
+  private static final EntityId OTHER_CHART = new DetachedEntityId("other");
+
+  @Mock
+  private CreateIndexService createIndexService;
+
+  @Mock
+  private IndexRebuildLeadership leadership;
+
+  @Mock
+  private IndexRebuildExecutor rebuildExecutor;
+
+  @Mock
+  private IndexChangeLog indexChangeLog;
+
+  @Mock
+  private IndexSidecars indexSidecars;
+
+  @Mock
+  private Repository repository;
+
+  private CreateIndexFacetImpl underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    when(repository.getName()).thenReturn(REPOSITORY_NAME);
+    when(leadership.isLeader(REPOSITORY_NAME)).thenReturn(true);
+    underTest = new CreateIndexFacetImpl(createIndexService, leadership, rebuildExecutor, indexChangeLog,
+        indexSidecars, 1000, 3);
+    underTest.attach(repository);
+  }
+
+  @Test
+  public void deletionsOfIgnoredComponentsDoNotInvalidate() {
+    underTest.ignoreDeletions(Collections.singletonList(DELETED_CHART));
+
+    underTest.on(event(AssetDeletedEvent.class, DELETED_CHART));
+    verify(rebuildExecutor, never()).schedule(eq(REPOSITORY_NAME), anyInt(), anyLong(), any(Runnable.class));
+
+    underTest.on(event(AssetDeletedEvent.class, OTHER_CHART));
+    verify(rebuildExecutor, times(1)).schedule(eq(REPOSITORY_NAME), anyInt(), anyLong(), any(Runnable.class));
+  }
+
+  @Test
+  public void otherEventsOfIgnoredComponentsInvalidate() {
+    underTest.ignoreDeletions(Collections.singletonList(DELETED_CHART));
+
+    underTest.on(event(AssetCreatedEvent.class, DELETED_CHART));
+
+    verify(rebuildExecutor).schedule(eq(REPOSITORY_NAME), anyInt(), anyLong(), any(Runnable.class));
+  }
+
+  @Test
+  public void invalidationsWhileSuspendedAreCoalesced() {
+    underTest.suspendInvalidation();
+    underTest.invalidateIndex();
+    underTest.invalidateIndex();
+    verify(rebuildExecutor, never()).schedule(eq(REPOSITORY_NAME), anyInt(), anyLong(), any(Runnable.class));
+
+    underTest.resumeInvalidation();
+    verify(rebuildExecutor, times(1)).schedule(eq(REPOSITORY_NAME), anyInt(), anyLong(), any(Runnable.class));
+  }
+
+  private static <E extends AssetEvent> E event(final Class<E> type, final EntityId componentId) {
+    NestedAttributesMap formatAttributes = mock(NestedAttributesMap.class);
+    when(formatAttributes.get(P_ASSET_KIND)).thenReturn(AssetKind.HELM_PACKAGE.name());
+    Asset asset = mock(Asset.class);
+    when(asset.format()).thenReturn(HelmFormat.NAME);
+    when(asset.formatAttributes()).thenReturn(formatAttributes);
+    E event = mock(type);
+    when(event.getAsset()).thenReturn(asset);
+    when(event.getRepositoryName()).thenReturn(REPOSITORY_NAME);
+    when(event.getComponentId()).thenReturn(componentId);
+    return event;
+  }
+}
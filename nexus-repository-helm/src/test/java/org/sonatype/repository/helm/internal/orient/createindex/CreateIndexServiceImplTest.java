@@ -31,10 +31,12 @@ import org.sonatype.nexus.transaction.TransactionModule;
 import org.sonatype.nexus.transaction.UnitOfWork;
 import org.sonatype.repository.helm.internal.orient.HelmFacet;
 import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
 import org.sonatype.repository.helm.internal.orient.metadata.IndexYamlBuilder;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
+import com.google.inject.name.Names;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,11 +46,16 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 public class CreateIndexServiceImplTest
     extends TestSupport
 {
+  private static final int PAGE_SIZE = 2;
+
   private CreateIndexServiceImpl underTest;
 
   @Mock
@@ -72,6 +79,9 @@ public class CreateIndexServiceImplTest
   @Mock
   private Asset asset;
 
+  @Mock
+  private Asset otherAsset;
+
   @Mock
   private NestedAttributesMap formatAttributes;
 
@@ -112,7 +122,7 @@ public class CreateIndexServiceImplTest
     shaMap.put("sha256", "12345");
 
     when(assetAttributes.get("checksum", Map.class)).thenReturn(shaMap);
-    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE)).thenReturn(list);
+    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, null, PAGE_SIZE)).thenReturn(list);
     when(indexYamlBuilder.build(anyObject(), anyObject())).thenReturn(tempBlob);
 
     TempBlob result = underTest.buildIndexYaml(repository);
@@ -125,7 +135,7 @@ public class CreateIndexServiceImplTest
     when(assets.iterator()).thenReturn(assetIterator);
     when(assetIterator.next()).thenReturn(asset);
     when(asset.componentId()).thenReturn(null);
-    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE)).thenReturn(assets);
+    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, null, PAGE_SIZE)).thenReturn(assets);
     when(indexYamlBuilder.build(anyObject(), anyObject())).thenReturn(tempBlob);
 
     TempBlob result = underTest.buildIndexYaml(repository);
@@ -133,11 +143,62 @@ public class CreateIndexServiceImplTest
     assertThat(result, is(notNullValue()));
   }
 
+  @Test
+  public void testIndexYamlBuiltFromMultiplePages() throws Exception {
+    mockChartAsset(asset, "a-1.0.0.tgz");
+    mockChartAsset(otherAsset, "b-1.0.0.tgz");
+    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, null, PAGE_SIZE))
+        .thenReturn(Arrays.asList(asset, otherAsset));
+    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, "b-1.0.0.tgz", PAGE_SIZE))
+        .thenReturn(Arrays.asList(asset));
+    when(indexYamlBuilder.build(anyObject(), anyObject())).thenReturn(tempBlob);
+
+    TempBlob result = underTest.buildIndexYaml(repository);
+
+    assertThat(result, is(notNullValue()));
+    verify(helmFacet, times(1)).browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, "b-1.0.0.tgz", PAGE_SIZE);
+    verify(helmFacet, never()).browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, "a-1.0.0.tgz", PAGE_SIZE);
+  }
+
+  @Test
+  public void testUnquotedScalarsAreIndexedAsStrings() throws Exception {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("name", "mychart");
+    attributes.put("version", "1.0.0");
+    attributes.put("apiVersion", 2);
+    attributes.put("home", true);
+    attributes.put("engine", "gotpl");
+    attributes.put("kubeVersion", 1.18);
+    attributes.put("type", 1);
+    mockChartAsset(asset, "mychart-1.0.0.tgz");
+    when(asset.formatAttributes()).thenReturn(new NestedAttributesMap("helm", attributes));
+    when(helmFacet.browseComponentAssets(storageTx, AssetKind.HELM_PACKAGE, null, PAGE_SIZE))
+        .thenReturn(Arrays.asList(asset));
+
+    ChartEntry entry = underTest.buildChartIndex(repository).getEntries().get("mychart").get(0);
+
+    assertThat(entry.getApiVersion(), is("2"));
+    assertThat(entry.getHome(), is("true"));
+    assertThat(entry.getEngine(), is("gotpl"));
+    assertThat(entry.getKubeVersion(), is("1.18"));
+    assertThat(entry.getType(), is("1"));
+  }
+
+  private void mockChartAsset(final Asset chartAsset, final String name) {
+    Map<String, String> shaMap = new HashMap<>();
+    shaMap.put("sha256", "12345");
+    when(chartAsset.name()).thenReturn(name);
+    when(chartAsset.formatAttributes()).thenReturn(formatAttributes);
+    when(chartAsset.attributes()).thenReturn(assetAttributes);
+    when(assetAttributes.get("checksum", Map.class)).thenReturn(shaMap);
+  }
+
   private void initializeSystemUnderTest() {
     underTest = Guice.createInjector(new TransactionModule(), new AbstractModule() {
       @Override
       protected void configure() {
         bind(IndexYamlBuilder.class).toInstance(indexYamlBuilder);
+        bindConstant().annotatedWith(Names.named("${nexus.helm.createindex.pageSize:-1000}")).to(PAGE_SIZE);
       }
     }).getInstance(CreateIndexServiceImpl.class);
   }
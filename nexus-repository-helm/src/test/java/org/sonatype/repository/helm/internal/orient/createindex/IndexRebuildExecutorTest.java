@@ -0,0 +1,151 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.createindex;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class IndexRebuildExecutorTest
+    extends TestSupport
+{
+  private MetricRegistry metricRegistry;
+
+  private IndexRebuildExecutor underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    metricRegistry = new MetricRegistry();
+    underTest = start(1);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    underTest.stop();
+  }
+
+  @Test
+  public void invalidationsJoinWaitingRebuild() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    AtomicInteger rebuilds = new AtomicInteger();
+    underTest.schedule("blocker", 0, 0, () -> {
+      started.countDown();
+      await(release);
+    });
+    assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+    assertThat(underTest.schedule("helm-hosted", 0, 0, () -> {
+      rebuilds.incrementAndGet();
+      done.countDown();
+    }), is(true));
+    assertThat(underTest.schedule("helm-hosted", 0, 0, rebuilds::incrementAndGet), is(false));
+    assertThat(underTest.getWaiting(), is(1));
+    assertThat(gauge("waiting"), is(1));
+    assertThat(gauge("running"), is(1));
+
+    release.countDown();
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    Thread.sleep(100);
+    assertThat(rebuilds.get(), is(1));
+  }
+
+  @Test
+  public void smallRepositoriesGoFirst() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(3);
+    List<String> order = new CopyOnWriteArrayList<>();
+    underTest.schedule("blocker", 0, 0, () -> await(release));
+
+    underTest.schedule("large-1", 1000, 0, () -> { order.add("large-1"); done.countDown(); });
+    underTest.schedule("small", 1, 0, () -> { order.add("small"); done.countDown(); });
+    underTest.schedule("large-2", 1000, 0, () -> { order.add("large-2"); done.countDown(); });
+
+    release.countDown();
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(order, is(asList("small", "large-1", "large-2")));
+  }
+
+  @Test
+  public void invalidationDuringRebuildRunsAfterIt() throws Exception {
+    underTest.stop();
+    underTest = start(2);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    AtomicInteger concurrent = new AtomicInteger();
+    AtomicInteger maxConcurrent = new AtomicInteger();
+
+    underTest.schedule("helm-hosted", 0, 0, () -> {
+      maxConcurrent.set(Math.max(maxConcurrent.get(), concurrent.incrementAndGet()));
+      started.countDown();
+      await(release);
+      concurrent.decrementAndGet();
+    });
+    assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(underTest.getRunning(), is(1));
+
+    assertThat(underTest.schedule("helm-hosted", 0, 0, () -> {
+      maxConcurrent.set(Math.max(maxConcurrent.get(), concurrent.incrementAndGet()));
+      concurrent.decrementAndGet();
+      done.countDown();
+    }), is(true));
+    Thread.sleep(100);
+    release.countDown();
+
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(maxConcurrent.get(), is(1));
+  }
+
+  @Test
+  public void stopShutsDownAndRemovesGauges() throws Exception {
+    underTest.stop();
+
+    assertThat(metricRegistry.getGauges().isEmpty(), is(true));
+    underTest = start(1);
+    assertThat(metricRegistry.getGauges().size(), is(2));
+  }
+
+  private IndexRebuildExecutor start(final int threads) throws Exception {
+    IndexRebuildExecutor executor = new IndexRebuildExecutor(metricRegistry, threads, 10);
+    executor.start();
+    return executor;
+  }
+
+  private int gauge(final String name) {
+    return (Integer) metricRegistry.getGauges().get(MetricRegistry.name(IndexRebuildExecutor.class, name)).getValue();
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
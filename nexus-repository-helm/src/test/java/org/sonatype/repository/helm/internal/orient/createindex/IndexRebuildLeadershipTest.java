@@ -0,0 +1,107 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.createindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.node.NodeAccess;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+
+public class IndexRebuildLeadershipTest
+    extends TestSupport
+{
+  private static final List<String> MEMBERS = Arrays.asList("node-a", "node-b", "node-c");
+
+  @Mock
+  private NodeAccess nodeAccess;
+
+  private IndexRebuildLeadership underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = new IndexRebuildLeadership(nodeAccess);
+  }
+
+  @Test
+  public void leadsEveryRepositoryOutsideCluster() {
+    when(nodeAccess.isClustered()).thenReturn(false);
+
+    assertThat(underTest.isLeader("helm-hosted"), is(true));
+  }
+
+  @Test
+  public void exactlyOneMemberLeads() {
+    when(nodeAccess.isClustered()).thenReturn(true);
+    when(nodeAccess.getMemberIds()).thenReturn(new HashSet<>(MEMBERS));
+
+    for (int i = 0; i < 20; i++) {
+      String repositoryName = "helm-hosted-" + i;
+      int leaders = 0;
+      for (String member : MEMBERS) {
+        when(nodeAccess.getId()).thenReturn(member);
+        if (underTest.isLeader(repositoryName)) {
+          leaders++;
+        }
+      }
+      assertThat(leaders, is(1));
+    }
+  }
+
+  @Test
+  public void leaderDoesNotDependOnMemberOrder() {
+    List<String> reversed = new ArrayList<>(MEMBERS);
+    Collections.reverse(reversed);
+
+    assertThat(IndexRebuildLeadership.leader(reversed, "helm-hosted"),
+        is(IndexRebuildLeadership.leader(MEMBERS, "helm-hosted")));
+  }
+
+  @Test
+  public void onlyRepositoriesOfLeavingMemberMove() {
+    for (int i = 0; i < 100; i++) {
+      String repositoryName = "helm-hosted-" + i;
+      String leader = IndexRebuildLeadership.leader(MEMBERS, repositoryName);
+      List<String> remaining = new ArrayList<>(MEMBERS);
+      remaining.remove("node-b");
+      if (!"node-b".equals(leader)) {
+        assertThat(IndexRebuildLeadership.leader(remaining, repositoryName), is(leader));
+      }
+    }
+  }
+
+  @Test
+  public void leadershipIsSpreadOverMembers() {
+    Map<String, Integer> led = new HashMap<>();
+    for (int i = 0; i < 300; i++) {
+      led.merge(IndexRebuildLeadership.leader(MEMBERS, "helm-hosted-" + i), 1, Integer::sum);
+    }
+    for (String member : MEMBERS) {
+      assertThat(led.getOrDefault(member, 0), greaterThan(50));
+    }
+  }
+}
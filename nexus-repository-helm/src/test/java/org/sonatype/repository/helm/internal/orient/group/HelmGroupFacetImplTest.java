@@ -0,0 +1,213 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.group;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpResponses;
+import org.sonatype.nexus.repository.manager.RepositoryManager;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.nexus.repository.types.GroupType;
+import org.sonatype.nexus.repository.view.Content;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Request;
+import org.sonatype.nexus.repository.view.ViewFacet;
+import org.sonatype.nexus.repository.view.payloads.StringPayload;
+import org.sonatype.nexus.validation.ConstraintViolationFactory;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexSidecars;
+import org.sonatype.repository.helm.internal.orient.metadata.IndexYamlBuilder;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.repository.http.HttpMethods.GET;
+
+public class HelmGroupFacetImplTest
+    extends TestSupport
+{
+  private static final long MEMBER_TIMEOUT = 200;
+
+  private static final String SLOW_METRICS = MetricRegistry.name(HelmGroupFacet.class, "helm-group", "slow");
+
+  @Mock
+  private RepositoryManager repositoryManager;
+
+  @Mock
+  private ConstraintViolationFactory constraintViolationFactory;
+
+  @Mock
+  private IndexYamlBuilder indexYamlBuilder;
+
+  @Mock
+  private IndexSidecars indexSidecars;
+
+  @Mock
+  private Repository group;
+
+  @Mock
+  private StorageFacet storageFacet;
+
+  @Mock
+  private StorageTx storageTx;
+
+  @Mock
+  private Context context;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private volatile boolean slowBlocks;
+
+  private MetricRegistry metricRegistry;
+
+  private MemberIndexExecutor memberIndexExecutor;
+
+  private Repository fast;
+
+  private Repository slow;
+
+  private List<Repository> members;
+
+  private ChartIndex merged;
+
+  private HelmGroupFacetImpl underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    ThreadContext.bind(new Subject.Builder(new DefaultSecurityManager()).buildSubject());
+    metricRegistry = new MetricRegistry();
+    memberIndexExecutor = new MemberIndexExecutor(metricRegistry, 4, 10);
+    memberIndexExecutor.start();
+
+    when(group.getName()).thenReturn("helm-group");
+    when(group.facet(StorageFacet.class)).thenReturn(storageFacet);
+    when(group.optionalFacet(ChartIndexFacet.class)).thenReturn(Optional.empty());
+    when(storageFacet.txSupplier()).thenReturn(() -> storageTx);
+    when(context.getRequest()).thenReturn(new Request.Builder().action(GET).path("/index.yaml").build());
+
+    fast = member("fast", () -> false);
+    slow = member("slow", () -> slowBlocks);
+    members = Arrays.asList(fast, slow);
+
+    underTest = new HelmGroupFacetImpl(repositoryManager, constraintViolationFactory, new GroupType(),
+        new YamlParser(), indexYamlBuilder, indexSidecars, metricRegistry, memberIndexExecutor, 60000, MEMBER_TIMEOUT)
+    {
+      @Override
+      public List<Repository> members() {
+        return members;
+      }
+
+      @Nullable
+      @Override
+      protected Content getCachedIndex(final String key) {
+        return null;
+      }
+
+      @Override
+      protected Content saveIndex(final TempBlob indexYaml, final ChartIndex index, @Nullable final String key) {
+        merged = index;
+        return new Content(new StringPayload("merged", "text/x-yaml"));
+      }
+    };
+    underTest.attach(group);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    release.countDown();
+    memberIndexExecutor.stop();
+    ThreadContext.unbindSubject();
+  }
+
+  @Test
+  public void memberMissingDeadlineIsLeftOut() throws Exception {
+    slowBlocks = true;
+
+    long started = System.nanoTime();
+    underTest.getIndex(context);
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), is(lessThan(MEMBER_TIMEOUT * 10)));
+    assertThat(merged.getEntries().keySet(), containsInAnyOrder("fast"));
+    assertThat(metricRegistry.meter(MetricRegistry.name(SLOW_METRICS, "timeouts")).getCount(), is(1L));
+  }
+
+  @Test
+  public void memberMissingDeadlineIsRepresentedByLastIndex() throws Exception {
+    underTest.getIndex(context);
+    assertThat(merged.getEntries().keySet(), containsInAnyOrder("fast", "slow"));
+
+    slowBlocks = true;
+    underTest.getIndex(context);
+
+    assertThat(merged.getEntries().keySet(), containsInAnyOrder("fast", "slow"));
+    assertThat(metricRegistry.meter(MetricRegistry.name(SLOW_METRICS, "timeouts")).getCount(), is(1L));
+  }
+
+  @Test
+  public void metricsOfRemovedMemberAreRemoved() throws Exception {
+    underTest.getIndex(context);
+    assertThat(metricRegistry.getNames(), hasItem(MetricRegistry.name(SLOW_METRICS, "index")));
+
+    members = new ArrayList<>(Arrays.asList(fast));
+    underTest.getIndex(context);
+
+    assertThat(metricRegistry.getNames(), not(hasItem(MetricRegistry.name(SLOW_METRICS, "index"))));
+    assertThat(merged.getEntries().keySet(), containsInAnyOrder("fast"));
+  }
+
+  private Repository member(final String name, final BooleanSupplier blocks) throws Exception {
+    Repository member = mock(Repository.class);
+    ViewFacet viewFacet = mock(ViewFacet.class);
+    when(member.getName()).thenReturn(name);
+    when(member.facet(ViewFacet.class)).thenReturn(viewFacet);
+    when(viewFacet.dispatch(any(Request.class), any(Context.class))).thenAnswer(invocation -> {
+      if (blocks.getAsBoolean()) {
+        release.await(5, TimeUnit.SECONDS);
+      }
+      Content content = new Content(new StringPayload(
+          "apiVersion: v1\nentries:\n  " + name + ":\n  - name: " + name + "\n    version: 1.0.0\n", "text/x-yaml"));
+      content.getAttributes().set(Content.CONTENT_ETAG, name + "-v1");
+      return HttpResponses.ok(content);
+    });
+    return member;
+  }
+}
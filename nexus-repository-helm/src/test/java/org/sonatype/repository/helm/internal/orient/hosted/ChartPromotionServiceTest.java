@@ -0,0 +1,311 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.hosted;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.blobstore.api.Blob;
+import org.sonatype.nexus.blobstore.api.BlobId;
+import org.sonatype.nexus.blobstore.api.BlobRef;
+import org.sonatype.nexus.blobstore.api.BlobStore;
+import org.sonatype.nexus.blobstore.api.BlobStoreConfiguration;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.security.SecurityFacet;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.storage.TempBlob;
+import org.sonatype.nexus.repository.view.Request;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.api.HelmChartPromotionRequest.Chart;
+import org.sonatype.repository.helm.api.HelmChartPromotionResult;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.orient.createindex.CreateIndexFacet;
+import org.sonatype.repository.helm.internal.validation.ChartProblem;
+import org.sonatype.repository.helm.internal.validation.ChartValidationResult;
+import org.sonatype.repository.helm.internal.validation.ChartValidationService;
+
+import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.apache.shiro.authz.AuthorizationException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA1;
+import static org.sonatype.nexus.common.hash.HashAlgorithm.SHA256;
+import static org.sonatype.repository.helm.internal.AssetKind.HELM_PACKAGE;
+
+public class ChartPromotionServiceTest
+    extends TestSupport
+{
+  private static final String CHART_PATH = "mongodb-0.4.9.tgz";
+
+  private static final Chart CHART = new Chart("mongodb", "0.4.9");
+
+  private static final byte[] CONTENT = "chart".getBytes(UTF_8);
+
+  private static final BlobId SOURCE_BLOB_ID = new BlobId("source");
+
+  @Mock
+  private ChartValidationService chartValidationService;
+
+  @Mock
+  private Repository source;
+
+  @Mock
+  private Repository target;
+
+  @Mock
+  private StorageFacet sourceStorage;
+
+  @Mock
+  private StorageFacet targetStorage;
+
+  @Mock
+  private StorageTx sourceTx;
+
+  @Mock
+  private StorageTx targetTx;
+
+  @Mock
+  private SecurityFacet sourceSecurity;
+
+  @Mock
+  private SecurityFacet targetSecurity;
+
+  @Mock
+  private HelmFacet sourceHelmFacet;
+
+  @Mock
+  private HelmHostedFacet hostedFacet;
+
+  @Mock
+  private CreateIndexFacet createIndexFacet;
+
+  @Mock
+  private BlobStore blobStore;
+
+  @Mock
+  private BlobStoreConfiguration blobStoreConfiguration;
+
+  @Mock
+  private Asset sourceAsset;
+
+  @Mock
+  private Blob sourceBlob;
+
+  @Mock
+  private Blob copiedBlob;
+
+  private NestedAttributesMap sourceAttributes;
+
+  private ChartPromotionService underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    when(source.getName()).thenReturn("helm-staging");
+    when(source.facet(StorageFacet.class)).thenReturn(sourceStorage);
+    when(source.facet(SecurityFacet.class)).thenReturn(sourceSecurity);
+    when(source.facet(HelmFacet.class)).thenReturn(sourceHelmFacet);
+    when(sourceStorage.txSupplier()).thenReturn(() -> sourceTx);
+
+    when(target.getName()).thenReturn("helm-release");
+    when(target.facet(StorageFacet.class)).thenReturn(targetStorage);
+    when(target.facet(SecurityFacet.class)).thenReturn(targetSecurity);
+    when(target.facet(HelmHostedFacet.class)).thenReturn(hostedFacet);
+    when(target.optionalFacet(CreateIndexFacet.class)).thenReturn(Optional.of(createIndexFacet));
+    when(targetStorage.txSupplier()).thenReturn(() -> targetTx);
+    when(targetStorage.blobStore()).thenReturn(blobStore);
+    when(blobStore.getBlobStoreConfiguration()).thenReturn(blobStoreConfiguration);
+    when(blobStoreConfiguration.getName()).thenReturn("default");
+
+    sourceAttributes = new NestedAttributesMap("helm", new HashMap<>());
+    sourceAttributes.set("name", "mongodb");
+    sourceAttributes.set("version", "0.4.9");
+    sourceAttributes.set("provenanceVerification", "verified");
+    sourceAttributes.set("validation", Collections.singletonMap("status", "passed"));
+    when(sourceAsset.formatAttributes()).thenReturn(sourceAttributes);
+    when(sourceAsset.contentType()).thenReturn("application/x-tar");
+    when(sourceAsset.getChecksum(SHA1)).thenReturn(Hashing.sha1().hashBytes(CONTENT));
+    when(sourceAsset.getChecksum(SHA256)).thenReturn(Hashing.sha256().hashBytes(CONTENT));
+    storeSourceIn("default");
+    when(sourceTx.requireBlob(any(BlobRef.class))).thenReturn(sourceBlob);
+    when(sourceBlob.getId()).thenReturn(SOURCE_BLOB_ID);
+    when(sourceBlob.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(CONTENT));
+    when(copiedBlob.getId()).thenReturn(new BlobId("copy"));
+    when(blobStore.copy(eq(SOURCE_BLOB_ID), anyMapOf(String.class, String.class))).thenReturn(copiedBlob);
+
+    when(sourceHelmFacet.findAsset(sourceTx, CHART_PATH)).thenReturn(Optional.of(sourceAsset));
+    when(sourceHelmFacet.findAsset(sourceTx, CHART_PATH + ".prov")).thenReturn(Optional.empty());
+
+    underTest = new ChartPromotionService(chartValidationService);
+  }
+
+  @Test
+  public void copiesWithinSharedBlobStore() throws Exception {
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getPromoted(), contains(CHART.toString()));
+    verify(blobStore).copy(eq(SOURCE_BLOB_ID), anyMapOf(String.class, String.class));
+    verify(blobStore, never()).deleteHard(SOURCE_BLOB_ID);
+    assertThat(copiedContent(), is(instanceOf(TempBlob.class)));
+    verify(createIndexFacet).invalidateIndex();
+  }
+
+  @Test
+  public void streamsAcrossBlobStores() throws Exception {
+    storeSourceIn("other");
+
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getPromoted(), contains(CHART.toString()));
+    verify(blobStore, never()).copy(any(BlobId.class), anyMapOf(String.class, String.class));
+    assertThat(copiedContent(), is(not(instanceOf(TempBlob.class))));
+  }
+
+  @Test
+  public void copiesOnlyChartYamlAttributes() throws Exception {
+    promote();
+
+    ArgumentCaptor<HelmAttributes> attributes = ArgumentCaptor.forClass(HelmAttributes.class);
+    verify(hostedFacet).copy(eq(CHART_PATH), eq(HELM_PACKAGE), attributes.capture(), any(Supplier.class),
+        eq("application/x-tar"), any(ChartValidationResult.class));
+    NestedAttributesMap copied = new NestedAttributesMap("helm", new HashMap<>());
+    attributes.getValue().populate(copied);
+    assertThat(copied.get("name"), is("mongodb"));
+    assertThat(copied.backing(), not(hasKey("provenanceVerification")));
+    assertThat(copied.backing(), not(hasKey("validation")));
+  }
+
+  @Test
+  public void validatesChartForTarget() throws Exception {
+    ChartValidationResult validation = new ChartValidationResult(Collections.emptyList());
+    when(chartValidationService.isEnabled()).thenReturn(true);
+    when(chartValidationService.validate(eq(CHART_PATH), eq(Hashing.sha256().hashBytes(CONTENT)), any(Supplier.class)))
+        .thenReturn(validation);
+
+    promote();
+
+    verify(hostedFacet).copy(eq(CHART_PATH), eq(HELM_PACKAGE), any(HelmAttributes.class), any(Supplier.class),
+        anyString(), same(validation));
+  }
+
+  @Test
+  public void invalidChartIsNotCopied() throws Exception {
+    when(chartValidationService.isEnabled()).thenReturn(true);
+    when(chartValidationService.validate(anyString(), any(HashCode.class), any(Supplier.class)))
+        .thenReturn(new ChartValidationResult(Collections.singletonList(ChartProblem.error("chart-yaml", "is bad"))));
+
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getFailed(), contains(CHART.toString()));
+    assertThat(result.getPromoted(), is(empty()));
+    verifyNotCopied();
+  }
+
+  @Test
+  public void missingChartIsReported() throws Exception {
+    when(sourceHelmFacet.findAsset(sourceTx, CHART_PATH)).thenReturn(Optional.empty());
+
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getMissing(), contains(CHART.toString()));
+    verifyNotCopied();
+    verify(createIndexFacet, never()).invalidateIndex();
+  }
+
+  @Test
+  public void failedCopyIsReported() throws Exception {
+    when(hostedFacet.copy(anyString(), any(AssetKind.class), any(HelmAttributes.class), any(Supplier.class),
+        anyString(), any(ChartValidationResult.class))).thenThrow(new IOException("disk full"));
+
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getFailed(), contains(CHART.toString()));
+    assertThat(result.getPromoted(), is(empty()));
+  }
+
+  @Test
+  public void chartIsNotReadWithoutSourcePermission() throws Exception {
+    doThrow(new AuthorizationException("denied")).when(sourceSecurity).ensurePermitted(any(Request.class));
+
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getFailed(), contains(CHART.toString()));
+    verify(sourceHelmFacet, never()).findAsset(any(StorageTx.class), anyString());
+    verifyNotCopied();
+  }
+
+  @Test
+  public void chartIsNotCopiedWithoutTargetPermission() throws Exception {
+    doThrow(new AuthorizationException("denied")).when(targetSecurity).ensurePermitted(any(Request.class));
+
+    HelmChartPromotionResult result = promote();
+
+    assertThat(result.getFailed(), contains(CHART.toString()));
+    verifyNotCopied();
+    verify(blobStore, never()).copy(any(BlobId.class), anyMapOf(String.class, String.class));
+  }
+
+  private HelmChartPromotionResult promote() {
+    return underTest.promote(source, target, Collections.singletonList(CHART));
+  }
+
+  private void storeSourceIn(final String blobStoreName) {
+    BlobRef blobRef = new BlobRef("node", blobStoreName, SOURCE_BLOB_ID.asUniqueString());
+    when(sourceAsset.blobRef()).thenReturn(blobRef);
+    when(sourceAsset.requireBlobRef()).thenReturn(blobRef);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Supplier<InputStream> copiedContent() throws IOException {
+    ArgumentCaptor<Supplier> content = ArgumentCaptor.forClass(Supplier.class);
+    verify(hostedFacet).copy(eq(CHART_PATH), eq(HELM_PACKAGE), any(HelmAttributes.class), content.capture(),
+        anyString(), any(ChartValidationResult.class));
+    return content.getValue();
+  }
+
+  private void verifyNotCopied() throws IOException {
+    verify(hostedFacet, never()).copy(anyString(), any(AssetKind.class), any(HelmAttributes.class),
+        any(Supplier.class), anyString(), any(ChartValidationResult.class));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.metadata;
+
+import java.util.Collections;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ChartIndexFacetImplTest
+    extends TestSupport
+{
+  @Mock
+  private IndexChangeLog indexChangeLog;
+
+  @Mock
+  private IndexSidecars indexSidecars;
+
+  private Runnable duringLoad;
+
+  private int loads;
+
+  private ChartIndexFacetImpl underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = new ChartIndexFacetImpl(new YamlParser(), indexChangeLog, indexSidecars)
+    {
+      @Override
+      protected ChartIndex loadIndex() {
+        loads++;
+        if (duringLoad != null) {
+          duringLoad.run();
+          duringLoad = null;
+        }
+        return index("stored");
+      }
+
+      @Override
+      protected ChartIndex loadSummary() {
+        return null;
+      }
+    };
+  }
+
+  @Test
+  public void loadedViewIsKept() {
+    assertThat(underTest.getFileFilter().mightContain("stored-1.0.0.tgz"), is(true));
+    assertThat(underTest.getFileFilter().mightContain("stored-1.0.0.tgz"), is(true));
+    assertThat(loads, is(1));
+  }
+
+  @Test
+  public void indexPublishedDuringLoadIsKept() {
+    duringLoad = () -> underTest.publish(index("published"));
+
+    underTest.getFileFilter();
+
+    assertThat(underTest.getFileFilter().mightContain("published-1.0.0.tgz"), is(true));
+    assertThat(loads, is(1));
+  }
+
+  @Test
+  public void invalidationDuringLoadIsKept() {
+    duringLoad = underTest::invalidate;
+
+    underTest.getFileFilter();
+    underTest.getFileFilter();
+
+    assertThat(loads, is(2));
+  }
+
+  private static ChartIndex index(final String chartName) {
+    ChartEntry entry = new ChartEntry();
+    entry.setName(chartName);
+    entry.setVersion("1.0.0");
+    entry.setUrls(Collections.singletonList(chartName + "-1.0.0.tgz"));
+    ChartIndex index = new ChartIndex();
+    index.addEntry(entry);
+    return index;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.orient.proxy;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.collect.AttributesMap;
+import org.sonatype.nexus.repository.Repository;
+import org.sonatype.nexus.repository.http.HttpResponses;
+import org.sonatype.nexus.repository.storage.Asset;
+import org.sonatype.nexus.repository.storage.StorageFacet;
+import org.sonatype.nexus.repository.storage.StorageTx;
+import org.sonatype.nexus.repository.view.Context;
+import org.sonatype.nexus.repository.view.Response;
+import org.sonatype.nexus.repository.view.matchers.token.TokenMatcher;
+import org.sonatype.repository.helm.internal.AssetKind;
+import org.sonatype.repository.helm.internal.metadata.ChartEntry;
+import org.sonatype.repository.helm.internal.metadata.ChartFileFilter;
+import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.orient.HelmFacet;
+import org.sonatype.repository.helm.internal.orient.metadata.ChartIndexFacet;
+import org.sonatype.repository.helm.internal.util.HelmPathUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProxyChartFilterHandlerTest
+    extends TestSupport
+{
+  private static final String LISTED = "listed-1.0.0.tgz";
+
+  private static final String UNLISTED = "unlisted-1.0.0.tgz";
+
+  @Mock
+  private HelmPathUtils helmPathUtils;
+
+  @Mock
+  private TokenMatcher.State matcherState;
+
+  @Mock
+  private Context context;
+
+  @Mock
+  private Repository repository;
+
+  @Mock
+  private ChartIndexFacet chartIndexFacet;
+
+  @Mock
+  private StorageFacet storageFacet;
+
+  @Mock
+  private StorageTx tx;
+
+  @Mock
+  private HelmFacet helmFacet;
+
+  private final Response proceeded = HttpResponses.ok();
+
+  @Before
+  public void setUp() throws Exception {
+    AttributesMap attributes = new AttributesMap();
+    attributes.set(AssetKind.class, AssetKind.HELM_PACKAGE);
+    when(context.getAttributes()).thenReturn(attributes);
+    when(context.getRepository()).thenReturn(repository);
+    when(context.proceed()).thenReturn(proceeded);
+    when(helmPathUtils.matcherState(context)).thenReturn(matcherState);
+
+    ChartEntry entry = new ChartEntry();
+    entry.setName("listed");
+    entry.setVersion("1.0.0");
+    entry.setUrls(Collections.singletonList(LISTED));
+    ChartIndex index = new ChartIndex();
+    index.addEntry(entry);
+    when(chartIndexFacet.getFileFilter()).thenReturn(new ChartFileFilter(index));
+
+    when(repository.getName()).thenReturn("helm-proxy");
+    when(repository.optionalFacet(ChartIndexFacet.class)).thenReturn(Optional.of(chartIndexFacet));
+    when(repository.facet(StorageFacet.class)).thenReturn(storageFacet);
+    when(repository.facet(HelmFacet.class)).thenReturn(helmFacet);
+    when(storageFacet.txSupplier()).thenReturn(() -> tx);
+    when(helmFacet.findAsset(any(StorageTx.class), anyString())).thenReturn(Optional.empty());
+  }
+
+  @Test
+  public void listedChartProceedsWithoutLookup() throws Exception {
+    assertThat(handle(LISTED, true), is(sameInstance(proceeded)));
+    verify(helmFacet, never()).findAsset(any(StorageTx.class), anyString());
+  }
+
+  @Test
+  public void unlistedUncachedChartIsNotFound() throws Exception {
+    Response response = handle(UNLISTED, true);
+
+    assertThat(response.getStatus().getCode(), is(404));
+    verify(context, never()).proceed();
+  }
+
+  @Test
+  public void unlistedCachedChartProceeds() throws Exception {
+    when(helmFacet.findAsset(tx, UNLISTED)).thenReturn(Optional.of(mock(Asset.class)));
+
+    assertThat(handle(UNLISTED, true), is(sameInstance(proceeded)));
+    verify(tx).close();
+  }
+
+  @Test
+  public void disabledFilterProceeds() throws Exception {
+    assertThat(handle(UNLISTED, false), is(sameInstance(proceeded)));
+    verify(helmFacet, never()).findAsset(any(StorageTx.class), anyString());
+  }
+
+  private Response handle(final String fileName, final boolean enabled) throws Exception {
+    when(helmPathUtils.filename(matcherState)).thenReturn(fileName);
+    return new ProxyChartFilterHandler(helmPathUtils, enabled).handle(context);
+  }
+}
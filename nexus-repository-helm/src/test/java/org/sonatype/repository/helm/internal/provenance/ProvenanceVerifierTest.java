@@ -0,0 +1,69 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.provenance;
+
+import java.io.InputStream;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.metadata.ChartProvenance;
+import org.sonatype.repository.helm.internal.util.ProvenanceParser;
+
+import com.google.common.hash.HashCode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ProvenanceVerifierTest
+    extends TestSupport
+{
+  private static final HashCode MYSQL_SHA256 =
+      HashCode.fromString("a2136b01250a14692974c4217876f655196f4b7941d273abd710fa1929d1fad4");
+
+  private ProvenanceVerifier underTest;
+
+  private ChartProvenance provenance;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = new ProvenanceVerifier(new ProvenanceKeyring(""));
+    try (InputStream is = getClass().getResourceAsStream("/org/sonatype/repository/helm/internal/util/mysql-1.4.0.tgz.prov")) {
+      provenance = new ProvenanceParser().read(is);
+    }
+  }
+
+  @Test
+  public void testDisabledWithoutKeyring() {
+    assertThat(underTest.isEnabled(), is(false));
+  }
+
+  @Test
+  public void testDigestMismatch() {
+    HashCode other = HashCode.fromString("00" + MYSQL_SHA256.toString().substring(2));
+    assertThat(underTest.verify(provenance, "mysql-1.4.0.tgz", other), is(ProvenanceStatus.DIGEST_MISMATCH));
+    assertThat(underTest.verify(provenance, "mysql-1.4.1.tgz", MYSQL_SHA256), is(ProvenanceStatus.DIGEST_MISMATCH));
+  }
+
+  @Test
+  public void testUnknownSigningKey() {
+    assertThat(underTest.verify(provenance, "mysql-1.4.0.tgz", MYSQL_SHA256), is(ProvenanceStatus.KEY_UNKNOWN));
+  }
+
+  @Test
+  public void testCanonicalizeStripsTrailingWhitespaceAndUsesCrlf() {
+    assertThat(new String(ProvenanceVerifier.canonicalize("name: mysql  \nversion: 1.4.0\t\n\n..."), UTF_8),
+        is("name: mysql\r\nversion: 1.4.0\r\n\r\n..."));
+  }
+}
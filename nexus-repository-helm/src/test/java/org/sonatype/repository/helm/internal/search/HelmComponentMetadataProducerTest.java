@@ -0,0 +1,83 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.util.SemanticVersion;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.sonatype.repository.helm.internal.search.HelmComponentMetadataProducer.APP_VERSION;
+import static org.sonatype.repository.helm.internal.search.HelmComponentMetadataProducer.CHART_NAME;
+import static org.sonatype.repository.helm.internal.search.HelmComponentMetadataProducer.KEYWORDS;
+import static org.sonatype.repository.helm.internal.search.HelmComponentMetadataProducer.MAINTAINERS;
+import static org.sonatype.repository.helm.internal.search.HelmComponentMetadataProducer.VERSION_SORT;
+
+public class HelmComponentMetadataProducerTest
+    extends TestSupport
+{
+  @Test
+  public void indexesChartMetadata() {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("name", "mongodb");
+    attributes.put("version", "0.4.9");
+    attributes.put("appVersion", "3.6.6");
+    attributes.put("keywords", asList("database", "nosql"));
+    attributes.put("maintainers", singletonList(ImmutableMap.of("name", "Bitnami", "email", "containers@bitnami.com")));
+
+    Map<String, Object> metadata = HelmComponentMetadataProducer.chartMetadata(new HelmAttributes(attributes));
+
+    assertThat(metadata.get(CHART_NAME), is("mongodb"));
+    assertThat(metadata.get(APP_VERSION), is("3.6.6"));
+    assertThat(metadata.get(KEYWORDS), is(asList("database", "nosql")));
+    assertThat(metadata.get(MAINTAINERS), is(asList("Bitnami", "containers@bitnami.com")));
+    assertThat(metadata.get(VERSION_SORT), is(SemanticVersion.parse("0.4.9").sortKey()));
+  }
+
+  @Test
+  public void leavesOutMissingValues() {
+    Map<String, Object> metadata = HelmComponentMetadataProducer.chartMetadata(
+        new HelmAttributes(ImmutableMap.of("name", "mongodb", "version", "latest")));
+
+    assertThat(metadata.keySet(), contains(CHART_NAME));
+    assertThat(metadata, not(hasKey(VERSION_SORT)));
+  }
+
+  @Test
+  public void versionSortKeysFollowSemanticVersionOrder() {
+    List<String> ordered = asList("0.9.0", "1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta",
+        "1.0.0-beta.2", "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.2.0", "1.10.0", "10.0.0");
+    List<String> keys = new ArrayList<>();
+    for (String version : ordered) {
+      keys.add(SemanticVersion.parse(version).sortKey());
+    }
+
+    List<String> sorted = new ArrayList<>(keys);
+    sorted.sort(null);
+    assertThat(sorted, is(keys));
+  }
+}
@@ -12,20 +12,31 @@
  */
 package org.sonatype.repository.helm.internal.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.nexus.common.collect.NestedAttributesMap;
 import org.sonatype.repository.helm.HelmAttributes;
 import org.sonatype.repository.helm.internal.AssetKind;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.junit.Before;
 import org.junit.Test;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class HelmAttributeParserTest
     extends TestSupport
@@ -66,5 +77,44 @@ public class HelmAttributeParserTest
     }};
     assertThat(result.getMaintainers(), is(Collections.singletonList(maintainers)));
     assertThat(result.getSources(), is(Collections.singletonList("https://github.com/bitnami/bitnami-docker-mongodb")));
+    assertThat(result.getHome(), is("https://mongodb.org"));
+    assertThat(result.getEngine(), is("gotpl"));
+    assertThat(result.getKeywords(), is(Arrays.asList("mongodb", "database", "nosql")));
+  }
+
+  @Test
+  public void testGetDependenciesFromRequirementsOfV1Chart() throws Exception {
+    String name = "moodle-0.1.4.tgz";
+    InputStream chart = getClass().getResourceAsStream(name);
+    AssetKind assetKind = AssetKind.getAssetKindByFileName(name);
+    HelmAttributes result = underTest.getAttributes(assetKind, chart);
+
+    assertThat(result.getName(), is("moodle"));
+    assertThat(result.getDependencies().size(), is(1));
+    assertThat(result.getDependencies().get(0).get("name"), is("mariadb"));
+    assertThat(result.getDependencies().get(0).get("version"), is("0.5.x"));
+  }
+
+  @Test
+  public void testRepositoryRecordedPropertiesAreNotReadFromChart() throws Exception {
+    byte[] chartYaml = ("apiVersion: v2\nname: forged\nversion: 1.0.0\n"
+        + "provenanceVerification: verified\nvalidation:\n  status: passed\n").getBytes(UTF_8);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(out))) {
+      TarArchiveEntry entry = new TarArchiveEntry("forged/Chart.yaml");
+      entry.setSize(chartYaml.length);
+      tar.putArchiveEntry(entry);
+      tar.write(chartYaml);
+      tar.closeArchiveEntry();
+    }
+
+    HelmAttributes result =
+        underTest.getAttributes(AssetKind.HELM_PACKAGE, new ByteArrayInputStream(out.toByteArray()));
+    NestedAttributesMap formatAttributes = new NestedAttributesMap("helm", new HashMap<>());
+    result.populate(formatAttributes);
+
+    assertThat(result.getName(), is("forged"));
+    assertThat(formatAttributes.backing(), not(hasKey("provenanceVerification")));
+    assertThat(formatAttributes.backing(), not(hasKey("validation")));
   }
 }
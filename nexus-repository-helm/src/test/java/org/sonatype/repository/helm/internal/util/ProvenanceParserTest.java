@@ -12,16 +12,24 @@
  */
 package org.sonatype.repository.helm.internal.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.repository.helm.HelmAttributes;
+import org.sonatype.repository.helm.internal.metadata.ChartProvenance;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.Is.is;
 
 public class ProvenanceParserTest
@@ -45,4 +53,47 @@ public class ProvenanceParserTest
     assertThat(attributes.getIcon(), is(equalTo("https://www.mysql.com/common/logos/logo-mysql-170x115.png")));
     assertThat(attributes.getAppVersion(), is(equalTo("5.7.27")));
   }
+
+  @Test
+  public void readProvSignatureAndFiles() throws Exception {
+    InputStream is = getClass().getResourceAsStream("mysql-1.4.0.tgz.prov");
+    ChartProvenance provenance = provenanceParser.read(is);
+
+    assertThat(provenance.getHashAlgorithm(), is("SHA512"));
+    assertThat(provenance.getFiles(),
+        hasEntry("mysql-1.4.0.tgz", "sha256:a2136b01250a14692974c4217876f655196f4b7941d273abd710fa1929d1fad4"));
+    assertThat(provenance.getSignedText(), startsWith("apiVersion: v1\n"));
+    assertThat(provenance.getSignedText(), endsWith("sha256:a2136b01250a14692974c4217876f655196f4b7941d273abd710fa1929d1fad4"));
+    assertThat(provenance.getSignature(), startsWith("-----BEGIN PGP SIGNATURE-----\n"));
+    assertThat(provenance.getSignature(), endsWith("-----END PGP SIGNATURE-----\n"));
+    assertThat(provenance.getAttributes().getKeywords(), contains("mysql", "database", "sql"));
+  }
+
+  @Test
+  public void parseIgnoresNestedNamesAndSignatureBlock() throws Exception {
+    String prov = "-----BEGIN PGP SIGNED MESSAGE-----\n" +
+        "Hash: SHA512\n" +
+        "\n" +
+        "maintainers:\n" +
+        "- - name: someone\n" +
+        "name: mychart\n" +
+        "version: 0.1.0\n" +
+        "...\n" +
+        "files:\n" +
+        "  mychart-0.1.0.tgz: sha256:00\n" +
+        "-----BEGIN PGP SIGNATURE-----\n" +
+        "name: not-the-chart\n" +
+        "-----END PGP SIGNATURE-----\n";
+    HelmAttributes attributes = provenanceParser.parse(new ByteArrayInputStream(prov.getBytes(UTF_8)));
+
+    assertThat(attributes.getName(), is("mychart"));
+    assertThat(attributes.getVersion(), is("0.1.0"));
+    assertThat(attributes.getDescription(), is(nullValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void parseRejectsOversizedProv() throws Exception {
+    InputStream is = getClass().getResourceAsStream("mysql-1.4.0.tgz.prov");
+    new ProvenanceParser(new YamlParser(), 256).parse(is);
+  }
 }
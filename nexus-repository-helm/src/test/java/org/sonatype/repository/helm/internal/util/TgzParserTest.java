@@ -14,14 +14,20 @@ package org.sonatype.repository.helm.internal.util;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Map;
 
 import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.util.TgzParser.ChartFile;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.Is.is;
 
 public class TgzParserTest
@@ -68,4 +74,39 @@ public class TgzParserTest
     InputStream is = getClass().getResourceAsStream("mysql_negative-1.4.0.tgz");
     underTest.getChartFromInputStream(is);
   }
+
+  @Test
+  public void getChartFilesReadsAllNamedFiles() throws Exception {
+    InputStream is = getClass().getResourceAsStream("mongodb-0.4.9.tgz");
+    Map<String, byte[]> files = underTest.getChartFilesFromInputStream(is, "Chart.yaml", "README.md");
+
+    assertThat(files.keySet(), containsInAnyOrder("Chart.yaml", "README.md"));
+  }
+
+  @Test
+  public void getChartFilesStopsOnceComplete() throws Exception {
+    InputStream is = getClass().getResourceAsStream("mongodb-0.4.9.tgz");
+    Map<String, byte[]> files =
+        underTest.getChartFilesFromInputStream(is, read -> read.containsKey("Chart.yaml"), "Chart.yaml", "README.md");
+
+    assertThat(files.keySet(), contains("Chart.yaml"));
+  }
+
+  @Test
+  public void openChartFile() throws Exception {
+    InputStream is = getClass().getResourceAsStream("mongodb-0.4.9.tgz");
+    try (ChartFile file = underTest.openChartFile(is, "values.yaml")) {
+      String fileContent = IOUtils.toString(new InputStreamReader(file.getInputStream()));
+
+      assertThat(file.getSize(), is(1218L));
+      assertThat(fileContent.length(), is(1218));
+      assertThat(fileContent, startsWith("## Bitnami MongoDB image version\n"));
+    }
+  }
+
+  @Test
+  public void openChartFileNotFound() throws Exception {
+    InputStream is = getClass().getResourceAsStream("mongodb-0.4.9.tgz");
+    assertThat(underTest.openChartFile(is, "charts/values.yaml"), is(nullValue()));
+  }
 }
@@ -0,0 +1,110 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.util;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class VersionConstraintTest
+    extends TestSupport
+{
+  @Test
+  public void testSemanticVersionPrecedence() {
+    assertThat(compare("1.0.0", "1.0.1"), lessThan(0));
+    assertThat(compare("1.10.0", "1.9.0"), greaterThan(0));
+    assertThat(compare("1.0.0-alpha", "1.0.0"), lessThan(0));
+    assertThat(compare("1.0.0-alpha", "1.0.0-alpha.1"), lessThan(0));
+    assertThat(compare("1.0.0-alpha.beta", "1.0.0-beta"), lessThan(0));
+    assertThat(compare("1.0.0-beta.2", "1.0.0-beta.11"), lessThan(0));
+    assertThat(compare("1.0.0-rc.1", "1.0.0"), lessThan(0));
+    assertThat(compare("v1.2", "1.2.0"), is(0));
+    assertThat(compare("1.2.3+build.1", "1.2.3"), is(0));
+  }
+
+  @Test
+  public void testInvalidSemanticVersion() {
+    assertThat(SemanticVersion.tryParse("latest"), is(nullValue()));
+    assertThat(SemanticVersion.tryParse(null), is(nullValue()));
+  }
+
+  @Test
+  public void testComparators() {
+    assertMatches(">= 1.2.0, < 1.5.0", "1.2.0", "1.4.9");
+    assertNoMatch(">= 1.2.0, < 1.5.0", "1.1.9", "1.5.0");
+    assertMatches(">=1.2.0 <1.5.0", "1.3.0");
+    assertMatches("!=1.2.0", "1.2.1");
+    assertNoMatch("!=1.2.0", "1.2.0");
+    assertMatches("1.2.3", "1.2.3");
+    assertNoMatch("1.2.3", "1.2.4");
+  }
+
+  @Test
+  public void testTildeAndCaret() {
+    assertMatches("~1.2.3", "1.2.3", "1.2.9");
+    assertNoMatch("~1.2.3", "1.3.0", "1.2.2");
+    assertMatches("~1", "1.0.0", "1.9.9");
+    assertNoMatch("~1", "2.0.0");
+    assertMatches("^1.2.3", "1.2.3", "1.9.0");
+    assertNoMatch("^1.2.3", "2.0.0", "1.2.2");
+    assertMatches("^0.2.3", "0.2.9");
+    assertNoMatch("^0.2.3", "0.3.0");
+  }
+
+  @Test
+  public void testWildcardsAndRanges() {
+    assertMatches("1.x", "1.0.0", "1.99.0");
+    assertNoMatch("1.x", "2.0.0");
+    assertMatches("*", "0.0.1", "10.0.0");
+    assertMatches("1.2 - 1.4.5", "1.2.0", "1.4.5");
+    assertNoMatch("1.2 - 1.4.5", "1.4.6");
+    assertMatches("1.0 - 2.0 || 3.x", "1.5.0", "2.0.5", "3.1.0");
+    assertNoMatch("1.0 - 2.0 || 3.x", "2.1.0", "4.0.0");
+  }
+
+  @Test
+  public void testPrereleasesOnlyMatchRangesMentioningThem() {
+    assertNoMatch(">=1.0.0", "1.1.0-beta.1");
+    assertMatches(">=1.1.0-alpha", "1.1.0-beta.1");
+    assertNoMatch(">=1.1.0-alpha", "1.2.0-beta.1");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidConstraint() {
+    VersionConstraint.parse(">= banana");
+  }
+
+  private static int compare(final String left, final String right) {
+    return SemanticVersion.parse(left).compareTo(SemanticVersion.parse(right));
+  }
+
+  private static void assertMatches(final String constraint, final String... versions) {
+    for (String version : versions) {
+      assertThat(constraint + " matches " + version,
+          VersionConstraint.parse(constraint).matches(SemanticVersion.parse(version)), is(true));
+    }
+  }
+
+  private static void assertNoMatch(final String constraint, final String... versions) {
+    for (String version : versions) {
+      assertThat(constraint + " does not match " + version,
+          VersionConstraint.parse(constraint).matches(SemanticVersion.parse(version)), is(false));
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.sonatype.goodies.testsupport.TestSupport;
 import org.sonatype.repository.helm.internal.HelmListTestHelper;
 import org.sonatype.repository.helm.internal.metadata.ChartEntry;
 import org.sonatype.repository.helm.internal.metadata.ChartIndex;
+import org.sonatype.repository.helm.internal.metadata.ChartIndexDelta;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.ByteArrayOutputStream;
@@ -65,6 +66,26 @@ public class YamlParserTest
     assertThat(helmYaml.get("sources"), is(equalTo(getSources())));
   }
 
+  @Test
+  public void testDeltaRoundTrip() throws Exception {
+    ChartIndex previous = createChartIndex();
+    previous.getEntries().remove("notmongdb");
+    ChartIndex next = createChartIndex();
+    next.getEntries().get("mongodb").remove(1);
+    ChartIndexDelta delta = ChartIndexDelta.between(4, 5, previous, next);
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    underTest.writeDelta(os, delta);
+    ChartIndexDelta read = underTest.loadDelta(os.toInputStream());
+
+    assertThat(read.getSince(), is(4L));
+    assertThat(read.getGeneration(), is(5L));
+    assertThat(read.getRemoved().get("mongodb").get(0), is("0.4.8"));
+    assertThat(read.getEntries().get("notmongdb").get(0).getVersion(), is("1.0.0"));
+    assertThat(read.getEntries().get("notmongdb").get(0).getCreated().getMillis(),
+        is(DateTime.parse("2018-08-13T22:05:33.023Z").getMillis()));
+  }
+
   @Test
   public void testWriteIndexYaml() throws Exception {
     InputStream expected = getClass().getResourceAsStream("indexresult.yaml");
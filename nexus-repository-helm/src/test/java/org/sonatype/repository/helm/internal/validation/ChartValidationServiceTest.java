@@ -0,0 +1,206 @@
+/*
+ * Sonatype Nexus (TM) Open Source Version
+ * Copyright (c) 2018-present Sonatype, Inc.
+ * All rights reserved. Includes the third-party code listed at http://links.sonatype.com/products/nexus/oss/attributions.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse Public License Version 1.0,
+ * which accompanies this distribution and is available at http://www.eclipse.org/legal/epl-v10.html.
+ *
+ * Sonatype Nexus (TM) Professional Version is available from Sonatype, Inc. "Sonatype" and "Sonatype Nexus" are trademarks
+ * of Sonatype, Inc. Apache Maven is a trademark of the Apache Software Foundation. M2eclipse is a trademark of the
+ * Eclipse Foundation. All other trademarks are the property of their respective owners.
+ */
+package org.sonatype.repository.helm.internal.validation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.repository.helm.internal.util.HelmAttributeParser;
+import org.sonatype.repository.helm.internal.util.ProvenanceParser;
+import org.sonatype.repository.helm.internal.util.TgzParser;
+import org.sonatype.repository.helm.internal.util.YamlParser;
+
+import com.google.common.base.Supplier;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ChartValidationServiceTest
+    extends TestSupport
+{
+  private static final String CHART_YAML = "apiVersion: v2\nname: mychart\nversion: 1.0.0\ntype: application\n";
+
+  private static final String DEPLOYMENT =
+      "{{- if .Values.enabled }}\nkind: Deployment\n{{- range .Values.ports }}\n- {{ . | quote }}\n{{- end }}\n" +
+          "{{- else }}\n# {{ \"}}\" }} disabled\n{{- end }}\n";
+
+  private final List<ChartValidationService> services = new ArrayList<>();
+
+  private ChartValidationService underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    underTest = service(1024, 1024);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    for (ChartValidationService service : services) {
+      service.stop();
+    }
+  }
+
+  @Test
+  public void testValidChartPasses() throws Exception {
+    ChartValidationResult result = validate("mychart-1.0.0.tgz", chart("mychart", CHART_YAML, DEPLOYMENT));
+
+    assertThat(result.isValid(), is(true));
+    assertThat(result.getWarnings(), is(empty()));
+    assertThat(result.toAttributes().get("status"), is(ChartValidationResult.PASSED));
+    assertThat(result.getAttributes().getName(), is("mychart"));
+    assertThat(result.getAttributes().getVersion(), is("1.0.0"));
+  }
+
+  @Test
+  public void testInvalidChartReportsEveryCheck() throws Exception {
+    String chartYaml = "apiVersion: v3\nname: mychart\nversion: one\nmaintainers:\n- email: a@example.com\n";
+    ChartValidationResult result = validate("mychart-1.0.0.tgz", chart("other", chartYaml, "{{ if .x }}\n{{ .y }"));
+
+    assertThat(checks(result), contains("chart-yaml", "chart-yaml", "file-name", "semver", "templates"));
+    assertThat(result.getWarnings().get(0).getCheck(), is("file-name"));
+    assertThat(result.getStatus(), is(ChartValidationResult.FAILED));
+  }
+
+  @Test
+  public void testMissingApiVersionIsOnlyAWarning() throws Exception {
+    ChartValidationResult result =
+        validate("mychart-1.0.0.tgz", chart("mychart", "name: mychart\nversion: 1.0.0\n", DEPLOYMENT));
+
+    assertThat(result.isValid(), is(true));
+    assertThat(result.getStatus(), is(ChartValidationResult.WARNINGS));
+    assertThat(result.toAttributes().get("warnings"), is(Arrays.asList("chart-yaml: apiVersion is missing")));
+  }
+
+  @Test
+  public void testSizeLimits() throws Exception {
+    underTest = service(1024, 64);
+    ChartValidationResult result = validate("mychart-1.0.0.tgz", chart("mychart", CHART_YAML, DEPLOYMENT));
+
+    assertThat(checks(result), contains("size"));
+    assertThat(result.getErrors().get(0).getMessage(), containsString("mychart/templates/deployment.yaml"));
+
+    underTest = service(128, 1024);
+    result = validate("mychart-1.0.0.tgz", chart("mychart", CHART_YAML, DEPLOYMENT));
+
+    assertThat(checks(result), contains("size"));
+  }
+
+  @Test
+  public void testNotAnArchive() throws Exception {
+    ChartValidationResult result = validate("mychart-1.0.0.tgz", "not a chart".getBytes(UTF_8));
+
+    assertThat(checks(result), contains("archive"));
+    assertThat(result.getAttributes(), is(nullValue()));
+  }
+
+  @Test
+  public void testResultsAreCachedByDigestAndFileName() throws Exception {
+    byte[] chart = chart("mychart", CHART_YAML, DEPLOYMENT);
+    HashCode sha256 = Hashing.sha256().hashBytes(chart);
+    AtomicInteger reads = new AtomicInteger();
+    Supplier<InputStream> content = () -> {
+      reads.incrementAndGet();
+      return new ByteArrayInputStream(chart);
+    };
+
+    ChartValidationResult first = underTest.validate("mychart-1.0.0.tgz", sha256, content);
+    ChartValidationResult second = underTest.validate("mychart-1.0.0.tgz", sha256, content);
+    ChartValidationResult renamed = underTest.validate("renamed.tgz", sha256, content);
+
+    assertThat(second == first, is(true));
+    assertThat(renamed.isValid(), is(false));
+    assertThat(reads.get(), is(2));
+  }
+
+  @Test
+  public void testTemplateParsing() {
+    assertThat(ChartTemplatesValidator.parse(DEPLOYMENT), is(nullValue()));
+    assertThat(ChartTemplatesValidator.parse("{{/* {{ if }} */}}\n{{ define \"x\" }}{{ end }}"), is(nullValue()));
+    assertThat(ChartTemplatesValidator.parse("a\n{{ if .x }}"), is("has {{ if }} at line 2 which is never ended"));
+    assertThat(ChartTemplatesValidator.parse("{{ end }}"), is("has {{ end }} at line 1 without a block to close"));
+    assertThat(ChartTemplatesValidator.parse("{{ define \"x\" }}{{ else }}{{ end }}"),
+        is("has {{ else }} at line 1 outside of if, range or with"));
+    assertThat(ChartTemplatesValidator.parse("{{ .x }\n"), is("has an action opened at line 1 which is never closed"));
+  }
+
+  @Test
+  public void testTrimmedCommentsAreSkipped() {
+    assertThat(ChartTemplatesValidator.parse("{{- /* Don't render */ -}}\n{{- if .x }}a{{ end }}"), is(nullValue()));
+    assertThat(ChartTemplatesValidator.parse("{{- /* {{ if }} */}}\n{{ if .x }}"),
+        is("has {{ if }} at line 2 which is never ended"));
+  }
+
+  private ChartValidationService service(final long maxUncompressedSize, final long maxFileSize) throws Exception {
+    YamlParser yamlParser = new YamlParser();
+    ChartValidationService service = new ChartValidationService(yamlParser,
+        new HelmAttributeParser(new TgzParser(), yamlParser, new ProvenanceParser()),
+        Arrays.asList(new ChartYamlValidator(), new ChartFileNameValidator(), new ChartVersionValidator(),
+            new ChartTemplatesValidator()),
+        true, 2, 100, 1024, maxUncompressedSize, maxFileSize);
+    service.start();
+    services.add(service);
+    return service;
+  }
+
+  private ChartValidationResult validate(final String fileName, final byte[] chart) throws IOException {
+    return underTest.validate(fileName, Hashing.sha256().hashBytes(chart), () -> new ByteArrayInputStream(chart));
+  }
+
+  private static byte[] chart(final String directory, final String chartYaml, final String template)
+      throws IOException
+  {
+    Map<String, String> files = new LinkedHashMap<>();
+    files.put(directory + "/Chart.yaml", chartYaml);
+    files.put(directory + "/templates/deployment.yaml", template);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(out))) {
+      for (Entry<String, String> file : files.entrySet()) {
+        byte[] content = file.getValue().getBytes(UTF_8);
+        TarArchiveEntry entry = new TarArchiveEntry(file.getKey());
+        entry.setSize(content.length);
+        tar.putArchiveEntry(entry);
+        tar.write(content);
+        tar.closeArchiveEntry();
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static List<String> checks(final ChartValidationResult result) {
+    return result.getErrors().stream().map(ChartProblem::getCheck).collect(Collectors.toList());
+  }
+}